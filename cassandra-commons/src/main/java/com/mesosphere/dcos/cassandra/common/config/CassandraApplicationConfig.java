@@ -197,9 +197,6 @@ public class CassandraApplicationConfig {
     );
   public static final String DEFAULT_SEEDS_URL = "https://cassandara.marathon.mesos:9000";
   public static final String DEFAULT_OTC_COALESCING_STRATEGY = "TIMEHORIZON";
-  public static final int DEFAULT_CONCURRENT_READS = 32;
-  public static final int DEFAULT_CONCURRENT_WRITES = 32;
-  public static final int DEFAULT_CONCURRENT_COUNTER_WRITES = 32;
   public static final String DEFAULT_MEMTABLE_ALLOCATION_TYPE = "heap_buffers";
   public static final Integer DEFAULT_INDEX_SUMMARY_CAPACITY_IN_MB = null;
   public static final int DEFAULT_INDEX_SUMMARY_RESIZE_INTERVAL_IN_MINUTES = 60;
@@ -271,11 +268,7 @@ public class CassandraApplicationConfig {
   public static final int DEFAULT_KEY_CACHE_KEYS_TO_SAVE = 100;
   public static final int DEFAULT_ROW_CACHE_KEYS_TO_SAVE = 100;
   public static final int DEFAULT_COUNTER_CACHE_KEYS_TO_SAVE = 100;
-  public static final int DEFAULT_FILE_CACHE_SIZE_IN_MB = 512;
-  public static final int DEFAULT_MEMTABLE_HEAP_SPACE_IN_MB = 2048;
-  public static final int DEFAULT_MEMTABLE_OFFHEAP_SPACE_IN_MB = 2048;
   public static final double DEFAULT_MEMTABLE_CLEANUP_THRESHOLD = 0.11;
-  public static final int DEFAULT_MEMTABLE_FLUSH_WRITERS = 8;
   public static final boolean DEFAULT_LISTEN_ON_BROADCAST_ADDRESS = false;
   public static final int DEFAULT_NATIVE_TRANSPORT_MAX_THREADS = 128;
   public static final int DEFAULT_NATIVE_TRANSPORT_MAX_FRAME_SIZE_IN_MB = 256;
@@ -285,14 +278,12 @@ public class CassandraApplicationConfig {
   public static final int DEFAULT_RPC_MAX_THREADS = 2048;
   public static final int DEFAULT_RPC_SEND_BUFF_SIZE_IN_BYTES = 16384;
   public static final int DEFAULT_RPC_RECV_BUFF_SIZE_IN_BYTES = 16384;
-  public static final int DEFAULT_CONCURRENT_COMPACTORS = 1;
   public static final int DEFAULT_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC = 200;
   public static final int DEFAULT_INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC = 200;
   public static final int DEFAULT_STREAMING_SOCKET_TIMEOUT_IN_MS = 86400000;
   public static final int DEFAULT_PHI_CONVICT_THRESHOLD = 8;
   public static final int DEFAULT_GC_WARN_THRESHOLD_IN_MS = 1000;
   public static final boolean DEFAULT_BUFFER_POOL_USE_HEAP_IF_EXHAUSTED = true;
-  public static final String DEFAULT_DISK_OPTIMIZATION_STRATEGY = "ssd";
   public static final int DEFAULT_UNLOGGED_BATCH_ACROSS_PARTITIONS_WARN_THRESHOLD =  10;
   public static final boolean  DEFAULT_ENABLE_SCRIPTED_USER_DEFINED_FUNCTIONS = false;
   public static final int  DEFAULT_MAX_VALUE_SIZE_IN_MB = 256;
@@ -393,9 +384,9 @@ public class CassandraApplicationConfig {
     @JsonProperty(COMMITLOG_SEGMENT_SIZE_IN_MB_KEY) final int commitlogSegmentSizeInMb,
     @JsonProperty(SEEDS_URL_KEY) final String seedsUrl,
     @JsonProperty(OTC_COALESCING_STRATEGY) final String otcCoalescingStrategy,
-    @JsonProperty(CONCURRENT_READS_KEY) final int concurrentReads,
-    @JsonProperty(CONCURRENT_WRITES_KEY) final int concurrentWrites,
-    @JsonProperty(CONCURRENT_COUNTER_WRITES_KEY) final int concurrentCounterWrites,
+    @JsonProperty(CONCURRENT_READS_KEY) final Integer concurrentReads,
+    @JsonProperty(CONCURRENT_WRITES_KEY) final Integer concurrentWrites,
+    @JsonProperty(CONCURRENT_COUNTER_WRITES_KEY) final Integer concurrentCounterWrites,
     @JsonProperty(MEMTABLE_ALLOCATION_TYPE_KEY) final String memtableAllocationType,
     @JsonProperty(INDEX_SUMMARY_CAPACITY_IN_MB_KEY) final Integer indexSummaryCapacityInMb,
     @JsonProperty(INDEX_SUMMARY_RESIZE_INTERVAL_IN_MINUTES_KEY) final int indexSummaryResizeIntervalInMinutes,
@@ -453,11 +444,11 @@ public class CassandraApplicationConfig {
     @JsonProperty(KEY_CACHE_KEYS_TO_SAVE_KEY) final int keyCacheKeysToSave,
     @JsonProperty(ROW_CACHE_KEYS_TO_SAVE_KEY) final int rowCacheKeysToSave,
     @JsonProperty(COUNTER_CACHE_KEYS_TO_SAVE_KEY) final int counterCacheKeysToSave,
-    @JsonProperty(FILE_CACHE_SIZE_IN_MB_KEY) final int fileCacheSizeInMb,
-    @JsonProperty(MEMTABLE_HEAP_SPACE_IN_MB_KEY) final int memtableHeapSpaceInMb,
-    @JsonProperty(MEMTABLE_OFFHEAP_SPACE_IN_MB_KEY) final int memtableOffheapSpaceInMb,
+    @JsonProperty(FILE_CACHE_SIZE_IN_MB_KEY) final Integer fileCacheSizeInMb,
+    @JsonProperty(MEMTABLE_HEAP_SPACE_IN_MB_KEY) final Integer memtableHeapSpaceInMb,
+    @JsonProperty(MEMTABLE_OFFHEAP_SPACE_IN_MB_KEY) final Integer memtableOffheapSpaceInMb,
     @JsonProperty(MEMTABLE_CLEANUP_THRESHOLD_KEY) final double metableCleanupThreshold,
-    @JsonProperty(MEMTABLE_FLUSH_WRITERS_KEY) final int memtableFlushWritersKey,
+    @JsonProperty(MEMTABLE_FLUSH_WRITERS_KEY) final Integer memtableFlushWritersKey,
     @JsonProperty(LISTEN_ON_BROADCAST_ADDRESS_KEY) final boolean listenOnBroadcastAddress,
     @JsonProperty(NATIVE_TRANSPORT_MAX_THREADS_KEY) final int nativeTransportMaxThreads,
     @JsonProperty(NATIVE_TRANSPORT_MAX_FRAME_SIZE_IN_MB_KEY) final int nativeTransportMaxFrameSizeInMb,
@@ -467,7 +458,7 @@ public class CassandraApplicationConfig {
     @JsonProperty(RPC_MAX_THREADS_KEY) final int rpcMaxThreads,
     @JsonProperty(RPC_SEND_BUFF_SIZE_IN_BYTES_KEY) final int rpcSendBuffSizeInBytes,
     @JsonProperty(RPC_RECV_BUFF_SIZE_IN_BYTES_KEY) final int rpcRecvBuffSizeInBytes,
-    @JsonProperty(CONCURRENT_COMPACTORS_KEY) final int concurrentCompactors,
+    @JsonProperty(CONCURRENT_COMPACTORS_KEY) final Integer concurrentCompactors,
     @JsonProperty(STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY) final int streamThroughputOutboundMegabitsPerSec,
     @JsonProperty(INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY) final int interDcStreamThroughputOutboundMegabitsPerSec,
     @JsonProperty(STREAMING_SOCKET_TIMEOUT_IN_MS_KEY) final int streamingSocketTimeoutInMs,
@@ -649,11 +640,11 @@ public class CassandraApplicationConfig {
   @JsonProperty(OTC_COALESCING_STRATEGY)
   private final String otcCoalescingStrategy;
   @JsonProperty(CONCURRENT_READS_KEY)
-  private final int concurrentReads;
+  private final Integer concurrentReads;
   @JsonProperty(CONCURRENT_WRITES_KEY)
-  private final int concurrentWrites;
+  private final Integer concurrentWrites;
   @JsonProperty(CONCURRENT_COUNTER_WRITES_KEY)
-  private final int concurrentCounterWrites;
+  private final Integer concurrentCounterWrites;
   @JsonProperty(MEMTABLE_ALLOCATION_TYPE_KEY)
   private final String memtableAllocationType;
   @JsonProperty(INDEX_SUMMARY_CAPACITY_IN_MB_KEY)
@@ -768,15 +759,15 @@ public class CassandraApplicationConfig {
   @JsonProperty(COUNTER_CACHE_KEYS_TO_SAVE_KEY)
   private final int counterCacheKeysToSave;
   @JsonProperty(FILE_CACHE_SIZE_IN_MB_KEY)
-  private final int fileCacheSizeInMb;
+  private final Integer fileCacheSizeInMb;
   @JsonProperty(MEMTABLE_HEAP_SPACE_IN_MB_KEY)
-  private final int memtableHeapSpaceInMb;
+  private final Integer memtableHeapSpaceInMb;
   @JsonProperty(MEMTABLE_OFFHEAP_SPACE_IN_MB_KEY)
-  private final int memtableOffheapSpaceInMb;
+  private final Integer memtableOffheapSpaceInMb;
   @JsonProperty(MEMTABLE_CLEANUP_THRESHOLD_KEY)
   private final double metableCleanupThreshold;
   @JsonProperty(MEMTABLE_FLUSH_WRITERS_KEY)
-  private final int memtableFlushWritersKey;
+  private final Integer memtableFlushWritersKey;
   @JsonProperty(LISTEN_ON_BROADCAST_ADDRESS_KEY)
   private final boolean listenOnBroadcastAddress;
   @JsonProperty(NATIVE_TRANSPORT_MAX_THREADS_KEY)
@@ -796,7 +787,7 @@ public class CassandraApplicationConfig {
   @JsonProperty(RPC_RECV_BUFF_SIZE_IN_BYTES_KEY)
   private final int rpcRecvBuffSizeInBytes;
   @JsonProperty(CONCURRENT_COMPACTORS_KEY)
-  private final int concurrentCompactors;
+  private final Integer concurrentCompactors;
   @JsonProperty(STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY)
   private final int streamThroughputOutboundMegabitsPerSec;
   @JsonProperty(INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY)
@@ -845,9 +836,9 @@ public class CassandraApplicationConfig {
     int commitlogSegmentSizeInMb,
     String seedsUrl,
     String otcCoalescingStrategy,
-    int concurrentReads,
-    int concurrentWrites,
-    int concurrentCounterWrites,
+    Integer concurrentReads,
+    Integer concurrentWrites,
+    Integer concurrentCounterWrites,
     String memtableAllocationType,
     Integer indexSummaryCapacityInMb,
     int indexSummaryResizeIntervalInMinutes,
@@ -904,11 +895,11 @@ public class CassandraApplicationConfig {
     final int keyCacheKeysToSave,
     final int rowCacheKeysToSave,
     final int counterCacheKeysToSave,
-    final int fileCacheSizeInMb,
-    final int memtableHeapSpaceInMb,
-    final int memtableOffheapSpaceInMb,
+    final Integer fileCacheSizeInMb,
+    final Integer memtableHeapSpaceInMb,
+    final Integer memtableOffheapSpaceInMb,
     final double metableCleanupThreshold,
-    final int memtableFlushWritersKey,
+    final Integer memtableFlushWritersKey,
     final boolean listenOnBroadcastAddress,
     final int nativeTransportMaxThreads,
     final int nativeTransportMaxFrameSizeInMb,
@@ -918,7 +909,7 @@ public class CassandraApplicationConfig {
     final int rpcMaxThreads,
     final int rpcSendBuffSizeInBytes,
     final int rpcRecvBuffSizeInBytes,
-    final int concurrentCompactors,
+    final Integer concurrentCompactors,
     final int streamThroughputOutboundMegabitsPerSec,
     final int interDcStreamThroughputOutboundMegabitsPerSec,
     final int streamingSocketTimeoutInMs,
@@ -1179,15 +1170,15 @@ public class CassandraApplicationConfig {
     return commitlogSegmentSizeInMb;
   }
 
-  public int getConcurrentReads() {
+  public Integer getConcurrentReads() {
     return concurrentReads;
   }
 
-  public int getConcurrentWrites() {
+  public Integer getConcurrentWrites() {
     return concurrentWrites;
   }
 
-  public int getConcurrentCounterWrites() {
+  public Integer getConcurrentCounterWrites() {
     return concurrentCounterWrites;
   }
 
@@ -1380,15 +1371,15 @@ public class CassandraApplicationConfig {
     return counterCacheKeysToSave;
   }
 
-  public int getFileCacheSizeInMb() {
+  public Integer getFileCacheSizeInMb() {
     return fileCacheSizeInMb;
   }
 
-  public int getMemtableHeapSpaceInMb() {
+  public Integer getMemtableHeapSpaceInMb() {
     return memtableHeapSpaceInMb;
   }
 
-  public int getMemtableOffheapSpaceInMb() {
+  public Integer getMemtableOffheapSpaceInMb() {
     return memtableOffheapSpaceInMb;
   }
 
@@ -1396,7 +1387,7 @@ public class CassandraApplicationConfig {
     return metableCleanupThreshold;
   }
 
-  public int getMemtableFlushWritersKey() {
+  public Integer getMemtableFlushWritersKey() {
     return memtableFlushWritersKey;
   }
 
@@ -1436,7 +1427,7 @@ public class CassandraApplicationConfig {
     return rpcRecvBuffSizeInBytes;
   }
 
-  public int getConcurrentCompactors() {
+  public Integer getConcurrentCompactors() {
     return concurrentCompactors;
   }
 
@@ -1658,9 +1649,9 @@ public class CassandraApplicationConfig {
       getCounterCacheSavePeriod() == that.getCounterCacheSavePeriod() &&
       getCommitlogSyncPeriodInMs() == that.getCommitlogSyncPeriodInMs() &&
       getCommitlogSegmentSizeInMb() == that.getCommitlogSegmentSizeInMb() &&
-      getConcurrentReads() == that.getConcurrentReads() &&
-      getConcurrentWrites() == that.getConcurrentWrites() &&
-      getConcurrentCounterWrites() == that.getConcurrentCounterWrites() &&
+      Objects.equals(getConcurrentReads(), that.getConcurrentReads()) &&
+      Objects.equals(getConcurrentWrites(), that.getConcurrentWrites()) &&
+      Objects.equals(getConcurrentCounterWrites(), that.getConcurrentCounterWrites()) &&
       getIndexSummaryResizeIntervalInMinutes() == that.getIndexSummaryResizeIntervalInMinutes() &&
       isTrickleFsync() == that.isTrickleFsync() &&
       getTrickleFsyncIntervalInKb() == that.getTrickleFsyncIntervalInKb() &&
@@ -1705,12 +1696,12 @@ public class CassandraApplicationConfig {
       getKeyCacheKeysToSave() == that.getKeyCacheKeysToSave() &&
       getRowCacheKeysToSave() == that.getRowCacheKeysToSave() &&
       getCounterCacheKeysToSave() == that.getCounterCacheKeysToSave() &&
-      getFileCacheSizeInMb() == that.getFileCacheSizeInMb() &&
-      getMemtableHeapSpaceInMb() == that.getMemtableHeapSpaceInMb() &&
-      getMemtableOffheapSpaceInMb() == that.getMemtableOffheapSpaceInMb() &&
+      Objects.equals(getFileCacheSizeInMb(), that.getFileCacheSizeInMb()) &&
+      Objects.equals(getMemtableHeapSpaceInMb(), that.getMemtableHeapSpaceInMb()) &&
+      Objects.equals(getMemtableOffheapSpaceInMb(), that.getMemtableOffheapSpaceInMb()) &&
       getMetableCleanupThreshold() == that.getMetableCleanupThreshold() &&
       getCommitlogTotalSpaceInMb() == that.getCommitlogTotalSpaceInMb() &&
-      getMemtableFlushWritersKey() == that.getMemtableFlushWritersKey() &&
+      Objects.equals(getMemtableFlushWritersKey(), that.getMemtableFlushWritersKey()) &&
       getListenOnBroadcastAddress() == that.getListenOnBroadcastAddress() &&
       getNativeTransportMaxThreads() == that.getNativeTransportMaxThreads() &&
       getNativeTransportMaxFrameSizeInMb() == that.getNativeTransportMaxFrameSizeInMb() &&
@@ -1720,7 +1711,7 @@ public class CassandraApplicationConfig {
       getRpcMaxThreads() == that.getRpcMaxThreads() &&
       getRpcSendBuffSizeInBytes() == that.getRpcSendBuffSizeInBytes() &&
       getRpcRecvBuffSizeInBytes() == that.getRpcRecvBuffSizeInBytes() &&
-      getConcurrentCompactors() == that.getConcurrentCompactors() &&
+      Objects.equals(getConcurrentCompactors(), that.getConcurrentCompactors()) &&
       getStreamThroughputOutboundMegabitsPerSec() == that.getStreamThroughputOutboundMegabitsPerSec() &&
       getInterDcStreamThroughputOutboundMegabitsPerSec() == that.getInterDcStreamThroughputOutboundMegabitsPerSec() &&
       getStreamingSocketTimeoutInMs() == that.getStreamingSocketTimeoutInMs() &&
@@ -1864,9 +1855,9 @@ public class CassandraApplicationConfig {
     private int commitlogSegmentSizeInMb;
     private String seedsUrl;
     private String otcCoalescingStrategy;
-    private int concurrentReads;
-    private int concurrentWrites;
-    private int concurrentCounterWrites;
+    private Integer concurrentReads;
+    private Integer concurrentWrites;
+    private Integer concurrentCounterWrites;
     private String memtableAllocationType;
     private Integer indexSummaryCapacityInMb;
     private int indexSummaryResizeIntervalInMinutes;
@@ -1923,11 +1914,11 @@ public class CassandraApplicationConfig {
     private int keyCacheKeysToSave;
     private int rowCacheKeysToSave;
     private int counterCacheKeysToSave;
-    private int fileCacheSizeInMb;
-    private int memtableHeapSpaceInMb;
-    private int memtableOffheapSpaceInMb;
+    private Integer fileCacheSizeInMb;
+    private Integer memtableHeapSpaceInMb;
+    private Integer memtableOffheapSpaceInMb;
     private double metableCleanupThreshold;
-    private int memtableFlushWritersKey;
+    private Integer memtableFlushWritersKey;
     private boolean listenOnBroadcastAddress;
     private int nativeTransportMaxThreads;
     private int nativeTransportMaxFrameSizeInMb;
@@ -1937,7 +1928,7 @@ public class CassandraApplicationConfig {
     private int rpcMaxThreads;
     private int rpcSendBuffSizeInBytes;
     private int rpcRecvBuffSizeInBytes;
-    private int concurrentCompactors;
+    private Integer concurrentCompactors;
     private int streamThroughputOutboundMegabitsPerSec;
     private int interDcStreamThroughputOutboundMegabitsPerSec;
     private int streamingSocketTimeoutInMs;
@@ -1975,9 +1966,9 @@ public class CassandraApplicationConfig {
       commitlogSync = DEFAULT_COMMITLOG_SYNC;
       commitlogSyncPeriodInMs = DEFAULT_COMMITLOG_SYNC_PERIOD_IN_MS;
       commitlogSegmentSizeInMb = DEFAULT_COMMITLOG_SEGMENT_SIZE_IN_MB;
-      concurrentReads = DEFAULT_CONCURRENT_READS;
-      concurrentWrites = DEFAULT_CONCURRENT_WRITES;
-      concurrentCounterWrites = DEFAULT_CONCURRENT_COUNTER_WRITES;
+      concurrentReads = null;
+      concurrentWrites = null;
+      concurrentCounterWrites = null;
       memtableAllocationType = DEFAULT_MEMTABLE_ALLOCATION_TYPE;
       indexSummaryCapacityInMb = DEFAULT_INDEX_SUMMARY_CAPACITY_IN_MB;
       indexSummaryResizeIntervalInMinutes = DEFAULT_INDEX_SUMMARY_RESIZE_INTERVAL_IN_MINUTES;
@@ -2037,11 +2028,11 @@ public class CassandraApplicationConfig {
       keyCacheKeysToSave = DEFAULT_KEY_CACHE_KEYS_TO_SAVE;
       rowCacheKeysToSave = DEFAULT_ROW_CACHE_KEYS_TO_SAVE;
       counterCacheKeysToSave = DEFAULT_COUNTER_CACHE_KEYS_TO_SAVE;
-      fileCacheSizeInMb = DEFAULT_FILE_CACHE_SIZE_IN_MB;
-      memtableHeapSpaceInMb = DEFAULT_MEMTABLE_HEAP_SPACE_IN_MB;
-      memtableOffheapSpaceInMb = DEFAULT_MEMTABLE_OFFHEAP_SPACE_IN_MB;
+      fileCacheSizeInMb = null;
+      memtableHeapSpaceInMb = null;
+      memtableOffheapSpaceInMb = null;
       metableCleanupThreshold = DEFAULT_MEMTABLE_CLEANUP_THRESHOLD;
-      memtableFlushWritersKey = DEFAULT_MEMTABLE_FLUSH_WRITERS;
+      memtableFlushWritersKey = null;
       listenOnBroadcastAddress = DEFAULT_LISTEN_ON_BROADCAST_ADDRESS;
       nativeTransportMaxThreads = DEFAULT_NATIVE_TRANSPORT_MAX_THREADS;
       nativeTransportMaxFrameSizeInMb = DEFAULT_NATIVE_TRANSPORT_MAX_FRAME_SIZE_IN_MB;
@@ -2051,14 +2042,14 @@ public class CassandraApplicationConfig {
       rpcMaxThreads = DEFAULT_RPC_MAX_THREADS;
       rpcSendBuffSizeInBytes = DEFAULT_RPC_SEND_BUFF_SIZE_IN_BYTES;
       rpcRecvBuffSizeInBytes = DEFAULT_RPC_RECV_BUFF_SIZE_IN_BYTES;
-      concurrentCompactors = DEFAULT_CONCURRENT_COMPACTORS;
+      concurrentCompactors = null;
       streamThroughputOutboundMegabitsPerSec = DEFAULT_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC;
       interDcStreamThroughputOutboundMegabitsPerSec = DEFAULT_INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC;
       streamingSocketTimeoutInMs = DEFAULT_STREAMING_SOCKET_TIMEOUT_IN_MS;
       phiConvictThreshold = DEFAULT_PHI_CONVICT_THRESHOLD;
       gcWarnThresholdInMs = DEFAULT_GC_WARN_THRESHOLD_IN_MS;
       bufferPoolUseHeapIfExhausted = DEFAULT_BUFFER_POOL_USE_HEAP_IF_EXHAUSTED;
-      diskOptimizationStrategy = DEFAULT_DISK_OPTIMIZATION_STRATEGY;
+      diskOptimizationStrategy = null;
       unloggedBatchAcrossPartitionsWarnThreshold = DEFAULT_UNLOGGED_BATCH_ACROSS_PARTITIONS_WARN_THRESHOLD;
       streamingSocketTimeoutInMs = DEFAULT_STREAMING_SOCKET_TIMEOUT_IN_MS;
       enableScriptedUserDefinedFunctions = DEFAULT_ENABLE_SCRIPTED_USER_DEFINED_FUNCTIONS;
@@ -2283,15 +2274,15 @@ public class CassandraApplicationConfig {
       return otcCoalescingStrategy;
     }
 
-    public int getConcurrentReads() {
+    public Integer getConcurrentReads() {
       return concurrentReads;
     }
 
-    public int getConcurrentWrites() {
+    public Integer getConcurrentWrites() {
       return concurrentWrites;
     }
 
-    public int getConcurrentCounterWrites() {
+    public Integer getConcurrentCounterWrites() {
       return concurrentCounterWrites;
     }
 
@@ -2629,17 +2620,17 @@ public class CassandraApplicationConfig {
       return this;
     }
 
-    public Builder setConcurrentReads(int concurrentReads) {
+    public Builder setConcurrentReads(Integer concurrentReads) {
       this.concurrentReads = concurrentReads;
       return this;
     }
 
-    public Builder setConcurrentWrites(int concurrentWrites) {
+    public Builder setConcurrentWrites(Integer concurrentWrites) {
       this.concurrentWrites = concurrentWrites;
       return this;
     }
 
-    public Builder setConcurrentCounterWrites(int concurrentCounterWrites) {
+    public Builder setConcurrentCounterWrites(Integer concurrentCounterWrites) {
       this.concurrentCounterWrites = concurrentCounterWrites;
       return this;
     }
@@ -2899,6 +2890,36 @@ public class CassandraApplicationConfig {
       return this;
     }
 
+    public Builder setFileCacheSizeInMb(Integer fileCacheSizeInMb) {
+      this.fileCacheSizeInMb = fileCacheSizeInMb;
+      return this;
+    }
+
+    public Builder setMemtableHeapSpaceInMb(Integer memtableHeapSpaceInMb) {
+      this.memtableHeapSpaceInMb = memtableHeapSpaceInMb;
+      return this;
+    }
+
+    public Builder setMemtableOffheapSpaceInMb(Integer memtableOffheapSpaceInMb) {
+      this.memtableOffheapSpaceInMb = memtableOffheapSpaceInMb;
+      return this;
+    }
+
+    public Builder setMemtableFlushWriters(Integer memtableFlushWriters) {
+      this.memtableFlushWritersKey = memtableFlushWriters;
+      return this;
+    }
+
+    public Builder setConcurrentCompactors(Integer concurrentCompactors) {
+      this.concurrentCompactors = concurrentCompactors;
+      return this;
+    }
+
+    public Builder setDiskOptimizationStrategy(String diskOptimizationStrategy) {
+      this.diskOptimizationStrategy = diskOptimizationStrategy;
+      return this;
+    }
+
     public CassandraApplicationConfig build() {
 
       return create(clusterName,
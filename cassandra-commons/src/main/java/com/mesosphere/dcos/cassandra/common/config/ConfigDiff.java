@@ -0,0 +1,230 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskExecutor;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig.*;
+
+/**
+ * ConfigDiff is the difference between the configuration of a Cassandra
+ * node and a target configuration. Each changed setting is classified as
+ * hot-applicable, if the daemon can change it over JMX while it runs, or as
+ * restart-required. A node whose changes are all hot-applicable can be
+ * brought to the target configuration without restarting it.
+ */
+public class ConfigDiff {
+
+    /**
+     * The keys of the application configuration that the executor can apply
+     * to a running daemon.
+     */
+    public static final Set<String> HOT_APPLICABLE_KEYS = ImmutableSet.of(
+            COMPACTION_THROUGHPUT_MB_PER_SEC_KEY,
+            STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY,
+            INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY,
+            HINTED_HANDOFF_ENABLED_KEY,
+            HINTED_HANDOFF_THROTTLE_IN_KB_KEY,
+            MAX_HINT_WINDOW_IN_MS_KEY,
+            TOMBSTONE_WARN_THRESHOLD_KEY,
+            TOMBSTONE_FAILURE_THRESHOLD_KEY,
+            REQUEST_TIMEOUT_IN_MS_KEY,
+            READ_REQUEST_TIMEOUT_IN_MS_KEY,
+            RANGE_REQUEST_TIMEOUT_IN_MS_KEY,
+            WRITE_REQUEST_TIMEOUT_IN_MS_KEY,
+            COUNTER_WRITE_REQUEST_TIMEOUT_IN_MS_KEY,
+            CAS_CONTENTION_TIMEOUT_IN_MS_KEY,
+            TRUNCATE_REQUEST_TIMEOUT_IN_MS_KEY,
+            INCREMENTAL_BACKUPS_KEY,
+            KEY_CACHE_SIZE_IN_MB_KEY,
+            KEY_CACHE_SAVE_PERIOD_KEY,
+            KEY_CACHE_KEYS_TO_SAVE_KEY,
+            ROW_CACHE_SIZE_IN_MB_KEY,
+            ROW_CACHE_SAVE_PERIOD_KEY,
+            ROW_CACHE_KEYS_TO_SAVE_KEY,
+            COUNTER_CACHE_SIZE_IN_MB_KEY,
+            COUNTER_CACHE_SAVE_PERIOD_KEY,
+            COUNTER_CACHE_KEYS_TO_SAVE_KEY,
+            PHI_CONVICT_THRESHOLD_KEY);
+
+    /**
+     * The name of the restart-required change of the executor.
+     */
+    public static final String EXECUTOR = "executor";
+
+    /**
+     * Gets the difference between the configuration of a node and the
+     * target configuration.
+     *
+     * @param task           The daemon task of the node.
+     * @param target         The target configuration of the nodes.
+     * @param targetExecutor The target configuration of the executors.
+     * @return The changes to bring the node to the target configuration.
+     */
+    public static ConfigDiff create(final CassandraDaemonTask task,
+                                    final CassandraConfig target,
+                                    final ExecutorConfig targetExecutor) {
+        return create(task.getConfig(), target,
+                !matches(task.getExecutor(), targetExecutor));
+    }
+
+    /**
+     * Gets the difference between two configurations of a node.
+     *
+     * @param current         The configuration of the node.
+     * @param target          The target configuration.
+     * @param executorChanged True if the executor of the node must change.
+     * @return The changes to bring the node to the target configuration.
+     */
+    public static ConfigDiff create(final CassandraConfig current,
+                                    final CassandraConfig target,
+                                    final boolean executorChanged) {
+        final SortedMap<String, Object> hot = new TreeMap<>();
+        final SortedSet<String> restart = new TreeSet<>();
+        if (executorChanged) {
+            restart.add(EXECUTOR);
+        }
+        compare(restart, "version", current.getVersion(),
+                target.getVersion());
+        compare(restart, "cpus", current.getCpus(), target.getCpus());
+        compare(restart, "memory_mb", current.getMemoryMb(),
+                target.getMemoryMb());
+        compare(restart, "disk_mb", current.getDiskMb(), target.getDiskMb());
+        compare(restart, "disk_type", current.getDiskType(),
+                target.getDiskType());
+        compare(restart, "heap", current.getHeap(), target.getHeap());
+        compare(restart, "location", current.getLocation(),
+                target.getLocation());
+        compare(restart, "jmx_port", current.getJmxPort(),
+                target.getJmxPort());
+        compare(restart, "publish_discovery_info",
+                current.getPublishDiscoveryInfo(),
+                target.getPublishDiscoveryInfo());
+        compare(restart, "rolling_restart_name",
+                current.getRollingRestartName(),
+                target.getRollingRestartName());
+        // The replace ip only matters when a node first joins the ring.
+
+        final Map<String, Object> currentApplication =
+                current.getApplication().toMap();
+        final Map<String, Object> targetApplication =
+                target.getApplication().toMap();
+        final Set<String> keys = new HashSet<>(currentApplication.keySet());
+        keys.addAll(targetApplication.keySet());
+        for (String key : keys) {
+            final Object value = targetApplication.get(key);
+            if (Objects.equals(currentApplication.get(key), value)) {
+                continue;
+            }
+            // A null value selects a default that the daemon computes at
+            // startup, e.g. the automatic key cache size.
+            if (HOT_APPLICABLE_KEYS.contains(key) && value != null) {
+                hot.put(key, value);
+            } else {
+                restart.add(key);
+            }
+        }
+        return new ConfigDiff(hot, restart);
+    }
+
+    private static void compare(final Set<String> restart,
+                                final String name,
+                                final Object current,
+                                final Object target) {
+        if (!Objects.equals(current, target)) {
+            restart.add(name);
+        }
+    }
+
+    private static boolean matches(final CassandraTaskExecutor executor,
+                                   final ExecutorConfig config) {
+        return executor.matches(config) &&
+                executor.getApiPort() == config.getApiPort() &&
+                executor.getMemoryMb() == config.getMemoryMb() &&
+                Objects.equals(executor.getJavaHome(), config.getJavaHome());
+    }
+
+    @JsonProperty("hot_applicable")
+    private final SortedMap<String, Object> hotApplicable;
+    @JsonProperty("restart_required")
+    private final SortedSet<String> restartRequired;
+
+    private ConfigDiff(final SortedMap<String, Object> hotApplicable,
+                       final SortedSet<String> restartRequired) {
+        this.hotApplicable = hotApplicable;
+        this.restartRequired = restartRequired;
+    }
+
+    /**
+     * @return The hot-applicable settings that changed, with their target
+     * values.
+     */
+    public Map<String, Object> getHotApplicable() {
+        return Collections.unmodifiableMap(hotApplicable);
+    }
+
+    /**
+     * @return The settings that changed and require a restart of the node.
+     */
+    public Set<String> getRestartRequired() {
+        return Collections.unmodifiableSet(restartRequired);
+    }
+
+    /**
+     * @return True if the node can reach the target configuration without
+     * a restart.
+     */
+    public boolean isHotApplicable() {
+        return restartRequired.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return hotApplicable.isEmpty() && restartRequired.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConfigDiff)) return false;
+        ConfigDiff that = (ConfigDiff) o;
+        return Objects.equals(hotApplicable, that.hotApplicable) &&
+                Objects.equals(restartRequired, that.restartRequired);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hotApplicable, restartRequired);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
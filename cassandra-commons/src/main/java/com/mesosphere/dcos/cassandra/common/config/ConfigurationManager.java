@@ -116,6 +116,19 @@ public class ConfigurationManager implements Managed {
                 getTargetConfigName());
     }
 
+    public ConfigDiff getConfigDiff(final CassandraDaemonTask task) throws ConfigStoreException {
+        return ConfigDiff.create(
+                task,
+                getTargetConfig().getCassandraConfig(),
+                getTargetConfig().getExecutorConfig());
+    }
+
+    public CassandraDaemonTask applyConfig(final CassandraDaemonTask task) throws ConfigStoreException {
+        return task.applyConfig(
+                getTargetConfig().getCassandraConfig(),
+                getTargetConfigName());
+    }
+
     public CassandraSchedulerConfiguration getTargetConfig() throws ConfigStoreException {
         return ((CassandraSchedulerConfiguration)configurationManager.getTargetConfig());
     }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.metrics;
+
+/**
+ * LatencyHistogram merges the latency histograms of several nodes. Every
+ * Cassandra node counts latencies in the buckets of an EstimatedHistogram
+ * with the same offsets, which grow by 20% from one bucket to the next, so
+ * the histograms of nodes merge exactly by adding their counts, and the
+ * percentiles of the merged histogram are those of all the requests of the
+ * nodes, within the 20% precision of the buckets. Averaging the percentiles
+ * of nodes instead would hide a slow node behind fast ones. The percentiles
+ * are in the unit of the histograms, nanoseconds for the latency timers of
+ * Cassandra.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets of the histograms of Cassandra, excluding the
+     * overflow bucket.
+     */
+    public static final int BUCKETS = 164;
+
+    private static final long[] OFFSETS = offsets(BUCKETS);
+
+    /**
+     * Computes the bucket offsets of a Cassandra EstimatedHistogram that
+     * does not count zeroes.
+     *
+     * @param size The number of buckets.
+     * @return The upper bound of each bucket.
+     */
+    public static long[] offsets(final int size) {
+        final long[] offsets = new long[size];
+        long last = 1;
+        offsets[0] = last;
+        for (int i = 1; i < size; i++) {
+            long next = Math.round(last * 1.2);
+            if (next == last) {
+                next++;
+            }
+            offsets[i] = next;
+            last = next;
+        }
+        return offsets;
+    }
+
+    private final long[] counts = new long[BUCKETS + 1];
+    private long count = 0;
+
+    /**
+     * Adds the histogram of a node.
+     *
+     * @param buckets The bucket counts of the node, including the overflow
+     *                bucket.
+     * @return True if the buckets were added, false if they do not have the
+     * layout of a Cassandra histogram.
+     */
+    public boolean add(final long[] buckets) {
+        if (buckets == null || buckets.length != counts.length) {
+            return false;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] += buckets[i];
+            count += buckets[i];
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of latencies in the histogram.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets a percentile of the latencies.
+     *
+     * @param percentile The percentile, between 0 and 1.
+     * @return The upper bound of the bucket that contains the percentile,
+     * the largest offset if it is in the overflow bucket, or 0 if the
+     * histogram is empty.
+     */
+    public long percentile(final double percentile) {
+        final long rank = (long) Math.ceil(count * percentile);
+        if (rank <= 0) {
+            return 0;
+        }
+        long seen = 0;
+        for (int i = 0; i < OFFSETS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return OFFSETS[i];
+            }
+        }
+        return OFFSETS[OFFSETS.length - 1];
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.metrics;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * NodeMetrics is a snapshot of the performance metrics of a Cassandra node,
+ * collected by its executor from the metrics MBeans of the daemon and the
+ * garbage collector MBeans of its JVM. Counters are totals since the daemon
+ * started, gauges are the values at the time of collection.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NodeMetrics {
+
+    /**
+     * The latency of the client requests of one kind, in microseconds.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Latency {
+        @JsonProperty("count")
+        private final long count;
+        @JsonProperty("timeouts")
+        private final long timeouts;
+        @JsonProperty("unavailables")
+        private final long unavailables;
+        @JsonProperty("one_minute_rate")
+        private final double oneMinuteRate;
+        @JsonProperty("mean")
+        private final double mean;
+        @JsonProperty("p50")
+        private final double p50;
+        @JsonProperty("p95")
+        private final double p95;
+        @JsonProperty("p99")
+        private final double p99;
+        @JsonProperty("p999")
+        private final double p999;
+        @JsonProperty("max")
+        private final double max;
+        @JsonProperty("buckets")
+        private final long[] buckets;
+
+        /**
+         * Creates the latency of a kind of request.
+         *
+         * @param count         The number of requests.
+         * @param timeouts      The number of requests that timed out.
+         * @param unavailables  The number of requests that failed for lack
+         *                      of replicas.
+         * @param oneMinuteRate The requests per second over the last minute.
+         * @param mean          The mean latency.
+         * @param p50           The median latency.
+         * @param p95           The 95th percentile of the latency.
+         * @param p99           The 99th percentile of the latency.
+         * @param p999          The 99.9th percentile of the latency.
+         * @param max           The maximum latency.
+         * @param buckets       The recent counts of the latency histogram of
+         *                      the node. Bucket i counts latencies up to the
+         *                      i-th offset of a Cassandra EstimatedHistogram
+         *                      of 164 buckets, and the last bucket counts
+         *                      greater latencies. Empty if the daemon does
+         *                      not expose them.
+         * @return The latency of the requests.
+         */
+        @JsonCreator
+        public static Latency create(
+                @JsonProperty("count") final long count,
+                @JsonProperty("timeouts") final long timeouts,
+                @JsonProperty("unavailables") final long unavailables,
+                @JsonProperty("one_minute_rate") final double oneMinuteRate,
+                @JsonProperty("mean") final double mean,
+                @JsonProperty("p50") final double p50,
+                @JsonProperty("p95") final double p95,
+                @JsonProperty("p99") final double p99,
+                @JsonProperty("p999") final double p999,
+                @JsonProperty("max") final double max,
+                @JsonProperty("buckets") final long[] buckets) {
+            return new Latency(count, timeouts, unavailables, oneMinuteRate,
+                    mean, p50, p95, p99, p999, max,
+                    buckets == null ? new long[0] : buckets);
+        }
+
+        private Latency(long count, long timeouts, long unavailables,
+                        double oneMinuteRate, double mean, double p50,
+                        double p95, double p99, double p999, double max,
+                        long[] buckets) {
+            this.count = count;
+            this.timeouts = timeouts;
+            this.unavailables = unavailables;
+            this.oneMinuteRate = oneMinuteRate;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getUnavailables() {
+            return unavailables;
+        }
+
+        public double getOneMinuteRate() {
+            return oneMinuteRate;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public long[] getBuckets() {
+            return buckets;
+        }
+    }
+
+    /**
+     * The tasks of a thread pool of the daemon.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ThreadPool {
+        @JsonProperty("active")
+        private final long active;
+        @JsonProperty("pending")
+        private final long pending;
+        @JsonProperty("currently_blocked")
+        private final long currentlyBlocked;
+        @JsonProperty("total_blocked")
+        private final long totalBlocked;
+
+        @JsonCreator
+        public static ThreadPool create(
+                @JsonProperty("active") final long active,
+                @JsonProperty("pending") final long pending,
+                @JsonProperty("currently_blocked") final long currentlyBlocked,
+                @JsonProperty("total_blocked") final long totalBlocked) {
+            return new ThreadPool(active, pending, currentlyBlocked,
+                    totalBlocked);
+        }
+
+        private ThreadPool(long active, long pending, long currentlyBlocked,
+                           long totalBlocked) {
+            this.active = active;
+            this.pending = pending;
+            this.currentlyBlocked = currentlyBlocked;
+            this.totalBlocked = totalBlocked;
+        }
+
+        public long getActive() {
+            return active;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        public long getCurrentlyBlocked() {
+            return currentlyBlocked;
+        }
+
+        public long getTotalBlocked() {
+            return totalBlocked;
+        }
+    }
+
+    /**
+     * The collections of a garbage collector of the JVM of the daemon.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class GarbageCollector {
+        @JsonProperty("collections")
+        private final long collections;
+        @JsonProperty("collection_time_ms")
+        private final long collectionTimeMs;
+
+        @JsonCreator
+        public static GarbageCollector create(
+                @JsonProperty("collections") final long collections,
+                @JsonProperty("collection_time_ms") final long collectionTimeMs) {
+            return new GarbageCollector(collections, collectionTimeMs);
+        }
+
+        private GarbageCollector(long collections, long collectionTimeMs) {
+            this.collections = collections;
+            this.collectionTimeMs = collectionTimeMs;
+        }
+
+        public long getCollections() {
+            return collections;
+        }
+
+        public long getCollectionTimeMs() {
+            return collectionTimeMs;
+        }
+    }
+
+    @JsonProperty("timestamp_ms")
+    private final long timestampMs;
+    @JsonProperty("latencies")
+    private final Map<String, Latency> latencies;
+    @JsonProperty("pending_compactions")
+    private final long pendingCompactions;
+    @JsonProperty("pending_flushes")
+    private final long pendingFlushes;
+    @JsonProperty("thread_pools")
+    private final Map<String, ThreadPool> threadPools;
+    @JsonProperty("dropped_messages")
+    private final Map<String, Long> droppedMessages;
+    @JsonProperty("garbage_collectors")
+    private final Map<String, GarbageCollector> garbageCollectors;
+
+    /**
+     * Creates a NodeMetrics.
+     *
+     * @param timestampMs        The time the metrics were collected.
+     * @param latencies          The latency of client requests by kind of
+     *                           request, e.g. read, write or range_slice.
+     * @param pendingCompactions The number of pending compactions.
+     * @param pendingFlushes     The number of pending memtable flushes.
+     * @param threadPools        The thread pools by name.
+     * @param droppedMessages    The number of dropped messages by verb.
+     * @param garbageCollectors  The garbage collectors by name.
+     * @return A NodeMetrics constructed from the parameters.
+     */
+    @JsonCreator
+    public static NodeMetrics create(
+            @JsonProperty("timestamp_ms") final long timestampMs,
+            @JsonProperty("latencies") final Map<String, Latency> latencies,
+            @JsonProperty("pending_compactions") final long pendingCompactions,
+            @JsonProperty("pending_flushes") final long pendingFlushes,
+            @JsonProperty("thread_pools") final Map<String, ThreadPool> threadPools,
+            @JsonProperty("dropped_messages") final Map<String, Long> droppedMessages,
+            @JsonProperty("garbage_collectors")
+            final Map<String, GarbageCollector> garbageCollectors) {
+        return new NodeMetrics(timestampMs,
+                sorted(latencies),
+                pendingCompactions,
+                pendingFlushes,
+                sorted(threadPools),
+                sorted(droppedMessages),
+                sorted(garbageCollectors));
+    }
+
+    private static <T> Map<String, T> sorted(final Map<String, T> map) {
+        return map == null ?
+                Collections.emptyMap() :
+                Collections.unmodifiableMap(new TreeMap<>(map));
+    }
+
+    private NodeMetrics(long timestampMs,
+                        Map<String, Latency> latencies,
+                        long pendingCompactions,
+                        long pendingFlushes,
+                        Map<String, ThreadPool> threadPools,
+                        Map<String, Long> droppedMessages,
+                        Map<String, GarbageCollector> garbageCollectors) {
+        this.timestampMs = timestampMs;
+        this.latencies = latencies;
+        this.pendingCompactions = pendingCompactions;
+        this.pendingFlushes = pendingFlushes;
+        this.threadPools = threadPools;
+        this.droppedMessages = droppedMessages;
+        this.garbageCollectors = garbageCollectors;
+    }
+
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    public Map<String, Latency> getLatencies() {
+        return latencies;
+    }
+
+    public long getPendingCompactions() {
+        return pendingCompactions;
+    }
+
+    public long getPendingFlushes() {
+        return pendingFlushes;
+    }
+
+    public Map<String, ThreadPool> getThreadPools() {
+        return threadPools;
+    }
+
+    public Map<String, Long> getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    public Map<String, GarbageCollector> getGarbageCollectors() {
+        return garbageCollectors;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
@@ -287,6 +287,28 @@ public class CassandraDaemonTask extends CassandraTask {
             .setLabels(Protos.Labels.newBuilder().addLabels(label).build()).build());
     }
 
+    /**
+     * Gets the task with a configuration that was applied to its running
+     * daemon. Unlike updateConfig, the id, executor and resources of the
+     * task are kept, so the task is not relaunched.
+     *
+     * @param cassandraConfig  The configuration applied to the daemon.
+     * @param targetConfigName The name of the target configuration.
+     * @return The task with cassandraConfig as its configuration.
+     */
+    public CassandraDaemonTask applyConfig(CassandraConfig cassandraConfig,
+                                           UUID targetConfigName) {
+        LOGGER.info("Applying config for task: {} to config: {}", getTaskInfo().getName(), targetConfigName.toString());
+        final Protos.Label label = Protos.Label.newBuilder()
+                .setKey("config_target")
+                .setValue(targetConfigName.toString())
+                .build();
+        return new CassandraDaemonTask(getBuilder()
+            .setData(getData().withNewConfig(cassandraConfig).getBytes())
+            .clearLabels()
+            .setLabels(Protos.Labels.newBuilder().addLabels(label).build()).build());
+    }
+
     @Override
     public CassandraDaemonTask updateId() {
         return new CassandraDaemonTask(getBuilder()
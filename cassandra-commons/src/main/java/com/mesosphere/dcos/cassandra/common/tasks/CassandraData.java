@@ -5,13 +5,17 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.mesosphere.dcos.cassandra.common.CassandraProtos;
 import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
 import com.mesosphere.dcos.cassandra.common.tasks.cleanup.CleanupContext;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairContext;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
 import com.mesosphere.dcos.cassandra.common.tasks.upgradesstable.UpgradeSSTableContext;
 import org.apache.mesos.Protos;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * CassandraData encapsulates command task and status data
@@ -51,11 +55,22 @@ public class CassandraData {
         final RepairContext context) {
 
         return new CassandraData(
-            CassandraTask.TYPE.REPAIR,
-            hostname,
-            context.getNodes(),
-            context.getKeySpaces(),
-            context.getColumnFamilies());
+            CassandraProtos.CassandraData.newBuilder()
+                .setType(CassandraTask.TYPE.REPAIR.ordinal())
+                .setHostname(hostname)
+                .addAllNodes(context.getNodes())
+                .addAllKeySpaces(context.getKeySpaces())
+                .addAllColumnFamilies(context.getColumnFamilies())
+                .setRepairParallelism(context.getParallelism())
+                .setRepairParallelSegments(context.getParallelSegments())
+                .setRepairPartitionsPerSegment(
+                    context.getPartitionsPerSegment())
+                .setRepairDurationPerNodeMs(context.getDurationPerNodeMs())
+                .setRepairMaxPendingCompactions(
+                    context.getMaxPendingCompactions())
+                .setRepairMaxLatencyMs(context.getMaxLatencyMs())
+                .setState(Protos.TaskState.TASK_STAGING.ordinal())
+                .build());
     }
 
     public static final CassandraData createRepairStatusData() {
@@ -66,12 +81,19 @@ public class CassandraData {
         final String hostname,
         final CleanupContext context) {
 
-        return new CassandraData(
-            CassandraTask.TYPE.CLEANUP,
-            hostname,
-            context.getNodes(),
-            context.getKeySpaces(),
-            context.getColumnFamilies());
+        final CassandraProtos.CassandraData.Builder builder =
+            CassandraProtos.CassandraData.newBuilder()
+                .setType(CassandraTask.TYPE.CLEANUP.ordinal())
+                .setHostname(hostname)
+                .addAllNodes(context.getNodes())
+                .addAllKeySpaces(context.getKeySpaces())
+                .addAllColumnFamilies(context.getColumnFamilies())
+                .setCleanupJobs(context.getJobs())
+                .setCleanupParallelKeySpaces(context.getParallelKeySpaces())
+                .setState(Protos.TaskState.TASK_STAGING.ordinal());
+        context.getCompactionThroughputMbPerSec().ifPresent(
+            builder::setCleanupCompactionThroughputMbPerSec);
+        return new CassandraData(builder.build());
     }
 
     public static final CassandraData createCleanupStatusData() {
@@ -85,14 +107,7 @@ public class CassandraData {
         return new CassandraData(
                 CassandraTask.TYPE.BACKUP_SCHEMA,
                 hostname,
-                context.getNodeId(),
-                context.getName(),
-                context.getExternalLocation(),
-                context.getLocalLocation(),
-                context.getAccountId(),
-                context.getSecretKey(),
-                context.getUsesEmc(),
-                context.getRestoreType());
+                context);
     }
 
     public static final CassandraData createBackupSchemaStatusData() {
@@ -106,14 +121,7 @@ public class CassandraData {
         return new CassandraData(
                 CassandraTask.TYPE.BACKUP_SNAPSHOT,
                 hostname,
-                context.getNodeId(),
-                context.getName(),
-                context.getExternalLocation(),
-                context.getLocalLocation(),
-                context.getAccountId(),
-                context.getSecretKey(),
-                context.getUsesEmc(),
-                context.getRestoreType());
+                context);
     }
 
     public static final CassandraData createBackupSnapshotStatusData() {
@@ -126,14 +134,7 @@ public class CassandraData {
         return new CassandraData(
             CassandraTask.TYPE.BACKUP_UPLOAD,
             hostname,
-            context.getNodeId(),
-            context.getName(),
-            context.getExternalLocation(),
-            context.getLocalLocation(),
-            context.getAccountId(),
-            context.getSecretKey(),
-            context.getUsesEmc(),
-            context.getRestoreType());
+            context);
     }
 
     public static final CassandraData createBackupUploadStatusData() {
@@ -146,14 +147,7 @@ public class CassandraData {
         return new CassandraData(
             CassandraTask.TYPE.SNAPSHOT_DOWNLOAD,
             hostname,
-            context.getNodeId(),
-            context.getName(),
-            context.getExternalLocation(),
-            context.getLocalLocation(),
-            context.getAccountId(),
-            context.getSecretKey(),
-            context.getUsesEmc(),
-            context.getRestoreType());
+            context);
     }
 
     public static final CassandraData createSnapshotDownloadStatusData() {
@@ -166,14 +160,7 @@ public class CassandraData {
         return new CassandraData(
             CassandraTask.TYPE.SNAPSHOT_RESTORE,
             hostname,
-            context.getNodeId(),
-            context.getName(),
-            context.getExternalLocation(),
-            context.getLocalLocation(),
-            context.getAccountId(),
-            context.getSecretKey(),
-            context.getUsesEmc(),
-            context.getRestoreType());
+            context);
     }
 
     public static final CassandraData createRestoreSnapshotStatusData() {
@@ -186,20 +173,60 @@ public class CassandraData {
         return new CassandraData(
                 CassandraTask.TYPE.SCHEMA_RESTORE,
                 hostname,
-                context.getNodeId(),
-                context.getName(),
-                context.getExternalLocation(),
-                context.getLocalLocation(),
-                context.getAccountId(),
-                context.getSecretKey(),
-                context.getUsesEmc(),
-                context.getRestoreType());
+                context);
     }
 
     public static final CassandraData createRestoreSchemaStatusData() {
         return new CassandraData(CassandraTask.TYPE.SCHEMA_RESTORE);
     }
 
+    public static final CassandraData createBackupPruneData(
+            final String hostname,
+            final BackupRestoreContext context) {
+        return new CassandraData(
+                CassandraTask.TYPE.BACKUP_PRUNE,
+                hostname,
+                context);
+    }
+
+    public static final CassandraData createBackupPruneStatusData() {
+        return new CassandraData(CassandraTask.TYPE.BACKUP_PRUNE);
+    }
+
+    public static final CassandraData createVerifyBackupData(
+            final String hostname,
+            final BackupRestoreContext context) {
+        return new CassandraData(
+                CassandraTask.TYPE.VERIFY_BACKUP,
+                hostname,
+                context);
+    }
+
+    public static final CassandraData createVerifyBackupStatusData() {
+        return new CassandraData(CassandraTask.TYPE.VERIFY_BACKUP);
+    }
+
+    public static final CassandraData createCopyBackupData(
+            final String hostname,
+            final CopyBackupContext context) {
+        final BackupRestoreContext destination = context.getDestination();
+        return new CassandraData(
+                new CassandraData(
+                        CassandraTask.TYPE.COPY_BACKUP,
+                        hostname,
+                        context.getSource())
+                        .getBuilder()
+                        .setDestinationLocation(destination.getExternalLocation())
+                        .setDestinationAccountId(destination.getAccountId())
+                        .setDestinationSecretKey(destination.getSecretKey())
+                        .setDestinationUsesEmc(destination.getUsesEmc())
+                        .build());
+    }
+
+    public static final CassandraData createCopyBackupStatusData() {
+        return new CassandraData(CassandraTask.TYPE.COPY_BACKUP);
+    }
+
     public static final CassandraData createUpgradeSSTableData(
             final String hostname,
             final UpgradeSSTableContext context) {
@@ -277,27 +304,28 @@ public class CassandraData {
 
     private CassandraData(final CassandraTask.TYPE type,
                           final String hostname,
-                          final String nodeId,
-                          final String name,
-                          final String externalLocation,
-                          final String localLocation,
-                          final String accountId,
-                          final String secretKey,
-                          final boolean usesEmc,
-                          final String restoreType) {
+                          final BackupRestoreContext context) {
 
         data = CassandraProtos.CassandraData.newBuilder()
             .setType(type.ordinal())
             .setHostname(hostname)
-            .setNode(nodeId)
-            .setBackupName(name)
-            .setExternalLocation(externalLocation)
-            .setLocalLocation(localLocation)
-            .setAccoundId(accountId)
-            .setSecretKey(secretKey)
+            .setNode(context.getNodeId())
+            .setBackupName(context.getName())
+            .setExternalLocation(context.getExternalLocation())
+            .setLocalLocation(context.getLocalLocation())
+            .setAccoundId(context.getAccountId())
+            .setSecretKey(context.getSecretKey())
             .setState(Protos.TaskState.TASK_STAGING.ordinal())
-            .setUsesEmc(usesEmc)
-            .setRestoreType(restoreType)
+            .setUsesEmc(context.getUsesEmc())
+            .setRestoreType(context.getRestoreType())
+            .setMaxBytesPerSecond(context.getMaxBytesPerSecond())
+            .setMaxConcurrentFiles(context.getMaxConcurrentFiles())
+            .addAllKeySpaces(context.getKeySpaces())
+            .addAllColumnFamilies(context.getColumnFamilies())
+            .setRetainBackups(context.getRetainBackups())
+            .setRetainDays(context.getRetainDays())
+            .setVerifySampleBytes(context.getVerifySampleBytes())
+            .addAllSourceNodes(context.getSourceNodes())
             .build();
 
     }
@@ -331,6 +359,20 @@ public class CassandraData {
                 .build());
     }
 
+    public CassandraData withProgress(final TransferProgress progress) {
+        return new CassandraData(
+            getBuilder()
+                .setProgress(progress.toProto())
+                .build());
+    }
+
+    public CassandraData withRepairProgress(final RepairProgress progress) {
+        return new CassandraData(
+            getBuilder()
+                .setRepairProgress(progress.toProto())
+                .build());
+    }
+
     public CassandraData withHostname(final String hostname) {
         return new CassandraData(
             getBuilder()
@@ -393,14 +435,28 @@ public class CassandraData {
         return new RepairContext(
             data.getNodesList(),
             data.getKeySpacesList(),
-            data.getColumnFamiliesList());
+            data.getColumnFamiliesList(),
+            data.hasRepairParallelism() ?
+                data.getRepairParallelism() : null,
+            data.hasRepairParallelSegments() ?
+                data.getRepairParallelSegments() : null,
+            data.hasRepairPartitionsPerSegment() ?
+                data.getRepairPartitionsPerSegment() : null,
+            data.getRepairDurationPerNodeMs(),
+            data.getRepairMaxPendingCompactions(),
+            data.getRepairMaxLatencyMs());
     }
 
     public CleanupContext getCleanupContext() {
         return new CleanupContext(
             data.getNodesList(),
             data.getKeySpacesList(),
-            data.getColumnFamiliesList());
+            data.getColumnFamiliesList(),
+            data.getCleanupJobs(),
+            data.hasCleanupCompactionThroughputMbPerSec() ?
+                data.getCleanupCompactionThroughputMbPerSec() : null,
+            data.hasCleanupParallelKeySpaces() ?
+                data.getCleanupParallelKeySpaces() : null);
     }
 
     public BackupRestoreContext getBackupRestoreContext() {
@@ -412,7 +468,38 @@ public class CassandraData {
             data.getAccoundId(),
             data.getSecretKey(),
             data.getUsesEmc(),
-            data.getRestoreType());
+            data.getRestoreType(),
+            data.getMaxBytesPerSecond(),
+            data.getMaxConcurrentFiles(),
+            data.getKeySpacesList(),
+            data.getColumnFamiliesList(),
+            data.getRetainBackups(),
+            data.getRetainDays(),
+            data.getVerifySampleBytes(),
+            data.getSourceNodesList());
+    }
+
+    public CopyBackupContext getCopyBackupContext() {
+        final BackupRestoreContext source = getBackupRestoreContext();
+        return CopyBackupContext.create(
+            source,
+            source.withExternalLocation(
+                data.getDestinationLocation(),
+                data.getDestinationAccountId(),
+                data.getDestinationSecretKey(),
+                data.getDestinationUsesEmc()));
+    }
+
+    public Optional<TransferProgress> getProgress() {
+        return data.hasProgress() ?
+            Optional.of(TransferProgress.parse(data.getProgress())) :
+            Optional.empty();
+    }
+
+    public Optional<RepairProgress> getRepairProgress() {
+        return data.hasRepairProgress() ?
+            Optional.of(RepairProgress.parse(data.getRepairProgress())) :
+            Optional.empty();
     }
 
     public UpgradeSSTableContext getUpgradeSSTableContext() {
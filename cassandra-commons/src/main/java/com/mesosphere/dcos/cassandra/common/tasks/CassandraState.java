@@ -8,6 +8,7 @@ import com.google.protobuf.TextFormat;
 import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
 import com.mesosphere.dcos.cassandra.common.config.CassandraSchedulerConfiguration;
 import com.mesosphere.dcos.cassandra.common.config.ClusterTaskConfig;
+import com.mesosphere.dcos.cassandra.common.config.ConfigDiff;
 import com.mesosphere.dcos.cassandra.common.config.ConfigurationManager;
 import com.mesosphere.dcos.cassandra.common.config.ServiceConfig;
 import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
@@ -135,6 +136,30 @@ public class CassandraState extends SchedulerState implements Managed {
                         (BackupSchemaTask) entry.getValue())));
     }
 
+    public Map<String, BackupPruneTask> getBackupPruneTasks() {
+        refreshTasks();
+        return tasks.entrySet().stream().filter(entry -> entry.getValue()
+                .getType() == CassandraTask.TYPE.BACKUP_PRUNE).collect
+                (Collectors.toMap(entry -> entry.getKey(), entry -> (
+                        (BackupPruneTask) entry.getValue())));
+    }
+
+    public Map<String, VerifyBackupTask> getVerifyBackupTasks() {
+        refreshTasks();
+        return tasks.entrySet().stream().filter(entry -> entry.getValue()
+                .getType() == CassandraTask.TYPE.VERIFY_BACKUP).collect
+                (Collectors.toMap(entry -> entry.getKey(), entry -> (
+                        (VerifyBackupTask) entry.getValue())));
+    }
+
+    public Map<String, CopyBackupTask> getCopyBackupTasks() {
+        refreshTasks();
+        return tasks.entrySet().stream().filter(entry -> entry.getValue()
+                .getType() == CassandraTask.TYPE.COPY_BACKUP).collect
+                (Collectors.toMap(entry -> entry.getKey(), entry -> (
+                        (CopyBackupTask) entry.getValue())));
+    }
+
     public Map<String, BackupUploadTask> getBackupUploadTasks() {
         refreshTasks();
         return tasks.entrySet().stream().filter(entry -> entry.getValue()
@@ -324,6 +349,45 @@ public class CassandraState extends SchedulerState implements Managed {
         }
     }
 
+    public BackupPruneTask createBackupPruneTask(
+            CassandraDaemonTask daemon,
+            BackupRestoreContext context) throws PersistenceException {
+
+        Optional<Protos.TaskInfo> template = getTemplate(daemon);
+
+        if (template.isPresent()) {
+            return BackupPruneTask.create(template.get(), daemon, context);
+        } else {
+            throw new PersistenceException("Failed to retrieve ClusterTask Template.");
+        }
+    }
+
+    public VerifyBackupTask createVerifyBackupTask(
+            CassandraDaemonTask daemon,
+            BackupRestoreContext context) throws PersistenceException {
+
+        Optional<Protos.TaskInfo> template = getTemplate(daemon);
+
+        if (template.isPresent()) {
+            return VerifyBackupTask.create(template.get(), daemon, context);
+        } else {
+            throw new PersistenceException("Failed to retrieve ClusterTask Template.");
+        }
+    }
+
+    public CopyBackupTask createCopyBackupTask(
+            CassandraDaemonTask daemon,
+            CopyBackupContext context) throws PersistenceException {
+
+        Optional<Protos.TaskInfo> template = getTemplate(daemon);
+
+        if (template.isPresent()) {
+            return CopyBackupTask.create(template.get(), daemon, context);
+        } else {
+            throw new PersistenceException("Failed to retrieve ClusterTask Template.");
+        }
+    }
+
     public BackupUploadTask createBackupUploadTask(
             CassandraDaemonTask daemon,
             BackupRestoreContext context) throws PersistenceException {
@@ -451,6 +515,45 @@ public class CassandraState extends SchedulerState implements Managed {
         }
     }
 
+    public BackupPruneTask getOrCreateBackupPrune(
+            CassandraDaemonTask daemon,
+            BackupRestoreContext context) throws PersistenceException {
+
+        String name = BackupPruneTask.nameForDaemon(daemon);
+        Map<String, BackupPruneTask> prunes = getBackupPruneTasks();
+        if (prunes.containsKey(name)) {
+            return prunes.get(name);
+        } else {
+            return createBackupPruneTask(daemon, context);
+        }
+    }
+
+    public VerifyBackupTask getOrCreateVerifyBackup(
+            CassandraDaemonTask daemon,
+            BackupRestoreContext context) throws PersistenceException {
+
+        String name = VerifyBackupTask.nameForDaemon(daemon);
+        Map<String, VerifyBackupTask> verifies = getVerifyBackupTasks();
+        if (verifies.containsKey(name)) {
+            return verifies.get(name);
+        } else {
+            return createVerifyBackupTask(daemon, context);
+        }
+    }
+
+    public CopyBackupTask getOrCreateCopyBackup(
+            CassandraDaemonTask daemon,
+            CopyBackupContext context) throws PersistenceException {
+
+        String name = CopyBackupTask.nameForDaemon(daemon);
+        Map<String, CopyBackupTask> copies = getCopyBackupTasks();
+        if (copies.containsKey(name)) {
+            return copies.get(name);
+        } else {
+            return createCopyBackupTask(daemon, context);
+        }
+    }
+
     public BackupUploadTask getOrCreateBackupUpload(
             CassandraDaemonTask daemon,
             BackupRestoreContext context) throws PersistenceException {
@@ -561,6 +664,27 @@ public class CassandraState extends SchedulerState implements Managed {
         }
     }
 
+    public ConfigDiff getConfigDiff(final CassandraDaemonTask daemon) throws ConfigStoreException {
+        return configuration.getConfigDiff(daemon);
+    }
+
+    /**
+     * Records that the target configuration was applied to a running daemon
+     * without restarting it.
+     *
+     * @param daemon The daemon task to which the configuration was applied.
+     * @return The daemon task with the target configuration.
+     */
+    public CassandraDaemonTask applyConfig(
+            final CassandraDaemonTask daemon) throws PersistenceException, ConfigStoreException {
+        final CassandraDaemonTask applied;
+        synchronized (getStateStore()) {
+            applied = configuration.applyConfig(daemon);
+        }
+        update(applied);
+        return applied;
+    }
+
     public void update(CassandraTask task) throws PersistenceException {
         synchronized (getStateStore()) {
             getStateStore().storeTasks(Arrays.asList(TaskUtils.packTaskInfo(task.getTaskInfo())));
@@ -16,13 +16,17 @@
 package com.mesosphere.dcos.cassandra.common.tasks;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
 
 /**
  * CassandraStatus is the status object sent from the Executor to the Scheduler
- * to track the status of a Cassandra Daemon.
+ * to track the status of a Cassandra Daemon. The executor serves a snapshot
+ * of the status, whose age is the time since it was read from the daemon.
+ * The age is not part of the equality of statuses.
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CassandraStatus {
 
     @JsonProperty("mode")
@@ -49,6 +53,8 @@ public class CassandraStatus {
     final String rack;
     @JsonProperty("version")
     final String version;
+    @JsonProperty("age_ms")
+    final long ageMs;
 
     /**
      * Creates a CassandraStatus.
@@ -67,6 +73,42 @@ public class CassandraStatus {
      * @param version The version of Cassandra the node is running.
      * @return A CassandraStatus constructed from the parameters.
      */
+    public static CassandraStatus create(
+            final CassandraMode mode,
+            final boolean joined,
+            final boolean rpcRunning,
+            final boolean nativeTransportRunning,
+            final boolean gossipInitialized,
+            final boolean gossipRunning,
+            final String hostId,
+            final String endpoint,
+            final int tokenCount,
+            final String dataCenter,
+            final String rack,
+            final String version) {
+        return create(mode, joined, rpcRunning, nativeTransportRunning,
+                gossipInitialized, gossipRunning, hostId, endpoint, tokenCount,
+                dataCenter, rack, version, 0);
+    }
+
+    /**
+     * Creates a CassandraStatus.
+     * @param mode The mode of the Cassandra node.
+     * @param joined True if the node has joined the cluster.
+     * @param rpcRunning True if the node has rpc running.
+     * @param nativeTransportRunning True if the node has CQL transport running.
+     * @param gossipInitialized True if gossip with the cluster has been
+     *                          initialized.
+     * @param gossipRunning True if the node is participating in gossip.
+     * @param hostId The id of the node in the ring.
+     * @param endpoint The node's endpoint identifier.
+     * @param tokenCount The number of tokens assigned to the node.
+     * @param dataCenter The datacenter for the node.
+     * @param rack The rack for the node.
+     * @param version The version of Cassandra the node is running.
+     * @param ageMs The time since the status was read from the node.
+     * @return A CassandraStatus constructed from the parameters.
+     */
     @JsonCreator
     public static CassandraStatus create(
             @JsonProperty("mode") final CassandraMode mode,
@@ -81,7 +123,8 @@ public class CassandraStatus {
             @JsonProperty("token_count") final int tokenCount,
             @JsonProperty("data_center") final String dataCenter,
             @JsonProperty("rack") final String rack,
-            @JsonProperty("version") final String version) {
+            @JsonProperty("version") final String version,
+            @JsonProperty("age_ms") final long ageMs) {
 
         return new CassandraStatus(
                 mode,
@@ -95,7 +138,8 @@ public class CassandraStatus {
                 tokenCount,
                 dataCenter,
                 rack,
-                version);
+                version,
+                ageMs);
     }
 
 
@@ -128,6 +172,25 @@ public class CassandraStatus {
             String dataCenter,
             String rack,
             String version) {
+        this(mode, joined, rpcRunning, nativeTransportRunning,
+                gossipInitialized, gossipRunning, hostId, endpoint, tokenCount,
+                dataCenter, rack, version, 0);
+    }
+
+    private CassandraStatus(
+            CassandraMode mode,
+            boolean joined,
+            boolean rpcRunning,
+            boolean nativeTransportRunning,
+            boolean gossipInitialized,
+            boolean gossipRunning,
+            String hostId,
+            String endpoint,
+            int tokenCount,
+            String dataCenter,
+            String rack,
+            String version,
+            long ageMs) {
         this.mode = mode;
         this.joined = joined;
         this.rpcRunning = rpcRunning;
@@ -140,6 +203,18 @@ public class CassandraStatus {
         this.dataCenter = dataCenter;
         this.rack = rack;
         this.version = version;
+        this.ageMs = ageMs;
+    }
+
+    /**
+     * Gets a copy of the status with an age.
+     * @param ageMs The time since the status was read from the node.
+     * @return The status with the age.
+     */
+    public CassandraStatus withAge(long ageMs) {
+        return new CassandraStatus(mode, joined, rpcRunning,
+                nativeTransportRunning, gossipInitialized, gossipRunning,
+                hostId, endpoint, tokenCount, dataCenter, rack, version, ageMs);
     }
 
     /**
@@ -238,6 +313,15 @@ public class CassandraStatus {
         return rack;
     }
 
+    /**
+     * Gets the age of the status.
+     * @return The time in milliseconds since the status was read from the
+     * node, or 0 if it was read for the request.
+     */
+    public long getAgeMs() {
+        return ageMs;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -123,6 +123,20 @@ public abstract class CassandraTask {
          * Task that restores the schema on a node.
          */
         SCHEMA_RESTORE,
+        /**
+         * Task that applies the retention policy to the backups in an
+         * external location and deletes the unreferenced files.
+         */
+        BACKUP_PRUNE,
+        /**
+         * Task that verifies the files of the backup of a node in an
+         * external location.
+         */
+        VERIFY_BACKUP,
+        /**
+         * Task that copies a backup from one external location to another.
+         */
+        COPY_BACKUP,
     }
 
     /**
@@ -149,6 +163,12 @@ public abstract class CassandraTask {
                 return RestoreSnapshotTask.parse(info);
             case SCHEMA_RESTORE:
                 return RestoreSchemaTask.parse(info);
+            case BACKUP_PRUNE:
+                return BackupPruneTask.parse(info);
+            case VERIFY_BACKUP:
+                return VerifyBackupTask.parse(info);
+            case COPY_BACKUP:
+                return CopyBackupTask.parse(info);
             case CLEANUP:
                 return CleanupTask.parse(info);
             case REPAIR:
@@ -18,6 +18,7 @@ package com.mesosphere.dcos.cassandra.common.tasks;
 import com.google.protobuf.TextFormat;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.*;
 import com.mesosphere.dcos.cassandra.common.tasks.cleanup.CleanupStatus;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairStatus;
 import com.mesosphere.dcos.cassandra.common.tasks.upgradesstable.UpgradeSSTableStatus;
 import org.apache.mesos.Protos;
@@ -107,6 +108,12 @@ public abstract class CassandraTaskStatus {
                 return RestoreSnapshotStatus.create(status);
             case SCHEMA_RESTORE:
                 return RestoreSchemaStatus.create(status);
+            case BACKUP_PRUNE:
+                return BackupPruneStatus.create(status);
+            case VERIFY_BACKUP:
+                return VerifyBackupStatus.create(status);
+            case COPY_BACKUP:
+                return CopyBackupStatus.create(status);
             case CLEANUP:
                 return CleanupStatus.create(status);
             case REPAIR:
@@ -178,6 +185,26 @@ public abstract class CassandraTaskStatus {
     }
 
 
+    /**
+     * Gets the progress of the transfer of the task.
+     *
+     * @return The progress of the upload or download of a backup, if the
+     * status reports it.
+     */
+    public Optional<TransferProgress> getProgress() {
+        return getData().getProgress();
+    }
+
+    /**
+     * Gets the progress of the repair of the task.
+     *
+     * @return The segments of the primary ranges of the node that were
+     * repaired, if the status reports them.
+     */
+    public Optional<RepairProgress> getRepairProgress() {
+        return getData().getRepairProgress();
+    }
+
     public Protos.TaskStatus getTaskStatus() {
         return status;
     }
@@ -0,0 +1,19 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+
+/**
+ * BackupPruneStatus extends CassandraTaskStatus to implement the status
+ * Object for the BackupPrune task.
+ */
+public class BackupPruneStatus extends CassandraTaskStatus {
+
+    public static BackupPruneStatus create(final Protos.TaskStatus status) {
+        return new BackupPruneStatus(status);
+    }
+
+    protected BackupPruneStatus(final Protos.TaskStatus status) {
+        super(status);
+    }
+}
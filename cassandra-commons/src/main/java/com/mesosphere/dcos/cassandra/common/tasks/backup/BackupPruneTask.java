@@ -0,0 +1,133 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+import org.apache.mesos.offer.TaskUtils;
+
+import java.util.Optional;
+
+/**
+ * BackupPruneTask extends CassandraTask to implement a task that applies the
+ * retention policy of a backup to the external location. It deletes the
+ * expired backups and the files that are no longer referenced by any
+ * retained backup.
+ * The task can only be launched successfully if the CassandraDaemonTask is
+ * running on the targeted slave. It runs on a single node of the cluster.
+ */
+public class BackupPruneTask extends CassandraTask {
+
+    /**
+     * The name prefix for BackupPruneTasks.
+     */
+    public static final String NAME_PREFIX = "backupprune-";
+
+    /**
+     * Gets the name of a BackupPruneTask for a CassandraDaemonTask.
+     *
+     * @param daemonName The name of the CassandraDaemonTask.
+     * @return The name of the BackupPruneTask for daemonName.
+     */
+    public static final String nameForDaemon(final String daemonName) {
+        return NAME_PREFIX + daemonName;
+    }
+
+    /**
+     * Gets the name of a BackupPruneTask for a CassandraDaemonTask.
+     *
+     * @param daemon The CassandraDaemonTask whose node prunes the
+     *               backups.
+     * @return The name of the BackupPruneTask for daemon.
+     */
+    public static final String nameForDaemon(final CassandraDaemonTask daemon) {
+        return nameForDaemon(daemon.getName());
+    }
+
+
+    public static BackupPruneTask parse(final Protos.TaskInfo info) {
+        return new BackupPruneTask(info);
+    }
+
+
+    public static BackupPruneTask create(
+            final Protos.TaskInfo template,
+            final CassandraDaemonTask daemon,
+            final BackupRestoreContext context) {
+
+        String name = nameForDaemon(daemon);
+        CassandraData data = CassandraData.createBackupPruneData(
+                "",
+                context
+                        .forNode(daemon.getName())
+                        .withLocalLocation(daemon.getVolumePath() + "/data"));
+
+        Protos.TaskInfo completedTemplate = Protos.TaskInfo.newBuilder(template)
+                .setName(name)
+                .setTaskId(TaskUtils.toTaskId(name))
+                .setData(data.getBytes())
+                .build();
+
+        completedTemplate = org.apache.mesos.offer.TaskUtils.clearTransient(completedTemplate);
+
+        return new BackupPruneTask(completedTemplate);
+    }
+
+    /**
+     * Constructs a new BackupPruneTask.
+     */
+    protected BackupPruneTask(final Protos.TaskInfo info) {
+        super(info);
+    }
+
+    @Override
+    public BackupPruneTask update(Protos.Offer offer) {
+        return new BackupPruneTask(getBuilder()
+                .setSlaveId(offer.getSlaveId())
+                .setData(getData().withHostname(offer.getHostname()).getBytes())
+                .build());
+    }
+
+    @Override
+    public BackupPruneTask updateId() {
+        return new BackupPruneTask(getBuilder().setTaskId(createId(getName()))
+                .build());
+    }
+
+    @Override
+    public BackupPruneTask update(CassandraTaskStatus status) {
+        if (status.getType() == TYPE.BACKUP_PRUNE &&
+                getId().equalsIgnoreCase(status.getId())) {
+            return update(status.getState());
+        }
+        return this;
+    }
+
+    @Override
+    public BackupPruneTask update(Protos.TaskState state) {
+        return new BackupPruneTask(getBuilder().setData(
+                getData().withState(state).getBytes()).build());
+    }
+
+    @Override
+    public BackupPruneStatus createStatus(
+            Protos.TaskState state,
+            Optional<String> message) {
+
+        Protos.TaskStatus.Builder builder = getStatusBuilder();
+        if (message.isPresent()) {
+            builder.setMessage(message.get());
+        }
+
+        return BackupPruneStatus.create(builder
+                .setData(CassandraData.createBackupPruneStatusData().getBytes())
+                .setState(state)
+                .build());
+    }
+
+
+    public BackupRestoreContext getBackupRestoreContext() {
+        return getData().getBackupRestoreContext();
+    }
+}
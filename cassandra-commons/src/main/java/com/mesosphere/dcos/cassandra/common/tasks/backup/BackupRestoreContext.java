@@ -21,6 +21,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskContext;
 import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -29,6 +31,42 @@ import java.util.Objects;
  */
 public class BackupRestoreContext implements ClusterTaskContext {
 
+    /**
+     * Value of the transfer limits that indicates no limit is applied.
+     */
+    public static final int UNLIMITED = 0;
+
+    public static final BackupRestoreContext create(
+        final String nodeId,
+        final String name,
+        final String externalLocation,
+        final String localLocation,
+        final String accountId,
+        final String secretKey,
+        final boolean usesEmc,
+        final String restoreType) {
+
+        return new BackupRestoreContext(
+            nodeId,
+            name,
+            externalLocation,
+            localLocation,
+            accountId,
+            secretKey,
+            usesEmc,
+            restoreType);
+    }
+
+    /**
+     * Gets a builder for a context. The transfer limits, retention policy,
+     * verification sample and source nodes default to none.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
     @JsonCreator
     public static final BackupRestoreContext create(
         @JsonProperty("node_id")
@@ -46,7 +84,23 @@ public class BackupRestoreContext implements ClusterTaskContext {
         @JsonProperty("uses_emc")
         final boolean usesEmc,
         @JsonProperty("restore_type")
-        final String restoreType) {
+        final String restoreType,
+        @JsonProperty("max_bytes_per_second")
+        final long maxBytesPerSecond,
+        @JsonProperty("max_concurrent_files")
+        final int maxConcurrentFiles,
+        @JsonProperty("key_spaces")
+        final List<String> keySpaces,
+        @JsonProperty("column_families")
+        final List<String> columnFamilies,
+        @JsonProperty("retain_backups")
+        final int retainBackups,
+        @JsonProperty("retain_days")
+        final int retainDays,
+        @JsonProperty("verify_sample_bytes")
+        final int verifySampleBytes,
+        @JsonProperty("source_nodes")
+        final List<String> sourceNodes) {
 
         return new BackupRestoreContext(
             nodeId,
@@ -56,7 +110,15 @@ public class BackupRestoreContext implements ClusterTaskContext {
             accountId,
             secretKey,
             usesEmc,
-            restoreType);
+            restoreType,
+            maxBytesPerSecond,
+            maxConcurrentFiles,
+            keySpaces,
+            columnFamilies,
+            retainBackups,
+            retainDays,
+            verifySampleBytes,
+            sourceNodes);
     }
 
     @JsonProperty("node_id")
@@ -83,6 +145,30 @@ public class BackupRestoreContext implements ClusterTaskContext {
     @JsonProperty("restore_type")
     private final String restoreType;
 
+    @JsonProperty("max_bytes_per_second")
+    private final long maxBytesPerSecond;
+
+    @JsonProperty("max_concurrent_files")
+    private final int maxConcurrentFiles;
+
+    @JsonProperty("key_spaces")
+    private final List<String> keySpaces;
+
+    @JsonProperty("column_families")
+    private final List<String> columnFamilies;
+
+    @JsonProperty("retain_backups")
+    private final int retainBackups;
+
+    @JsonProperty("retain_days")
+    private final int retainDays;
+
+    @JsonProperty("verify_sample_bytes")
+    private final int verifySampleBytes;
+
+    @JsonProperty("source_nodes")
+    private final List<String> sourceNodes;
+
     public BackupRestoreContext(final String nodeId,
                                 final String name,
                                 final String externalLocation,
@@ -91,6 +177,28 @@ public class BackupRestoreContext implements ClusterTaskContext {
                                 final String secretKey,
                                 final boolean usesEmc,
                                 final String restoreType) {
+        this(nodeId, name, externalLocation, localLocation, accountId,
+                secretKey, usesEmc, restoreType, UNLIMITED, UNLIMITED,
+                Collections.emptyList(), Collections.emptyList(), 0, 0, 0,
+                Collections.emptyList());
+    }
+
+    public BackupRestoreContext(final String nodeId,
+                                final String name,
+                                final String externalLocation,
+                                final String localLocation,
+                                final String accountId,
+                                final String secretKey,
+                                final boolean usesEmc,
+                                final String restoreType,
+                                final long maxBytesPerSecond,
+                                final int maxConcurrentFiles,
+                                final List<String> keySpaces,
+                                final List<String> columnFamilies,
+                                final int retainBackups,
+                                final int retainDays,
+                                final int verifySampleBytes,
+                                final List<String> sourceNodes) {
         this.nodeId = nodeId;
         this.externalLocation = externalLocation;
         this.name = name;
@@ -99,6 +207,17 @@ public class BackupRestoreContext implements ClusterTaskContext {
         this.secretKey = secretKey;
         this.usesEmc = usesEmc;
         this.restoreType = restoreType;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxConcurrentFiles = maxConcurrentFiles;
+        this.keySpaces = (keySpaces == null) ? Collections.emptyList() :
+                keySpaces;
+        this.columnFamilies = (columnFamilies == null) ?
+                Collections.emptyList() : columnFamilies;
+        this.retainBackups = retainBackups;
+        this.retainDays = retainDays;
+        this.verifySampleBytes = verifySampleBytes;
+        this.sourceNodes = (sourceNodes == null) ? Collections.emptyList() :
+                sourceNodes;
     }
 
     /**
@@ -180,6 +299,135 @@ public class BackupRestoreContext implements ClusterTaskContext {
     @JsonProperty("restore_type")
     public String getRestoreType() { return restoreType; }
 
+    /**
+     * Gets the maximum rate at which a node transfers backup data.
+     *
+     * @return The maximum number of bytes per second uploaded or downloaded
+     * by a node, or UNLIMITED.
+     */
+    @JsonProperty("max_bytes_per_second")
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * Gets the maximum number of files a node transfers concurrently. A
+     * restore also uses it as the maximum number of tables a node loads
+     * concurrently, whether it streams them with the bulk loader or
+     * refreshes them, so the same limit bounds both the downloads and the
+     * loads of a restore.
+     *
+     * @return The maximum number of snapshot files read or written at the
+     * same time by a node, or UNLIMITED.
+     */
+    @JsonProperty("max_concurrent_files")
+    public int getMaxConcurrentFiles() {
+        return maxConcurrentFiles;
+    }
+
+    /**
+     * Gets the key spaces selected by the backup.
+     *
+     * @return The names of the key spaces to back up. If empty, all non
+     * system key spaces are backed up.
+     */
+    @JsonProperty("key_spaces")
+    public List<String> getKeySpaces() {
+        return keySpaces;
+    }
+
+    /**
+     * Gets the column families selected by the backup.
+     *
+     * @return The names of the column families to back up in each selected
+     * key space. If empty, all column families are backed up.
+     */
+    @JsonProperty("column_families")
+    public List<String> getColumnFamilies() {
+        return columnFamilies;
+    }
+
+    /**
+     * Gets the number of backups retained in the external location.
+     *
+     * @return The number of most recent backups that are retained when the
+     * backups are pruned. If 0, backups are not expired by count.
+     */
+    @JsonProperty("retain_backups")
+    public int getRetainBackups() {
+        return retainBackups;
+    }
+
+    /**
+     * Gets the number of days backups are retained in the external location.
+     *
+     * @return The number of days backups are retained when the backups are
+     * pruned. If 0, backups are not expired by age.
+     */
+    @JsonProperty("retain_days")
+    public int getRetainDays() {
+        return retainDays;
+    }
+
+    /**
+     * Gets the number of bytes read from each file when a backup is
+     * verified.
+     *
+     * @return The number of bytes at the end of each file of the backup that
+     * are read to check that it can be downloaded. If 0, only the size and
+     * checksum recorded by the external location are checked.
+     */
+    @JsonProperty("verify_sample_bytes")
+    public int getVerifySampleBytes() {
+        return verifySampleBytes;
+    }
+
+    /**
+     * Gets the nodes of the backup that are restored by the node.
+     *
+     * @return The ids of the nodes of the backed up cluster whose files the
+     * node restores. If empty, the node restores the files backed up by the
+     * node with the same id.
+     */
+    @JsonProperty("source_nodes")
+    public List<String> getSourceNodes() {
+        return sourceNodes;
+    }
+
+    /**
+     * Gets the ids of the nodes whose backups are restored.
+     *
+     * @return The source nodes of the restore, or the id of the node if it
+     * restores its own backup.
+     */
+    @JsonIgnore
+    public List<String> getRestoredNodes() {
+        return sourceNodes.isEmpty() ?
+                Collections.singletonList(nodeId) : sourceNodes;
+    }
+
+    /**
+     * Gets whether the backup is restored to a cluster with a different
+     * topology.
+     *
+     * @return True if the nodes restore the backups of source nodes other
+     * than themselves.
+     */
+    @JsonIgnore
+    public boolean hasSourceNodes() {
+        return !sourceNodes.isEmpty();
+    }
+
+    /**
+     * Gets whether the backups should be pruned.
+     *
+     * @return True if a retention policy is set.
+     */
+    @JsonIgnore
+    public boolean hasRetentionPolicy() {
+        return retainBackups > 0 || retainDays > 0;
+    }
+
     @Override
     public String toString() {
         return JsonUtils.toJsonString(this);
@@ -198,38 +446,204 @@ public class BackupRestoreContext implements ClusterTaskContext {
                         that.getLocalLocation()) &&
                 Objects.equals(getAccountId(), that.getAccountId()) &&
                 Objects.equals(getSecretKey(), that.getSecretKey()) &&
-                Objects.equals(getRestoreType(), that.getRestoreType());
+                Objects.equals(getRestoreType(), that.getRestoreType()) &&
+                getMaxBytesPerSecond() == that.getMaxBytesPerSecond() &&
+                getMaxConcurrentFiles() == that.getMaxConcurrentFiles() &&
+                Objects.equals(getKeySpaces(), that.getKeySpaces()) &&
+                Objects.equals(getColumnFamilies(), that.getColumnFamilies()) &&
+                getRetainBackups() == that.getRetainBackups() &&
+                getRetainDays() == that.getRetainDays() &&
+                getVerifySampleBytes() == that.getVerifySampleBytes() &&
+                Objects.equals(getSourceNodes(), that.getSourceNodes());
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(getNodeId(), getName(), getExternalLocation(),
-                getLocalLocation(), getAccountId(), getSecretKey(), getRestoreType());
+                getLocalLocation(), getAccountId(), getSecretKey(), getRestoreType(),
+                getMaxBytesPerSecond(), getMaxConcurrentFiles(), getKeySpaces(),
+                getColumnFamilies(), getRetainBackups(), getRetainDays(),
+                getVerifySampleBytes(), getSourceNodes());
     }
 
     @JsonIgnore
     public BackupRestoreContext forNode(final String nodeId){
-        return create(
-            nodeId,
-            name,
-            externalLocation,
-            localLocation,
-            accountId,
-            secretKey,
-            usesEmc,
-            restoreType);
+        return toBuilder().setNodeId(nodeId).build();
     }
 
     @JsonIgnore
     public BackupRestoreContext withLocalLocation(final String localLocation){
-        return create(
-            nodeId,
-            name,
-            externalLocation,
-            localLocation,
-            accountId,
-            secretKey,
-            usesEmc,
-            restoreType);
+        return toBuilder().setLocalLocation(localLocation).build();
+    }
+
+    @JsonIgnore
+    public BackupRestoreContext withSourceNodes(final List<String> sourceNodes){
+        return toBuilder().setSourceNodes(sourceNodes).build();
+    }
+
+    @JsonIgnore
+    public BackupRestoreContext withExternalLocation(final String externalLocation,
+                                                     final String accountId,
+                                                     final String secretKey,
+                                                     final boolean usesEmc){
+        return toBuilder()
+                .setExternalLocation(externalLocation)
+                .setAccountId(accountId)
+                .setSecretKey(secretKey)
+                .setUsesEmc(usesEmc)
+                .build();
+    }
+
+    /**
+     * Gets a builder initialized with the properties of this context.
+     *
+     * @return A new builder.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Builder builds BackupRestoreContexts.
+     */
+    public static class Builder {
+        private String nodeId;
+        private String name;
+        private String externalLocation;
+        private String localLocation;
+        private String accountId;
+        private String secretKey;
+        private boolean usesEmc;
+        private String restoreType;
+        private long maxBytesPerSecond = UNLIMITED;
+        private int maxConcurrentFiles = UNLIMITED;
+        private List<String> keySpaces = Collections.emptyList();
+        private List<String> columnFamilies = Collections.emptyList();
+        private int retainBackups;
+        private int retainDays;
+        private int verifySampleBytes;
+        private List<String> sourceNodes = Collections.emptyList();
+
+        private Builder() {
+        }
+
+        private Builder(final BackupRestoreContext context) {
+            this.nodeId = context.nodeId;
+            this.name = context.name;
+            this.externalLocation = context.externalLocation;
+            this.localLocation = context.localLocation;
+            this.accountId = context.accountId;
+            this.secretKey = context.secretKey;
+            this.usesEmc = context.usesEmc;
+            this.restoreType = context.restoreType;
+            this.maxBytesPerSecond = context.maxBytesPerSecond;
+            this.maxConcurrentFiles = context.maxConcurrentFiles;
+            this.keySpaces = context.keySpaces;
+            this.columnFamilies = context.columnFamilies;
+            this.retainBackups = context.retainBackups;
+            this.retainDays = context.retainDays;
+            this.verifySampleBytes = context.verifySampleBytes;
+            this.sourceNodes = context.sourceNodes;
+        }
+
+        public Builder setNodeId(final String nodeId) {
+            this.nodeId = nodeId;
+            return this;
+        }
+
+        public Builder setName(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder setExternalLocation(final String externalLocation) {
+            this.externalLocation = externalLocation;
+            return this;
+        }
+
+        public Builder setLocalLocation(final String localLocation) {
+            this.localLocation = localLocation;
+            return this;
+        }
+
+        public Builder setAccountId(final String accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Builder setSecretKey(final String secretKey) {
+            this.secretKey = secretKey;
+            return this;
+        }
+
+        public Builder setUsesEmc(final boolean usesEmc) {
+            this.usesEmc = usesEmc;
+            return this;
+        }
+
+        public Builder setRestoreType(final String restoreType) {
+            this.restoreType = restoreType;
+            return this;
+        }
+
+        public Builder setMaxBytesPerSecond(final long maxBytesPerSecond) {
+            this.maxBytesPerSecond = maxBytesPerSecond;
+            return this;
+        }
+
+        public Builder setMaxConcurrentFiles(final int maxConcurrentFiles) {
+            this.maxConcurrentFiles = maxConcurrentFiles;
+            return this;
+        }
+
+        public Builder setKeySpaces(final List<String> keySpaces) {
+            this.keySpaces = keySpaces;
+            return this;
+        }
+
+        public Builder setColumnFamilies(final List<String> columnFamilies) {
+            this.columnFamilies = columnFamilies;
+            return this;
+        }
+
+        public Builder setRetainBackups(final int retainBackups) {
+            this.retainBackups = retainBackups;
+            return this;
+        }
+
+        public Builder setRetainDays(final int retainDays) {
+            this.retainDays = retainDays;
+            return this;
+        }
+
+        public Builder setVerifySampleBytes(final int verifySampleBytes) {
+            this.verifySampleBytes = verifySampleBytes;
+            return this;
+        }
+
+        public Builder setSourceNodes(final List<String> sourceNodes) {
+            this.sourceNodes = sourceNodes;
+            return this;
+        }
+
+        public BackupRestoreContext build() {
+            return new BackupRestoreContext(
+                nodeId,
+                name,
+                externalLocation,
+                localLocation,
+                accountId,
+                secretKey,
+                usesEmc,
+                restoreType,
+                maxBytesPerSecond,
+                maxConcurrentFiles,
+                keySpaces,
+                columnFamilies,
+                retainBackups,
+                retainDays,
+                verifySampleBytes,
+                sourceNodes);
+        }
     }
 }
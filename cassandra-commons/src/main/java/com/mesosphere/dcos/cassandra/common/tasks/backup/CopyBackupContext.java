@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskContext;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+
+import java.util.Objects;
+
+/**
+ * CopyBackupContext implements ClusterTaskContext to provide a context for
+ * copying a backup from one external location to another. The source and
+ * the destination are the contexts of the same backup in each location.
+ */
+public class CopyBackupContext implements ClusterTaskContext {
+
+    /**
+     * Creates a new CopyBackupContext.
+     *
+     * @param source      The context of the backup in the external location
+     *                    it is copied from.
+     * @param destination The context of the backup in the external location
+     *                    it is copied to.
+     * @return A CopyBackupContext constructed from the parameters.
+     */
+    @JsonCreator
+    public static CopyBackupContext create(
+            @JsonProperty("source") final BackupRestoreContext source,
+            @JsonProperty("destination") final BackupRestoreContext destination) {
+        return new CopyBackupContext(source, destination);
+    }
+
+    @JsonProperty("source")
+    private final BackupRestoreContext source;
+    @JsonProperty("destination")
+    private final BackupRestoreContext destination;
+
+    /**
+     * Constructs a new CopyBackupContext.
+     *
+     * @param source      The context of the backup in the external location
+     *                    it is copied from.
+     * @param destination The context of the backup in the external location
+     *                    it is copied to.
+     */
+    public CopyBackupContext(final BackupRestoreContext source,
+                             final BackupRestoreContext destination) {
+        this.source = source;
+        this.destination = destination;
+    }
+
+    /**
+     * Gets the source of the copy.
+     *
+     * @return The context of the backup in the external location it is
+     * copied from.
+     */
+    @JsonIgnore
+    public BackupRestoreContext getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the destination of the copy.
+     *
+     * @return The context of the backup in the external location it is
+     * copied to.
+     */
+    @JsonIgnore
+    public BackupRestoreContext getDestination() {
+        return destination;
+    }
+
+    /**
+     * Gets the context of the copy for a node.
+     *
+     * @param nodeId The id of the node that copies the backup.
+     * @return The context with the node id of both locations set to nodeId.
+     */
+    @JsonIgnore
+    public CopyBackupContext forNode(final String nodeId) {
+        return create(source.forNode(nodeId), destination.forNode(nodeId));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CopyBackupContext)) return false;
+        CopyBackupContext that = (CopyBackupContext) o;
+        return Objects.equals(getSource(), that.getSource()) &&
+                Objects.equals(getDestination(), that.getDestination());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getSource(), getDestination());
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
@@ -0,0 +1,19 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+
+/**
+ * CopyBackupStatus extends CassandraTaskStatus to implement the status
+ * Object for the CopyBackup task.
+ */
+public class CopyBackupStatus extends CassandraTaskStatus {
+
+    public static CopyBackupStatus create(final Protos.TaskStatus status) {
+        return new CopyBackupStatus(status);
+    }
+
+    protected CopyBackupStatus(final Protos.TaskStatus status) {
+        super(status);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+import org.apache.mesos.offer.TaskUtils;
+
+import java.util.Optional;
+
+/**
+ * CopyBackupTask extends CassandraTask to implement a task that copies a
+ * backup from one external location to another. The copy is made by the
+ * storage service, so the files of the backup do not pass through the node,
+ * and a single task copies the backups of all nodes.
+ * The task can only be launched successfully if the CassandraDaemonTask is
+ * running on the targeted slave.
+ */
+public class CopyBackupTask extends CassandraTask {
+
+    /**
+     * The name prefix for CopyBackupTasks.
+     */
+    public static final String NAME_PREFIX = "copybackup-";
+
+    /**
+     * Gets the name of a CopyBackupTask for a CassandraDaemonTask.
+     *
+     * @param daemonName The name of the CassandraDaemonTask.
+     * @return The name of the CopyBackupTask for daemonName.
+     */
+    public static final String nameForDaemon(final String daemonName) {
+        return NAME_PREFIX + daemonName;
+    }
+
+    /**
+     * Gets the name of a CopyBackupTask for a CassandraDaemonTask.
+     *
+     * @param daemon The CassandraDaemonTask whose node copies the backup.
+     * @return The name of the CopyBackupTask for daemon.
+     */
+    public static final String nameForDaemon(final CassandraDaemonTask daemon) {
+        return nameForDaemon(daemon.getName());
+    }
+
+
+    public static CopyBackupTask parse(final Protos.TaskInfo info) {
+        return new CopyBackupTask(info);
+    }
+
+
+    public static CopyBackupTask create(
+            final Protos.TaskInfo template,
+            final CassandraDaemonTask daemon,
+            final CopyBackupContext context) {
+
+        String name = nameForDaemon(daemon);
+        CassandraData data = CassandraData.createCopyBackupData(
+                "",
+                context.forNode(daemon.getName()));
+
+        Protos.TaskInfo completedTemplate = Protos.TaskInfo.newBuilder(template)
+                .setName(name)
+                .setTaskId(TaskUtils.toTaskId(name))
+                .setData(data.getBytes())
+                .build();
+
+        completedTemplate = org.apache.mesos.offer.TaskUtils.clearTransient(completedTemplate);
+
+        return new CopyBackupTask(completedTemplate);
+    }
+
+    /**
+     * Constructs a new CopyBackupTask.
+     */
+    protected CopyBackupTask(final Protos.TaskInfo info) {
+        super(info);
+    }
+
+    @Override
+    public CopyBackupTask update(Protos.Offer offer) {
+        return new CopyBackupTask(getBuilder()
+                .setSlaveId(offer.getSlaveId())
+                .setData(getData().withHostname(offer.getHostname()).getBytes())
+                .build());
+    }
+
+    @Override
+    public CopyBackupTask updateId() {
+        return new CopyBackupTask(getBuilder().setTaskId(createId(getName()))
+                .build());
+    }
+
+    @Override
+    public CopyBackupTask update(CassandraTaskStatus status) {
+        if (status.getType() == TYPE.COPY_BACKUP &&
+                getId().equalsIgnoreCase(status.getId())) {
+            return update(status.getState());
+        }
+        return this;
+    }
+
+    @Override
+    public CopyBackupTask update(Protos.TaskState state) {
+        return new CopyBackupTask(getBuilder().setData(
+                getData().withState(state).getBytes()).build());
+    }
+
+    @Override
+    public CopyBackupStatus createStatus(
+            Protos.TaskState state,
+            Optional<String> message) {
+
+        Protos.TaskStatus.Builder builder = getStatusBuilder();
+        if (message.isPresent()) {
+            builder.setMessage(message.get());
+        }
+
+        return CopyBackupStatus.create(builder
+                .setData(CassandraData.createCopyBackupStatusData().getBytes())
+                .setState(state)
+                .build());
+    }
+
+
+    public CopyBackupContext getCopyBackupContext() {
+        return getData().getCopyBackupContext();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.CassandraProtos;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * TransferProgress is the progress of the upload or download of the files
+ * of a backup by a node. It is sent to the scheduler with the TASK_RUNNING
+ * status updates of the task, so that the progress of a backup or restore
+ * can be aggregated across the cluster.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransferProgress {
+
+    /**
+     * The progress of a transfer that has not started.
+     */
+    public static final TransferProgress NONE =
+            new TransferProgress(0, 0, 0, 0, 0);
+
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    @JsonProperty("files")
+    private final long files;
+    @JsonProperty("total_files")
+    private final long totalFiles;
+    @JsonProperty("bytes")
+    private final long bytes;
+    @JsonProperty("total_bytes")
+    private final long totalBytes;
+    @JsonProperty("bytes_per_second")
+    private final double bytesPerSecond;
+
+    /**
+     * Creates a new TransferProgress.
+     *
+     * @param files          The number of files transferred.
+     * @param totalFiles     The number of files to transfer.
+     * @param bytes          The number of bytes transferred.
+     * @param totalBytes     The number of bytes to transfer.
+     * @param bytesPerSecond The current rate of the transfer.
+     * @return A TransferProgress constructed from the parameters.
+     */
+    @JsonCreator
+    public static TransferProgress create(
+            @JsonProperty("files") final long files,
+            @JsonProperty("total_files") final long totalFiles,
+            @JsonProperty("bytes") final long bytes,
+            @JsonProperty("total_bytes") final long totalBytes,
+            @JsonProperty("bytes_per_second") final double bytesPerSecond) {
+        return new TransferProgress(files, totalFiles, bytes, totalBytes,
+                bytesPerSecond);
+    }
+
+    /**
+     * Parses a TransferProgress from a Protocol Buffers representation.
+     *
+     * @param progress A Protocol Buffers representation of a
+     *                 TransferProgress.
+     * @return A TransferProgress parsed from the Protocol Buffers
+     * representation.
+     */
+    public static TransferProgress parse(
+            final CassandraProtos.TransferProgress progress) {
+        return create(progress.getFiles(),
+                progress.getTotalFiles(),
+                progress.getBytes(),
+                progress.getTotalBytes(),
+                progress.getBytesPerSecond());
+    }
+
+    /**
+     * Sums the progress of the transfers of several nodes.
+     *
+     * @param progress The progress of each node.
+     * @return The combined progress of the nodes, whose rate is the sum of
+     * the rates of the nodes.
+     */
+    public static TransferProgress sum(
+            final Collection<TransferProgress> progress) {
+        long files = 0;
+        long totalFiles = 0;
+        long bytes = 0;
+        long totalBytes = 0;
+        double bytesPerSecond = 0;
+        for (TransferProgress node : progress) {
+            files += node.files;
+            totalFiles += node.totalFiles;
+            bytes += node.bytes;
+            totalBytes += node.totalBytes;
+            bytesPerSecond += node.bytesPerSecond;
+        }
+        return create(files, totalFiles, bytes, totalBytes, bytesPerSecond);
+    }
+
+    private static String formatDuration(final long seconds) {
+        if (seconds >= 3600) {
+            return String.format("%dh %02dm %02ds", seconds / 3600,
+                    (seconds % 3600) / 60, seconds % 60);
+        } else if (seconds >= 60) {
+            return String.format("%dm %02ds", seconds / 60, seconds % 60);
+        } else {
+            return seconds + "s";
+        }
+    }
+
+    /**
+     * Constructs a new TransferProgress.
+     *
+     * @param files          The number of files transferred.
+     * @param totalFiles     The number of files to transfer.
+     * @param bytes          The number of bytes transferred.
+     * @param totalBytes     The number of bytes to transfer.
+     * @param bytesPerSecond The current rate of the transfer.
+     */
+    public TransferProgress(final long files,
+                            final long totalFiles,
+                            final long bytes,
+                            final long totalBytes,
+                            final double bytesPerSecond) {
+        this.files = files;
+        this.totalFiles = totalFiles;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Gets the number of files transferred.
+     *
+     * @return The number of files that have been transferred or that did
+     * not need to be transferred.
+     */
+    public long getFiles() {
+        return files;
+    }
+
+    /**
+     * Gets the number of files to transfer.
+     *
+     * @return The number of files of the transfer known so far.
+     */
+    public long getTotalFiles() {
+        return totalFiles;
+    }
+
+    /**
+     * Gets the number of bytes transferred.
+     *
+     * @return The number of bytes that have been transferred or that did
+     * not need to be transferred.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of bytes to transfer.
+     *
+     * @return The size of the files of the transfer known so far.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the rate of the transfer.
+     *
+     * @return The recent rate of the transfer in bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Gets the completion of the transfer.
+     *
+     * @return The percentage of the bytes that have been transferred.
+     */
+    @JsonProperty("percent_complete")
+    public int getPercentComplete() {
+        if (totalBytes == 0) {
+            return totalFiles > 0 && files >= totalFiles ? 100 : 0;
+        }
+        return (int) Math.min(100, bytes * 100 / totalBytes);
+    }
+
+    /**
+     * Gets the estimated time until the transfer completes.
+     *
+     * @return The number of seconds to transfer the remaining bytes at the
+     * current rate, or -1 if there is no current rate.
+     */
+    @JsonProperty("eta_seconds")
+    public long getEtaSeconds() {
+        final long remaining = Math.max(0, totalBytes - bytes);
+        if (remaining == 0) {
+            return 0;
+        }
+        return bytesPerSecond > 0 ?
+                (long) Math.ceil(remaining / bytesPerSecond) : -1;
+    }
+
+    /**
+     * Gets a Protocol Buffers representation of the TransferProgress.
+     *
+     * @return A Protocol Buffers representation of the TransferProgress.
+     */
+    public CassandraProtos.TransferProgress toProto() {
+        return CassandraProtos.TransferProgress.newBuilder()
+                .setFiles(files)
+                .setTotalFiles(totalFiles)
+                .setBytes(bytes)
+                .setTotalBytes(totalBytes)
+                .setBytesPerSecond(bytesPerSecond)
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TransferProgress)) return false;
+        TransferProgress that = (TransferProgress) o;
+        return files == that.files &&
+                totalFiles == that.totalFiles &&
+                bytes == that.bytes &&
+                totalBytes == that.totalBytes &&
+                Double.compare(that.bytesPerSecond, bytesPerSecond) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(files, totalFiles, bytes, totalBytes,
+                bytesPerSecond);
+    }
+
+    @Override
+    public String toString() {
+        final long eta = getEtaSeconds();
+        return String.format("%d of %d files, %.1f of %.1f MB (%d%%), " +
+                        "%.1f MB/s, ETA %s",
+                files, totalFiles,
+                bytes / BYTES_PER_MB, totalBytes / BYTES_PER_MB,
+                getPercentComplete(),
+                bytesPerSecond / BYTES_PER_MB,
+                eta < 0 ? "unknown" : formatDuration(eta));
+    }
+}
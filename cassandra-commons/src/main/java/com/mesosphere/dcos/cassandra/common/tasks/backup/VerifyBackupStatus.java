@@ -0,0 +1,19 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+
+/**
+ * VerifyBackupStatus extends CassandraTaskStatus to implement the status
+ * Object for the VerifyBackup task.
+ */
+public class VerifyBackupStatus extends CassandraTaskStatus {
+
+    public static VerifyBackupStatus create(final Protos.TaskStatus status) {
+        return new VerifyBackupStatus(status);
+    }
+
+    protected VerifyBackupStatus(final Protos.TaskStatus status) {
+        super(status);
+    }
+}
@@ -0,0 +1,132 @@
+package com.mesosphere.dcos.cassandra.common.tasks.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTaskStatus;
+import org.apache.mesos.Protos;
+import org.apache.mesos.offer.TaskUtils;
+
+import java.util.Optional;
+
+/**
+ * VerifyBackupTask extends CassandraTask to implement a task that verifies
+ * the files of the backup of a node in the external location against the
+ * manifest of the backup, without downloading them.
+ * The task can only be launched successfully if the CassandraDaemonTask is
+ * running on the targeted slave.
+ */
+public class VerifyBackupTask extends CassandraTask {
+
+    /**
+     * The name prefix for VerifyBackupTasks.
+     */
+    public static final String NAME_PREFIX = "verifybackup-";
+
+    /**
+     * Gets the name of a VerifyBackupTask for a CassandraDaemonTask.
+     *
+     * @param daemonName The name of the CassandraDaemonTask.
+     * @return The name of the VerifyBackupTask for daemonName.
+     */
+    public static final String nameForDaemon(final String daemonName) {
+        return NAME_PREFIX + daemonName;
+    }
+
+    /**
+     * Gets the name of a VerifyBackupTask for a CassandraDaemonTask.
+     *
+     * @param daemon The CassandraDaemonTask whose node verifies its
+     *               backup.
+     * @return The name of the VerifyBackupTask for daemon.
+     */
+    public static final String nameForDaemon(final CassandraDaemonTask daemon) {
+        return nameForDaemon(daemon.getName());
+    }
+
+
+    public static VerifyBackupTask parse(final Protos.TaskInfo info) {
+        return new VerifyBackupTask(info);
+    }
+
+
+    public static VerifyBackupTask create(
+            final Protos.TaskInfo template,
+            final CassandraDaemonTask daemon,
+            final BackupRestoreContext context) {
+
+        String name = nameForDaemon(daemon);
+        CassandraData data = CassandraData.createVerifyBackupData(
+                "",
+                context
+                        .forNode(daemon.getName())
+                        .withLocalLocation(daemon.getVolumePath() + "/data"));
+
+        Protos.TaskInfo completedTemplate = Protos.TaskInfo.newBuilder(template)
+                .setName(name)
+                .setTaskId(TaskUtils.toTaskId(name))
+                .setData(data.getBytes())
+                .build();
+
+        completedTemplate = org.apache.mesos.offer.TaskUtils.clearTransient(completedTemplate);
+
+        return new VerifyBackupTask(completedTemplate);
+    }
+
+    /**
+     * Constructs a new VerifyBackupTask.
+     */
+    protected VerifyBackupTask(final Protos.TaskInfo info) {
+        super(info);
+    }
+
+    @Override
+    public VerifyBackupTask update(Protos.Offer offer) {
+        return new VerifyBackupTask(getBuilder()
+                .setSlaveId(offer.getSlaveId())
+                .setData(getData().withHostname(offer.getHostname()).getBytes())
+                .build());
+    }
+
+    @Override
+    public VerifyBackupTask updateId() {
+        return new VerifyBackupTask(getBuilder().setTaskId(createId(getName()))
+                .build());
+    }
+
+    @Override
+    public VerifyBackupTask update(CassandraTaskStatus status) {
+        if (status.getType() == TYPE.VERIFY_BACKUP &&
+                getId().equalsIgnoreCase(status.getId())) {
+            return update(status.getState());
+        }
+        return this;
+    }
+
+    @Override
+    public VerifyBackupTask update(Protos.TaskState state) {
+        return new VerifyBackupTask(getBuilder().setData(
+                getData().withState(state).getBytes()).build());
+    }
+
+    @Override
+    public VerifyBackupStatus createStatus(
+            Protos.TaskState state,
+            Optional<String> message) {
+
+        Protos.TaskStatus.Builder builder = getStatusBuilder();
+        if (message.isPresent()) {
+            builder.setMessage(message.get());
+        }
+
+        return VerifyBackupStatus.create(builder
+                .setData(CassandraData.createVerifyBackupStatusData().getBytes())
+                .setState(state)
+                .build());
+    }
+
+
+    public BackupRestoreContext getBackupRestoreContext() {
+        return getData().getBackupRestoreContext();
+    }
+}
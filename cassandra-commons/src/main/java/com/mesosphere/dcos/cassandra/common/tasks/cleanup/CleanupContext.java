@@ -24,6 +24,7 @@ import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 
 /**
@@ -36,9 +37,20 @@ import java.util.Objects;
  * used.
  * If the column families for the context are empty, all non-system column
  * families are used.
+ * Each node cleans up to parallelKeySpaces key spaces at a time, with jobs
+ * SSTables cleaned concurrently per key space, and may override its
+ * compaction throughput for the duration of the cleanup.
  */
 public class CleanupContext implements ClusterTaskContext {
 
+    /**
+     * The default number of SSTables cleaned concurrently, 0 to use all
+     * compaction threads.
+     */
+    public static final int DEFAULT_JOBS = 0;
+
+    public static final int DEFAULT_PARALLEL_KEY_SPACES = 1;
+
     /**
      * Creates a new CleanupContext
      * @param nodes The nodes that will be cleaned up.
@@ -46,13 +58,45 @@ public class CleanupContext implements ClusterTaskContext {
      *                  non-system key spaces will be cleaned up.
      * @param columnFamilies The column families that will be cleaned up. If
      *                       empty, all column families will be clean up.
+     * @param jobs The number of SSTables of a key space cleaned
+     *             concurrently. If null or 0, all compaction threads are
+     *             used.
+     * @param compactionThroughputMbPerSec The compaction throughput of the
+     *                                     node during the cleanup, 0 for
+     *                                     unthrottled. If null, the
+     *                                     throughput is not changed.
+     * @param parallelKeySpaces The number of key spaces cleaned at a time.
+     *                          If null, DEFAULT_PARALLEL_KEY_SPACES.
      * @return A CleanupContext constructed from the parameters.
      */
     @JsonCreator
     public static CleanupContext create(
             @JsonProperty("nodes") final List<String> nodes,
             @JsonProperty("key_spaces") final List<String> keySpaces,
-            @JsonProperty("column_families") final List<String> columnFamilies) {
+            @JsonProperty("column_families") final List<String> columnFamilies,
+            @JsonProperty("jobs") final Integer jobs,
+            @JsonProperty("compaction_throughput_mb_per_sec")
+            final Integer compactionThroughputMbPerSec,
+            @JsonProperty("parallel_key_spaces")
+            final Integer parallelKeySpaces) {
+        return new CleanupContext(nodes, keySpaces, columnFamilies, jobs,
+                compactionThroughputMbPerSec, parallelKeySpaces);
+    }
+
+    /**
+     * Creates a new CleanupContext with the default jobs and parallelism,
+     * that does not change the compaction throughput.
+     * @param nodes The nodes that will be cleaned up.
+     * @param keySpaces The key spaces that will be cleaned up. If empty, all
+     *                  non-system key spaces will be cleaned up.
+     * @param columnFamilies The column families that will be cleaned up. If
+     *                       empty, all column families will be clean up.
+     * @return A CleanupContext constructed from the parameters.
+     */
+    public static CleanupContext create(
+            final List<String> nodes,
+            final List<String> keySpaces,
+            final List<String> columnFamilies) {
         return new CleanupContext(nodes, keySpaces, columnFamilies);
     }
 
@@ -62,6 +106,12 @@ public class CleanupContext implements ClusterTaskContext {
     private final List<String> keySpaces;
     @JsonProperty("column_families")
     private final List<String> columnFamilies;
+    @JsonProperty("jobs")
+    private final int jobs;
+    @JsonProperty("compaction_throughput_mb_per_sec")
+    private final Integer compactionThroughputMbPerSec;
+    @JsonProperty("parallel_key_spaces")
+    private final int parallelKeySpaces;
 
     /**
      * Constructs a new CleanupContext
@@ -74,6 +124,30 @@ public class CleanupContext implements ClusterTaskContext {
     public CleanupContext(final List<String> nodes,
                           final List<String> keySpaces,
                           final List<String> columnFamilies) {
+        this(nodes, keySpaces, columnFamilies, null, null, null);
+    }
+
+    /**
+     * Constructs a new CleanupContext
+     * @param nodes The nodes that will be cleaned up.
+     * @param keySpaces The key spaces that will be cleaned up. If empty, all
+     *                  non-system key spaces will be cleaned up.
+     * @param columnFamilies The column families that will be cleaned up. If
+     *                       empty, all column families will be clean up.
+     * @param jobs The number of SSTables of a key space cleaned
+     *             concurrently. If null, DEFAULT_JOBS.
+     * @param compactionThroughputMbPerSec The compaction throughput of the
+     *                                     node during the cleanup. If null,
+     *                                     the throughput is not changed.
+     * @param parallelKeySpaces The number of key spaces cleaned at a time.
+     *                          If null, DEFAULT_PARALLEL_KEY_SPACES.
+     */
+    public CleanupContext(final List<String> nodes,
+                          final List<String> keySpaces,
+                          final List<String> columnFamilies,
+                          final Integer jobs,
+                          final Integer compactionThroughputMbPerSec,
+                          final Integer parallelKeySpaces) {
         this.nodes = (nodes == null) ? Collections.emptyList() : nodes;
         this.keySpaces = (keySpaces == null) ?
                 Collections.emptyList() :
@@ -81,6 +155,11 @@ public class CleanupContext implements ClusterTaskContext {
         this.columnFamilies = (columnFamilies == null) ?
                 Collections.emptyList() :
                 columnFamilies;
+        this.jobs = (jobs == null) ? DEFAULT_JOBS : jobs;
+        this.compactionThroughputMbPerSec = compactionThroughputMbPerSec;
+        this.parallelKeySpaces = (parallelKeySpaces == null) ?
+                DEFAULT_PARALLEL_KEY_SPACES :
+                parallelKeySpaces;
     }
 
     /**
@@ -112,6 +191,35 @@ public class CleanupContext implements ClusterTaskContext {
         return keySpaces;
     }
 
+    /**
+     * Gets the jobs of the cleanup.
+     * @return The number of SSTables of a key space cleaned concurrently, 0
+     * to use all compaction threads.
+     */
+    @JsonIgnore
+    public int getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Gets the compaction throughput of the cleanup.
+     * @return The compaction throughput in MB/s of a node while it cleans,
+     * 0 for unthrottled, or empty if the throughput is not changed.
+     */
+    @JsonIgnore
+    public Optional<Integer> getCompactionThroughputMbPerSec() {
+        return Optional.ofNullable(compactionThroughputMbPerSec);
+    }
+
+    /**
+     * Gets the parallelism of the cleanup.
+     * @return The number of key spaces a node cleans at a time.
+     */
+    @JsonIgnore
+    public int getParallelKeySpaces() {
+        return parallelKeySpaces;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -120,12 +228,18 @@ public class CleanupContext implements ClusterTaskContext {
         return Objects.equals(getNodes(), that.getNodes()) &&
                 Objects.equals(getKeySpaces(), that.getKeySpaces()) &&
                 Objects.equals(getColumnFamilies(),
-                        that.getColumnFamilies());
+                        that.getColumnFamilies()) &&
+                getJobs() == that.getJobs() &&
+                Objects.equals(getCompactionThroughputMbPerSec(),
+                        that.getCompactionThroughputMbPerSec()) &&
+                getParallelKeySpaces() == that.getParallelKeySpaces();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamilies());
+        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamilies(),
+                getJobs(), getCompactionThroughputMbPerSec(),
+                getParallelKeySpaces());
     }
 
     @Override
@@ -20,19 +20,98 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskContext;
 import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * RepairContext implements ClusterTaskContext to provide a context for
- * cluster wide sequential, primary range, anti-entropy repair.
+ * cluster wide, primary range, anti-entropy repair. The primary ranges of
+ * each node are split into segments of about partitionsPerSegment
+ * partitions, of which parallelSegments are repaired at a time. A node may
+ * spread its segments over durationPerNodeMs, and pauses while its pending
+ * compactions or client request latency exceed the given limits.
  */
 public class RepairContext implements ClusterTaskContext {
 
+    /**
+     * The repair parallelism of Cassandra used by default.
+     */
+    public static final String DEFAULT_PARALLELISM = "sequential";
+
+    /**
+     * The repair parallelisms of Cassandra: the replicas of a segment are
+     * repaired one at a time, one at a time per data center, or all at once.
+     */
+    public static final List<String> PARALLELISMS = Collections.unmodifiableList(
+        Arrays.asList("sequential", "dc_parallel", "parallel"));
+
+    /**
+     * The number of segments a node repairs at a time by default.
+     */
+    public static final int DEFAULT_PARALLEL_SEGMENTS = 1;
+
+    /**
+     * The estimated number of partitions of a segment by default. Segments
+     * are repaired with full repairs, so repairs are not segmented unless
+     * requested, and run a single incremental repair of the primary ranges
+     * of each node.
+     */
+    public static final long DEFAULT_PARTITIONS_PER_SEGMENT = 0;
+
     /**
      * Creates a new RepairContext.
      *
+     * @param nodes                The nodes on which repair will be
+     *                             performed.
+     * @param keySpaces            The key spaces that will be repaired. If
+     *                             empty, all non-system key spaces will be
+     *                             repaired.
+     * @param columnFamilies       The column families that will be
+     *                             repaired. If empty, all column families for
+     *                             the indicated key spaces will be repaired.
+     * @param parallelism          The repair parallelism of each segment,
+     *                             one of PARALLELISMS.
+     * @param parallelSegments     The number of segments a node repairs at a
+     *                             time.
+     * @param partitionsPerSegment The estimated number of partitions of a
+     *                             segment. If not positive, each primary
+     *                             range is a segment.
+     * @param durationPerNodeMs    The time over which a node spreads its
+     *                             segments. If not positive, segments are
+     *                             repaired as fast as possible.
+     * @param maxPendingCompactions The number of pending compactions above
+     *                             which a node pauses its repair. If not
+     *                             positive, there is no limit.
+     * @param maxLatencyMs         The 99th percentile latency of client
+     *                             reads or writes above which a node pauses
+     *                             its repair. If not positive, there is no
+     *                             limit.
+     * @return A new RepairContext.
+     */
+    @JsonCreator
+    public static RepairContext create(
+        @JsonProperty("nodes") final List<String> nodes,
+        @JsonProperty("key_spaces") final List<String> keySpaces,
+        @JsonProperty("column_families") final List<String> columnFamilies,
+        @JsonProperty("parallelism") final String parallelism,
+        @JsonProperty("parallel_segments") final Integer parallelSegments,
+        @JsonProperty("partitions_per_segment")
+        final Long partitionsPerSegment,
+        @JsonProperty("duration_per_node_ms") final Long durationPerNodeMs,
+        @JsonProperty("max_pending_compactions")
+        final Long maxPendingCompactions,
+        @JsonProperty("max_latency_ms") final Long maxLatencyMs) {
+        return new RepairContext(nodes, keySpaces, columnFamilies,
+            parallelism, parallelSegments, partitionsPerSegment,
+            durationPerNodeMs, maxPendingCompactions, maxLatencyMs);
+    }
+
+    /**
+     * Creates a new RepairContext with the default parallelism and
+     * segments.
+     *
      * @param nodes          The nodes on which repair will be performed.
      * @param keySpaces      The key spaces that will be repaired. If empty, all
      *                       non-system key spaces will be repaired.
@@ -41,11 +120,10 @@ public class RepairContext implements ClusterTaskContext {
      *                       spaces will be repaired.
      * @return A new RepairContext.
      */
-    @JsonCreator
     public static RepairContext create(
-        @JsonProperty("nodes") final List<String> nodes,
-        @JsonProperty("key_spaces") final List<String> keySpaces,
-        @JsonProperty("column_families") final List<String> columnFamilies) {
+        final List<String> nodes,
+        final List<String> keySpaces,
+        final List<String> columnFamilies) {
         return new RepairContext(nodes, keySpaces, columnFamilies);
     }
 
@@ -55,20 +133,56 @@ public class RepairContext implements ClusterTaskContext {
     private final List<String> keySpaces;
     @JsonProperty("column_families")
     private final List<String> columnFamilies;
+    @JsonProperty("parallelism")
+    private final String parallelism;
+    @JsonProperty("parallel_segments")
+    private final int parallelSegments;
+    @JsonProperty("partitions_per_segment")
+    private final long partitionsPerSegment;
+    @JsonProperty("duration_per_node_ms")
+    private final long durationPerNodeMs;
+    @JsonProperty("max_pending_compactions")
+    private final long maxPendingCompactions;
+    @JsonProperty("max_latency_ms")
+    private final long maxLatencyMs;
 
     /**
      * Constructs a new RepairContext.
      *
-     * @param nodes          The nodes on which repair will be performed.
-     * @param keySpaces      The key spaces that will be repaired. If empty, all
-     *                       non-system key spaces will be repaired.
-     * @param columnFamilies The column families that will be repaired. If
-     *                       empty, all column families for the indicated key
-     *                       spaces will be repaired.
+     * @param nodes                The nodes on which repair will be
+     *                             performed.
+     * @param keySpaces            The key spaces that will be repaired. If
+     *                             empty, all non-system key spaces will be
+     *                             repaired.
+     * @param columnFamilies       The column families that will be
+     *                             repaired. If empty, all column families for
+     *                             the indicated key spaces will be repaired.
+     * @param parallelism          The repair parallelism of each segment. If
+     *                             null or empty, DEFAULT_PARALLELISM.
+     * @param parallelSegments     The number of segments a node repairs at a
+     *                             time. If null or not positive,
+     *                             DEFAULT_PARALLEL_SEGMENTS.
+     * @param partitionsPerSegment The estimated number of partitions of a
+     *                             segment. If null,
+     *                             DEFAULT_PARTITIONS_PER_SEGMENT.
+     * @param durationPerNodeMs    The time over which a node spreads its
+     *                             segments. If null, 0.
+     * @param maxPendingCompactions The number of pending compactions above
+     *                             which a node pauses its repair. If null,
+     *                             0.
+     * @param maxLatencyMs         The 99th percentile latency of client
+     *                             requests above which a node pauses its
+     *                             repair. If null, 0.
      */
     public RepairContext(final List<String> nodes,
                          final List<String> keySpaces,
-                         final List<String> columnFamilies) {
+                         final List<String> columnFamilies,
+                         final String parallelism,
+                         final Integer parallelSegments,
+                         final Long partitionsPerSegment,
+                         final Long durationPerNodeMs,
+                         final Long maxPendingCompactions,
+                         final Long maxLatencyMs) {
         this.nodes = (nodes == null) ? Collections.emptyList() : nodes;
         this.keySpaces = (keySpaces == null) ?
             Collections.emptyList() :
@@ -76,6 +190,39 @@ public class RepairContext implements ClusterTaskContext {
         this.columnFamilies = (columnFamilies == null) ?
             Collections.emptyList() :
             columnFamilies;
+        this.parallelism = (parallelism == null || parallelism.isEmpty()) ?
+            DEFAULT_PARALLELISM :
+            parallelism;
+        this.parallelSegments =
+            (parallelSegments == null || parallelSegments < 1) ?
+                DEFAULT_PARALLEL_SEGMENTS :
+                parallelSegments;
+        this.partitionsPerSegment = (partitionsPerSegment == null) ?
+            DEFAULT_PARTITIONS_PER_SEGMENT :
+            partitionsPerSegment;
+        this.durationPerNodeMs =
+            (durationPerNodeMs == null) ? 0 : durationPerNodeMs;
+        this.maxPendingCompactions =
+            (maxPendingCompactions == null) ? 0 : maxPendingCompactions;
+        this.maxLatencyMs = (maxLatencyMs == null) ? 0 : maxLatencyMs;
+    }
+
+    /**
+     * Constructs a new RepairContext with the default parallelism and
+     * segments.
+     *
+     * @param nodes          The nodes on which repair will be performed.
+     * @param keySpaces      The key spaces that will be repaired. If empty, all
+     *                       non-system key spaces will be repaired.
+     * @param columnFamilies The column families that will be repaired. If
+     *                       empty, all column families for the indicated key
+     *                       spaces will be repaired.
+     */
+    public RepairContext(final List<String> nodes,
+                         final List<String> keySpaces,
+                         final List<String> columnFamilies) {
+        this(nodes, keySpaces, columnFamilies, null, null, null, null, null,
+            null);
     }
 
     /**
@@ -107,6 +254,65 @@ public class RepairContext implements ClusterTaskContext {
         return keySpaces;
     }
 
+    /**
+     * Gets the parallelism.
+     *
+     * @return The repair parallelism of each segment, one of PARALLELISMS.
+     */
+    public String getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the parallel segments.
+     *
+     * @return The number of segments a node repairs at a time.
+     */
+    public int getParallelSegments() {
+        return parallelSegments;
+    }
+
+    /**
+     * Gets the partitions per segment.
+     *
+     * @return The estimated number of partitions of a segment. If not
+     * positive, each primary range is a segment.
+     */
+    public long getPartitionsPerSegment() {
+        return partitionsPerSegment;
+    }
+
+    /**
+     * Gets the duration per node.
+     *
+     * @return The time over which a node spreads its segments. If not
+     * positive, segments are repaired as fast as possible.
+     */
+    public long getDurationPerNodeMs() {
+        return durationPerNodeMs;
+    }
+
+    /**
+     * Gets the maximum pending compactions.
+     *
+     * @return The number of pending compactions above which a node pauses
+     * its repair. If not positive, there is no limit.
+     */
+    public long getMaxPendingCompactions() {
+        return maxPendingCompactions;
+    }
+
+    /**
+     * Gets the maximum latency.
+     *
+     * @return The 99th percentile latency of client reads or writes, in
+     * milliseconds, above which a node pauses its repair. If not positive,
+     * there is no limit.
+     */
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -115,12 +321,21 @@ public class RepairContext implements ClusterTaskContext {
         return Objects.equals(getNodes(), that.getNodes()) &&
             Objects.equals(getKeySpaces(), that.getKeySpaces()) &&
             Objects.equals(getColumnFamilies(),
-                that.getColumnFamilies());
+                that.getColumnFamilies()) &&
+            Objects.equals(getParallelism(), that.getParallelism()) &&
+            getParallelSegments() == that.getParallelSegments() &&
+            getPartitionsPerSegment() == that.getPartitionsPerSegment() &&
+            getDurationPerNodeMs() == that.getDurationPerNodeMs() &&
+            getMaxPendingCompactions() == that.getMaxPendingCompactions() &&
+            getMaxLatencyMs() == that.getMaxLatencyMs();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamilies());
+        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamilies(),
+            getParallelism(), getParallelSegments(),
+            getPartitionsPerSegment(), getDurationPerNodeMs(),
+            getMaxPendingCompactions(), getMaxLatencyMs());
     }
 
     @Override
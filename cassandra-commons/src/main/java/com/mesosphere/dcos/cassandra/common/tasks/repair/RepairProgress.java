@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.common.tasks.repair;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.CassandraProtos;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * RepairProgress is the progress of the sub-range repair of a node. It
+ * counts the segments repaired and to repair, and lists the key spaces that
+ * were repaired and the token ranges that were repaired in the others, so
+ * that a repair task that is relaunched skips the segments that its previous
+ * run completed. It is sent to the scheduler with the status updates of the
+ * task.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RepairProgress {
+
+    /**
+     * A token range (start, end] of a key space that was repaired.
+     */
+    public static class Range {
+        private final String keySpace;
+        private final String start;
+        private final String end;
+
+        public Range(final String keySpace,
+                     final String start,
+                     final String end) {
+            this.keySpace = keySpace;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getKeySpace() {
+            return keySpace;
+        }
+
+        public String getStart() {
+            return start;
+        }
+
+        public String getEnd() {
+            return end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Range)) return false;
+            Range that = (Range) o;
+            return Objects.equals(keySpace, that.keySpace) &&
+                    Objects.equals(start, that.start) &&
+                    Objects.equals(end, that.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(keySpace, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return keySpace + "(" + start + "," + end + "]";
+        }
+    }
+
+    /**
+     * The progress of a repair that has not started.
+     */
+    public static final RepairProgress NONE =
+            new RepairProgress(0, 0, Collections.emptyList(),
+                    Collections.emptyList());
+
+    @JsonProperty("segments")
+    private final long segments;
+    @JsonProperty("total_segments")
+    private final long totalSegments;
+    private final List<Range> repaired;
+    private final List<String> keySpaces;
+
+    /**
+     * Creates a new RepairProgress.
+     *
+     * @param segments      The number of segments repaired.
+     * @param totalSegments The number of segments to repair.
+     * @param repaired      The token ranges repaired in the key spaces that
+     *                      were not completely repaired.
+     * @param keySpaces     The key spaces that were completely repaired.
+     * @return A RepairProgress constructed from the parameters.
+     */
+    public static RepairProgress create(final long segments,
+                                        final long totalSegments,
+                                        final List<Range> repaired,
+                                        final List<String> keySpaces) {
+        return new RepairProgress(segments, totalSegments,
+                repaired == null ? Collections.emptyList() : repaired,
+                keySpaces == null ? Collections.emptyList() : keySpaces);
+    }
+
+    /**
+     * Parses a RepairProgress from a Protocol Buffers representation.
+     *
+     * @param progress A Protocol Buffers representation of a
+     *                 RepairProgress.
+     * @return A RepairProgress parsed from the Protocol Buffers
+     * representation.
+     */
+    public static RepairProgress parse(
+            final CassandraProtos.RepairProgress progress) {
+        return create(progress.getSegments(),
+                progress.getTotalSegments(),
+                progress.getRepairedList().stream()
+                        .map(range -> new Range(range.getKeySpace(),
+                                range.getStart(),
+                                range.getEnd()))
+                        .collect(Collectors.toList()),
+                progress.getKeySpacesList());
+    }
+
+    private RepairProgress(final long segments,
+                           final long totalSegments,
+                           final List<Range> repaired,
+                           final List<String> keySpaces) {
+        this.segments = segments;
+        this.totalSegments = totalSegments;
+        this.repaired = Collections.unmodifiableList(repaired);
+        this.keySpaces = Collections.unmodifiableList(keySpaces);
+    }
+
+    public long getSegments() {
+        return segments;
+    }
+
+    public long getTotalSegments() {
+        return totalSegments;
+    }
+
+    /**
+     * @return The token ranges that were repaired in the key spaces that
+     * were not completely repaired.
+     */
+    @JsonIgnore
+    public List<Range> getRepaired() {
+        return repaired;
+    }
+
+    /**
+     * @return The key spaces that were completely repaired.
+     */
+    @JsonProperty("key_spaces")
+    public List<String> getKeySpaces() {
+        return keySpaces;
+    }
+
+    /**
+     * @return The percentage of the segments that were repaired.
+     */
+    @JsonProperty("percent_complete")
+    public double getPercentComplete() {
+        return totalSegments > 0 ?
+                Math.min(100.0, 100.0 * segments / totalSegments) : 0;
+    }
+
+    /**
+     * Gets a Protocol Buffers representation of the progress.
+     *
+     * @return A Protocol Buffers representation of the progress.
+     */
+    public CassandraProtos.RepairProgress toProto() {
+        final CassandraProtos.RepairProgress.Builder builder =
+                CassandraProtos.RepairProgress.newBuilder()
+                        .setSegments(segments)
+                        .setTotalSegments(totalSegments)
+                        .addAllKeySpaces(keySpaces);
+        for (Range range : repaired) {
+            builder.addRepaired(CassandraProtos.RepairedRange.newBuilder()
+                    .setKeySpace(range.getKeySpace())
+                    .setStart(range.getStart())
+                    .setEnd(range.getEnd()));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RepairProgress)) return false;
+        RepairProgress that = (RepairProgress) o;
+        return segments == that.segments &&
+                totalSegments == that.totalSegments &&
+                Objects.equals(repaired, that.repaired) &&
+                Objects.equals(keySpaces, that.keySpaces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(segments, totalSegments, repaired, keySpaces);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d segments repaired (%.1f%%)",
+                segments, totalSegments, getPercentComplete());
+    }
+}
@@ -26,12 +26,13 @@ import org.apache.mesos.offer.TaskUtils;
 import java.util.Optional;
 
 /**
- * RepairTask performs primary range, sequential, single data center
- * anti-entropy repair on a node. In order to successfully execute, a
- * CassandraDaemonTask must be running on the slave. If the indicated key
- * spaces are empty, all non-system key spaces will be repaired. If the column
- * families are empty, all column families for the selected key spaces will
- * be repaired.
+ * RepairTask performs primary range anti-entropy repair on a node. In order
+ * to successfully execute, a CassandraDaemonTask must be running on the
+ * slave. If the indicated key spaces are empty, all non-system key spaces
+ * will be repaired. If the column families are empty, all column families
+ * for the selected key spaces will be repaired. The primary ranges are
+ * repaired in segments, and the RepairProgress the task reports is kept in
+ * its data, so that a relaunched task resumes the repair.
  */
 public class RepairTask extends CassandraTask {
     /**
@@ -106,11 +107,28 @@ public class RepairTask extends CassandraTask {
     public RepairTask update(CassandraTaskStatus status) {
         if (status.getType() == TYPE.REPAIR &&
             getId().equalsIgnoreCase(status.getId())) {
-            return update(status.getState());
+            final Optional<RepairProgress> progress =
+                status.getRepairProgress();
+            final RepairTask updated = update(status.getState());
+            return progress.isPresent() ?
+                updated.withRepairProgress(progress.get()) :
+                updated;
         }
         return this;
     }
 
+    /**
+     * Sets the progress of the repair.
+     *
+     * @param progress The segments of the primary ranges of the node that
+     *                 were repaired.
+     * @return A copy of the task with progress in its data.
+     */
+    public RepairTask withRepairProgress(final RepairProgress progress) {
+        return new RepairTask(getBuilder().setData(
+            getData().withRepairProgress(progress).getBytes()).build());
+    }
+
     @Override
     public RepairTask update(Protos.TaskState state) {
         return new RepairTask(getBuilder().setData(
@@ -138,5 +156,15 @@ public class RepairTask extends CassandraTask {
         return getData().getRepairContext();
     }
 
+    /**
+     * Gets the progress of the repair.
+     *
+     * @return The segments of the primary ranges of the node that were
+     * repaired by this task or by the task it replaced, if any were.
+     */
+    public Optional<RepairProgress> getRepairProgress() {
+        return getData().getRepairProgress();
+    }
+
 
 }
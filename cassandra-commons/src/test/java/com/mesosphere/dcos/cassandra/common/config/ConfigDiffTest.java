@@ -0,0 +1,90 @@
+package com.mesosphere.dcos.cassandra.common.config;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConfigDiffTest {
+
+    private static CassandraConfig withApplication(
+            final CassandraApplicationConfig application) {
+        return CassandraConfig.DEFAULT.mutable()
+                .setApplication(application)
+                .build();
+    }
+
+    private static CassandraApplicationConfig.Builder application() {
+        return CassandraConfig.DEFAULT.getApplication().toBuilder();
+    }
+
+    @Test
+    public void testNoChanges() {
+        final ConfigDiff diff = ConfigDiff.create(CassandraConfig.DEFAULT,
+                CassandraConfig.DEFAULT, false);
+        Assert.assertTrue(diff.isEmpty());
+        Assert.assertTrue(diff.isHotApplicable());
+    }
+
+    @Test
+    public void testHotApplicableChanges() {
+        final ConfigDiff diff = ConfigDiff.create(CassandraConfig.DEFAULT,
+                withApplication(application()
+                        .setCompactionThroughputMbPerSec(64)
+                        .setTombstoneWarnThreshold(5000)
+                        .build()),
+                false);
+        Assert.assertTrue(diff.isHotApplicable());
+        Assert.assertFalse(diff.isEmpty());
+        Assert.assertEquals(ImmutableMap.of(
+                CassandraApplicationConfig.COMPACTION_THROUGHPUT_MB_PER_SEC_KEY, 64,
+                CassandraApplicationConfig.TOMBSTONE_WARN_THRESHOLD_KEY, 5000),
+                diff.getHotApplicable());
+    }
+
+    @Test
+    public void testRestartRequiredChanges() {
+        final ConfigDiff diff = ConfigDiff.create(CassandraConfig.DEFAULT,
+                CassandraConfig.DEFAULT.mutable()
+                        .setCpus(CassandraConfig.DEFAULT.getCpus() + 1)
+                        .setApplication(application()
+                                .setCompactionThroughputMbPerSec(64)
+                                .setConcurrentWrites(64)
+                                .build())
+                        .build(),
+                false);
+        Assert.assertFalse(diff.isHotApplicable());
+        Assert.assertEquals(ImmutableSet.of("cpus",
+                CassandraApplicationConfig.CONCURRENT_WRITES_KEY),
+                diff.getRestartRequired());
+        Assert.assertEquals(ImmutableSet.of(
+                CassandraApplicationConfig.COMPACTION_THROUGHPUT_MB_PER_SEC_KEY),
+                diff.getHotApplicable().keySet());
+    }
+
+    @Test
+    public void testExecutorChangeRequiresRestart() {
+        final ConfigDiff diff = ConfigDiff.create(CassandraConfig.DEFAULT,
+                CassandraConfig.DEFAULT, true);
+        Assert.assertFalse(diff.isHotApplicable());
+        Assert.assertEquals(ImmutableSet.of(ConfigDiff.EXECUTOR),
+                diff.getRestartRequired());
+    }
+
+    @Test
+    public void testDefaultedValueRequiresRestart() {
+        final CassandraConfig sized = withApplication(application()
+                .setKeyCacheSizeInMb(100)
+                .build());
+        final CassandraConfig automatic = withApplication(application()
+                .setKeyCacheSizeInMb(null)
+                .build());
+
+        Assert.assertTrue(ConfigDiff.create(automatic, sized, false)
+                .isHotApplicable());
+        Assert.assertEquals(ImmutableSet.of(
+                CassandraApplicationConfig.KEY_CACHE_SIZE_IN_MB_KEY),
+                ConfigDiff.create(sized, automatic, false)
+                        .getRestartRequired());
+    }
+}
@@ -28,11 +28,28 @@ public class CleanupContextTest {
         Iterators.addAll(keys, rehydratedContext.getFieldNames());
         keys.sort(String::compareTo);
 
-        Assert.assertEquals(Arrays.asList("column_families", "key_spaces", "nodes"), keys);
+        Assert.assertEquals(Arrays.asList("column_families", "compaction_throughput_mb_per_sec",
+                "jobs", "key_spaces", "nodes", "parallel_key_spaces"), keys);
 
         context = serializer.deserialize(jsonContext.getBytes(StandardCharsets.UTF_8), CleanupContext.class);
         Assert.assertEquals(Arrays.asList("column_family1"), context.getColumnFamilies());
         Assert.assertEquals(Arrays.asList("keyspace1"), context.getKeySpaces());
         Assert.assertEquals(Arrays.asList("node1"), context.getNodes());
+        Assert.assertEquals(CleanupContext.DEFAULT_JOBS, context.getJobs());
+        Assert.assertFalse(context.getCompactionThroughputMbPerSec().isPresent());
+        Assert.assertEquals(CleanupContext.DEFAULT_PARALLEL_KEY_SPACES, context.getParallelKeySpaces());
+    }
+
+    @Test
+    public void testJSONSerializationOfThroughputOverride() throws Exception {
+        final CleanupContext context = CleanupContext.create(
+                Arrays.asList("node1"), null, null, 2, 0, 3);
+        final JsonSerializer serializer = new JsonSerializer();
+        final CleanupContext rehydrated = serializer.deserialize(
+                serializer.serialize(context), CleanupContext.class);
+        Assert.assertEquals(context, rehydrated);
+        Assert.assertEquals(2, rehydrated.getJobs());
+        Assert.assertEquals(Integer.valueOf(0), rehydrated.getCompactionThroughputMbPerSec().get());
+        Assert.assertEquals(3, rehydrated.getParallelKeySpaces());
     }
 }
\ No newline at end of file
@@ -28,11 +28,26 @@ public class RepairContextTest {
         Iterators.addAll(keys, rehydratedContext.getFieldNames());
         keys.sort(String::compareTo);
 
-        Assert.assertEquals(Arrays.asList("column_families", "key_spaces", "nodes"), keys);
+        Assert.assertEquals(Arrays.asList("column_families", "duration_per_node_ms",
+                "key_spaces", "max_latency_ms", "max_pending_compactions", "nodes",
+                "parallel_segments", "parallelism", "partitions_per_segment"), keys);
 
         context = serializer.deserialize(jsonContext.getBytes(StandardCharsets.UTF_8), RepairContext.class);
         Assert.assertEquals(Arrays.asList("column_family1"), context.getColumnFamilies());
         Assert.assertEquals(Arrays.asList("keyspace1"), context.getKeySpaces());
         Assert.assertEquals(Arrays.asList("node1"), context.getNodes());
+        Assert.assertEquals(RepairContext.DEFAULT_PARALLELISM, context.getParallelism());
+        Assert.assertEquals(RepairContext.DEFAULT_PARALLEL_SEGMENTS, context.getParallelSegments());
+        Assert.assertEquals(RepairContext.DEFAULT_PARTITIONS_PER_SEGMENT, context.getPartitionsPerSegment());
+    }
+
+    @Test
+    public void testJSONDeserializationOfContextWithoutSegments() throws Exception {
+        // Contexts persisted before repairs were segmented get the defaults.
+        RepairContext context = new JsonSerializer().deserialize(
+                "{\"nodes\":[\"node1\"],\"key_spaces\":[],\"column_families\":[]}"
+                        .getBytes(StandardCharsets.UTF_8),
+                RepairContext.class);
+        Assert.assertEquals(new RepairContext(Arrays.asList("node1"), null, null), context);
     }
 }
\ No newline at end of file
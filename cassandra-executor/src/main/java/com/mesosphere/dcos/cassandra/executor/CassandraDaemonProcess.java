@@ -15,10 +15,22 @@
  */
 package com.mesosphere.dcos.cassandra.executor;
 
+import com.datastax.driver.core.Row;
 import com.google.common.collect.ImmutableSet;
+import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
 import com.mesosphere.dcos.cassandra.common.tasks.*;
+import com.mesosphere.dcos.cassandra.executor.compaction.AdaptiveCompactionThrottle;
+import com.mesosphere.dcos.cassandra.executor.compaction.DiskStats;
+import com.mesosphere.dcos.cassandra.executor.config.AutoTuning;
+import com.mesosphere.dcos.cassandra.executor.config.HotConfig;
+import com.mesosphere.dcos.cassandra.executor.metrics.JmxMetricsReader;
+import com.mesosphere.dcos.cassandra.executor.metrics.MetricsCollector;
 import com.mesosphere.dcos.cassandra.executor.metrics.MetricsConfig;
+import com.mesosphere.dcos.cassandra.executor.repair.TokenRange;
+import com.mesosphere.dcos.cassandra.executor.repair.TokenRing;
+import org.apache.cassandra.db.ColumnFamilyStoreMBean;
 import org.apache.cassandra.db.SystemKeyspace;
+import org.apache.cassandra.db.compaction.CompactionManagerMBean;
 import org.apache.cassandra.schema.SchemaKeyspace;
 import org.apache.cassandra.tools.NodeProbe;
 import org.apache.mesos.ExecutorDriver;
@@ -32,15 +44,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 
@@ -50,83 +62,29 @@ import java.util.stream.Collectors;
  * . If the Cassandra daemon terminates the CassandraDaemonProcess causes the
  * executor to exit.
  * All administration and monitoring is achieved by attaching to the Cassandra
- * daemon via JMX using the NodeProbe class.
+ * daemon via JMX using the NodeProbe class. Short queries share a managed
+ * connection, long operations use a dedicated one.
  */
 public class CassandraDaemonProcess extends ProcessTask {
     public static final Set<String> SYSTEM_KEYSPACE_NAMES =
             ImmutableSet.of(SystemKeyspace.NAME, SchemaKeyspace.NAME);
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraDaemonProcess.class);
 
+    /**
+     * The timeout of the JMX queries that read the keyspaces of the node.
+     */
+    private static final long QUERY_TIMEOUT_MS = 10000;
+
     private final CassandraDaemonTask task;
     private final AtomicBoolean open = new AtomicBoolean(true);
-    private final AtomicReference<CassandraMode> mode;
+    private final ModeTracker modeTracker;
     private final Probe probe;
-
-    private static final class ModeReporter implements Runnable {
-
-        private final CassandraDaemonTask task;
-        private final ExecutorDriver driver;
-        private final AtomicBoolean open;
-        private final AtomicReference<CassandraMode> mode;
-        private final Probe probe;
-
-        public static ModeReporter create(
-                final CassandraDaemonTask task,
-                final Probe probe,
-                final ExecutorDriver driver,
-                final AtomicBoolean open,
-                final
-                AtomicReference<CassandraMode> mode) {
-            return new ModeReporter(task, probe, driver, open, mode);
-        }
-
-        private ModeReporter(
-                final CassandraDaemonTask task,
-                final Probe probe,
-                final ExecutorDriver driver,
-                final AtomicBoolean open,
-                final AtomicReference<CassandraMode> mode) {
-
-            this.task = task;
-            this.probe = probe;
-            this.driver = driver;
-            this.open = open;
-            this.mode = mode;
-        }
-
-        public void run() {
-            if (open.get()) {
-                CassandraMode current = CassandraMode.valueOf(probe.get().getOperationMode());
-                if (!mode.get().equals(current)) {
-                    mode.set(current);
-                    LOGGER.info("Cassandra Daemon mode = {}", current);
-                    CassandraDaemonStatus daemonStatus =
-                            task.createStatus(Protos.TaskState.TASK_RUNNING,
-                                    mode.get(),
-                                    Optional.of("Cassandra Daemon running."));
-                    driver.sendStatusUpdate(daemonStatus.getTaskStatus());
-                    LOGGER.info("Sent status update = {} ", daemonStatus);
-                }
-            }
-        }
-    }
-
-    private static CassandraStatus getCassandraStatus(final NodeProbe probe) {
-        return CassandraStatus.create(
-                CassandraMode.valueOf(
-                        probe.getOperationMode()
-                ), probe.isJoined(),
-                probe.isThriftServerRunning(),
-                probe.isNativeTransportRunning(),
-                probe.isInitialized(),
-                probe.isGossipRunning(),
-                probe.getLocalHostId(),
-                probe.getEndpoint(),
-                probe.getTokens().size(),
-                probe.getDataCenter(),
-                probe.getRack(),
-                probe.getReleaseVersion());
-    }
+    private final NativeSession session;
+    private final StatusReader statusReader;
+    private final StatusCache statusCache;
+    private final JmxMetricsReader metricsReader;
+    private final MetricsCollector metrics;
+    private final AdaptiveCompactionThrottle compactionThrottle;
 
     private static final String getListenAddress() throws UnknownHostException {
 
@@ -168,7 +126,9 @@ public class CassandraDaemonProcess extends ProcessTask {
 
             cassandraTask.getConfig().getLocation().writeProperties(cassandraPaths.cassandraLocation());
 
-            cassandraTask.getConfig().getApplication().toBuilder()
+            AutoTuning.tune(cassandraTask.getConfig(),
+                    AutoTuning.isRotational(Paths.get(CassandraConfig.VOLUME_PATH)))
+                    .toBuilder()
                     .setListenAddress(getListenAddress())
                     .setRpcAddress(getListenAddress())
                     .build().writeDaemonConfiguration(cassandraPaths.cassandraConfig());
@@ -207,14 +167,63 @@ public class CassandraDaemonProcess extends ProcessTask {
         this.task = cassandraTask;
 
         this.probe = new Probe(cassandraTask);
-        this.mode = new AtomicReference<>(CassandraMode.STARTING);
-        scheduledExecutorService.scheduleAtFixedRate(
-                ModeReporter.create(task,
-                        probe,
-                        executorDriver,
-                        open,
-                        mode),
-                1, 1, TimeUnit.SECONDS);
+        this.session = new NativeSession(cassandraTask, probe);
+        this.statusReader = new StatusReader(
+                cassandraTask.getConfig().getJmxPort());
+        this.statusCache = new StatusCache(statusReader,
+                scheduledExecutorService);
+        this.modeTracker = ModeTracker.create(scheduledExecutorService,
+                cassandraTask.getConfig().getJmxPort(),
+                current -> {
+                    statusCache.refresh();
+                    if (open.get()) {
+                        CassandraDaemonStatus daemonStatus =
+                                task.createStatus(Protos.TaskState.TASK_RUNNING,
+                                        current,
+                                        Optional.of("Cassandra Daemon running."));
+                        executorDriver.sendStatusUpdate(
+                                daemonStatus.getTaskStatus());
+                        LOGGER.info("Sent status update = {} ", daemonStatus);
+                    }
+                });
+        this.modeTracker.start();
+        this.metricsReader = new JmxMetricsReader(
+                cassandraTask.getConfig().getJmxPort());
+        this.metrics = new MetricsCollector(metricsReader,
+                scheduledExecutorService);
+        this.metrics.start();
+        this.compactionThrottle = new AdaptiveCompactionThrottle(
+                () -> metrics.getSnapshot()
+                        .map(MetricsCollector.Snapshot::getMetrics),
+                new DiskStats(Paths.get(CassandraConfig.VOLUME_PATH)),
+                new AdaptiveCompactionThrottle.Compactor() {
+                    @Override
+                    public int getThroughput() throws IOException {
+                        return getCompactionThroughput();
+                    }
+
+                    @Override
+                    public void setThroughput(int mbPerSec)
+                            throws IOException {
+                        setCompactionThroughput(mbPerSec);
+                    }
+
+                    @Override
+                    public int getConcurrentCompactors() throws IOException {
+                        return CassandraDaemonProcess.this
+                                .getConcurrentCompactors();
+                    }
+
+                    @Override
+                    public void setConcurrentCompactors(int compactors)
+                            throws IOException {
+                        CassandraDaemonProcess.this
+                                .setConcurrentCompactors(compactors);
+                    }
+                },
+                scheduledExecutorService,
+                Paths.get(CassandraConfig.VOLUME_PATH,
+                        AdaptiveCompactionThrottle.BOUNDS_FILE));
     }
 
     // Override the stop function of ProcessTask to drain the Cassandra node before killing it.
@@ -228,6 +237,13 @@ public class CassandraDaemonProcess extends ProcessTask {
         } catch (InterruptedException | ExecutionException | IOException e) {
             e.printStackTrace();
         }
+        session.close();
+        modeTracker.close();
+        probe.close();
+        statusReader.close();
+        compactionThrottle.close();
+        metrics.close();
+        metricsReader.close();
 
         super.stop(future);
     }
@@ -261,13 +277,35 @@ public class CassandraDaemonProcess extends ProcessTask {
     }
 
     /**
-     * Gets the NodeProbe.
+     * Gets the Probe.
      *
-     * @return The NodeProbe instance used to communicate with the Cassandra
-     * process.
+     * @return The Probe used to communicate with the Cassandra process.
      */
-    public NodeProbe getProbe() {
-        return this.probe.get();
+    public Probe getProbe() {
+        return this.probe;
+    }
+
+    /**
+     * Runs a short query on the shared NodeProbe for methods that do not
+     * declare IOException.
+     */
+    private <T> T query(ManagedConnection.Call<NodeProbe, T> call,
+                        long timeoutMs) {
+        try {
+            return probe.call(call, timeoutMs);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Gets the driver session.
+     *
+     * @return The NativeSession shared by the tasks that run CQL against the
+     * Cassandra process.
+     */
+    public NativeSession getSession() {
+        return this.session;
     }
 
     /**
@@ -286,17 +324,36 @@ public class CassandraDaemonProcess extends ProcessTask {
      * @return The CassandraMode for the Cassandra daemon.
      */
     public CassandraMode getMode() {
-        return mode.get();
+        return modeTracker.getMode();
     }
 
     /**
      * Gets the status.
      *
-     * @return The status of the Cassandra daemon.
+     * @return The latest snapshot of the status of the Cassandra daemon,
+     * with its age.
      */
     public CassandraStatus getStatus() {
 
-        return getCassandraStatus(getProbe());
+        return statusCache.get();
+    }
+
+    /**
+     * Gets the metrics.
+     *
+     * @return The collector of the performance metrics of the Cassandra
+     * daemon.
+     */
+    public MetricsCollector getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The throttle that adapts the compaction of the node to its
+     * load.
+     */
+    public AdaptiveCompactionThrottle getCompactionThrottle() {
+        return compactionThrottle;
     }
 
     /**
@@ -315,7 +372,7 @@ public class CassandraDaemonProcess extends ProcessTask {
      * instance.
      */
     public List<String> getKeySpaces() {
-        return getProbe().getKeyspaces();
+        return query(NodeProbe::getKeyspaces, QUERY_TIMEOUT_MS);
     }
 
     /**
@@ -325,7 +382,7 @@ public class CassandraDaemonProcess extends ProcessTask {
      * the Cassandra instance.
      */
     public List<String> getNonSystemKeySpaces() {
-        return getProbe().getKeyspaces().stream().filter(
+        return getKeySpaces().stream().filter(
                 keyspace ->
                         !SYSTEM_KEYSPACE_NAMES.contains(keyspace))
                 .collect(Collectors.toList());
@@ -336,11 +393,14 @@ public class CassandraDaemonProcess extends ProcessTask {
      *
      * @param address The string ip address or hostname of the node to
      *                assassinate.
-     * @throws UnknownHostException If the address of the node can not be
-     *                              resolved.
+     * @throws IOException If the address of the node can not be resolved
+     *                     or communication with the node fails.
      */
-    public void assassinate(String address) throws UnknownHostException {
-        getProbe().assassinateEndpoint(address);
+    public void assassinate(String address) throws IOException {
+        probe.call(nodeProbe -> {
+            nodeProbe.assassinateEndpoint(address);
+            return null;
+        });
     }
 
     /**
@@ -358,17 +418,167 @@ public class CassandraDaemonProcess extends ProcessTask {
     public void cleanup(String keySpace,
                         List<String> columnFamilies)
             throws InterruptedException, ExecutionException, IOException {
+        cleanup(keySpace, columnFamilies, 0);
+    }
 
-        if (columnFamilies.isEmpty()) {
-            getProbe().forceKeyspaceCleanup(0, keySpace);
-        } else {
+    /**
+     * Cleans the deleted keys and keys that no longer belong to the node for
+     * the indicated key space and column families.
+     *
+     * @param keySpace       The key space to cleanup.
+     * @param columnFamilies A list of the column families to clean. If
+     *                       empty, all column families are cleaned.
+     * @param jobs           The number of SSTables cleaned concurrently, 0
+     *                       to use all compaction threads.
+     * @throws InterruptedException If the task is interrupted.
+     * @throws ExecutionException   If execution fails.
+     * @throws IOException          If an IOException occurs communicating with the
+     *                              process.
+     */
+    public void cleanup(String keySpace,
+                        List<String> columnFamilies,
+                        int jobs)
+            throws InterruptedException, ExecutionException, IOException {
+
+        try (NodeProbe dedicated = probe.dedicated()) {
             String[] families = new String[columnFamilies.size()];
             families = columnFamilies.toArray(families);
-            getProbe().forceKeyspaceCleanup(0, keySpace, families);
+            dedicated.forceKeyspaceCleanup(jobs, keySpace, families);
         }
 
     }
 
+    /**
+     * Gets the compactions of a type that are running on the node.
+     *
+     * @param type The type of the compactions, e.g. Cleanup.
+     * @return The compactions of type as reported by the CompactionManager
+     * MBean, with their keyspace, columnfamily, completed and total.
+     * @throws IOException If communication with the node fails.
+     */
+    public List<Map<String, String>> getCompactions(String type)
+            throws IOException {
+        return probe.call(nodeProbe ->
+                nodeProbe.getCompactionManagerProxy().getCompactions()
+                        .stream()
+                        .filter(compaction ->
+                                type.equals(compaction.get("taskType")))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Sets the compaction throughput of the node.
+     *
+     * @param mbPerSec The throughput in MB/s, 0 for unthrottled.
+     * @return The previous throughput in MB/s.
+     * @throws IOException If communication with the node fails.
+     */
+    public int setCompactionThroughput(int mbPerSec) throws IOException {
+        return probe.call(nodeProbe -> {
+            final int previous = nodeProbe.getCompactionThroughput();
+            nodeProbe.setCompactionThroughput(mbPerSec);
+            return previous;
+        });
+    }
+
+    /**
+     * @return The compaction throughput of the node in MB/s, 0 for
+     * unthrottled.
+     * @throws IOException If communication with the node fails.
+     */
+    public int getCompactionThroughput() throws IOException {
+        return probe.call(NodeProbe::getCompactionThroughput);
+    }
+
+    /**
+     * @return The number of compactions the node runs concurrently.
+     * @throws IOException If communication with the node fails.
+     */
+    public int getConcurrentCompactors() throws IOException {
+        return probe.call(nodeProbe -> nodeProbe.getCompactionManagerProxy()
+                .getMaximumCompactorThreads());
+    }
+
+    /**
+     * Sets the number of compactions the node runs concurrently. Running
+     * compactions are not interrupted when the number is lowered.
+     *
+     * @param compactors The number of concurrent compactions.
+     * @throws IOException If communication with the node fails.
+     */
+    public void setConcurrentCompactors(int compactors) throws IOException {
+        probe.call(nodeProbe -> {
+            final CompactionManagerMBean compaction =
+                    nodeProbe.getCompactionManagerProxy();
+            // The core size of the compaction pool may not exceed its
+            // maximum size.
+            if (compactors > compaction.getMaximumCompactorThreads()) {
+                compaction.setMaximumCompactorThreads(compactors);
+                compaction.setCoreCompactorThreads(compactors);
+            } else {
+                compaction.setCoreCompactorThreads(compactors);
+                compaction.setMaximumCompactorThreads(compactors);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Applies settings of the application configuration to the running
+     * node and writes them to its cassandra.yaml, without restarting it.
+     *
+     * @param settings The hot-applicable keys of cassandra.yaml with their
+     *                 new values.
+     * @return The applied settings.
+     * @throws IllegalArgumentException If a setting is not hot-applicable.
+     * @throws IOException              If communication with the node or
+     *                                  writing cassandra.yaml fails.
+     */
+    public Map<String, Object> applyConfiguration(Map<String, Object> settings)
+            throws IOException {
+        final Map<String, Object> validated = HotConfig.validate(settings);
+        probe.callServer(server -> {
+            HotConfig.apply(server, validated);
+            return null;
+        });
+        HotConfig.write(CassandraPaths.create(task.getConfig().getVersion())
+                .cassandraConfig(), validated);
+        return validated;
+    }
+
+    /**
+     * Gets the space used by the live SSTables of column families.
+     *
+     * @param keySpace       The name of the key space.
+     * @param columnFamilies The column families. If empty, all column
+     *                       families of keySpace are counted.
+     * @return The bytes used by the live SSTables of the column families.
+     * @throws IOException If communication with the node fails.
+     */
+    public long getLiveDiskSpaceUsed(String keySpace,
+                                     List<String> columnFamilies)
+            throws IOException {
+        final List<String> tables = columnFamilies.isEmpty() ?
+                getColumnFamilies(keySpace) :
+                columnFamilies;
+        return probe.call(nodeProbe -> {
+            long used = 0;
+            for (String table : tables) {
+                used += ((Number) nodeProbe.getColumnFamilyMetric(keySpace,
+                        table, "LiveDiskSpaceUsed")).longValue();
+            }
+            return used;
+        });
+    }
+
+    /**
+     * @return The bytes available on the volume of the data directory of
+     * the node.
+     */
+    public long getDataUsableSpace() {
+        return new File(CassandraConfig.VOLUME_PATH).getUsableSpace();
+    }
+
     /**
      * Cleans the deleted keys and keys that no longer belong to the node for
      * for all key spaces and column families.
@@ -386,24 +596,75 @@ public class CassandraDaemonProcess extends ProcessTask {
     }
 
     /**
-     * Takes a snapshot of the indicated key space with the given name.
+     * Gets the column families of a key space.
      *
-     * @param name     The name of the snapshot.
      * @param keySpace The name of the key space.
+     * @return A list of the names of the column families of keySpace.
+     * @throws IOException If an error occurs reading the column families.
+     */
+    public List<String> getColumnFamilies(String keySpace) throws IOException {
+        return probe.call(nodeProbe -> {
+            final List<String> columnFamilies = new ArrayList<>();
+            final Iterator<Map.Entry<String, ColumnFamilyStoreMBean>> stores =
+                    nodeProbe.getColumnFamilyStoreMBeanProxies();
+            while (stores.hasNext()) {
+                final Map.Entry<String, ColumnFamilyStoreMBean> store = stores.next();
+                if (keySpace.equals(store.getKey())) {
+                    columnFamilies.add(store.getValue().getColumnFamilyName());
+                }
+            }
+            return columnFamilies;
+        });
+    }
+
+    /**
+     * Flushes the memtables of the indicated column families to disk.
+     *
+     * @param keySpace       The name of the key space.
+     * @param columnFamilies The column families to flush. If empty, all
+     *                       column families of the key space are flushed.
+     * @throws InterruptedException If the task is interrupted.
+     * @throws ExecutionException   If the flush fails.
+     * @throws IOException          If an IOException occurs communicating
+     *                              with the process.
+     */
+    public void flush(String keySpace, String... columnFamilies)
+            throws InterruptedException, ExecutionException, IOException {
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.forceKeyspaceFlush(keySpace, columnFamilies);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the indicated key spaces with the given name, in a
+     * single invocation.
+     *
+     * @param name      The name of the snapshot.
+     * @param keySpaces The names of the key spaces.
      * @throws IOException If an error occurs taking the snapshot.
      */
-    public void takeSnapShot(String name, String keySpace) throws IOException {
-        getProbe().takeSnapshot(name, null, keySpace);
+    public void takeSnapShot(String name, String... keySpaces)
+            throws IOException {
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.takeSnapshot(name, null, keySpaces);
+        }
     }
 
-    /** Clears a snapshot of the indicated key space with the given name.
+    /**
+     * Takes a snapshot of the indicated column families with the given name,
+     * in a single invocation.
      *
-     * @param name     The name of the snapshot.
-     * @param keySpace The name of the key space.
-     * @throws IOException If an error occurs clearing the snapshot.
+     * @param name           The name of the snapshot.
+     * @param columnFamilies The column families in the form
+     *                       keyspace.columnfamily.
+     * @throws IOException If an error occurs taking the snapshot.
      */
-    public void clearSnapshot(String name, String keySpace) throws IOException {
-        getProbe().clearSnapshot(name, keySpace);
+    public void takeTableSnapShot(String name, List<String> columnFamilies)
+            throws IOException {
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.takeMultipleTableSnapshot(name,
+                    columnFamilies.toArray(new String[columnFamilies.size()]));
+        }
     }
 
     /**
@@ -420,11 +681,68 @@ public class CassandraDaemonProcess extends ProcessTask {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintStream out = new PrintStream(baos);
 
-        getProbe().repairAsync(out, keySpace, options);
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.repairAsync(out, keySpace, options);
+        }
 
         return baos.toString("UTF8");
     }
 
+    /**
+     * Gets the ring of the partitioner of the node.
+     *
+     * @return The TokenRing of the partitioner configured for the node.
+     */
+    public TokenRing getTokenRing() {
+        return TokenRing.forPartitioner(
+                task.getConfig().getApplication().getPartitioner());
+    }
+
+    /**
+     * Gets the primary ranges of the node, the ranges of the ring that end
+     * at its tokens.
+     *
+     * @param ring The ring of the partitioner of the node.
+     * @return The primary ranges of the node, empty if it has not joined the
+     * ring.
+     * @throws IOException If an error occurs reading the ring.
+     */
+    public List<TokenRange> getPrimaryRanges(TokenRing ring)
+            throws IOException {
+        return probe.call(nodeProbe -> ring.getPrimaryRanges(
+                nodeProbe.getTokenToEndpointMap(),
+                nodeProbe.getEndpoint()));
+    }
+
+    /**
+     * Gets the estimated number of partitions of the primary ranges of the
+     * node. Cassandra estimates the partitions of each of its primary ranges
+     * in system.size_estimates every few minutes.
+     *
+     * @param keySpace       The name of the key space.
+     * @param columnFamilies The column families to count. If empty, all
+     *                       column families of keySpace are counted.
+     * @return The estimated number of partitions of each primary range of
+     * the node that has an estimate.
+     */
+    public Map<TokenRange, Long> getPartitionEstimates(
+            String keySpace,
+            List<String> columnFamilies) {
+        final Map<TokenRange, Long> estimates = new HashMap<>();
+        for (Row row : session.get().execute(
+                "SELECT table_name, range_start, range_end, " +
+                        "partitions_count FROM system.size_estimates " +
+                        "WHERE keyspace_name = ?", keySpace)) {
+            if (columnFamilies.isEmpty() ||
+                    columnFamilies.contains(row.getString("table_name"))) {
+                estimates.merge(new TokenRange(row.getString("range_start"),
+                                row.getString("range_end")),
+                        row.getLong("partitions_count"), Long::sum);
+            }
+        }
+        return estimates;
+    }
+
     /**
      * Clears a snapshot for the given key spaces.
      *
@@ -433,9 +751,12 @@ public class CassandraDaemonProcess extends ProcessTask {
      *                  cleared
      * @throws IOException If the clear fails.
      */
-    public void clearSnapShot(String name, String... keySpaces) throws
+    public void clearSnapshot(String name, String... keySpaces) throws
             IOException {
-        getProbe().clearSnapshot(name, keySpaces);
+        probe.call(nodeProbe -> {
+            nodeProbe.clearSnapshot(name, keySpaces);
+            return null;
+        });
     }
 
     /**
@@ -443,9 +764,13 @@ public class CassandraDaemonProcess extends ProcessTask {
      * responsible for a token range and that is ready to be removed.
      *
      * @throws InterruptedException If decommission fails.
+     * @throws IOException          If communication with the node fails.
      */
-    public void decommission() throws InterruptedException {
-        getProbe().decommission();
+    public void decommission() throws InterruptedException, IOException {
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.decommission();
+        }
+        modeTracker.refresh();
     }
 
     /**
@@ -458,7 +783,10 @@ public class CassandraDaemonProcess extends ProcessTask {
      */
     public void drain()
             throws InterruptedException, ExecutionException, IOException {
-        getProbe().drain();
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.drain();
+        }
+        modeTracker.refresh();
     }
 
     /**
@@ -481,6 +809,8 @@ public class CassandraDaemonProcess extends ProcessTask {
         // available compaction threads.
         final int jobs = 0;
 
-        getProbe().upgradeSSTables(keyspace, excludeCurrentVersion, jobs, families);
+        try (NodeProbe dedicated = probe.dedicated()) {
+            dedicated.upgradeSSTables(keyspace, excludeCurrentVersion, jobs, families);
+        }
     }
 }
@@ -16,6 +16,7 @@
 package com.mesosphere.dcos.cassandra.executor;
 
 import com.google.inject.Inject;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
 import com.mesosphere.dcos.cassandra.executor.tasks.CassandraTaskFactory;
 import org.apache.mesos.Executor;
 import org.apache.mesos.ExecutorDriver;
@@ -35,6 +36,7 @@ import java.util.concurrent.ExecutorService;
 public class CassandraExecutor implements Executor {
 
     private final ExecutorService clusterJobExecutorService;
+    private final TransferThrottle throttle;
     private CassandraTaskFactory cassandraTaskFactory;
     private CustomExecutor customExecutor;
 
@@ -46,10 +48,14 @@ public class CassandraExecutor implements Executor {
      *                                  tasks.
      * @param clusterJobExecutorService The ExecutorService used by the
      *                                  Executor to run ClusterTasks.
+     * @param throttle                  The TransferThrottle shared by the
+     *                                  backup and restore tasks.
      */
     @Inject
-    public CassandraExecutor(final ExecutorService clusterJobExecutorService) {
+    public CassandraExecutor(final ExecutorService clusterJobExecutorService,
+                             final TransferThrottle throttle) {
         this.clusterJobExecutorService = clusterJobExecutorService;
+        this.throttle = throttle;
     }
 
 
@@ -58,7 +64,7 @@ public class CassandraExecutor implements Executor {
                            Protos.ExecutorInfo executorInfo,
                            Protos.FrameworkInfo frameworkInfo,
                            Protos.SlaveInfo slaveInfo) {
-        cassandraTaskFactory = new CassandraTaskFactory(driver);
+        cassandraTaskFactory = new CassandraTaskFactory(driver, throttle);
         customExecutor = new CustomExecutor(clusterJobExecutorService, cassandraTaskFactory);
     }
 
@@ -16,6 +16,7 @@
 package com.mesosphere.dcos.cassandra.executor;
 
 import com.google.inject.AbstractModule;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
 import com.mesosphere.dcos.cassandra.executor.config.CassandraExecutorConfiguration;
 import org.apache.mesos.Executor;
 
@@ -54,5 +55,6 @@ public class ExecutorModule extends AbstractModule {
         bind(ExecutorService.class).toInstance(Executors.newCachedThreadPool());
         bind(Executor.class).to(CassandraExecutor.class).asEagerSingleton();
         bind(ExecutorDriverFactory.class).to(MesosExecutorDriverFactory.class).asEagerSingleton();
+        bind(TransferThrottle.class).asEagerSingleton();
     }
 }
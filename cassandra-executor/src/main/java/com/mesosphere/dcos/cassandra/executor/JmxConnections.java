@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+
+/**
+ * Contains static utilities to open raw JMX connections to the Cassandra
+ * daemon, for the readers that query MBeans in bulk rather than through
+ * the NodeProbe proxies.
+ */
+public class JmxConnections {
+
+    public static final String STORAGE_SERVICE_MBEAN =
+            "org.apache.cassandra.db:type=StorageService";
+
+    public static final String ENDPOINT_SNITCH_INFO_MBEAN =
+            "org.apache.cassandra.db:type=EndpointSnitchInfo";
+
+    private JmxConnections() {
+        // do not instantiate
+    }
+
+    /**
+     * Connects to the JMX server of the daemon on the loopback interface.
+     *
+     * @param port The JMX port of the daemon.
+     * @return A connected JMXConnector.
+     * @throws IOException If the connection fails.
+     */
+    public static JMXConnector connect(final int port) throws IOException {
+        return JMXConnectorFactory.connect(new JMXServiceURL(String.format(
+                "service:jmx:rmi:///jndi/rmi://127.0.0.1:%d/jmxrmi", port)));
+    }
+
+    /**
+     * Parses an ObjectName that is known to be valid.
+     *
+     * @param name The name of an MBean.
+     * @return The ObjectName of name.
+     */
+    public static ObjectName objectName(final String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+}
@@ -17,8 +17,10 @@ package com.mesosphere.dcos.cassandra.executor;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
 import com.mesosphere.dcos.cassandra.executor.checks.DaemonRunning;
 import com.mesosphere.dcos.cassandra.executor.config.CassandraExecutorConfiguration;
+import com.mesosphere.dcos.cassandra.executor.resources.BackupThrottleController;
 import com.mesosphere.dcos.cassandra.executor.resources.CassandraDaemonController;
 import io.dropwizard.Application;
 import io.dropwizard.configuration.EnvironmentVariableLookup;
@@ -70,6 +72,10 @@ public class Main extends Application<CassandraExecutorConfiguration> {
                 injector.getInstance(DaemonRunning.class));
         environment.jersey().register(
                 injector.getInstance(CassandraDaemonController.class));
+        environment.jersey().register(
+                injector.getInstance(BackupThrottleController.class));
+        environment.metrics().register(TransferThrottle.BYTES_TRANSFERRED_METER,
+                injector.getInstance(TransferThrottle.class).getBytesTransferred());
         environment.lifecycle().manage(
                 injector.getInstance(ExecutorDriverDispatcher.class));
     }
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ManagedConnection manages a connection to the Cassandra daemon, such as a
+ * JMX connection, that is shared by the threads of the executor. The
+ * connection is established on first use, retrying with exponential
+ * backoff while the daemon is unreachable. It is health checked when it has
+ * not been used successfully for a while, and it is replaced when a check
+ * or a call fails because the connection was lost. Calls run with a
+ * timeout that also bounds connecting, so neither a hung nor an unreachable
+ * daemon blocks the callers forever. Connecting and health checks run
+ * outside of the lock of the connection, so that close is never blocked by
+ * them, and calls run on a bounded pool of threads. Long
+ * operations, that would exceed any sensible timeout, use a dedicated
+ * connection instead, so they do not hold up the calls on the shared one.
+ *
+ * @param <C> The type of the connection.
+ */
+public class ManagedConnection<C extends AutoCloseable> implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            ManagedConnection.class);
+
+    /**
+     * The maximum number of calls and attempts to connect that run
+     * concurrently. Further calls wait for a thread within their timeout.
+     */
+    static final int MAX_CALL_THREADS = 16;
+
+    private static final long CALL_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Opens connections.
+     */
+    public interface Connector<C> {
+        C connect() throws Exception;
+    }
+
+    /**
+     * Tests if a connection is usable, by throwing if it is not.
+     */
+    public interface HealthCheck<C> {
+        void check(C connection) throws Exception;
+    }
+
+    /**
+     * A call on a connection.
+     */
+    public interface Call<C, T> {
+        T call(C connection) throws Exception;
+    }
+
+    private final String name;
+    private final Connector<C> connector;
+    private final HealthCheck<C> healthCheck;
+    private final long healthCheckIntervalMs;
+    private final long callTimeoutMs;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final ThreadPoolExecutor calls;
+    private C connection = null;
+    private CompletableFuture<C> connecting = null;
+    private long healthyAt = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a new ManagedConnection.
+     *
+     * @param name                  The name of the connection in logs and
+     *                              thread names.
+     * @param connector             Opens the connections.
+     * @param healthCheck           Checks the shared connection.
+     * @param healthCheckIntervalMs The time after the last successful use of
+     *                              the shared connection after which it is
+     *                              checked before it is used again.
+     * @param callTimeoutMs         The default timeout of calls.
+     * @param minBackoffMs          The delay before the second attempt to
+     *                              connect.
+     * @param maxBackoffMs          The maximum delay between attempts to
+     *                              connect.
+     */
+    public ManagedConnection(final String name,
+                             final Connector<C> connector,
+                             final HealthCheck<C> healthCheck,
+                             final long healthCheckIntervalMs,
+                             final long callTimeoutMs,
+                             final long minBackoffMs,
+                             final long maxBackoffMs) {
+        this.name = name;
+        this.connector = connector;
+        this.healthCheck = healthCheck;
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+        this.callTimeoutMs = callTimeoutMs;
+        this.minBackoffMs = minBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.calls = new ThreadPoolExecutor(MAX_CALL_THREADS,
+                MAX_CALL_THREADS,
+                CALL_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat(name + "-call-%d")
+                        .setDaemon(true)
+                        .build());
+        this.calls.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Tests if a failure means that the connection was lost, rather than
+     * that the operation failed on the daemon.
+     */
+    static boolean isConnectionFailure(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RemoteException ||
+                    cause instanceof SocketException ||
+                    cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void closeQuietly(final AutoCloseable connection) {
+        try {
+            connection.close();
+        } catch (Exception ex) {
+            LOGGER.debug("Failed to close connection", ex);
+        }
+    }
+
+    /**
+     * Makes a single attempt to open a connection. A connection that is
+     * opened after the attempt timed out is closed.
+     */
+    private C attempt(final long timeoutMs) throws Exception {
+        final CompletableFuture<C> attempt = new CompletableFuture<>();
+        calls.execute(() -> {
+            try {
+                final C connected = connector.connect();
+                if (!attempt.complete(connected)) {
+                    closeQuietly(connected);
+                }
+            } catch (Throwable t) {
+                attempt.completeExceptionally(t);
+            }
+        });
+        try {
+            return attempt.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (!attempt.cancel(true) && !attempt.isCompletedExceptionally()) {
+                return attempt.join();
+            }
+            throw new IOException(String.format(
+                    "%s timed out connecting after %d ms", name, timeoutMs),
+                    ex);
+        } catch (InterruptedException ex) {
+            if (!attempt.cancel(true) && !attempt.isCompletedExceptionally()) {
+                closeQuietly(attempt.join());
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    name + " was interrupted while connecting");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Opens a connection, retrying until it succeeds or the deadline
+     * passes. Each attempt is bounded by the call timeout.
+     *
+     * @param deadline The time in milliseconds since the epoch after which
+     *                 no further attempt is made.
+     * @throws IOException If the deadline passes, or the ManagedConnection
+     *                     is closed, before a connection is opened.
+     */
+    private C connect(final long deadline) throws IOException {
+        long backoffMs = minBackoffMs;
+        while (!closed) {
+            final long remainingMs = deadline - System.currentTimeMillis();
+            if (remainingMs <= 0) {
+                throw new IOException(
+                        name + " timed out connecting to the Cassandra Daemon");
+            }
+            try {
+                final C connected = attempt(
+                        Math.min(remainingMs, callTimeoutMs));
+                LOGGER.info("{} is connected to the Cassandra Daemon", name);
+                return connected;
+            } catch (InterruptedIOException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                LOGGER.info("{} failed to connect, backing off for {} ms: {}",
+                        name, backoffMs, ex.toString());
+                try {
+                    Thread.sleep(Math.max(0, Math.min(backoffMs,
+                            deadline - System.currentTimeMillis())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            name + " was interrupted while connecting");
+                }
+                backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+            }
+        }
+        throw new IOException(name + " is closed");
+    }
+
+    /**
+     * Waits for the shared connection to be connected. A single caller
+     * connects at a time, the others wait for it within their own deadline.
+     */
+    private void awaitConnected(final long deadline) throws IOException {
+        final CompletableFuture<C> pending;
+        final boolean connects;
+        synchronized (this) {
+            if (connection != null) {
+                return;
+            }
+            connects = connecting == null;
+            if (connects) {
+                connecting = new CompletableFuture<>();
+            }
+            pending = connecting;
+        }
+        if (connects) {
+            try {
+                final C connected = connect(deadline);
+                synchronized (this) {
+                    connecting = null;
+                    if (closed) {
+                        closeQuietly(connected);
+                        throw new IOException(name + " is closed");
+                    }
+                    connection = connected;
+                    healthyAt = System.currentTimeMillis();
+                }
+                pending.complete(connected);
+            } catch (IOException | RuntimeException ex) {
+                synchronized (this) {
+                    if (connecting == pending) {
+                        connecting = null;
+                    }
+                }
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+            return;
+        }
+        try {
+            pending.get(Math.max(0, deadline - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IOException(
+                    name + " timed out connecting to the Cassandra Daemon", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    name + " was interrupted while connecting");
+        } catch (ExecutionException ex) {
+            // The caller that connected failed before our deadline, retry.
+        }
+    }
+
+    /**
+     * Gets the shared connection, connecting it if it is not connected or
+     * replacing it if it fails its health check, within the default call
+     * timeout.
+     *
+     * @return A connection that passed its last health check.
+     * @throws IOException If no healthy connection could be opened in time.
+     */
+    public C get() throws IOException {
+        return get(System.currentTimeMillis() + callTimeoutMs);
+    }
+
+    private C get(final long deadline) throws IOException {
+        while (true) {
+            if (closed) {
+                throw new IOException(name + " is closed");
+            }
+            final C current;
+            synchronized (this) {
+                current = connection;
+                if (current != null && System.currentTimeMillis() - healthyAt
+                        < healthCheckIntervalMs) {
+                    return current;
+                }
+            }
+            if (current == null) {
+                awaitConnected(deadline);
+                continue;
+            }
+            try {
+                run(current, c -> {
+                    healthCheck.check(c);
+                    return null;
+                }, Math.max(1, Math.min(callTimeoutMs,
+                        deadline - System.currentTimeMillis())));
+                synchronized (this) {
+                    if (connection == current) {
+                        healthyAt = System.currentTimeMillis();
+                    }
+                }
+                return current;
+            } catch (InterruptedIOException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                LOGGER.warn("{} failed its health check, reconnecting: {}",
+                        name, ex.toString());
+                invalidate(current);
+            }
+        }
+    }
+
+    /**
+     * Runs a call on the shared connection with the default timeout.
+     *
+     * @param call The call.
+     * @param <T>  The type of the result of the call.
+     * @return The result of the call.
+     * @throws IOException If the call failed or timed out. If the connection
+     *                     was lost it is replaced for the next call.
+     */
+    public <T> T call(final Call<C, T> call) throws IOException {
+        return call(call, callTimeoutMs);
+    }
+
+    /**
+     * Runs a call on the shared connection.
+     *
+     * @param call      The call.
+     * @param timeoutMs The timeout of the call.
+     * @param <T>       The type of the result of the call.
+     * @return The result of the call.
+     * @throws IOException If the call failed or timed out. If the connection
+     *                     was lost it is replaced for the next call.
+     */
+    public <T> T call(final Call<C, T> call, final long timeoutMs)
+            throws IOException {
+        final C current = get(System.currentTimeMillis() + timeoutMs);
+        try {
+            final T result = run(current, call, timeoutMs);
+            synchronized (this) {
+                if (connection == current) {
+                    healthyAt = System.currentTimeMillis();
+                }
+            }
+            return result;
+        } catch (Exception ex) {
+            if (isConnectionFailure(ex)) {
+                LOGGER.warn("{} lost its connection, reconnecting: {}",
+                        name, ex.toString());
+                invalidate(current);
+            }
+            if (ex instanceof IOException) {
+                throw (IOException) ex;
+            } else if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            throw new IOException(ex);
+        }
+    }
+
+    private <T> T run(final C current,
+                      final Call<C, T> call,
+                      final long timeoutMs) throws Exception {
+        final Future<T> future = calls.submit(() -> call.call(current));
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new IOException(String.format(
+                    "%s call timed out after %d ms", name, timeoutMs), ex);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(name + " call was interrupted");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Opens a dedicated connection for a long operation. The connection is
+     * not managed, the caller must close it.
+     *
+     * @return A new connection.
+     * @throws IOException If the ManagedConnection is closed while
+     *                     connecting.
+     */
+    public C dedicated() throws IOException {
+        return connect(Long.MAX_VALUE);
+    }
+
+    /**
+     * Closes the shared connection if it is still the current connection, so
+     * that the next call reconnects.
+     *
+     * @param failed The connection that failed.
+     */
+    public synchronized void invalidate(final C failed) {
+        if (connection != null && connection == failed) {
+            closeQuietly(connection);
+            connection = null;
+        }
+    }
+
+    /**
+     * Closes the shared connection. Calls after close fail, and callers
+     * that are connecting give up after their current attempt.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            if (connection != null) {
+                closeQuietly(connection);
+                connection = null;
+            }
+        }
+        calls.shutdownNow();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.google.common.collect.ImmutableSet;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServerConnection;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnector;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * ModeTracker tracks the operation mode of the Cassandra daemon and reports
+ * its changes. It keeps a JMX connection to the daemon that is subscribed to
+ * the notifications of the StorageService, and reads the mode as soon as
+ * a notification arrives, e.g. for the progress of a bootstrap or a repair.
+ * As not every change of mode is notified, the mode is also polled, often
+ * while the daemon is in a transitional mode, such as STARTING or JOINING,
+ * and rarely once it is stable. The connection is retried with exponential
+ * backoff while the daemon starts, and re-established when it is lost.
+ */
+public class ModeTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            ModeTracker.class);
+
+    public static final long DEFAULT_TRANSITIONAL_POLL_MS =
+            TimeUnit.SECONDS.toMillis(1);
+
+    public static final long DEFAULT_STABLE_POLL_MS =
+            TimeUnit.SECONDS.toMillis(30);
+
+    public static final long DEFAULT_MIN_BACKOFF_MS = 100;
+
+    public static final long DEFAULT_MAX_BACKOFF_MS =
+            TimeUnit.SECONDS.toMillis(10);
+
+    private static final Set<CassandraMode> STABLE_MODES = ImmutableSet.of(
+            CassandraMode.NORMAL,
+            CassandraMode.DECOMMISSIONED,
+            CassandraMode.DRAINED);
+
+    /**
+     * A connection that reads the mode of the daemon.
+     */
+    interface ModeSource extends Closeable {
+
+        /**
+         * @return The operation mode of the daemon.
+         * @throws IOException If the mode can not be read.
+         */
+        String getOperationMode() throws IOException;
+    }
+
+    /**
+     * Connects ModeSources.
+     */
+    interface Connector {
+
+        /**
+         * Connects to the daemon.
+         *
+         * @param onNotification Called when the daemon sends a notification.
+         * @param onDisconnect   Called when the connection is lost.
+         * @return A connected ModeSource.
+         * @throws IOException If the daemon can not be reached.
+         */
+        ModeSource connect(Runnable onNotification, Runnable onDisconnect)
+                throws IOException;
+    }
+
+    /**
+     * Connects to the JMX server of a daemon and listens to the
+     * notifications of its StorageService.
+     */
+    private static final class JmxConnector implements Connector {
+        private final int port;
+
+        private JmxConnector(final int port) {
+            this.port = port;
+        }
+
+        @Override
+        public ModeSource connect(final Runnable onNotification,
+                                  final Runnable onDisconnect)
+                throws IOException {
+            final JMXConnector connector = JmxConnections.connect(port);
+            try {
+                final MBeanServerConnection connection =
+                        connector.getMBeanServerConnection();
+                final ObjectName storageService = JmxConnections.objectName(
+                        JmxConnections.STORAGE_SERVICE_MBEAN);
+                connector.addConnectionNotificationListener(
+                        (notification, handback) -> {
+                            final String type = notification.getType();
+                            if (JMXConnectionNotification.CLOSED.equals(type) ||
+                                    JMXConnectionNotification.FAILED.equals(type)) {
+                                onDisconnect.run();
+                            } else if (JMXConnectionNotification
+                                    .NOTIFS_LOST.equals(type)) {
+                                onNotification.run();
+                            }
+                        }, null, null);
+                final NotificationListener listener =
+                        (Notification notification, Object handback) ->
+                                onNotification.run();
+                connection.addNotificationListener(storageService, listener,
+                        null, null);
+                return new ModeSource() {
+                    @Override
+                    public String getOperationMode() throws IOException {
+                        try {
+                            return (String) connection.getAttribute(
+                                    storageService, "OperationMode");
+                        } catch (IOException ex) {
+                            throw ex;
+                        } catch (Exception ex) {
+                            throw new IOException(ex);
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        connector.close();
+                    }
+                };
+            } catch (Exception ex) {
+                connector.close();
+                throw ex instanceof IOException ?
+                        (IOException) ex : new IOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Creates a ModeTracker that connects to the JMX port of the daemon.
+     *
+     * @param executor The executor on which the mode is read.
+     * @param jmxPort  The JMX port of the daemon on the loopback interface.
+     * @param listener Called with the new mode when the mode changes.
+     * @return A ModeTracker that is not started.
+     */
+    public static ModeTracker create(final ScheduledExecutorService executor,
+                                     final int jmxPort,
+                                     final Consumer<CassandraMode> listener) {
+        return new ModeTracker(executor,
+                new JmxConnector(jmxPort),
+                listener,
+                DEFAULT_TRANSITIONAL_POLL_MS,
+                DEFAULT_STABLE_POLL_MS,
+                DEFAULT_MIN_BACKOFF_MS,
+                DEFAULT_MAX_BACKOFF_MS);
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Connector connector;
+    private final Consumer<CassandraMode> listener;
+    private final long transitionalPollMs;
+    private final long stablePollMs;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final AtomicReference<CassandraMode> mode =
+            new AtomicReference<>(CassandraMode.STARTING);
+    private ModeSource source = null;
+    private ScheduledFuture<?> next = null;
+    private long backoffMs;
+    private boolean closed = false;
+
+    ModeTracker(final ScheduledExecutorService executor,
+                final Connector connector,
+                final Consumer<CassandraMode> listener,
+                final long transitionalPollMs,
+                final long stablePollMs,
+                final long minBackoffMs,
+                final long maxBackoffMs) {
+        this.executor = executor;
+        this.connector = connector;
+        this.listener = listener;
+        this.transitionalPollMs = transitionalPollMs;
+        this.stablePollMs = stablePollMs;
+        this.minBackoffMs = minBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMs = minBackoffMs;
+    }
+
+    /**
+     * Starts tracking the mode.
+     */
+    public synchronized void start() {
+        schedule(0);
+    }
+
+    /**
+     * Reads the mode now rather than at the next poll, e.g. after the
+     * executor asked the daemon to change its mode.
+     */
+    public void refresh() {
+        executor.execute(this::check);
+    }
+
+    /**
+     * Gets the mode.
+     *
+     * @return The last mode read from the daemon.
+     */
+    public CassandraMode getMode() {
+        return mode.get();
+    }
+
+    /**
+     * Stops tracking the mode and closes the connection.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        disconnect();
+    }
+
+    private void schedule(final long delayMs) {
+        if (closed) {
+            return;
+        }
+        if (next != null) {
+            next.cancel(false);
+        }
+        next = executor.schedule(this::check, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void disconnect() {
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException ex) {
+                LOGGER.debug("Failed to close JMX connection", ex);
+            }
+            source = null;
+        }
+    }
+
+    private void onDisconnect() {
+        executor.execute(() -> {
+            synchronized (this) {
+                LOGGER.info("JMX connection to the Cassandra Daemon was lost");
+                disconnect();
+                schedule(0);
+            }
+        });
+    }
+
+    synchronized void check() {
+        if (closed) {
+            return;
+        }
+        try {
+            if (source == null) {
+                source = connector.connect(this::refresh, this::onDisconnect);
+                backoffMs = minBackoffMs;
+                LOGGER.info("Mode tracker is connected to the Cassandra Daemon");
+            }
+            final CassandraMode current =
+                    CassandraMode.valueOf(source.getOperationMode());
+            if (mode.getAndSet(current) != current) {
+                LOGGER.info("Cassandra Daemon mode = {}", current);
+                listener.accept(current);
+            }
+            schedule(STABLE_MODES.contains(current) ?
+                    stablePollMs : transitionalPollMs);
+        } catch (Throwable t) {
+            LOGGER.info("Failed to read the mode of the Cassandra Daemon, " +
+                    "retrying in {} ms: {}", backoffMs, t.toString());
+            disconnect();
+            schedule(backoffMs);
+            backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.policies.RoundRobinPolicy;
+import com.datastax.driver.core.policies.WhiteListPolicy;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import org.apache.cassandra.tools.NodeProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+/**
+ * NativeSession is the driver session of the executor to its Cassandra
+ * daemon. It is connected on first use and reused by all tasks, so that
+ * tasks do not pay for the discovery of the cluster and its schema every
+ * time they need to run CQL. The session only sends requests to the local
+ * node, so all statements of a task are coordinated by the same node.
+ */
+public class NativeSession {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            NativeSession.class);
+
+    /**
+     * The time the driver waits for schema agreement after a schema change
+     * before it completes the request. All requests are coordinated by the
+     * local node, which applies a change before it responds, so a long wait
+     * per statement only slows down tasks that change the schema. Those
+     * tasks wait for agreement once after a group of changes instead.
+     */
+    private static final int MAX_SCHEMA_AGREEMENT_WAIT_SECONDS = 1;
+
+    private final CassandraDaemonTask task;
+    private final Probe probe;
+    private Cluster cluster = null;
+    private Session session = null;
+
+    public NativeSession(CassandraDaemonTask task, Probe probe) {
+        this.task = task;
+        this.probe = probe;
+    }
+
+    /**
+     * Gets the session, connecting it if it is not connected.
+     *
+     * @return The session connected to the local Cassandra daemon.
+     */
+    public synchronized Session get() {
+        if (session == null || session.isClosed()) {
+            close();
+            session = connect();
+        }
+        return session;
+    }
+
+    /**
+     * Gets the cluster of the session, connecting it if it is not
+     * connected.
+     *
+     * @return The Cluster whose metadata is kept up to date by the session.
+     */
+    public synchronized Cluster getCluster() {
+        get();
+        return cluster;
+    }
+
+    private Session connect() {
+        final String endpoint;
+        try {
+            endpoint = probe.call(NodeProbe::getEndpoint);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final InetSocketAddress address = new InetSocketAddress(
+                endpoint,
+                task.getConfig().getApplication().getNativeTransportPort());
+        cluster = Cluster.builder()
+                .addContactPointsWithPorts(address)
+                .withMaxSchemaAgreementWaitSeconds(
+                        MAX_SCHEMA_AGREEMENT_WAIT_SECONDS)
+                .withLoadBalancingPolicy(new WhiteListPolicy(
+                        new RoundRobinPolicy(),
+                        Collections.singletonList(address)))
+                .build();
+        try {
+            final Session connected = cluster.connect();
+            LOGGER.info("Native session is connected to the Cassandra Daemon: {}",
+                    address);
+            return connected;
+        } catch (RuntimeException ex) {
+            cluster.close();
+            cluster = null;
+            throw ex;
+        }
+    }
+
+    /**
+     * Closes the session and its cluster. The next call to get connects a
+     * new session.
+     */
+    public synchronized void close() {
+        if (cluster != null) {
+            cluster.close();
+            cluster = null;
+        }
+        session = null;
+    }
+}
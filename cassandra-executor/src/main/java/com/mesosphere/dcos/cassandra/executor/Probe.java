@@ -2,43 +2,106 @@ package com.mesosphere.dcos.cassandra.executor;
 
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
 import org.apache.cassandra.tools.NodeProbe;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Created by gabriel on 9/20/16.
+ * Probe is the JMX client of the executor for its Cassandra daemon. Its
+ * NodeProbe is shared by the tasks and REST resources of the executor and
+ * is replaced when its connection is lost. The shared NodeProbe is only
+ * reachable through call, which times out rather than hanging on an
+ * unresponsive or unreachable daemon. Long operations, such as repair or cleanup, should use a
+ * dedicated NodeProbe so that they do not block the shared one. MBeans that
+ * NodeProbe does not expose are reached through callServer, on a shared
+ * JMX connection that is managed in the same way.
  */
-public class Probe {
-    private final Logger logger = LoggerFactory.getLogger(getClass());
-    private final CassandraDaemonTask task;
-    private NodeProbe nodeProbe = null;
+public class Probe implements AutoCloseable {
+    public static final long DEFAULT_CALL_TIMEOUT_MS =
+            TimeUnit.SECONDS.toMillis(60);
+    public static final long HEALTH_CHECK_INTERVAL_MS =
+            TimeUnit.SECONDS.toMillis(10);
+    private static final long MIN_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 10000;
+
+    private final ManagedConnection<NodeProbe> connection;
+    private final ManagedConnection<JMXConnector> server;
 
     public Probe(CassandraDaemonTask task) {
-       this.task = task;
+        final int port = task.getConfig().getJmxPort();
+        this.connection = new ManagedConnection<>("probe",
+                () -> new NodeProbe("127.0.0.1", port),
+                NodeProbe::getOperationMode,
+                HEALTH_CHECK_INTERVAL_MS,
+                DEFAULT_CALL_TIMEOUT_MS,
+                MIN_BACKOFF_MS,
+                MAX_BACKOFF_MS);
+        this.server = new ManagedConnection<>("probe-server",
+                () -> JmxConnections.connect(port),
+                JMXConnector::getConnectionId,
+                HEALTH_CHECK_INTERVAL_MS,
+                DEFAULT_CALL_TIMEOUT_MS,
+                MIN_BACKOFF_MS,
+                MAX_BACKOFF_MS);
+    }
+
+    /**
+     * Runs a call on the shared NodeProbe with the default timeout.
+     *
+     * @param call The call.
+     * @param <T>  The type of the result of the call.
+     * @return The result of the call.
+     * @throws IOException If the call failed or timed out.
+     */
+    public <T> T call(ManagedConnection.Call<NodeProbe, T> call)
+            throws IOException {
+        return connection.call(call);
     }
 
-    public NodeProbe get() {
-        if (nodeProbe == null) {
-            nodeProbe = connectProbe();
-        }
+    /**
+     * Runs a call on the shared NodeProbe.
+     *
+     * @param call      The call.
+     * @param timeoutMs The timeout of the call.
+     * @param <T>       The type of the result of the call.
+     * @return The result of the call.
+     * @throws IOException If the call failed or timed out.
+     */
+    public <T> T call(ManagedConnection.Call<NodeProbe, T> call,
+                      long timeoutMs) throws IOException {
+        return connection.call(call, timeoutMs);
+    }
+
+    /**
+     * Opens a NodeProbe for a long operation. The caller must close it.
+     *
+     * @return A new connected NodeProbe.
+     * @throws IOException If the Probe is closed while connecting.
+     */
+    public NodeProbe dedicated() throws IOException {
+        return connection.dedicated();
+    }
 
-        return nodeProbe;
+    /**
+     * Runs a call on the shared MBean server connection of the daemon with
+     * the default timeout.
+     *
+     * @param call The call.
+     * @param <T>  The type of the result of the call.
+     * @return The result of the call.
+     * @throws IOException If the call failed or timed out.
+     */
+    public <T> T callServer(ManagedConnection.Call<MBeanServerConnection, T> call)
+            throws IOException {
+        return server.call(connector ->
+                call.call(connector.getMBeanServerConnection()));
     }
 
-    private NodeProbe connectProbe() {
-        while (true) {
-            try {
-                NodeProbe nodeProbe = new NodeProbe("127.0.0.1", task.getConfig().getJmxPort());
-                logger.info("Node probe is successfully connected to the Cassandra Daemon: port {}",
-                        task.getConfig().getJmxPort());
-                return nodeProbe;
-            } catch (Exception ex) {
-                logger.info("Connection to server failed backing off for 500 ms");
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                }
-            }
-        }
+    @Override
+    public void close() {
+        connection.close();
+        server.close();
     }
 }
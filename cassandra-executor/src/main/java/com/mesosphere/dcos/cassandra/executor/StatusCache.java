@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * StatusCache serves the status of the Cassandra daemon from memory. The
+ * status is read in the background when the mode of the daemon changes and
+ * when a request finds that it is older than the TTL, in which case the
+ * request is served the current snapshot rather than waiting. Only a
+ * snapshot older than the maximum age, or the first one, is read while the
+ * request waits. So status requests and health checks, however frequent,
+ * cost at most one read of the daemon per TTL, and nothing when there are
+ * no requests. Every status carries its age.
+ */
+public class StatusCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            StatusCache.class);
+
+    public static final long DEFAULT_TTL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    public static final long DEFAULT_MAX_AGE_MS =
+            TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Reads the status of the daemon.
+     */
+    public interface Reader {
+        CassandraStatus read() throws IOException;
+    }
+
+    private static final class Snapshot {
+        private final CassandraStatus status;
+        private final long readAt;
+
+        private Snapshot(final CassandraStatus status, final long readAt) {
+            this.status = status;
+            this.readAt = readAt;
+        }
+    }
+
+    private final Reader reader;
+    private final Executor executor;
+    private final long ttlMs;
+    private final long maxAgeMs;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * Constructs a new StatusCache.
+     *
+     * @param reader   Reads the status of the daemon.
+     * @param executor The executor on which background reads run.
+     * @param ttlMs    The age after which a request triggers a background
+     *                 read.
+     * @param maxAgeMs The age after which a request waits for a new read.
+     */
+    public StatusCache(final Reader reader,
+                       final Executor executor,
+                       final long ttlMs,
+                       final long maxAgeMs) {
+        this.reader = reader;
+        this.executor = executor;
+        this.ttlMs = ttlMs;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public StatusCache(final Reader reader, final Executor executor) {
+        this(reader, executor, DEFAULT_TTL_MS, DEFAULT_MAX_AGE_MS);
+    }
+
+    private synchronized Snapshot read(final Snapshot previous)
+            throws IOException {
+        // Another request may have read the status while this one waited.
+        if (snapshot != previous) {
+            return snapshot;
+        }
+        final Snapshot current = new Snapshot(reader.read(),
+                System.currentTimeMillis());
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * Gets the status.
+     *
+     * @return The latest snapshot of the status with its age.
+     * @throws UncheckedIOException If there is no snapshot younger than the
+     *                              maximum age and the status can not be
+     *                              read.
+     */
+    public CassandraStatus get() {
+        Snapshot current = snapshot;
+        long age = current == null ?
+                Long.MAX_VALUE : System.currentTimeMillis() - current.readAt;
+        if (age >= maxAgeMs) {
+            try {
+                current = read(current);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            age = Math.max(0, System.currentTimeMillis() - current.readAt);
+        } else if (age >= ttlMs) {
+            refresh();
+        }
+        return current.status.withAge(age);
+    }
+
+    /**
+     * Reads the status in the background, unless a read is in progress.
+     */
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    read(snapshot);
+                } catch (Throwable t) {
+                    LOGGER.warn("Failed to refresh the status of the " +
+                            "Cassandra Daemon: {}", t.toString());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException ex) {
+            refreshing.set(false);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraMode;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraStatus;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatusReader reads the CassandraStatus of the daemon with one bulk
+ * attribute query per MBean, rather than with a JMX call per field as the
+ * NodeProbe does. The endpoint of the node is looked up in the host id map
+ * of the ring only when the host id of the node changes.
+ */
+public class StatusReader implements StatusCache.Reader, AutoCloseable {
+
+    private static final long TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String[] STORAGE_SERVICE_ATTRIBUTES = {
+            "OperationMode",
+            "Joined",
+            "RPCServerRunning",
+            "NativeTransportRunning",
+            "Initialized",
+            "GossipRunning",
+            "LocalHostId",
+            "Tokens",
+            "ReleaseVersion"
+    };
+
+    private static final String[] ENDPOINT_SNITCH_ATTRIBUTES = {
+            "Datacenter",
+            "Rack"
+    };
+
+    private final ManagedConnection<JMXConnector> connection;
+    private final ObjectName storageService =
+            JmxConnections.objectName(JmxConnections.STORAGE_SERVICE_MBEAN);
+    private final ObjectName endpointSnitch =
+            JmxConnections.objectName(JmxConnections.ENDPOINT_SNITCH_INFO_MBEAN);
+    private volatile String hostId = null;
+    private volatile String endpoint = null;
+
+    /**
+     * Constructs a new StatusReader.
+     *
+     * @param jmxPort The JMX port of the daemon on the loopback interface.
+     */
+    public StatusReader(final int jmxPort) {
+        this.connection = new ManagedConnection<>("status",
+                () -> JmxConnections.connect(jmxPort),
+                JMXConnector::getConnectionId,
+                TimeUnit.SECONDS.toMillis(30),
+                TIMEOUT_MS,
+                100,
+                TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static Map<String, Object> getAttributes(
+            final MBeanServerConnection server,
+            final ObjectName name,
+            final String[] attributes) throws Exception {
+        final AttributeList list = server.getAttributes(name, attributes);
+        final Map<String, Object> values = new HashMap<>(attributes.length);
+        for (Attribute attribute : list.asList()) {
+            values.put(attribute.getName(), attribute.getValue());
+        }
+        for (String attribute : attributes) {
+            if (!values.containsKey(attribute)) {
+                throw new IOException("Failed to read attribute " +
+                        attribute + " of " + name);
+            }
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CassandraStatus read() throws IOException {
+        return connection.call(connector -> {
+            final MBeanServerConnection server =
+                    connector.getMBeanServerConnection();
+            final Map<String, Object> storage = getAttributes(server,
+                    storageService, STORAGE_SERVICE_ATTRIBUTES);
+            final Map<String, Object> snitch = getAttributes(server,
+                    endpointSnitch, ENDPOINT_SNITCH_ATTRIBUTES);
+            final String localHostId = (String) storage.get("LocalHostId");
+            if (localHostId != null && !localHostId.equals(hostId)) {
+                final Map<String, String> endpoints = (Map<String, String>)
+                        server.getAttribute(storageService, "HostIdToEndpoint");
+                endpoint = endpoints.get(localHostId);
+                hostId = localHostId;
+            }
+            return CassandraStatus.create(
+                    CassandraMode.valueOf((String) storage.get("OperationMode")),
+                    (Boolean) storage.get("Joined"),
+                    (Boolean) storage.get("RPCServerRunning"),
+                    (Boolean) storage.get("NativeTransportRunning"),
+                    (Boolean) storage.get("Initialized"),
+                    (Boolean) storage.get("GossipRunning"),
+                    localHostId,
+                    localHostId != null ? endpoint : null,
+                    ((List<String>) storage.get("Tokens")).size(),
+                    (String) snitch.get("Datacenter"),
+                    (String) snitch.get("Rack"),
+                    (String) storage.get("ReleaseVersion"));
+        });
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -16,10 +16,8 @@ import org.slf4j.LoggerFactory;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,6 +44,30 @@ public class AzureStorageDriver implements BackupStorageDriver {
   private static final int DEFAULT_PART_SIZE_UPLOAD = 4 * 1024 * 1024; // Chunk size set to 4MB
   private static final int DEFAULT_PART_SIZE_DOWNLOAD = 4 * 1024 * 1024; // Chunk size set to 4MB
 
+  private final TransferThrottle throttle;
+  private final TransferTracker tracker = new TransferTracker();
+
+  /**
+   * Constructs a new AzureStorageDriver whose transfers are not shared with the throttle of the
+   * executor.
+   */
+  public AzureStorageDriver() {
+    this(new TransferThrottle());
+  }
+
+  /**
+   * Constructs a new AzureStorageDriver.
+   * @param throttle The TransferThrottle that limits the uploads and downloads of the driver.
+   */
+  public AzureStorageDriver(final TransferThrottle throttle) {
+    this.throttle = throttle;
+  }
+
+  @Override
+  public TransferTracker getTracker() {
+    return tracker;
+  }
+
   @Override
   public void upload(BackupRestoreContext ctx) throws IOException {
 
@@ -93,6 +115,7 @@ public class AzureStorageDriver implements BackupStorageDriver {
 
         if (snapshotDirectory.isPresent()) {
           logger.info("Going to upload directory: {}", snapshotDirectory.get().getAbsolutePath());
+          tracker.addDirectory(snapshotDirectory.get().toPath());
 
           uploadDirectory(snapshotDirectory.get().getAbsolutePath(), container, containerName, key,
             keyspaceDir.getName(), cfDir.getName());
@@ -134,17 +157,26 @@ public class AzureStorageDriver implements BackupStorageDriver {
     PageBlobOutputStream pageBlobOutputStream = null;
     SnappyOutputStream compress = null;
     BufferedOutputStream bufferedOutputStream = null;
-    try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(sourceFile))) {
+    try {
+      throttle.acquireFile();
+    } catch (InterruptedException e) {
+      logger.error("Interrupted waiting to upload file: {}", sourceFile.getAbsolutePath(), e);
+      Thread.currentThread().interrupt();
+      return;
+    }
+    try (InputStream inputStream = tracker.track(new SnapshotFileInputStream(sourceFile))) {
 
       logger.info("Initiating upload for file: {} | key: {}",
         sourceFile.getAbsolutePath(), fileKey);
 
       final CloudPageBlob blob = container.getPageBlobReference(fileKey);
       pageBlobOutputStream = new PageBlobOutputStream(blob);
-      bufferedOutputStream = new BufferedOutputStream(pageBlobOutputStream);
+      // Throttle the compressed bytes as those are the bytes sent to Azure.
+      bufferedOutputStream = new BufferedOutputStream(throttle.throttle(pageBlobOutputStream));
 
       compress = new SnappyOutputStream(bufferedOutputStream, DEFAULT_PART_SIZE_UPLOAD);
       IOUtils.copy(inputStream, compress, DEFAULT_PART_SIZE_UPLOAD);
+      tracker.completeFile();
 
     } catch (StorageException | URISyntaxException | IOException e) {
       logger.error("Unable to store blob", e);
@@ -152,6 +184,7 @@ public class AzureStorageDriver implements BackupStorageDriver {
       IOUtils.closeQuietly(compress);  // super important that the compress close is called first in order to flush
       IOUtils.closeQuietly(bufferedOutputStream);
       IOUtils.closeQuietly(pageBlobOutputStream);
+      throttle.releaseFile();
     }
   }
 
@@ -183,6 +216,8 @@ public class AzureStorageDriver implements BackupStorageDriver {
 
     final Map<String, Long> snapshotFileKeys = getSnapshotFileKeys(container, keyPrefix);
     logger.info("Snapshot files for this node: {}", snapshotFileKeys);
+    tracker.addTotal(snapshotFileKeys.size(),
+      snapshotFileKeys.values().stream().mapToLong(Long::longValue).sum());
 
     for (String fileKey : snapshotFileKeys.keySet()) {
       downloadFile(localLocation, container, fileKey, snapshotFileKeys.get(fileKey));
@@ -204,21 +239,31 @@ public class AzureStorageDriver implements BackupStorageDriver {
     InputStream inputStream = null;
     SnappyInputStream compress = null;
 
+    try {
+      throttle.acquireFile();
+    } catch (InterruptedException e) {
+      logger.error("Interrupted waiting to download file: {}", fileKey, e);
+      Thread.currentThread().interrupt();
+      return;
+    }
     try (
       FileOutputStream fileOutputStream = new FileOutputStream(file, true);
       BufferedOutputStream bos = new BufferedOutputStream(fileOutputStream)) {
 
       final CloudPageBlob pageBlobReference = container.getPageBlobReference(fileKey);
-      inputStream = new PageBlobInputStream(pageBlobReference);
+      // Throttle the compressed bytes as those are the bytes received from Azure.
+      inputStream = throttle.throttle(new PageBlobInputStream(pageBlobReference));
       compress = new SnappyInputStream(inputStream);
 
-      IOUtils.copy(compress, bos, DEFAULT_PART_SIZE_DOWNLOAD);
+      IOUtils.copy(tracker.track(compress), bos, DEFAULT_PART_SIZE_DOWNLOAD);
+      tracker.completeFile();
 
     } catch (Exception e) {
       logger.error("Unable to write file: {}", fileKey, e);
     } finally {
       IOUtils.closeQuietly(compress);
       IOUtils.closeQuietly(inputStream);
+      throttle.releaseFile();
     }
   }
 
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.mesos.config.SerializationUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.Checksum;
+
+/**
+ * BackupManifest lists the files of the backup of a node. The files
+ * themselves are stored once in the objects directory of the external
+ * location, <location>/objects/<ab>/<digest>, keyed by the SHA-256 digest of
+ * their content, and are shared by all of the nodes and backups that contain
+ * them. The manifest of a node is stored at
+ * <location>/<backup>/<node>/manifest.json. It is written after all of its
+ * files have been stored, so the backup of a node is complete if and only if
+ * its manifest exists. The manifest also records the CRC32C checksum of each
+ * file, which is computed in the same pass as its digest, so that downloads
+ * and verifications can check the files without reading them twice.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BackupManifest {
+
+    /**
+     * The name of the manifest file of a node.
+     */
+    public static final String MANIFEST_FILE = "manifest.json";
+
+    /**
+     * The name of the directory of the external location that contains the
+     * files of all of the backups.
+     */
+    public static final String OBJECTS_DIRECTORY = "objects";
+
+    /**
+     * The maximum number of digests cached by the executor.
+     */
+    private static final int MAX_CACHED_DIGESTS = 100000;
+
+    private static final int DIGEST_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Checksums of the files read by the executor, keyed by the identity,
+     * size and modification time of the file. Snapshot files are hard links
+     * to the SSTables of the node, so a file that is part of several backups
+     * is only read once.
+     */
+    private static final Cache<String, Checksums> CHECKSUMS = CacheBuilder
+            .newBuilder()
+            .maximumSize(MAX_CACHED_DIGESTS)
+            .build();
+
+    /**
+     * The checksums of the content of a file.
+     */
+    public static class Checksums {
+        private final String digest;
+        private final String crc32c;
+
+        public Checksums(final String digest, final String crc32c) {
+            this.digest = digest;
+            this.crc32c = crc32c;
+        }
+
+        /**
+         * Gets the digest of the file.
+         *
+         * @return The hex encoded SHA-256 digest of the file.
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Gets the CRC32C checksum of the file.
+         *
+         * @return The CRC32C checksum of the file as 8 hex digits.
+         */
+        public String getCrc32c() {
+            return crc32c;
+        }
+    }
+
+    /**
+     * A file of the backup of a node.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+
+        @JsonCreator
+        public static Entry create(
+                @JsonProperty("key_space") final String keySpace,
+                @JsonProperty("column_family") final String columnFamily,
+                @JsonProperty("file") final String file,
+                @JsonProperty("digest") final String digest,
+                @JsonProperty("crc32c") final String crc32c,
+                @JsonProperty("size") final long size) {
+            return new Entry(keySpace, columnFamily, file, digest, crc32c,
+                    size);
+        }
+
+        @JsonProperty("key_space")
+        private final String keySpace;
+
+        @JsonProperty("column_family")
+        private final String columnFamily;
+
+        @JsonProperty("file")
+        private final String file;
+
+        @JsonProperty("digest")
+        private final String digest;
+
+        @JsonProperty("crc32c")
+        private final String crc32c;
+
+        @JsonProperty("size")
+        private final long size;
+
+        private Entry(final String keySpace,
+                      final String columnFamily,
+                      final String file,
+                      final String digest,
+                      final String crc32c,
+                      final long size) {
+            this.keySpace = keySpace;
+            this.columnFamily = columnFamily;
+            this.file = file;
+            this.digest = digest;
+            this.crc32c = crc32c;
+            this.size = size;
+        }
+
+        /**
+         * Gets the key space of the file.
+         *
+         * @return The name of the key space.
+         */
+        public String getKeySpace() {
+            return keySpace;
+        }
+
+        /**
+         * Gets the column family of the file.
+         *
+         * @return The name of the directory of the column family,
+         * <name>-<id>.
+         */
+        public String getColumnFamily() {
+            return columnFamily;
+        }
+
+        /**
+         * Gets the name of the file.
+         *
+         * @return The path of the file relative to the snapshot directory
+         * of its column family.
+         */
+        public String getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the digest of the file.
+         *
+         * @return The hex encoded SHA-256 digest of the content of the file.
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Gets the CRC32C checksum of the file.
+         *
+         * @return The CRC32C checksum of the content of the file as 8 hex
+         * digits, or null if the manifest was written without checksums.
+         */
+        public String getCrc32c() {
+            return crc32c;
+        }
+
+        /**
+         * Gets the size of the file.
+         *
+         * @return The size of the file in bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry that = (Entry) o;
+            return size == that.size &&
+                    Objects.equals(keySpace, that.keySpace) &&
+                    Objects.equals(columnFamily, that.columnFamily) &&
+                    Objects.equals(file, that.file) &&
+                    Objects.equals(digest, that.digest) &&
+                    Objects.equals(crc32c, that.crc32c);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(keySpace, columnFamily, file, digest, crc32c,
+                    size);
+        }
+    }
+
+    @JsonCreator
+    public static BackupManifest create(
+            @JsonProperty("backup_name") final String backupName,
+            @JsonProperty("node_id") final String nodeId,
+            @JsonProperty("created") final long created,
+            @JsonProperty("files") final List<Entry> files) {
+        return new BackupManifest(backupName, nodeId, created, files);
+    }
+
+    /**
+     * Parses a manifest.
+     *
+     * @param bytes The UTF-8 encoded JSON representation of the manifest.
+     * @return The manifest.
+     * @throws IOException If bytes is not a valid manifest.
+     */
+    public static BackupManifest parse(final byte[] bytes) throws IOException {
+        return SerializationUtils.fromJsonString(
+                new String(bytes, StandardCharsets.UTF_8),
+                BackupManifest.class);
+    }
+
+    /**
+     * Gets the path of a file in the objects directory.
+     *
+     * @param digest The digest of the file.
+     * @return The path of the file relative to the external location,
+     * objects/<first two characters of digest>/<digest>.
+     */
+    public static String getObjectPath(final String digest) {
+        return OBJECTS_DIRECTORY + "/" + digest.substring(0, 2) + "/" + digest;
+    }
+
+    /**
+     * Computes the digest of a file.
+     *
+     * @param file The file.
+     * @return The hex encoded SHA-256 digest of the content of file.
+     * @throws IOException If file can not be read.
+     */
+    public static String digest(final File file) throws IOException {
+        return checksums(file).getDigest();
+    }
+
+    /**
+     * Computes the SHA-256 digest and the CRC32C checksum of a file in a
+     * single read. Checksums are cached, so that the files that are unchanged
+     * since a previous backup are not read again.
+     *
+     * @param file The file.
+     * @return The checksums of the content of file.
+     * @throws IOException If file can not be read.
+     */
+    public static Checksums checksums(final File file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(
+                file.toPath(), BasicFileAttributes.class);
+        final String key = attributes.fileKey() == null ? null :
+                attributes.fileKey() + ":" + attributes.size() + ":" +
+                        attributes.lastModifiedTime().toMillis();
+        if (key != null) {
+            final Checksums checksums = CHECKSUMS.getIfPresent(key);
+            if (checksums != null) {
+                return checksums;
+            }
+        }
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        final Checksum crc32c = Crc32c.create();
+        final byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream in = new SnapshotFileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                messageDigest.update(buffer, 0, read);
+                crc32c.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder digest = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            digest.append(String.format("%02x", b));
+        }
+        final Checksums checksums = new Checksums(digest.toString(),
+                Crc32c.toHex(crc32c));
+        if (key != null) {
+            CHECKSUMS.put(key, checksums);
+        }
+        return checksums;
+    }
+
+    @JsonProperty("backup_name")
+    private final String backupName;
+
+    @JsonProperty("node_id")
+    private final String nodeId;
+
+    @JsonProperty("created")
+    private final long created;
+
+    @JsonProperty("files")
+    private final List<Entry> files;
+
+    private BackupManifest(final String backupName,
+                           final String nodeId,
+                           final long created,
+                           final List<Entry> files) {
+        this.backupName = backupName;
+        this.nodeId = nodeId;
+        this.created = created;
+        this.files = (files == null) ? Collections.emptyList() :
+                new ArrayList<>(files);
+    }
+
+    /**
+     * Gets the name of the backup.
+     *
+     * @return The name of the backup.
+     */
+    public String getBackupName() {
+        return backupName;
+    }
+
+    /**
+     * Gets the node of the manifest.
+     *
+     * @return The id of the node whose files are listed.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Gets the time the backup was created.
+     *
+     * @return The time the manifest was written in milliseconds since the
+     * epoch.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets the files of the backup.
+     *
+     * @return The files of the backup of the node.
+     */
+    public List<Entry> getFiles() {
+        return files;
+    }
+
+    /**
+     * Gets the digests of the files of the backup.
+     *
+     * @return The set of the digests of the files referenced by the manifest.
+     */
+    @JsonIgnore
+    public Set<String> getDigests() {
+        return files.stream().map(Entry::getDigest).collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets the files of the backup by column family.
+     *
+     * @return A map of <key space>/<column family> to the files of the
+     * column family, in key order.
+     */
+    @JsonIgnore
+    public Map<String, List<Entry>> getTables() {
+        final Map<String, List<Entry>> tables = new TreeMap<>();
+        for (Entry entry : files) {
+            tables.computeIfAbsent(
+                    entry.getKeySpace() + "/" + entry.getColumnFamily(),
+                    table -> new ArrayList<>()).add(entry);
+        }
+        return tables;
+    }
+
+    /**
+     * Gets the JSON representation of the manifest.
+     *
+     * @return The UTF-8 encoded JSON representation of the manifest.
+     * @throws IOException If the manifest can not be serialized.
+     */
+    public byte[] toBytes() throws IOException {
+        return SerializationUtils.toJsonString(this)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BackupManifest)) return false;
+        BackupManifest that = (BackupManifest) o;
+        return created == that.created &&
+                Objects.equals(backupName, that.backupName) &&
+                Objects.equals(nodeId, that.nodeId) &&
+                Objects.equals(files, that.files);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(backupName, nodeId, created, files);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BackupRetention applies the retention policy of a backup to the manifests
+ * and files of an external location. A backup is retained if it is among
+ * the retain_backups most recent backups and it is younger than retain_days.
+ * The backup that is being taken is always retained. A partial backup, one
+ * that failed before all of its nodes wrote their manifest and schema, can
+ * not be restored, so it does not count against retain_backups; it expires
+ * with the complete backups that are older than it. A file is deleted if
+ * it is not referenced by any retained backup and it is older than the grace
+ * period, which protects the files of a backup whose upload is in progress
+ * and whose manifest has not been written yet.
+ */
+public class BackupRetention {
+
+    /**
+     * The minimum age of a file that is deleted.
+     */
+    public static final long GRACE_PERIOD_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The result of pruning the backups of an external location.
+     */
+    public static class Result {
+        private final Set<String> expiredBackups;
+        private final long deletedFiles;
+        private final long deletedBytes;
+
+        public Result(final Set<String> expiredBackups,
+                      final long deletedFiles,
+                      final long deletedBytes) {
+            this.expiredBackups = expiredBackups;
+            this.deletedFiles = deletedFiles;
+            this.deletedBytes = deletedBytes;
+        }
+
+        /**
+         * Gets the expired backups.
+         *
+         * @return The names of the backups that were deleted.
+         */
+        public Set<String> getExpiredBackups() {
+            return expiredBackups;
+        }
+
+        /**
+         * Gets the number of deleted files.
+         *
+         * @return The number of files that were deleted from the objects
+         * directory.
+         */
+        public long getDeletedFiles() {
+            return deletedFiles;
+        }
+
+        /**
+         * Gets the size of the deleted files.
+         *
+         * @return The total size of the deleted files in bytes.
+         */
+        public long getDeletedBytes() {
+            return deletedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Deleted backups: " + expiredBackups + ", deleted " +
+                    deletedFiles + " unreferenced files (" + deletedBytes +
+                    " bytes)";
+        }
+    }
+
+    /**
+     * A file of the objects directory.
+     */
+    public static class StoredObject {
+        private final String digest;
+        private final long size;
+        private final long lastModified;
+
+        public StoredObject(final String digest,
+                            final long size,
+                            final long lastModified) {
+            this.digest = digest;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private final String currentBackup;
+    private final int retainBackups;
+    private final int retainDays;
+    private final long now;
+
+    /**
+     * Constructs a new BackupRetention.
+     *
+     * @param currentBackup The name of the backup that is being taken.
+     * @param retainBackups The number of most recent backups that are
+     *                      retained, or 0 to retain any number of backups.
+     * @param retainDays    The number of days backups are retained, or 0 to
+     *                      retain backups of any age.
+     * @param now           The current time in milliseconds since the epoch.
+     */
+    public BackupRetention(final String currentBackup,
+                           final int retainBackups,
+                           final int retainDays,
+                           final long now) {
+        this.currentBackup = currentBackup;
+        this.retainBackups = retainBackups;
+        this.retainDays = retainDays;
+        this.now = now;
+    }
+
+    /**
+     * Constructs a new BackupRetention for the policy of a backup.
+     *
+     * @param ctx The context of the backup.
+     */
+    public BackupRetention(final BackupRestoreContext ctx) {
+        this(ctx.getName(), ctx.getRetainBackups(), ctx.getRetainDays(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Selects the expired backups.
+     *
+     * @param manifests The manifests of all of the nodes of all of the
+     *                  backups in the external location.
+     * @return The names of the backups that are expired.
+     */
+    public Set<String> getExpiredBackups(
+            final Collection<BackupManifest> manifests) {
+        return getExpiredBackups(manifests, Collections.emptySet());
+    }
+
+    /**
+     * Selects the expired backups.
+     *
+     * @param manifests The manifests of all of the nodes of all of the
+     *                  backups in the external location.
+     * @param partial   The names of the backups that are partial.
+     * @return The names of the backups that are expired.
+     */
+    public Set<String> getExpiredBackups(
+            final Collection<BackupManifest> manifests,
+            final Set<String> partial) {
+        // A backup was created when its first node was backed up.
+        final Map<String, Long> created = new HashMap<>();
+        for (BackupManifest manifest : manifests) {
+            created.merge(manifest.getBackupName(), manifest.getCreated(),
+                    Math::min);
+        }
+        final List<String> backups = new ArrayList<>(created.keySet());
+        backups.sort(Comparator.comparing((String backup) -> created.get(backup))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        final Set<String> expired = new TreeSet<>();
+        final long oldest = now - TimeUnit.DAYS.toMillis(retainDays);
+        // The current backup counts against retain_backups.
+        int retained = created.containsKey(currentBackup) ? 1 : 0;
+        for (String backup : backups) {
+            if (backup.equals(currentBackup)) {
+                continue;
+            }
+            if ((retainBackups > 0 && retained >= retainBackups) ||
+                    (retainDays > 0 && created.get(backup) < oldest)) {
+                expired.add(backup);
+            } else if (!partial.contains(backup)) {
+                retained++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the digests of the files referenced by the retained backups.
+     *
+     * @param manifests The manifests of all of the nodes of all of the
+     *                  backups in the external location.
+     * @param expired   The names of the expired backups.
+     * @return The digests of the files that must be retained.
+     */
+    public static Set<String> getReferencedDigests(
+            final Collection<BackupManifest> manifests,
+            final Set<String> expired) {
+        final Set<String> referenced = new HashSet<>();
+        for (BackupManifest manifest : manifests) {
+            if (!expired.contains(manifest.getBackupName())) {
+                referenced.addAll(manifest.getDigests());
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * Selects the files to delete.
+     *
+     * @param objects    The files of the objects directory.
+     * @param referenced The digests of the files referenced by the retained
+     *                   backups.
+     * @return The files that are unreferenced and older than the grace period.
+     */
+    public List<StoredObject> getUnreferencedObjects(
+            final Collection<StoredObject> objects,
+            final Set<String> referenced) {
+        final List<StoredObject> unreferenced = new ArrayList<>();
+        for (StoredObject object : objects) {
+            if (!referenced.contains(object.getDigest()) &&
+                    object.getLastModified() < now - GRACE_PERIOD_MS) {
+                unreferenced.add(object);
+            }
+        }
+        return unreferenced;
+    }
+}
@@ -17,7 +17,9 @@ package com.mesosphere.dcos.cassandra.executor.backup;
 
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * BackupStorageDriver is the interface to all drivers that store and
@@ -25,6 +27,28 @@ import java.io.IOException;
  */
 public interface BackupStorageDriver {
 
+    /**
+     * Receives the tables of a download as soon as all of their files have
+     * been downloaded.
+     */
+    interface TableDownloadListener {
+        /**
+         * Called when all files of a table have been downloaded.
+         * @param directory The directory the files of the table were
+         *                  downloaded to.
+         * @throws Exception If the table can not be processed, which fails
+         * the download.
+         */
+        void onTableDownloaded(File directory) throws Exception;
+    }
+
+    /**
+     * Gets the tracker that records the progress of the uploads and
+     * downloads of the driver.
+     * @return The TransferTracker of the driver.
+     */
+    TransferTracker getTracker();
+
     /**
      * Uploads snapshot files to a remote location.
      * @param ctx The context of the backup.
@@ -39,6 +63,23 @@ public interface BackupStorageDriver {
      */
     void download(BackupRestoreContext ctx) throws Exception;
 
+    /**
+     * Downloads snapshot files from a remote location to the same locations
+     * as download, and calls the listener for each table as soon as its
+     * files have been downloaded. Drivers that can not download one table at
+     * a time download the whole snapshot before calling the listener.
+     * @param ctx The context of the restore.
+     * @param listener The listener that receives the downloaded tables.
+     * @throws Exception If the download fails or the listener throws.
+     */
+    default void download(BackupRestoreContext ctx,
+                          TableDownloadListener listener) throws Exception {
+        download(ctx);
+        for (File directory : StorageUtil.getDownloadedTables(ctx)) {
+            listener.onTableDownloaded(directory);
+        }
+    }
+
     /**
      * Uploads the schema for current cassandra daemon process
      * @param ctx The context for the backup.
@@ -47,6 +88,55 @@ public interface BackupStorageDriver {
      */
     void uploadSchema(BackupRestoreContext ctx, String schema) throws Exception;
 
+    /**
+     * Applies the retention policy of a backup to the external location. The
+     * expired backups are deleted, followed by the files that are no longer
+     * referenced by any retained backup. Drivers that do not store the files
+     * of backups by content have nothing to prune.
+     * @param ctx The context of the backup.
+     * @return The result of pruning the backups.
+     * @throws Exception If the backups can not be pruned.
+     */
+    default BackupRetention.Result prune(BackupRestoreContext ctx) throws Exception {
+        return new BackupRetention.Result(Collections.emptySet(), 0, 0);
+    }
+
+    /**
+     * Verifies the stored files of the backup of a node against its
+     * manifest, without downloading them. Drivers that do not write
+     * manifests can not verify their backups.
+     * @param ctx The context of the backup.
+     * @return The result of the verification.
+     * @throws Exception If the backup has no manifest or can not be
+     * verified, an IOException if the driver can not verify backups.
+     */
+    default BackupVerification.Result verify(BackupRestoreContext ctx) throws Exception {
+        throw new IOException(
+                "Backups stored by " + getClass().getSimpleName() +
+                        " can not be verified");
+    }
+
+    /**
+     * Copies the backup of all nodes from one external location to another
+     * of the same kind. Drivers whose storage service can copy files copy
+     * them without transferring them through the node. Files that are
+     * already stored in the destination are not copied again, and the
+     * manifests are copied last, so that a backup is only restored from the
+     * destination once all of its files have been copied.
+     * @param source The context of the backup in the external location it
+     *               is copied from.
+     * @param destination The context of the backup in the external location
+     *                    it is copied to.
+     * @throws Exception If the backup does not exist or can not be copied,
+     * an IOException if the driver can not copy backups.
+     */
+    default void copy(BackupRestoreContext source,
+                      BackupRestoreContext destination) throws Exception {
+        throw new IOException(
+                "Backups stored by " + getClass().getSimpleName() +
+                        " can not be copied");
+    }
+
     /**
      * Reads the schema file.
      * @param ctx
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BackupVerification checks the stored files of the backup of a node
+ * against its manifest. The files are checked concurrently by a
+ * storage driver specific FileCheck, which inspects the stored file, e.g.
+ * through its metadata, without downloading it. A file that is referenced
+ * several times by the manifest is checked once.
+ */
+public class BackupVerification {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            BackupVerification.class);
+
+    /**
+     * The number of files checked concurrently if the backup does not set
+     * max_concurrent_files.
+     */
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    /**
+     * The maximum number of problems listed by a Result.
+     */
+    private static final int MAX_REPORTED_PROBLEMS = 10;
+
+    /**
+     * Checks a stored file of a backup.
+     */
+    public interface FileCheck {
+        /**
+         * Checks the stored file of an entry of a manifest.
+         * @param entry The entry of the file.
+         * @return A description of the problem of the stored file, e.g. that
+         * it is missing, or empty if the file is valid.
+         * @throws Exception If the file can not be checked.
+         */
+        Optional<String> check(BackupManifest.Entry entry) throws Exception;
+    }
+
+    /**
+     * The result of verifying the backup of a node.
+     */
+    public static class Result {
+        private final long files;
+        private final long bytes;
+        private final List<String> problems;
+
+        public Result(final long files,
+                      final long bytes,
+                      final List<String> problems) {
+            this.files = files;
+            this.bytes = bytes;
+            this.problems = problems;
+        }
+
+        /**
+         * Gets the number of checked files.
+         *
+         * @return The number of distinct stored files that were checked.
+         */
+        public long getFiles() {
+            return files;
+        }
+
+        /**
+         * Gets the size of the checked files.
+         *
+         * @return The total size of the checked files in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gets the problems found by the verification.
+         *
+         * @return The descriptions of the files that are missing or do not
+         * match the manifest.
+         */
+        public List<String> getProblems() {
+            return problems;
+        }
+
+        /**
+         * Gets whether the backup is valid.
+         *
+         * @return True if all of the files of the backup are valid.
+         */
+        public boolean isValid() {
+            return problems.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder()
+                    .append("Verified ").append(files).append(" files (")
+                    .append(bytes).append(" bytes)");
+            if (!problems.isEmpty()) {
+                builder.append(", ").append(problems.size())
+                        .append(" invalid: ")
+                        .append(String.join("; ", problems.subList(0,
+                                Math.min(problems.size(), MAX_REPORTED_PROBLEMS))));
+                if (problems.size() > MAX_REPORTED_PROBLEMS) {
+                    builder.append("; ...");
+                }
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Gets the number of files of a backup checked concurrently.
+     * @param ctx The context of the verification.
+     * @return The max_concurrent_files of ctx, or DEFAULT_PARALLELISM if it
+     * is not set.
+     */
+    public static int getParallelism(final BackupRestoreContext ctx) {
+        return ctx.getMaxConcurrentFiles() > 0 ?
+                ctx.getMaxConcurrentFiles() : DEFAULT_PARALLELISM;
+    }
+
+    /**
+     * Verifies the files of a backup.
+     * @param entries The entries of the manifest of the backup.
+     * @param check The check applied to each stored file.
+     * @param parallelism The number of files checked concurrently.
+     * @return The result of the verification.
+     * @throws Exception If the verification is interrupted.
+     */
+    public static Result verify(final Collection<BackupManifest.Entry> entries,
+                                final FileCheck check,
+                                final int parallelism) throws Exception {
+        final Map<String, BackupManifest.Entry> files = new LinkedHashMap<>();
+        for (BackupManifest.Entry entry : entries) {
+            files.putIfAbsent(entry.getDigest(), entry);
+        }
+        if (files.isEmpty()) {
+            return new Result(0, 0, Collections.emptyList());
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, files.size()));
+        try {
+            final List<Future<Optional<String>>> futures =
+                    new ArrayList<>(files.size());
+            for (BackupManifest.Entry entry : files.values()) {
+                futures.add(executor.submit(() -> check.check(entry)));
+            }
+            final List<String> problems = new ArrayList<>();
+            long bytes = 0;
+            int i = 0;
+            for (BackupManifest.Entry entry : files.values()) {
+                Optional<String> problem;
+                try {
+                    problem = futures.get(i++).get();
+                } catch (ExecutionException e) {
+                    problem = Optional.of("failed to check: " +
+                            e.getCause().getMessage());
+                }
+                if (problem.isPresent()) {
+                    final String description = entry.getKeySpace() + "/" +
+                            entry.getColumnFamily() + "/" + entry.getFile() +
+                            " (" + entry.getDigest() + ") " + problem.get();
+                    LOGGER.error("Invalid backup file: {}", description);
+                    problems.add(description);
+                }
+                bytes += entry.getSize();
+            }
+            return new Result(files.size(), bytes, problems);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.zip.Checksum;
+
+/**
+ * Crc32c computes CRC32C (Castagnoli) checksums of backup files. The
+ * checksum of the JDK, java.util.zip.CRC32C, which uses the CRC32 instruction
+ * of the processor, is used where it is available (Java 9 and later), and a
+ * table driven implementation otherwise. Both compute the same values.
+ */
+public final class Crc32c implements Checksum {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Crc32c.class);
+
+    private static final String JDK_CRC32C = "java.util.zip.CRC32C";
+
+    private static final int POLYNOMIAL = 0x82F63B78;
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE[i] = crc;
+        }
+    }
+
+    private static final Class<? extends Checksum> JDK_CLASS = getJdkClass();
+
+    private static Class<? extends Checksum> getJdkClass() {
+        try {
+            final Class<? extends Checksum> jdkClass =
+                    Class.forName(JDK_CRC32C).asSubclass(Checksum.class);
+            jdkClass.getConstructor().newInstance();
+            LOGGER.info("Using {} for backup checksums", JDK_CRC32C);
+            return jdkClass;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.info("{} is not available, using a table driven CRC32C " +
+                    "for backup checksums", JDK_CRC32C);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a CRC32C checksum.
+     * @return The checksum of the JDK if it is available, and a new Crc32c
+     * otherwise.
+     */
+    public static Checksum create() {
+        if (JDK_CLASS != null) {
+            try {
+                return JDK_CLASS.getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Failed to create {}", JDK_CRC32C, e);
+            }
+        }
+        return new Crc32c();
+    }
+
+    /**
+     * Formats the value of a checksum.
+     * @param checksum The checksum.
+     * @return The value of the checksum as 8 hex digits.
+     */
+    public static String toHex(final Checksum checksum) {
+        return String.format("%08x", checksum.getValue());
+    }
+
+    private int crc = 0xFFFFFFFF;
+
+    @Override
+    public void update(int b) {
+        crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        int value = crc;
+        for (int i = off; i < off + len; i++) {
+            value = (value >>> 8) ^ TABLE[(value ^ b[i]) & 0xFF];
+        }
+        crc = value;
+    }
+
+    @Override
+    public long getValue() {
+        return (~crc) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        crc = 0xFFFFFFFF;
+    }
+}
@@ -0,0 +1,737 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implements a BackupStorageDriver that stores backups in a directory of a
+ * local or network (e.g. NFS) file system, given by an external location of
+ * the form file:///path/to/backups. Files are stored by content in
+ * <path>/objects, and each node of a backup writes a BackupManifest to
+ * <path>/<backup>/<node>/manifest.json, so a file that is part of several
+ * backups, or of the backups of several nodes, is stored once. Backups
+ * without a manifest, in the layout <path>/<backup>/<node>/<keyspace>/<cf>/
+ * <files>, can still be restored.
+ * Files are copied with FileChannel.transferTo, or hard linked when the
+ * source and the target are on the same file system, and the tables are
+ * copied in parallel.
+ */
+public class FileStorageDriver implements BackupStorageDriver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            FileStorageDriver.class);
+
+    /**
+     * The number of tables copied concurrently.
+     */
+    static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * The amount of data copied by a single transferTo call, the bandwidth
+     * of the throttle is acquired for each chunk.
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final TransferThrottle throttle;
+    private final TransferTracker tracker = new TransferTracker();
+    private final int parallelism;
+
+    /**
+     * Constructs a new FileStorageDriver whose transfers are not shared with
+     * the throttle of the executor.
+     */
+    public FileStorageDriver() {
+        this(new TransferThrottle());
+    }
+
+    /**
+     * Constructs a new FileStorageDriver.
+     * @param throttle The TransferThrottle that limits the copies of the
+     *                 driver.
+     */
+    public FileStorageDriver(final TransferThrottle throttle) {
+        this(throttle, DEFAULT_PARALLELISM);
+    }
+
+    FileStorageDriver(final TransferThrottle throttle, final int parallelism) {
+        this.throttle = throttle;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public TransferTracker getTracker() {
+        return tracker;
+    }
+
+    Path getRoot(BackupRestoreContext ctx) throws URISyntaxException {
+        return Paths.get(new URI(ctx.getExternalLocation()));
+    }
+
+    Path getBackupRoot(BackupRestoreContext ctx) throws URISyntaxException {
+        return getRoot(ctx).resolve(ctx.getName());
+    }
+
+    private Path getNodeRoot(BackupRestoreContext ctx)
+            throws URISyntaxException {
+        return getBackupRoot(ctx).resolve(ctx.getNodeId());
+    }
+
+    private static File[] getDirectories(File parent) {
+        final File[] directories = parent.listFiles(File::isDirectory);
+        return directories == null ? new File[0] : directories;
+    }
+
+    @Override
+    public void upload(BackupRestoreContext ctx) throws Exception {
+        final String backupName = ctx.getName();
+        final Path root = getRoot(ctx);
+        final Path nodeRoot = getNodeRoot(ctx);
+        final File dataDirectory = new File(ctx.getLocalLocation());
+        LOGGER.info("Backup directory: {}", nodeRoot);
+
+        final List<BackupManifest.Entry> entries =
+                Collections.synchronizedList(new ArrayList<>());
+        final Set<String> stored = ConcurrentHashMap.newKeySet();
+        final List<Callable<Void>> copies = new ArrayList<>();
+        // Ex: data/<keyspace>/<cf>/snapshots/</snapshot-dir>/<files>
+        for (File keyspaceDir : getDirectories(dataDirectory)) {
+            LOGGER.info("Entering keyspace: {}", keyspaceDir.getName());
+            for (File cfDir : getDirectories(keyspaceDir)) {
+                File snapshotDir = new File(cfDir, "snapshots");
+                File backupDir = new File(snapshotDir, backupName);
+                if (!StorageUtil.isValidBackupDir(keyspaceDir, cfDir, snapshotDir, backupDir)) {
+                    LOGGER.info("Skipping directory: {}",
+                            snapshotDir.getAbsolutePath());
+                    continue;
+                }
+                final Optional<File> snapshotDirectory =
+                        StorageUtil.getValidSnapshotDirectory(snapshotDir, backupName);
+                if (snapshotDirectory.isPresent()) {
+                    final Path source = snapshotDirectory.get().toPath();
+                    tracker.addDirectory(source);
+                    copies.add(() -> {
+                        entries.addAll(storeDirectory(root,
+                                keyspaceDir.getName(),
+                                cfDir.getName(),
+                                source,
+                                stored));
+                        return null;
+                    });
+                } else {
+                    LOGGER.warn(
+                            "Snapshots directory: {} doesn't contain the current backup directory: {}",
+                            snapshotDir.getName(), backupName);
+                }
+            }
+        }
+
+        try {
+            runAll(copies);
+            final List<BackupManifest.Entry> files = new ArrayList<>(entries);
+            files.sort(Comparator.comparing(BackupManifest.Entry::getKeySpace)
+                    .thenComparing(BackupManifest.Entry::getColumnFamily)
+                    .thenComparing(BackupManifest.Entry::getFile));
+            writeAtomically(nodeRoot.resolve(BackupManifest.MANIFEST_FILE),
+                    BackupManifest.create(backupName, ctx.getNodeId(),
+                            System.currentTimeMillis(), files).toBytes());
+            LOGGER.info("Done uploading snapshots for backup: {}, stored {} of {} files",
+                    backupName, stored.size(), files.size());
+        } catch (Exception e) {
+            LOGGER.error("Failed uploading snapshots for backup: {}", backupName, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stores the files of a snapshot directory in the objects directory,
+     * skipping the files that are already stored.
+     * @return The manifest entries of the files.
+     */
+    private List<BackupManifest.Entry> storeDirectory(Path root,
+                                                      String keyspace,
+                                                      String columnFamily,
+                                                      Path source,
+                                                      Set<String> stored)
+            throws Exception {
+        LOGGER.info("Storing directory: {}", source);
+        final List<Path> files;
+        try (Stream<Path> paths = Files.walk(source)) {
+            files = paths.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        final List<BackupManifest.Entry> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            final long size = Files.size(file);
+            final BackupManifest.Checksums checksums =
+                    BackupManifest.checksums(file.toFile());
+            final String digest = checksums.getDigest();
+            final Path target = root.resolve(BackupManifest.getObjectPath(digest));
+            if (stored.add(digest) &&
+                    !(Files.isRegularFile(target) && Files.size(target) == size)) {
+                Files.createDirectories(target.getParent());
+                throttle.acquireFile();
+                try {
+                    copyFile(file, target);
+                } finally {
+                    throttle.releaseFile();
+                }
+                tracker.completeFile();
+            } else {
+                tracker.skipFile(size);
+            }
+            entries.add(BackupManifest.Entry.create(keyspace, columnFamily,
+                    source.relativize(file).toString(), digest,
+                    checksums.getCrc32c(), size));
+        }
+        return entries;
+    }
+
+    @Override
+    public void uploadSchema(BackupRestoreContext ctx, String schema) throws Exception {
+        final Path schemaFile = getNodeRoot(ctx).resolve(StorageUtil.SCHEMA_FILE);
+        Files.createDirectories(schemaFile.getParent());
+        Files.write(schemaFile, schema.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void download(BackupRestoreContext ctx) throws Exception {
+        download(ctx, directory -> {
+        });
+    }
+
+    @Override
+    public void download(BackupRestoreContext ctx,
+                         TableDownloadListener listener) throws Exception {
+        final String backupName = ctx.getName();
+        final Path nodeRoot = getNodeRoot(ctx);
+
+        final Path manifestFile = nodeRoot.resolve(BackupManifest.MANIFEST_FILE);
+        final List<Callable<Void>> copies;
+        if (Files.isRegularFile(manifestFile)) {
+            copies = getManifestCopies(ctx,
+                    BackupManifest.parse(Files.readAllBytes(manifestFile)),
+                    listener);
+        } else {
+            LOGGER.info("Backup: {} has no manifest, downloading its files", backupName);
+            copies = getCopies(ctx, listener);
+        }
+
+        try {
+            runAll(copies);
+            LOGGER.info("Done downloading snapshots for backup: {}", backupName);
+        } catch (Exception e) {
+            LOGGER.error("Failed downloading snapshots for backup: {}", backupName, e);
+            throw e;
+        }
+    }
+
+    private List<Callable<Void>> getManifestCopies(BackupRestoreContext ctx,
+                                                   BackupManifest manifest,
+                                                   TableDownloadListener listener)
+            throws Exception {
+        final Path root = getRoot(ctx);
+        final List<Callable<Void>> copies = new ArrayList<>();
+        final Map<String, List<BackupManifest.Entry>> tables = manifest.getTables();
+        if (Objects.equals(ctx.getRestoreType(), "new")) {
+            // Download to <local>/<backup>/<node>/<keyspace>/<cf>/<files>
+            final Path localRoot = Paths.get(ctx.getLocalLocation())
+                    .resolve(ctx.getName())
+                    .resolve(ctx.getNodeId());
+            tracker.addTotal(manifest.getFiles().size(), manifest.getFiles().stream()
+                    .mapToLong(BackupManifest.Entry::getSize).sum());
+            for (List<BackupManifest.Entry> entries : tables.values()) {
+                final Path target = localRoot
+                        .resolve(entries.get(0).getKeySpace())
+                        .resolve(entries.get(0).getColumnFamily());
+                copies.add(() -> {
+                    copyEntries(root, entries, target);
+                    listener.onTableDownloaded(target.toFile());
+                    return null;
+                });
+            }
+        } else {
+            // Download into the existing data/<keyspace>/<cf>-<id>
+            // directories of the node.
+            for (File keyspace : getNonSystemKeyspaces(ctx)) {
+                for (File cfDir : getDirectories(keyspace)) {
+                    final String columnFamily =
+                            cfDir.getName().substring(0, cfDir.getName().indexOf("-"));
+                    for (List<BackupManifest.Entry> entries : tables.values()) {
+                        if (!entries.get(0).getKeySpace().equals(keyspace.getName()) ||
+                                !entries.get(0).getColumnFamily().startsWith(columnFamily + "-")) {
+                            continue;
+                        }
+                        tracker.addTotal(entries.size(), entries.stream()
+                                .mapToLong(BackupManifest.Entry::getSize).sum());
+                        final Path target = cfDir.toPath();
+                        copies.add(() -> {
+                            copyEntries(root, entries, target);
+                            listener.onTableDownloaded(target.toFile());
+                            return null;
+                        });
+                    }
+                }
+            }
+        }
+        return copies;
+    }
+
+    private List<Callable<Void>> getCopies(BackupRestoreContext ctx,
+                                           TableDownloadListener listener)
+            throws Exception {
+        final Path nodeRoot = getNodeRoot(ctx);
+        final List<Callable<Void>> copies = new ArrayList<>();
+        if (Objects.equals(ctx.getRestoreType(), "new")) {
+            // Download to <local>/<backup>/<node>/<keyspace>/<cf>/<files>
+            final Path localRoot = Paths.get(ctx.getLocalLocation())
+                    .resolve(ctx.getName())
+                    .resolve(ctx.getNodeId());
+            for (File keyspaceDir : getDirectories(nodeRoot.toFile())) {
+                for (File cfDir : getDirectories(keyspaceDir)) {
+                    final Path source = cfDir.toPath();
+                    tracker.addDirectory(source);
+                    final Path target = localRoot
+                            .resolve(keyspaceDir.getName())
+                            .resolve(cfDir.getName());
+                    copies.add(() -> {
+                        copyDirectory(source, target);
+                        listener.onTableDownloaded(target.toFile());
+                        return null;
+                    });
+                }
+            }
+        } else {
+            // Download into the existing data/<keyspace>/<cf>-<id>
+            // directories of the node.
+            for (File keyspace : getNonSystemKeyspaces(ctx)) {
+                final File backupKeyspace = nodeRoot.resolve(keyspace.getName()).toFile();
+                for (File cfDir : getDirectories(keyspace)) {
+                    final String columnFamily =
+                            cfDir.getName().substring(0, cfDir.getName().indexOf("-"));
+                    for (File backupCfDir : getDirectories(backupKeyspace)) {
+                        if (!backupCfDir.getName().startsWith(columnFamily + "-")) {
+                            continue;
+                        }
+                        final Path source = backupCfDir.toPath();
+                        tracker.addDirectory(source);
+                        final Path target = cfDir.toPath();
+                        copies.add(() -> {
+                            copyDirectory(source, target);
+                            listener.onTableDownloaded(target.toFile());
+                            return null;
+                        });
+                    }
+                }
+            }
+        }
+        return copies;
+    }
+
+    private static File[] getNonSystemKeyspaces(BackupRestoreContext ctx) {
+        final File[] keyspaces = new File(ctx.getLocalLocation()).listFiles(
+                (current, name) -> new File(current, name).isDirectory() &&
+                        name.compareTo("system") != 0);
+        return keyspaces == null ? new File[0] : keyspaces;
+    }
+
+    @Override
+    public String downloadSchema(BackupRestoreContext ctx) throws Exception {
+        return new String(
+                Files.readAllBytes(getNodeRoot(ctx).resolve(StorageUtil.SCHEMA_FILE)),
+                StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public BackupRetention.Result prune(BackupRestoreContext ctx) throws Exception {
+        final Path root = getRoot(ctx);
+        final BackupRetention retention = new BackupRetention(ctx);
+
+        final List<BackupManifest> manifests = new ArrayList<>();
+        final Set<String> partial = new HashSet<>();
+        for (File backup : getDirectories(root.toFile())) {
+            if (BackupManifest.OBJECTS_DIRECTORY.equals(backup.getName())) {
+                continue;
+            }
+            for (File node : getDirectories(backup)) {
+                final Path manifest = node.toPath().resolve(BackupManifest.MANIFEST_FILE);
+                if (Files.isRegularFile(manifest)) {
+                    manifests.add(BackupManifest.parse(Files.readAllBytes(manifest)));
+                }
+                if (!Files.isRegularFile(manifest) ||
+                        !Files.isRegularFile(node.toPath().resolve(StorageUtil.SCHEMA_FILE))) {
+                    partial.add(backup.getName());
+                }
+            }
+        }
+
+        final Set<String> expired = retention.getExpiredBackups(manifests, partial);
+        final Set<String> referenced =
+                BackupRetention.getReferencedDigests(manifests, expired);
+        for (String backup : expired) {
+            LOGGER.info("Deleting expired backup: {}", backup);
+            deleteDirectory(root.resolve(backup));
+        }
+
+        final List<BackupRetention.StoredObject> objects = new ArrayList<>();
+        final Path objectsDirectory = root.resolve(BackupManifest.OBJECTS_DIRECTORY);
+        if (Files.isDirectory(objectsDirectory)) {
+            try (Stream<Path> paths = Files.walk(objectsDirectory)) {
+                for (Path object : paths.filter(Files::isRegularFile)
+                        .collect(Collectors.toList())) {
+                    objects.add(new BackupRetention.StoredObject(
+                            object.getFileName().toString(),
+                            Files.size(object),
+                            getChangeTime(object)));
+                }
+            }
+        }
+        long deletedBytes = 0;
+        final List<BackupRetention.StoredObject> unreferenced =
+                retention.getUnreferencedObjects(objects, referenced);
+        for (BackupRetention.StoredObject object : unreferenced) {
+            LOGGER.debug("Deleting unreferenced file: {}", object.getDigest());
+            Files.deleteIfExists(root.resolve(
+                    BackupManifest.getObjectPath(object.getDigest())));
+            deletedBytes += object.getSize();
+        }
+        return new BackupRetention.Result(expired, unreferenced.size(), deletedBytes);
+    }
+
+    @Override
+    public BackupVerification.Result verify(BackupRestoreContext ctx) throws Exception {
+        final Path root = getRoot(ctx);
+        final Path manifestFile = getNodeRoot(ctx).resolve(BackupManifest.MANIFEST_FILE);
+        if (!Files.isRegularFile(manifestFile)) {
+            throw new IOException(String.format(
+                    "Backup: %s of node: %s has no manifest",
+                    ctx.getName(), ctx.getNodeId()));
+        }
+        final BackupManifest manifest =
+                BackupManifest.parse(Files.readAllBytes(manifestFile));
+        final int sampleBytes = ctx.getVerifySampleBytes();
+        return BackupVerification.verify(manifest.getFiles(), entry -> {
+            final Path file = root.resolve(
+                    BackupManifest.getObjectPath(entry.getDigest()));
+            if (!Files.isRegularFile(file)) {
+                return Optional.of("is missing");
+            }
+            final long size = Files.size(file);
+            if (size != entry.getSize()) {
+                return Optional.of(String.format(
+                        "has %d bytes, expected %d", size, entry.getSize()));
+            }
+            if (sampleBytes > 0) {
+                // Read the end of the file, where a truncated copy shows.
+                final int expected = (int) Math.min(sampleBytes, size);
+                final ByteBuffer buffer = ByteBuffer.allocate(expected);
+                try (FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.READ)) {
+                    long position = size - expected;
+                    int read;
+                    while (buffer.hasRemaining() &&
+                            (read = channel.read(buffer, position)) >= 0) {
+                        position += read;
+                    }
+                }
+                if (buffer.hasRemaining()) {
+                    return Optional.of(String.format(
+                            "returned %d of its last %d bytes",
+                            buffer.position(), expected));
+                }
+            }
+            return Optional.empty();
+        }, BackupVerification.getParallelism(ctx));
+    }
+
+    /**
+     * Copies a backup to another directory. Stored files are hard linked when
+     * both directories are on the same file system, and copied otherwise.
+     */
+    @Override
+    public void copy(BackupRestoreContext source,
+                     BackupRestoreContext destination) throws Exception {
+        final Path sourceRoot = getRoot(source);
+        final Path sourceBackup = getBackupRoot(source);
+        final Path destinationRoot = getRoot(destination);
+        final Path destinationBackup = getBackupRoot(destination);
+        if (!Files.isDirectory(sourceBackup)) {
+            throw new IOException(String.format("Backup: %s does not exist in %s",
+                    source.getName(), source.getExternalLocation()));
+        }
+        // The files of the backup of each node, <backup>/<node>/<file>, and
+        // the stored files referenced by their manifests, by digest.
+        final List<Path> files;
+        try (Stream<Path> paths = Files.walk(sourceBackup)) {
+            files = paths.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        final List<Path> manifests = files.stream()
+                .filter(file -> file.getFileName().toString()
+                        .equals(BackupManifest.MANIFEST_FILE))
+                .collect(Collectors.toList());
+        files.removeAll(manifests);
+        final Map<String, BackupManifest.Entry> objects = new TreeMap<>();
+        for (Path manifest : manifests) {
+            for (BackupManifest.Entry entry :
+                    BackupManifest.parse(Files.readAllBytes(manifest)).getFiles()) {
+                objects.putIfAbsent(entry.getDigest(), entry);
+            }
+        }
+        long size = objects.values().stream()
+                .mapToLong(BackupManifest.Entry::getSize).sum();
+        for (Path file : files) {
+            size += Files.size(file);
+        }
+        for (Path manifest : manifests) {
+            size += Files.size(manifest);
+        }
+        tracker.addTotal(objects.size() + files.size() + manifests.size(), size);
+
+        final List<Callable<Void>> copies = new ArrayList<>();
+        for (BackupManifest.Entry entry : objects.values()) {
+            final String objectPath = BackupManifest.getObjectPath(entry.getDigest());
+            copies.add(() -> {
+                storeFile(sourceRoot.resolve(objectPath),
+                        destinationRoot.resolve(objectPath));
+                return null;
+            });
+        }
+        for (Path file : files) {
+            copies.add(() -> {
+                storeFile(file, destinationBackup.resolve(
+                        sourceBackup.relativize(file).toString()));
+                return null;
+            });
+        }
+
+        try {
+            runAll(copies);
+            // The manifests are copied last, once all of their files are stored.
+            for (Path manifest : manifests) {
+                writeAtomically(destinationBackup.resolve(
+                        sourceBackup.relativize(manifest).toString()),
+                        Files.readAllBytes(manifest));
+                tracker.addBytes(Files.size(manifest));
+                tracker.completeFile();
+            }
+            LOGGER.info("Done copying backup: {} to: {}",
+                    source.getName(), destinationRoot);
+        } catch (Exception e) {
+            LOGGER.error("Failed copying backup: {}", source.getName(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies a file to target, unless target is already a file of the same
+     * size.
+     */
+    private void storeFile(Path source, Path target) throws Exception {
+        final long size = Files.size(source);
+        if (Files.isRegularFile(target) && Files.size(target) == size) {
+            tracker.skipFile(size);
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        throttle.acquireFile();
+        try {
+            copyFile(source, target);
+        } finally {
+            throttle.releaseFile();
+        }
+        tracker.completeFile();
+    }
+
+    /**
+     * Gets the time a file was last changed. Stored files may be hard links
+     * to SSTables, whose modification time is that of the SSTable rather
+     * than the time they were stored, so the status change time is used
+     * where it is available.
+     */
+    private static long getChangeTime(Path file) throws IOException {
+        try {
+            return ((FileTime) Files.getAttribute(file, "unix:ctime")).toMillis();
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        final List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] bytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        Files.write(partial, bytes);
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void runAll(List<Callable<Void>> copies) throws Exception {
+        if (copies.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, copies.size()));
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(copies.size());
+            for (Callable<Void> copy : copies) {
+                futures.add(executor.submit(copy));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void copyEntries(Path root,
+                             List<BackupManifest.Entry> entries,
+                             Path target) throws Exception {
+        LOGGER.info("Copying {} files to {}", entries.size(), target);
+        for (BackupManifest.Entry entry : entries) {
+            final Path source = root.resolve(
+                    BackupManifest.getObjectPath(entry.getDigest()));
+            final Path destination = target.resolve(entry.getFile());
+            Files.createDirectories(destination.getParent());
+            throttle.acquireFile();
+            try {
+                copyFile(source, destination);
+            } finally {
+                throttle.releaseFile();
+            }
+            tracker.completeFile();
+            if (Files.size(destination) != entry.getSize()) {
+                throw new IOException(String.format(
+                        "Downloaded file %s has %d bytes, expected %d",
+                        destination, Files.size(destination), entry.getSize()));
+            }
+        }
+    }
+
+    private void copyDirectory(Path source, Path target) throws Exception {
+        LOGGER.info("Copying directory: {} to {}", source, target);
+        final List<Path> files;
+        try (Stream<Path> paths = Files.walk(source)) {
+            files = paths.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            final Path destination = target.resolve(source.relativize(file).toString());
+            Files.createDirectories(destination.getParent());
+            throttle.acquireFile();
+            try {
+                copyFile(file, destination);
+            } finally {
+                throttle.releaseFile();
+            }
+            tracker.completeFile();
+        }
+    }
+
+    /**
+     * Links source to target if they are on the same file system, and
+     * copies it otherwise. Snapshot files are immutable, so a link is as
+     * good as a copy.
+     */
+    void copyFile(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        if (Files.getFileStore(source).equals(Files.getFileStore(target.getParent()))) {
+            try {
+                Files.createLink(target, source);
+                tracker.skipBytes(Files.size(target));
+                LOGGER.debug("Linked file: {} to {}", source, target);
+                return;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOGGER.info("Failed to link file: {} to {}, copying it instead",
+                        source, target, e);
+            }
+        }
+        transfer(source, target);
+    }
+
+    private void transfer(Path source, Path target) throws IOException {
+        final Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(partial,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                final long chunk = Math.min(TRANSFER_CHUNK_SIZE, size - position);
+                throttle.acquireBytes((int) chunk);
+                final long transferred = in.transferTo(position, chunk, out);
+                tracker.addBytes(transferred);
+                position += transferred;
+            }
+            out.force(true);
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("Copied file: {} to {}", source, target);
+    }
+}
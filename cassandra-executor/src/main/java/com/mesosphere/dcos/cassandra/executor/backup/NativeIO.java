@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+
+/**
+ * NativeIO is a minimal JNA binding to the libc calls used to keep backup
+ * reads out of the page cache on Linux. All methods are safe to call when
+ * the binding is not available, in which case they have no effect.
+ */
+final class NativeIO {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(NativeIO.class);
+
+    private static final int O_RDONLY = 0;
+    private static final int POSIX_FADV_DONTNEED = 4;
+    private static final int PROT_READ = 0x1;
+    private static final int MAP_SHARED = 0x1;
+    private static final long MAP_FAILED = -1;
+
+    /**
+     * The file descriptor returned when a file could not be opened.
+     */
+    static final int INVALID_FD = -1;
+
+    private static final boolean AVAILABLE;
+    private static final int PAGE_SIZE;
+
+    static {
+        boolean available = false;
+        int pageSize = 4096;
+        if (Platform.isLinux()) {
+            try {
+                Native.register("c");
+                pageSize = getpagesize();
+                available = true;
+            } catch (UnsatisfiedLinkError | NoClassDefFoundError e) {
+                LOGGER.warn("Native IO is not available, backup reads " +
+                        "will use the page cache", e);
+            }
+        } else {
+            LOGGER.info("Native IO is only supported on Linux, backup " +
+                    "reads will use the page cache");
+        }
+        AVAILABLE = available;
+        PAGE_SIZE = pageSize;
+    }
+
+    private static native int open(String path, int flags);
+
+    private static native int close(int fd);
+
+    private static native int posix_fadvise(int fd,
+                                            long offset,
+                                            long len,
+                                            int advice);
+
+    private static native Pointer mmap(Pointer addr,
+                                       long length,
+                                       int prot,
+                                       int flags,
+                                       int fd,
+                                       long offset);
+
+    private static native int munmap(Pointer addr, long length);
+
+    private static native int mincore(Pointer addr, long length, byte[] vec);
+
+    private static native int getpagesize();
+
+    private NativeIO() {
+    }
+
+    /**
+     * Tests if the binding is available.
+     *
+     * @return True if the native calls are available.
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Gets the size of a page of memory.
+     *
+     * @return The page size in bytes.
+     */
+    static int pageSize() {
+        return PAGE_SIZE;
+    }
+
+    /**
+     * Opens a file for reading.
+     *
+     * @param path The path of the file.
+     * @return The file descriptor of the file, or INVALID_FD if the binding
+     * is not available or the file could not be opened.
+     */
+    static int openFile(final Path path) {
+        return AVAILABLE ? open(path.toString(), O_RDONLY) : INVALID_FD;
+    }
+
+    /**
+     * Closes a file descriptor returned by openFile.
+     *
+     * @param fd The file descriptor.
+     */
+    static void closeFile(final int fd) {
+        if (AVAILABLE && fd != INVALID_FD) {
+            close(fd);
+        }
+    }
+
+    /**
+     * Advises the kernel to drop the cached pages of a range of a file.
+     *
+     * @param fd     The file descriptor of the file.
+     * @param offset The offset of the range.
+     * @param length The length of the range.
+     * @return True if the advice was accepted.
+     */
+    static boolean dropCache(final int fd,
+                             final long offset,
+                             final long length) {
+        if (!AVAILABLE || fd == INVALID_FD || length <= 0) {
+            return false;
+        }
+        return posix_fadvise(fd, offset, length, POSIX_FADV_DONTNEED) == 0;
+    }
+
+    /**
+     * Determines which pages of a range of a file are in the page cache,
+     * without reading the file.
+     *
+     * @param fd     The file descriptor of the file.
+     * @param offset The offset of the range. It must be a multiple of the
+     *               page size.
+     * @param length The length of the range.
+     * @return An array with one element per page of the range, whose lowest
+     * bit is set if the page is resident, or null if the residency could
+     * not be determined.
+     */
+    static byte[] residency(final int fd,
+                            final long offset,
+                            final long length) {
+        if (!AVAILABLE || fd == INVALID_FD || length <= 0 ||
+                offset % PAGE_SIZE != 0) {
+            return null;
+        }
+        final Pointer addr = mmap(null, length, PROT_READ, MAP_SHARED, fd,
+                offset);
+        if (addr == null || Pointer.nativeValue(addr) == MAP_FAILED) {
+            return null;
+        }
+        try {
+            final byte[] vec = new byte[(int) ((length + PAGE_SIZE - 1) /
+                    PAGE_SIZE)];
+            return mincore(addr, length, vec) == 0 ? vec : null;
+        } finally {
+            munmap(addr, length);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * S3Clients caches the S3 clients of the executor, keyed by endpoint and
+ * credentials, so that all of the uploads and downloads of the executor
+ * share one connection pool per S3 service instead of opening new
+ * connections for every task. Each client has a set of TransferManagers,
+ * one per multipart part size, that share the client, and so its endpoint
+ * and path style access, and a single transfer thread pool.
+ * The connections of the pool are reused across transfers and kept alive.
+ * The pooled connections of the SDK always set TCP_NODELAY.
+ */
+public class S3Clients {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            S3Clients.class);
+
+    /**
+     * The maximum number of pooled connections of a client.
+     */
+    static final int MAX_CONNECTIONS = 128;
+
+    /**
+     * The time pooled connections are kept, after which they are reopened
+     * so that the client follows changes to the DNS of the endpoint.
+     */
+    static final long CONNECTION_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * The time an idle pooled connection is kept.
+     */
+    static final long CONNECTION_MAX_IDLE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The number of threads of the transfers of a client.
+     */
+    static final int TRANSFER_THREADS = 16;
+
+    /**
+     * The smallest part of a multipart upload.
+     */
+    static final long MIN_PART_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The largest part of a multipart upload. Together with the maximum of
+     * 10,000 parts per upload it allows files of up to 5 TB.
+     */
+    static final long MAX_PART_SIZE = 512 * 1024 * 1024;
+
+    /**
+     * The number of parts a file is split into, unless this makes its parts
+     * smaller than MIN_PART_SIZE or larger than MAX_PART_SIZE.
+     */
+    static final long TARGET_PARTS = 32;
+
+    /**
+     * The clients of the executor.
+     */
+    private static final ConcurrentMap<Key, S3Clients> CLIENTS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Gets the clients of an S3 service.
+     *
+     * @param endpoint  The endpoint of the service.
+     * @param accessKey The access key of the account.
+     * @param secretKey The secret key of the account.
+     * @param pathStyle True if buckets are addressed by path rather than by
+     *                  host name.
+     * @return The clients of the service, which are shared by all tasks of
+     * the executor and must not be shut down.
+     */
+    public static S3Clients get(final String endpoint,
+                                final String accessKey,
+                                final String secretKey,
+                                final boolean pathStyle) {
+        return CLIENTS.computeIfAbsent(
+                new Key(endpoint, accessKey, secretKey, pathStyle),
+                S3Clients::new);
+    }
+
+    /**
+     * Gets the part size of a multipart upload.
+     *
+     * @param size The size of the file in bytes.
+     * @return The power of two between MIN_PART_SIZE and MAX_PART_SIZE
+     * closest above size / TARGET_PARTS.
+     */
+    static long getPartSize(final long size) {
+        long partSize = MIN_PART_SIZE;
+        while (partSize < MAX_PART_SIZE && partSize * TARGET_PARTS < size) {
+            partSize *= 2;
+        }
+        return partSize;
+    }
+
+    /**
+     * Gets the size above which files are uploaded in parts.
+     *
+     * @param partSize The part size of the upload.
+     * @return The multipart threshold, files that would be split into fewer
+     * than two parts are uploaded in a single request.
+     */
+    static long getMultipartThreshold(final long partSize) {
+        return 2 * partSize;
+    }
+
+    private static class Key {
+        private final String endpoint;
+        private final String accessKey;
+        private final String secretKey;
+        private final boolean pathStyle;
+
+        private Key(final String endpoint,
+                    final String accessKey,
+                    final String secretKey,
+                    final boolean pathStyle) {
+            this.endpoint = endpoint;
+            this.accessKey = accessKey;
+            this.secretKey = secretKey;
+            this.pathStyle = pathStyle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return pathStyle == that.pathStyle &&
+                    Objects.equals(endpoint, that.endpoint) &&
+                    Objects.equals(accessKey, that.accessKey) &&
+                    Objects.equals(secretKey, that.secretKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, accessKey, secretKey, pathStyle);
+        }
+    }
+
+    private final AmazonS3Client client;
+    private final ExecutorService transfers;
+    private final ConcurrentMap<Long, TransferManager> transferManagers =
+            new ConcurrentHashMap<>();
+
+    private S3Clients(final Key key) {
+        LOGGER.info("Creating S3 client for endpoint: {}", key.endpoint);
+        final ClientConfiguration configuration = new ClientConfiguration();
+        configuration.setMaxConnections(MAX_CONNECTIONS);
+        configuration.setUseTcpKeepAlive(true);
+        configuration.setConnectionTTL(CONNECTION_TTL_MS);
+        configuration.setConnectionMaxIdleMillis(CONNECTION_MAX_IDLE_MS);
+        client = new AmazonS3Client(
+                new BasicAWSCredentials(key.accessKey, key.secretKey),
+                configuration);
+        client.setEndpoint(key.endpoint);
+        if (key.pathStyle) {
+            final S3ClientOptions options = new S3ClientOptions();
+            options.setPathStyleAccess(true);
+            client.setS3ClientOptions(options);
+        }
+        transfers = Executors.newFixedThreadPool(TRANSFER_THREADS,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("s3-transfer-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+    /**
+     * Gets the client.
+     *
+     * @return The pooled client of the service.
+     */
+    public AmazonS3Client getClient() {
+        return client;
+    }
+
+    /**
+     * Gets the TransferManager for the upload or copy of a file.
+     *
+     * @param size The size of the file in bytes.
+     * @return A TransferManager of the client whose multipart thresholds and
+     * part sizes are tuned to size. Large files are copied in parts with
+     * UploadPartCopy, small files with a single CopyObject.
+     */
+    public TransferManager getTransferManager(final long size) {
+        return transferManagers.computeIfAbsent(getPartSize(size),
+                partSize -> {
+                    final TransferManagerConfiguration configuration =
+                            new TransferManagerConfiguration();
+                    configuration.setMinimumUploadPartSize(partSize);
+                    configuration.setMultipartUploadThreshold(
+                            getMultipartThreshold(partSize));
+                    configuration.setMultipartCopyPartSize(partSize);
+                    configuration.setMultipartCopyThreshold(
+                            getMultipartThreshold(partSize));
+                    final TransferManager tx =
+                            new TransferManager(client, transfers, false);
+                    tx.setConfiguration(configuration);
+                    return tx;
+                });
+    }
+}
@@ -15,38 +15,95 @@
  */
 package com.mesosphere.dcos.cassandra.executor.backup;
 
-import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.services.s3.AmazonS3Client;
-import com.amazonaws.services.s3.S3ClientOptions;
 import com.amazonaws.services.s3.internal.Constants;
 import com.amazonaws.services.s3.model.*;
-import com.amazonaws.services.s3.transfer.Download;
-import com.amazonaws.services.s3.transfer.MultipleFileUpload;
-import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Copy;
+import com.amazonaws.services.s3.transfer.Upload;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
 
 /**
  * Implements a BackupStorageDriver that provides upload and download
- * functionality to an S3 bucket.
+ * functionality to an S3 bucket. Files are stored by content under
+ * <prefix>/objects, and each node of a backup writes a BackupManifest to
+ * <prefix>/<backup>/<node>/manifest.json, so a file that is part of several
+ * backups, or of the backups of several nodes, is uploaded once. Backups
+ * without a manifest, in the layout <prefix>/<backup>/<node>/<keyspace>/<cf>/
+ * <files>, can still be restored.
  */
 public class S3StorageDriver implements BackupStorageDriver {
     private static final Logger LOGGER = LoggerFactory.getLogger(
             S3StorageDriver.class);
 
+    private static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The user metadata of a stored file that holds its CRC32C checksum.
+     */
+    static final String CRC32C_METADATA = "crc32c";
+
+    /**
+     * The maximum number of keys of a multi object delete request.
+     */
+    private static final int MAX_DELETE_KEYS = 1000;
+
+    /**
+     * The number of files copied concurrently by a copy, unless the
+     * max_concurrent_files of the copy is set.
+     */
+    static final int DEFAULT_COPY_PARALLELISM = 16;
+
+    private final TransferThrottle throttle;
+    private final TransferTracker tracker = new TransferTracker();
+
+    /**
+     * Constructs a new S3StorageDriver whose transfers are not shared with
+     * the throttle of the executor.
+     */
+    public S3StorageDriver() {
+        this(new TransferThrottle());
+    }
+
+    /**
+     * Constructs a new S3StorageDriver.
+     * @param throttle The TransferThrottle that limits the uploads and
+     *                 downloads of the driver.
+     */
+    public S3StorageDriver(final TransferThrottle throttle) {
+        this.throttle = throttle;
+    }
+
     String getBucketName(BackupRestoreContext ctx) throws URISyntaxException {
         URI uri = new URI(ctx.getExternalLocation());
         LOGGER.info("URI: " + uri);
@@ -58,6 +115,15 @@ public class S3StorageDriver implements BackupStorageDriver {
     }
 
     String getPrefixKey(BackupRestoreContext ctx) throws URISyntaxException {
+        return getRootKey(ctx) + ctx.getName(); // append backup name
+    }
+
+    /**
+     * Gets the key of the external location that contains all backups.
+     * @return The path of the external location in the bucket, with a
+     * trailing slash, or the empty string for the root of the bucket.
+     */
+    String getRootKey(BackupRestoreContext ctx) throws URISyntaxException {
         URI uri = new URI(ctx.getExternalLocation());
         String[] segments = uri.getPath().split("/");
 
@@ -71,7 +137,6 @@ public class S3StorageDriver implements BackupStorageDriver {
         }
 
         prefixKey = (prefixKey.length() > 0 && !prefixKey.endsWith("/")) ? prefixKey + "/" : prefixKey;
-        prefixKey += ctx.getName(); // append backup name
 
         return prefixKey;
     }
@@ -93,32 +158,23 @@ public class S3StorageDriver implements BackupStorageDriver {
         }
     }
 
-    private AmazonS3Client getAmazonS3Client(BackupRestoreContext ctx) throws URISyntaxException {
-        final String accessKey = ctx.getAccountId();
-        final String secretKey = ctx.getSecretKey();
-        String endpoint = getEndpoint(ctx);
-        LOGGER.info("endpoint: {}", endpoint);
-
-        final BasicAWSCredentials basicAWSCredentials = new BasicAWSCredentials(accessKey, secretKey);
-        final AmazonS3Client amazonS3Client = new AmazonS3Client(basicAWSCredentials);
-        amazonS3Client.setEndpoint(endpoint);
-
-        if (ctx.usesEmc()) {
-            final S3ClientOptions options = new S3ClientOptions();
-            options.setPathStyleAccess(true);
-            amazonS3Client.setS3ClientOptions(options);
-        }
-
-        return amazonS3Client;
+    @Override
+    public TransferTracker getTracker() {
+        return tracker;
     }
 
-    private TransferManager getS3TransferManager(BackupRestoreContext ctx) {
-        final String accessKey = ctx.getAccountId();
-        final String secretKey = ctx.getSecretKey();
+    /**
+     * Gets the shared clients of the external location of a context.
+     */
+    private S3Clients getS3Clients(BackupRestoreContext ctx) throws URISyntaxException {
+        final String endpoint = getEndpoint(ctx);
+        LOGGER.info("endpoint: {}", endpoint);
+        return S3Clients.get(endpoint, ctx.getAccountId(), ctx.getSecretKey(),
+                ctx.usesEmc());
+    }
 
-        final BasicAWSCredentials basicAWSCredentials = new BasicAWSCredentials(accessKey, secretKey);
-        TransferManager tx = new TransferManager(basicAWSCredentials);
-        return tx;
+    private AmazonS3Client getAmazonS3Client(BackupRestoreContext ctx) throws URISyntaxException {
+        return getS3Clients(ctx).getClient();
     }
 
     private File[] getNonSystemKeyspaces(BackupRestoreContext ctx) {
@@ -140,11 +196,21 @@ public class S3StorageDriver implements BackupStorageDriver {
         final String backupName = ctx.getName();
         final String nodeId = ctx.getNodeId();
         final String key = getPrefixKey(ctx) + "/" + nodeId;
+        final String rootKey = getRootKey(ctx);
+        final String bucketName = getBucketName(ctx);
         LOGGER.info("Backup key: " + key);
-        final TransferManager tx = getS3TransferManager(ctx);
+        final S3Clients clients = getS3Clients(ctx);
+        final AmazonS3Client amazonS3Client = clients.getClient();
         final File dataDirectory = new File(localLocation);
+        final List<BackupManifest.Entry> entries = new ArrayList<>();
 
         try {
+            // The sizes of the files that are already stored, by key.
+            final Map<String, Long> storedFiles = listSnapshotFiles(amazonS3Client,
+                    bucketName,
+                    rootKey + BackupManifest.OBJECTS_DIRECTORY + "/");
+            final int stored = storedFiles.size();
+            final List<File> snapshotDirectories = new ArrayList<>();
             // Ex: data/<keyspace>/<cf>/snapshots/</snapshot-dir>/<files>
             for (File keyspaceDir : dataDirectory.listFiles()) {
                 if (keyspaceDir.isFile()) {
@@ -172,17 +238,8 @@ public class S3StorageDriver implements BackupStorageDriver {
                     LOGGER.info("Valid snapshot directory: {}",
                             snapshotDirectory.isPresent());
                     if (snapshotDirectory.isPresent()) {
-                        // Upload this directory
-                        LOGGER.info("Going to upload directory: {}",
-                                snapshotDirectory.get().getAbsolutePath());
-
-                        uploadDirectory(
-                                tx,
-                                getBucketName(ctx),
-                                key,
-                                keyspaceDir.getName(),
-                                cfDir.getName(),
-                                snapshotDirectory.get());
+                        snapshotDirectories.add(snapshotDirectory.get());
+                        tracker.addDirectory(snapshotDirectory.get().toPath());
                     } else {
                         LOGGER.warn(
                                 "Snapshots directory: {} doesn't contain the current backup directory: {}",
@@ -190,31 +247,167 @@ public class S3StorageDriver implements BackupStorageDriver {
                     }
                 }
             }
-            LOGGER.info("Done uploading snapshots for backup: {}", backupName);
+            // The size of the backup is known before the first upload, so
+            // that its progress is accurate from the start.
+            for (File snapshotDirectory : snapshotDirectories) {
+                // Ex: <keyspace>/<cf>/snapshots/<snapshot-dir>
+                final File cfDir = snapshotDirectory.getParentFile().getParentFile();
+                LOGGER.info("Going to upload directory: {}",
+                        snapshotDirectory.getAbsolutePath());
+                entries.addAll(uploadDirectory(
+                        clients,
+                        bucketName,
+                        rootKey,
+                        storedFiles,
+                        cfDir.getParentFile().getName(),
+                        cfDir.getName(),
+                        snapshotDirectory));
+            }
+            // The manifest is written last, once all of its files are stored.
+            final byte[] manifest = BackupManifest.create(backupName, nodeId,
+                    System.currentTimeMillis(), entries).toBytes();
+            final ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(manifest.length);
+            metadata.setContentType("application/json");
+            amazonS3Client.putObject(bucketName,
+                    key + "/" + BackupManifest.MANIFEST_FILE,
+                    new ByteArrayInputStream(manifest),
+                    metadata);
+            LOGGER.info("Done uploading snapshots for backup: {}, uploaded {} of {} files",
+                    backupName, storedFiles.size() - stored, entries.size());
         } catch (Exception e) {
             LOGGER.info("Failed uploading snapshots for backup: {}, error: {}", backupName, e);
             throw new Exception(e);
-        } finally {
-            tx.shutdownNow();
         }
     }
 
-    private void uploadDirectory(TransferManager tx,
-                                 String bucketName,
-                                 String key,
-                                 String keyspaceName,
-                                 String cfName,
-                                 File snapshotDirectory) throws Exception {
+    /**
+     * An upload of a file with the CRC32C checksum of the bytes it streamed.
+     */
+    private static final class FileUpload {
+        private final Upload upload;
+        private final Checksum crc32c;
+        private final String key;
+        private final int entry;
+
+        private FileUpload(Upload upload, Checksum crc32c, String key, int entry) {
+            this.upload = upload;
+            this.crc32c = crc32c;
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Uploads the files of a snapshot directory that are not already stored.
+     * The files are read once before they are uploaded, as they are stored
+     * under the digest of their content, and that read also yields the CRC32C
+     * checksum the object metadata needs before the upload starts. The CRC32C
+     * checksum of the bytes an upload streamed must match it once the upload
+     * completed, or the file changed in between.
+     * @return The manifest entries of the files.
+     */
+    private List<BackupManifest.Entry> uploadDirectory(S3Clients clients,
+                                                       String bucketName,
+                                                       String rootKey,
+                                                       Map<String, Long> storedFiles,
+                                                       String keyspaceName,
+                                                       String cfName,
+                                                       File snapshotDirectory) throws Exception {
         try {
-            final String fileKey = key + "/" + keyspaceName + "/" + cfName + "/";
-            final MultipleFileUpload myUpload = tx.uploadDirectory(bucketName, fileKey, snapshotDirectory, true);
-            myUpload.waitForCompletion();
+            final Path snapshotPath = snapshotDirectory.toPath();
+            final List<Path> files = Files.walk(snapshotPath)
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+            final List<BackupManifest.Entry> entries = new ArrayList<>(files.size());
+            final List<FileUpload> uploads = new ArrayList<>(files.size());
+            for (Path file : files) {
+                final long size = Files.size(file);
+                final BackupManifest.Checksums checksums =
+                        BackupManifest.checksums(file.toFile());
+                final String digest = checksums.getDigest();
+                final String fileKey = rootKey + BackupManifest.getObjectPath(digest);
+                if (!Objects.equals(storedFiles.get(fileKey), size)) {
+                    storedFiles.put(fileKey, size);
+                    final Checksum crc32c = Crc32c.create();
+                    uploads.add(new FileUpload(uploadFile(clients, bucketName, fileKey,
+                            file.toFile(), checksums.getCrc32c(), crc32c),
+                            crc32c, fileKey, entries.size()));
+                } else {
+                    LOGGER.debug("File: {} is already stored as: {}", file, fileKey);
+                    tracker.skipFile(size);
+                }
+                entries.add(BackupManifest.Entry.create(keyspaceName, cfName,
+                        snapshotPath.relativize(file).toString(), digest,
+                        checksums.getCrc32c(), size));
+            }
+            for (FileUpload upload : uploads) {
+                upload.upload.waitForCompletion();
+                final BackupManifest.Entry entry = entries.get(upload.entry);
+                final String crc32c = Crc32c.toHex(upload.crc32c);
+                if (!crc32c.equals(entry.getCrc32c())) {
+                    // The stored content does not match the digest it is
+                    // stored under, a later backup must upload it again.
+                    clients.getClient().deleteObject(bucketName, upload.key);
+                    storedFiles.remove(upload.key);
+                    throw new IOException(String.format(
+                            "File: %s changed while it was uploaded, CRC32C %s, expected %s",
+                            entry.getFile(), crc32c, entry.getCrc32c()));
+                }
+            }
+            return entries;
         } catch (Exception e) {
             LOGGER.error("Error occurred on uploading directory {} : {}", snapshotDirectory.getName(), e);
             throw new Exception(e);
         }
     }
 
+    private Upload uploadFile(S3Clients clients,
+                              String bucketName,
+                              String fileKey,
+                              File file,
+                              String crc32c,
+                              Checksum streamed) throws Exception {
+        // Blocks until the throttle permits another concurrent file, the
+        // permit is returned once the transfer has completed or failed.
+        throttle.acquireFile();
+        final AtomicBoolean released = new AtomicBoolean(false);
+        InputStream stream = null;
+        try {
+            // The checksum is computed while the file is streamed to S3.
+            stream = tracker.track(throttle.throttle(new CheckedInputStream(
+                    new SnapshotFileInputStream(file), streamed)));
+            final InputStream uploadStream = stream;
+            final ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(file.length());
+            metadata.addUserMetadata(CRC32C_METADATA, crc32c);
+            final PutObjectRequest request = new PutObjectRequest(
+                    bucketName, fileKey, uploadStream, metadata);
+            request.setGeneralProgressListener(event -> {
+                final ProgressEventType type = event.getEventType();
+                if (type == ProgressEventType.TRANSFER_COMPLETED_EVENT) {
+                    tracker.completeFile();
+                }
+                if ((type == ProgressEventType.TRANSFER_COMPLETED_EVENT ||
+                        type == ProgressEventType.TRANSFER_FAILED_EVENT ||
+                        type == ProgressEventType.TRANSFER_CANCELED_EVENT) &&
+                        released.compareAndSet(false, true)) {
+                    IOUtils.closeQuietly(uploadStream);
+                    throttle.releaseFile();
+                }
+            });
+            LOGGER.info("Initiating upload for file: {} | key: {}",
+                    file.getAbsolutePath(), fileKey);
+            return clients.getTransferManager(file.length()).upload(request);
+        } catch (Exception e) {
+            if (released.compareAndSet(false, true)) {
+                IOUtils.closeQuietly(stream);
+                throttle.releaseFile();
+            }
+            throw e;
+        }
+    }
+
     @Override
     public void uploadSchema(BackupRestoreContext ctx, String schema) throws Exception {
         final String nodeId = ctx.getNodeId();
@@ -227,23 +420,58 @@ public class S3StorageDriver implements BackupStorageDriver {
 
     @Override
     public void download(BackupRestoreContext ctx) throws Exception {
+        download(ctx, directory -> {
+        });
+    }
+
+    @Override
+    public void download(BackupRestoreContext ctx,
+                         TableDownloadListener listener) throws Exception {
         // download sstables at data/keyspace/cf/<files>
         final String backupName = ctx.getName();
         final String nodeId = ctx.getNodeId();
         final File[] keyspaces = getNonSystemKeyspaces(ctx);
         final String bucketName = getBucketName(ctx);
         final String localLocation = ctx.getLocalLocation();
-        final TransferManager tx = getS3TransferManager(ctx);
         final AmazonS3Client amazonS3Client = getAmazonS3Client(ctx);
 
         try {
-            if (Objects.equals(ctx.getRestoreType(), new String("new"))) {
+            final Optional<BackupManifest> manifest = getManifest(amazonS3Client,
+                    bucketName, getPrefixKey(ctx) + "/" + nodeId + "/" + BackupManifest.MANIFEST_FILE);
+            if (manifest.isPresent()) {
+                downloadManifest(ctx, amazonS3Client, manifest.get(), listener);
+            } else if (Objects.equals(ctx.getRestoreType(), new String("new"))) {
+                final String nodeKey = backupName + "/" + nodeId;
                 final Map<String, Long> snapshotFileKeys = listSnapshotFiles(amazonS3Client,
                         bucketName,
-                        backupName + File.separator + nodeId);
+                        nodeKey);
                 LOGGER.info("Snapshot files for this node: {}", snapshotFileKeys);
-                for (String fileKey : snapshotFileKeys.keySet()) {
-                    downloadFile(tx, bucketName, fileKey, localLocation + File.separator + fileKey);
+                // Group the files by table, <node key>/<keyspace>/<cf>/<file>,
+                // so that each table is complete before the next one starts.
+                final Map<String, Map<String, Long>> tables = new TreeMap<>();
+                for (Map.Entry<String, Long> file : snapshotFileKeys.entrySet()) {
+                    final String fileKey = file.getKey();
+                    if (!fileKey.startsWith(nodeKey + "/") ||
+                            fileKey.substring(nodeKey.length() + 1).split("/").length != 3) {
+                        // Skip the schema and any other non table files.
+                        continue;
+                    }
+                    tables.computeIfAbsent(fileKey.substring(0, fileKey.lastIndexOf("/")),
+                            table -> new TreeMap<>())
+                            .put(fileKey, file.getValue());
+                }
+                for (Map<String, Long> files : tables.values()) {
+                    tracker.addTotal(files.size(),
+                            files.values().stream().mapToLong(Long::longValue).sum());
+                }
+                for (Map.Entry<String, Map<String, Long>> table : tables.entrySet()) {
+                    for (Map.Entry<String, Long> file : table.getValue().entrySet()) {
+                        downloadFile(amazonS3Client, bucketName, file.getKey(),
+                                localLocation + File.separator + file.getKey(),
+                                file.getValue(), null);
+                    }
+                    listener.onTableDownloaded(
+                            new File(localLocation + File.separator + table.getKey()));
                 }
             } else {
                 for (File keyspace : keyspaces) {
@@ -252,11 +480,17 @@ public class S3StorageDriver implements BackupStorageDriver {
                         final Map<String, Long> snapshotFileKeys = listSnapshotFiles(amazonS3Client,
                                 bucketName,
                                 backupName + "/" + nodeId + "/" + keyspace.getName() + "/" + columnFamily);
-                        for (String fileKey : snapshotFileKeys.keySet()) {
+                        tracker.addTotal(snapshotFileKeys.size(),
+                                snapshotFileKeys.values().stream().mapToLong(Long::longValue).sum());
+                        for (Map.Entry<String, Long> file : snapshotFileKeys.entrySet()) {
+                            final String fileKey = file.getKey();
                             final String destinationFile = cfDir.getAbsolutePath() + fileKey.substring(fileKey.lastIndexOf("/"));
-                            downloadFile(tx, bucketName, fileKey, destinationFile);
+                            downloadFile(amazonS3Client, bucketName, fileKey, destinationFile, file.getValue(), null);
                             LOGGER.info("Keyspace {}, Column Family {}, FileKey {}, destination {}", keyspace, columnFamily, fileKey, destinationFile);
                         }
+                        if (!snapshotFileKeys.isEmpty()) {
+                            listener.onTableDownloaded(cfDir);
+                        }
                     }
                 }
             }
@@ -264,15 +498,81 @@ public class S3StorageDriver implements BackupStorageDriver {
         } catch (Exception e) {
             LOGGER.info("Failed downloading snapshots for backup: {}, error: {}", backupName, e);
             throw new Exception(e);
-        } finally {
-            tx.shutdownNow();
         }
     }
 
-    private void downloadFile(TransferManager tx,
+    private void downloadManifest(BackupRestoreContext ctx,
+                                  AmazonS3Client amazonS3Client,
+                                  BackupManifest manifest,
+                                  TableDownloadListener listener) throws Exception {
+        final String bucketName = getBucketName(ctx);
+        final String rootKey = getRootKey(ctx);
+        final Map<String, List<BackupManifest.Entry>> tables = manifest.getTables();
+        if (Objects.equals(ctx.getRestoreType(), "new")) {
+            // Download to <local>/<backup>/<node>/<keyspace>/<cf>/<files>
+            final File localRoot = new File(ctx.getLocalLocation() + File.separator +
+                    ctx.getName() + File.separator + ctx.getNodeId());
+            tracker.addTotal(manifest.getFiles().size(), manifest.getFiles().stream()
+                    .mapToLong(BackupManifest.Entry::getSize).sum());
+            for (Map.Entry<String, List<BackupManifest.Entry>> table : tables.entrySet()) {
+                final File tableDirectory = new File(localRoot, table.getKey());
+                for (BackupManifest.Entry entry : table.getValue()) {
+                    downloadFile(amazonS3Client, bucketName,
+                            rootKey + BackupManifest.getObjectPath(entry.getDigest()),
+                            new File(tableDirectory, entry.getFile()).getAbsolutePath(),
+                            entry.getSize(), entry.getCrc32c());
+                }
+                listener.onTableDownloaded(tableDirectory);
+            }
+        } else {
+            for (File keyspace : getNonSystemKeyspaces(ctx)) {
+                for (File cfDir : getColumnFamilyDir(keyspace)) {
+                    final String columnFamily = cfDir.getName().substring(0, cfDir.getName().indexOf("-"));
+                    boolean downloaded = false;
+                    for (List<BackupManifest.Entry> entries : tables.values()) {
+                        if (!entries.get(0).getKeySpace().equals(keyspace.getName()) ||
+                                !entries.get(0).getColumnFamily().startsWith(columnFamily + "-")) {
+                            continue;
+                        }
+                        tracker.addTotal(entries.size(), entries.stream()
+                                .mapToLong(BackupManifest.Entry::getSize).sum());
+                        for (BackupManifest.Entry entry : entries) {
+                            downloadFile(amazonS3Client, bucketName,
+                                    rootKey + BackupManifest.getObjectPath(entry.getDigest()),
+                                    new File(cfDir, entry.getFile()).getAbsolutePath(),
+                                    entry.getSize(), entry.getCrc32c());
+                        }
+                        downloaded = true;
+                    }
+                    if (downloaded) {
+                        listener.onTableDownloaded(cfDir);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Optional<BackupManifest> getManifest(AmazonS3Client amazonS3Client,
+                                                        String bucketName,
+                                                        String key) throws IOException {
+        try (S3Object object = amazonS3Client.getObject(bucketName, key)) {
+            return Optional.of(BackupManifest.parse(
+                    IOUtils.toByteArray(object.getObjectContent())));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                LOGGER.info("No manifest: {}, downloading the files of the backup", key);
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private void downloadFile(AmazonS3Client amazonS3Client,
                               String bucketName,
                               String sourcePrefixKey,
-                              String destinationFile) throws Exception{
+                              String destinationFile,
+                              long size,
+                              String crc32c) throws Exception{
         try {
             final File snapshotFile = new File(destinationFile);
             // Only create parent directory once, if it doesn't exist.
@@ -286,9 +586,29 @@ public class S3StorageDriver implements BackupStorageDriver {
                     return;
                 }
             }
-            snapshotFile.createNewFile();
-            final Download download = tx.download(bucketName, sourcePrefixKey, snapshotFile);
-            download.waitForCompletion();
+            // The checksum is computed while the file is streamed to disk.
+            final Checksum checksum = Crc32c.create();
+            throttle.acquireFile();
+            try (S3Object object = amazonS3Client.getObject(bucketName, sourcePrefixKey);
+                 InputStream inputStream = tracker.track(throttle.throttle(
+                         new CheckedInputStream(object.getObjectContent(), checksum)));
+                 OutputStream outputStream = new BufferedOutputStream(
+                         new FileOutputStream(snapshotFile), DEFAULT_BUFFER_SIZE)) {
+                IOUtils.copy(inputStream, outputStream, DEFAULT_BUFFER_SIZE);
+            } finally {
+                throttle.releaseFile();
+            }
+            if (snapshotFile.length() != size) {
+                throw new IOException(String.format(
+                        "Downloaded file %s has %d bytes, expected %d",
+                        destinationFile, snapshotFile.length(), size));
+            }
+            if (crc32c != null && !crc32c.equals(Crc32c.toHex(checksum))) {
+                throw new IOException(String.format(
+                        "Downloaded file %s has CRC32C %s, expected %s",
+                        destinationFile, Crc32c.toHex(checksum), crc32c));
+            }
+            tracker.completeFile();
         } catch (Exception e) {
             LOGGER.error("Error downloading the file {} : {}", destinationFile, e);
             throw new Exception(e);
@@ -309,23 +629,300 @@ public class S3StorageDriver implements BackupStorageDriver {
         return schema;
     }
 
-    private static Map<String, Long> listSnapshotFiles(AmazonS3Client amazonS3Client,
-                                                       String bucketName,
-                                                       String backupName) {
-        Map<String, Long> snapshotFiles = new HashMap<>();
+    @Override
+    public BackupRetention.Result prune(BackupRestoreContext ctx) throws Exception {
+        final String bucketName = getBucketName(ctx);
+        final String rootKey = getRootKey(ctx);
+        final String objectsKey = rootKey + BackupManifest.OBJECTS_DIRECTORY + "/";
+        final AmazonS3Client amazonS3Client = getAmazonS3Client(ctx);
+        final BackupRetention retention = new BackupRetention(ctx);
+
+        // Manifests are at <root>/<backup>/<node>/manifest.json
+        final List<BackupManifest> manifests = new ArrayList<>();
+        // The files of each <backup>/<node>, to find partial backups
+        final Map<String, Set<String>> nodeFiles = new HashMap<>();
+        for (S3ObjectSummary summary : listObjects(amazonS3Client, bucketName, rootKey)) {
+            final String key = summary.getKey();
+            if (key.startsWith(objectsKey)) {
+                continue;
+            }
+            final String[] path = key.substring(rootKey.length()).split("/");
+            if (path.length != 3) {
+                continue;
+            }
+            nodeFiles.computeIfAbsent(path[0] + "/" + path[1], node -> new HashSet<>())
+                    .add(path[2]);
+            if (BackupManifest.MANIFEST_FILE.equals(path[2])) {
+                getManifest(amazonS3Client, bucketName, key).ifPresent(manifests::add);
+            }
+        }
+        final Set<String> partial = new HashSet<>();
+        for (Map.Entry<String, Set<String>> node : nodeFiles.entrySet()) {
+            if (!node.getValue().contains(BackupManifest.MANIFEST_FILE) ||
+                    !node.getValue().contains(StorageUtil.SCHEMA_FILE)) {
+                partial.add(node.getKey().substring(0, node.getKey().indexOf('/')));
+            }
+        }
+
+        final Set<String> expired = retention.getExpiredBackups(manifests, partial);
+        final Set<String> referenced =
+                BackupRetention.getReferencedDigests(manifests, expired);
+        for (String backup : expired) {
+            LOGGER.info("Deleting expired backup: {}", backup);
+            deleteObjects(amazonS3Client, bucketName,
+                    listObjects(amazonS3Client, bucketName, rootKey + backup + "/")
+                            .stream()
+                            .map(S3ObjectSummary::getKey)
+                            .collect(Collectors.toList()));
+        }
+
+        final List<BackupRetention.StoredObject> objects = new ArrayList<>();
+        for (S3ObjectSummary summary : listObjects(amazonS3Client, bucketName, objectsKey)) {
+            objects.add(new BackupRetention.StoredObject(
+                    summary.getKey().substring(summary.getKey().lastIndexOf("/") + 1),
+                    summary.getSize(),
+                    summary.getLastModified().getTime()));
+        }
+        final List<BackupRetention.StoredObject> unreferenced =
+                retention.getUnreferencedObjects(objects, referenced);
+        deleteObjects(amazonS3Client, bucketName, unreferenced.stream()
+                .map(object -> rootKey + BackupManifest.getObjectPath(object.getDigest()))
+                .collect(Collectors.toList()));
+        return new BackupRetention.Result(expired, unreferenced.size(),
+                unreferenced.stream().mapToLong(BackupRetention.StoredObject::getSize).sum());
+    }
+
+    @Override
+    public BackupVerification.Result verify(BackupRestoreContext ctx) throws Exception {
+        final String bucketName = getBucketName(ctx);
+        final String rootKey = getRootKey(ctx);
+        final AmazonS3Client amazonS3Client = getAmazonS3Client(ctx);
+        final String manifestKey = getPrefixKey(ctx) + "/" + ctx.getNodeId() +
+                "/" + BackupManifest.MANIFEST_FILE;
+        final BackupManifest manifest = getManifest(amazonS3Client, bucketName, manifestKey)
+                .orElseThrow(() -> new IOException(String.format(
+                        "Backup: %s of node: %s has no manifest",
+                        ctx.getName(), ctx.getNodeId())));
+        final int sampleBytes = ctx.getVerifySampleBytes();
+        return BackupVerification.verify(manifest.getFiles(), entry -> {
+            final String key = rootKey + BackupManifest.getObjectPath(entry.getDigest());
+            final ObjectMetadata metadata;
+            try {
+                metadata = amazonS3Client.getObjectMetadata(bucketName, key);
+            } catch (AmazonS3Exception e) {
+                if (e.getStatusCode() == 404) {
+                    return Optional.of("is missing");
+                }
+                throw e;
+            }
+            if (metadata.getContentLength() != entry.getSize()) {
+                return Optional.of(String.format("has %d bytes, expected %d",
+                        metadata.getContentLength(), entry.getSize()));
+            }
+            // Files stored before checksums were recorded have none.
+            final String crc32c = metadata.getUserMetaDataOf(CRC32C_METADATA);
+            if (crc32c != null && entry.getCrc32c() != null &&
+                    !crc32c.equals(entry.getCrc32c())) {
+                return Optional.of(String.format("has CRC32C %s, expected %s",
+                        crc32c, entry.getCrc32c()));
+            }
+            if (sampleBytes > 0 && entry.getSize() > 0) {
+                // Read the end of the file, where a truncated upload shows.
+                final long expected = Math.min(sampleBytes, entry.getSize());
+                final GetObjectRequest request = new GetObjectRequest(bucketName, key)
+                        .withRange(entry.getSize() - expected, entry.getSize() - 1);
+                final long read;
+                try (S3Object object = amazonS3Client.getObject(request)) {
+                    read = IOUtils.toByteArray(object.getObjectContent()).length;
+                }
+                if (read != expected) {
+                    return Optional.of(String.format(
+                            "returned %d of its last %d bytes", read, expected));
+                }
+            }
+            return Optional.empty();
+        }, BackupVerification.getParallelism(ctx));
+    }
+
+    /**
+     * Copies a backup with server side copies, CopyObject for small files and
+     * UploadPartCopy for large files, so the files of the backup are not
+     * transferred through the node. The copies are made by the client of the
+     * destination, whose credentials must be allowed to read the source.
+     */
+    @Override
+    public void copy(BackupRestoreContext source,
+                     BackupRestoreContext destination) throws Exception {
+        final String endpoint = getEndpoint(source);
+        if (!endpoint.equals(getEndpoint(destination))) {
+            throw new IOException(String.format(
+                    "Backup: %s can not be copied from %s to %s, " +
+                            "server side copies require the same S3 endpoint",
+                    source.getName(), source.getExternalLocation(),
+                    destination.getExternalLocation()));
+        }
+        final String sourceBucket = getBucketName(source);
+        final String sourceRoot = getRootKey(source);
+        final String sourceKey = getPrefixKey(source) + "/";
+        final String destinationBucket = getBucketName(destination);
+        final String destinationRoot = getRootKey(destination);
+        final String destinationKey = getPrefixKey(destination) + "/";
+        final AmazonS3Client sourceClient = getAmazonS3Client(source);
+        final S3Clients clients = getS3Clients(destination);
+        final AmazonS3Client destinationClient = clients.getClient();
+        final Semaphore permits = new Semaphore(source.getMaxConcurrentFiles() > 0 ?
+                source.getMaxConcurrentFiles() : DEFAULT_COPY_PARALLELISM);
+
+        // The files of the backup of each node, <backup>/<node>/<file>, and
+        // the stored files referenced by their manifests, by digest.
+        final List<S3ObjectSummary> files = listObjects(sourceClient, sourceBucket, sourceKey);
+        if (files.isEmpty()) {
+            throw new IOException(String.format("Backup: %s does not exist in %s",
+                    source.getName(), source.getExternalLocation()));
+        }
+        final List<S3ObjectSummary> manifests = new ArrayList<>();
+        final Map<String, BackupManifest.Entry> objects = new TreeMap<>();
+        for (S3ObjectSummary file : files) {
+            if (file.getKey().endsWith("/" + BackupManifest.MANIFEST_FILE)) {
+                manifests.add(file);
+                getManifest(sourceClient, sourceBucket, file.getKey()).ifPresent(
+                        manifest -> manifest.getFiles().forEach(
+                                entry -> objects.putIfAbsent(entry.getDigest(), entry)));
+            }
+        }
+        files.removeAll(manifests);
+        tracker.addTotal(objects.size() + files.size() + manifests.size(),
+                objects.values().stream().mapToLong(BackupManifest.Entry::getSize).sum() +
+                        files.stream().mapToLong(S3ObjectSummary::getSize).sum() +
+                        manifests.stream().mapToLong(S3ObjectSummary::getSize).sum());
+
+        try {
+            final Map<String, Long> storedObjects = listSnapshotFiles(destinationClient,
+                    destinationBucket,
+                    destinationRoot + BackupManifest.OBJECTS_DIRECTORY + "/");
+            final Map<String, Long> storedFiles = listSnapshotFiles(destinationClient,
+                    destinationBucket,
+                    destinationKey);
+            final List<Copy> copies = new ArrayList<>();
+            for (BackupManifest.Entry entry : objects.values()) {
+                final String objectPath = BackupManifest.getObjectPath(entry.getDigest());
+                if (Objects.equals(storedObjects.get(destinationRoot + objectPath),
+                        entry.getSize())) {
+                    tracker.skipFile(entry.getSize());
+                    continue;
+                }
+                final CopyObjectRequest request = new CopyObjectRequest(
+                        sourceBucket, sourceRoot + objectPath,
+                        destinationBucket, destinationRoot + objectPath);
+                if (entry.getCrc32c() != null) {
+                    // Multipart copies do not carry the user metadata over.
+                    final ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.addUserMetadata(CRC32C_METADATA, entry.getCrc32c());
+                    request.setNewObjectMetadata(metadata);
+                }
+                copies.add(copyFile(clients, permits, request, entry.getSize()));
+            }
+            for (S3ObjectSummary file : files) {
+                final String key = destinationKey + file.getKey().substring(sourceKey.length());
+                if (Objects.equals(storedFiles.get(key), file.getSize())) {
+                    tracker.skipFile(file.getSize());
+                    continue;
+                }
+                copies.add(copyFile(clients, permits, new CopyObjectRequest(
+                        sourceBucket, file.getKey(), destinationBucket, key),
+                        file.getSize()));
+            }
+            for (Copy copy : copies) {
+                copy.waitForCopyResult();
+            }
+            // The manifests are copied last, once all of their files are stored.
+            for (S3ObjectSummary manifest : manifests) {
+                destinationClient.copyObject(sourceBucket, manifest.getKey(),
+                        destinationBucket,
+                        destinationKey + manifest.getKey().substring(sourceKey.length()));
+                tracker.addBytes(manifest.getSize());
+                tracker.completeFile();
+            }
+            LOGGER.info("Done copying backup: {} to: {}, copied {} of {} files",
+                    source.getName(), destination.getExternalLocation(),
+                    copies.size() + manifests.size(),
+                    objects.size() + files.size() + manifests.size());
+        } catch (Exception e) {
+            LOGGER.info("Failed copying backup: {}, error: {}", source.getName(), e);
+            throw new Exception(e);
+        }
+    }
+
+    private Copy copyFile(S3Clients clients,
+                          Semaphore permits,
+                          CopyObjectRequest request,
+                          long size) throws Exception {
+        // Blocks until fewer than the permitted number of files are being
+        // copied, the permit is returned once the copy has completed or failed.
+        permits.acquire();
+        final AtomicBoolean released = new AtomicBoolean(false);
+        try {
+            request.setGeneralProgressListener(event -> {
+                final ProgressEventType type = event.getEventType();
+                if (type == ProgressEventType.TRANSFER_COMPLETED_EVENT) {
+                    tracker.addBytes(size);
+                    tracker.completeFile();
+                }
+                if ((type == ProgressEventType.TRANSFER_COMPLETED_EVENT ||
+                        type == ProgressEventType.TRANSFER_FAILED_EVENT ||
+                        type == ProgressEventType.TRANSFER_CANCELED_EVENT) &&
+                        released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            });
+            LOGGER.debug("Initiating copy of key: {} to key: {}",
+                    request.getSourceKey(), request.getDestinationKey());
+            return clients.getTransferManager(size).copy(request);
+        } catch (Exception e) {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    private static void deleteObjects(AmazonS3Client amazonS3Client,
+                                      String bucketName,
+                                      List<String> keys) {
+        for (int i = 0; i < keys.size(); i += MAX_DELETE_KEYS) {
+            final List<String> batch = keys.subList(i, Math.min(keys.size(), i + MAX_DELETE_KEYS));
+            LOGGER.info("Deleting {} objects from bucket: {}", batch.size(), bucketName);
+            amazonS3Client.deleteObjects(new DeleteObjectsRequest(bucketName)
+                    .withKeys(batch.toArray(new String[batch.size()]))
+                    .withQuiet(true));
+        }
+    }
+
+    private static List<S3ObjectSummary> listObjects(AmazonS3Client amazonS3Client,
+                                                     String bucketName,
+                                                     String prefix) {
+        final List<S3ObjectSummary> objects = new ArrayList<>();
         final ListObjectsV2Request req = new ListObjectsV2Request()
                 .withBucketName(bucketName)
-                .withPrefix(backupName);
+                .withPrefix(prefix);
         ListObjectsV2Result result;
         do {
             result = amazonS3Client.listObjectsV2(req);
-            for (S3ObjectSummary objectSummary :
-                    result.getObjectSummaries()) {
-                snapshotFiles.put ( objectSummary.getKey ( ), objectSummary.getSize());
-            }
+            objects.addAll(result.getObjectSummaries());
             req.setContinuationToken(result.getNextContinuationToken());
         } while(result.isTruncated());
 
+        return objects;
+    }
+
+    private static Map<String, Long> listSnapshotFiles(AmazonS3Client amazonS3Client,
+                                                       String bucketName,
+                                                       String backupName) {
+        Map<String, Long> snapshotFiles = new HashMap<>();
+        for (S3ObjectSummary objectSummary :
+                listObjects(amazonS3Client, bucketName, backupName)) {
+            snapshotFiles.put(objectSummary.getKey(), objectSummary.getSize());
+        }
         return snapshotFiles;
     }
 }
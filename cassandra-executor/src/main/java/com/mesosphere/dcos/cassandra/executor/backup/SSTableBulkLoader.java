@@ -0,0 +1,565 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.datastax.driver.core.AuthProvider;
+import com.datastax.driver.core.JdkSSLOptions;
+import com.datastax.driver.core.SSLOptions;
+import com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
+import com.mesosphere.dcos.cassandra.executor.CassandraPaths;
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.config.EncryptionOptions;
+import org.apache.cassandra.config.YamlConfigurationLoader;
+import org.apache.cassandra.exceptions.ConfigurationException;
+import org.apache.cassandra.io.sstable.SSTableLoader;
+import org.apache.cassandra.security.SSLFactory;
+import org.apache.cassandra.streaming.ProgressInfo;
+import org.apache.cassandra.streaming.StreamConnectionFactory;
+import org.apache.cassandra.streaming.StreamEvent;
+import org.apache.cassandra.streaming.StreamEventHandler;
+import org.apache.cassandra.streaming.StreamState;
+import org.apache.cassandra.tools.BulkLoadConnectionFactory;
+import org.apache.cassandra.utils.NativeSSTableLoaderClient;
+import org.apache.cassandra.utils.OutputHandler;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SSTableBulkLoader streams the SSTables of a set of table directories into
+ * the cluster with Cassandra's SSTableLoader, in the executor's process
+ * instead of an sstableloader process per table. Tables are streamed
+ * concurrently, the outbound stream throughput is shared by all of them, and
+ * the first table that fails to load fails the whole load. A single loader
+ * may run several loads at the same time, each of them reports its own
+ * progress. As with sstableloader -f cassandra.yaml, the SSTables are
+ * streamed with the server encryption options of the node, and its ring is
+ * discovered with its client encryption options.
+ */
+public class SSTableBulkLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            SSTableBulkLoader.class);
+
+    /**
+     * The number of tables streamed concurrently when no limit is given.
+     */
+    public static final int DEFAULT_CONCURRENT_TABLES = 4;
+
+    /**
+     * The minimum interval between two progress reports.
+     */
+    public static final long DEFAULT_PROGRESS_INTERVAL_MS =
+            TimeUnit.SECONDS.toMillis(10);
+
+    // The number of bytes in a megabit as used by Cassandra's stream
+    // throughput settings.
+    private static final long BYTES_PER_MEGABIT = 1024 * 1024 / 8;
+
+    static {
+        // The loader must not load the daemon's configuration, initialize
+        // its directories or join the ring.
+        Config.setClientMode(true);
+    }
+
+    /**
+     * Receives the progress of a load.
+     */
+    public interface ProgressListener {
+        /**
+         * Called with the progress of all tables of the load.
+         *
+         * @param progress The progress of each table.
+         */
+        void onProgress(List<TableProgress> progress);
+    }
+
+    /**
+     * TableProgress is the progress of streaming a single table.
+     */
+    public static class TableProgress {
+        private final String keyspace;
+        private final String table;
+        private final Map<String, Long> bytesSent = new HashMap<>();
+        private long bytesTotal = 0;
+        private boolean done = false;
+
+        TableProgress(final String keyspace, final String table) {
+            this.keyspace = keyspace;
+            this.table = table;
+        }
+
+        synchronized void addTotal(final long bytes) {
+            bytesTotal += bytes;
+        }
+
+        synchronized void update(final String file, final long bytes) {
+            bytesSent.put(file, bytes);
+        }
+
+        synchronized void finish() {
+            done = true;
+        }
+
+        /**
+         * Gets the keyspace of the table.
+         *
+         * @return The name of the keyspace.
+         */
+        public String getKeyspace() {
+            return keyspace;
+        }
+
+        /**
+         * Gets the name of the table.
+         *
+         * @return The name of the table directory.
+         */
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * Gets the number of bytes streamed to all replicas.
+         *
+         * @return The number of bytes sent.
+         */
+        public synchronized long getBytesSent() {
+            return bytesSent.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * Gets the number of bytes to stream to all replicas. This is only
+         * known once the streaming sessions of the table are prepared.
+         *
+         * @return The number of bytes to send.
+         */
+        public synchronized long getBytesTotal() {
+            return bytesTotal;
+        }
+
+        /**
+         * Tests if the table has been loaded.
+         *
+         * @return True if all sessions of the table completed.
+         */
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Gets the completion of the table.
+         *
+         * @return The percentage of the bytes of the table that have been
+         * streamed.
+         */
+        public synchronized int getPercentComplete() {
+            if (done) {
+                return 100;
+            }
+            return bytesTotal == 0 ? 0 :
+                    (int) Math.min(99, getBytesSent() * 100 / bytesTotal);
+        }
+
+        @Override
+        public String toString() {
+            return keyspace + "." + table + ": " + getPercentComplete() + "%";
+        }
+    }
+
+    static class Client extends NativeSSTableLoaderClient {
+        private final int storagePort;
+        private final int sslStoragePort;
+        private final EncryptionOptions.ServerEncryptionOptions serverEncryption;
+
+        Client(final Collection<InetAddress> hosts,
+               final int nativePort,
+               final int storagePort,
+               final int sslStoragePort,
+               final EncryptionOptions.ServerEncryptionOptions serverEncryption,
+               final SSLOptions sslOptions) {
+            super(hosts, nativePort, AuthProvider.NONE, sslOptions);
+            this.storagePort = storagePort;
+            this.sslStoragePort = sslStoragePort;
+            this.serverEncryption = serverEncryption;
+        }
+
+        @Override
+        public StreamConnectionFactory getConnectionFactory() {
+            return new BulkLoadConnectionFactory(storagePort,
+                    sslStoragePort,
+                    serverEncryption,
+                    false);
+        }
+    }
+
+    private static class LoggingOutputHandler implements OutputHandler {
+        @Override
+        public void output(String msg) {
+            LOGGER.info(msg);
+        }
+
+        @Override
+        public void debug(String msg) {
+            LOGGER.debug(msg);
+        }
+
+        @Override
+        public void warn(String msg) {
+            LOGGER.warn(msg);
+        }
+
+        @Override
+        public void warn(String msg, Throwable th) {
+            LOGGER.warn(msg, th);
+        }
+    }
+
+    /**
+     * The tables and the progress reports of a single call to load.
+     */
+    private class Load {
+        private final List<TableProgress> tables;
+        private final ProgressListener listener;
+        private long lastReport = 0;
+
+        Load(final List<TableProgress> tables,
+             final ProgressListener listener) {
+            this.tables = Collections.unmodifiableList(tables);
+            this.listener = listener;
+        }
+
+        synchronized void report(final boolean force) {
+            final long now = System.currentTimeMillis();
+            if (!force && now - lastReport < progressIntervalMs) {
+                return;
+            }
+            lastReport = now;
+            try {
+                listener.onProgress(tables);
+            } catch (Throwable t) {
+                LOGGER.warn("Failed to report bulk load progress", t);
+            }
+        }
+    }
+
+    private static class ProgressHandler implements StreamEventHandler {
+        private final Load load;
+        private final TableProgress progress;
+
+        ProgressHandler(final Load load, final TableProgress progress) {
+            this.load = load;
+            this.progress = progress;
+        }
+
+        @Override
+        public void handleStreamEvent(StreamEvent event) {
+            if (event.eventType == StreamEvent.Type.STREAM_PREPARED) {
+                progress.addTotal(((StreamEvent.SessionPreparedEvent) event)
+                        .session.getTotalSizeToSend());
+            } else if (event.eventType == StreamEvent.Type.FILE_PROGRESS) {
+                final ProgressInfo info =
+                        ((StreamEvent.ProgressEvent) event).progress;
+                progress.update(info.peer + ":" + info.fileName,
+                        info.currentBytes);
+            }
+            load.report(false);
+        }
+
+        @Override
+        public void onSuccess(StreamState result) {
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+        }
+    }
+
+    private final Collection<InetAddress> hosts;
+    private final int nativePort;
+    private final int storagePort;
+    private final int sslStoragePort;
+    private final EncryptionOptions.ServerEncryptionOptions serverEncryption;
+    private final SSLOptions sslOptions;
+    private final int concurrency;
+    private final long progressIntervalMs;
+
+    /**
+     * Constructs a new SSTableBulkLoader.
+     *
+     * @param hosts          The hosts used to discover the ring.
+     * @param nativePort     The native transport port of the hosts.
+     * @param storagePort    The storage port of the cluster.
+     * @param sslStoragePort The SSL storage port of the cluster.
+     * @param config         The configuration of the node, whose
+     *                       encryption options the loader uses.
+     * @param concurrency    The maximum number of tables streamed
+     *                       concurrently.
+     * @throws IOException If the SSL context of the client encryption
+     *                     options can not be created.
+     */
+    public SSTableBulkLoader(final Collection<InetAddress> hosts,
+                             final int nativePort,
+                             final int storagePort,
+                             final int sslStoragePort,
+                             final Config config,
+                             final int concurrency) throws IOException {
+        this(hosts, nativePort, storagePort, sslStoragePort,
+                config.server_encryption_options,
+                buildSSLOptions(config.client_encryption_options),
+                concurrency,
+                DEFAULT_PROGRESS_INTERVAL_MS);
+    }
+
+    SSTableBulkLoader(final Collection<InetAddress> hosts,
+                      final int nativePort,
+                      final int storagePort,
+                      final int sslStoragePort,
+                      final EncryptionOptions.ServerEncryptionOptions serverEncryption,
+                      final SSLOptions sslOptions,
+                      final int concurrency,
+                      final long progressIntervalMs) {
+        this.hosts = hosts;
+        this.nativePort = nativePort;
+        this.storagePort = storagePort;
+        this.sslStoragePort = sslStoragePort;
+        this.serverEncryption = serverEncryption;
+        this.sslOptions = sslOptions;
+        this.concurrency = concurrency > 0 ? concurrency :
+                DEFAULT_CONCURRENT_TABLES;
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
+    /**
+     * Creates a SSTableBulkLoader that loads into the ring of a Cassandra
+     * daemon, and applies the stream throughput of a restore.
+     *
+     * @param daemon  The CassandraDaemonProcess running on the host.
+     * @param context The context of the restore. Its maximum number of
+     *                concurrent files limits the number of tables streamed
+     *                concurrently.
+     * @return A SSTableBulkLoader for the daemon.
+     * @throws IOException If the address of the daemon can not be resolved
+     *                     or its configuration can not be loaded.
+     */
+    public static SSTableBulkLoader create(final CassandraDaemonProcess daemon,
+                                           final BackupRestoreContext context)
+            throws IOException {
+        String address = System.getenv("LIBPROCESS_IP");
+        address = StringUtils.isBlank(address) ?
+                InetAddress.getLocalHost().getHostAddress() : address;
+        final CassandraApplicationConfig config =
+                daemon.getTask().getConfig().getApplication();
+        setStreamThroughput(context.getMaxBytesPerSecond());
+        return new SSTableBulkLoader(
+                Collections.singleton(InetAddress.getByName(address)),
+                config.getNativeTransportPort(),
+                config.getStoragePort(),
+                config.getSslStoragePort(),
+                loadConfig(CassandraPaths.create(
+                        daemon.getTask().getConfig().getVersion())
+                        .cassandraConfig()),
+                context.getMaxConcurrentFiles());
+    }
+
+    /**
+     * Loads the configuration of a node without applying it to the
+     * executor, as sstableloader does.
+     *
+     * @param yaml The cassandra.yaml of the node.
+     * @return The configuration of the node.
+     * @throws IOException If the configuration can not be loaded.
+     */
+    static Config loadConfig(final Path yaml) throws IOException {
+        try {
+            return new YamlConfigurationLoader().loadConfig(
+                    yaml.toUri().toURL());
+        } catch (ConfigurationException e) {
+            throw new IOException("Failed to load configuration: " + yaml, e);
+        }
+    }
+
+    /**
+     * Builds the SSL options of the driver that discovers the ring, as
+     * sstableloader does.
+     *
+     * @param options The client encryption options of the node.
+     * @return The SSL options, or null if client encryption is not enabled.
+     * @throws IOException If the SSL context can not be created.
+     */
+    static SSLOptions buildSSLOptions(
+            final EncryptionOptions.ClientEncryptionOptions options)
+            throws IOException {
+        if (options == null || !options.enabled) {
+            return null;
+        }
+        final SSLContext context = SSLFactory.createSSLContext(options, true);
+        return JdkSSLOptions.builder()
+                .withSSLContext(context)
+                .withCipherSuites(options.cipher_suites)
+                .build();
+    }
+
+    Client newClient() {
+        return new Client(hosts, nativePort, storagePort, sslStoragePort,
+                serverEncryption, sslOptions);
+    }
+
+    /**
+     * Sets the outbound stream throughput of all loads in the executor.
+     *
+     * @param maxBytesPerSecond The maximum number of bytes streamed per
+     *                          second, or 0 for unlimited.
+     */
+    public static void setStreamThroughput(final long maxBytesPerSecond) {
+        final int megabits = maxBytesPerSecond <= 0 ? 0 :
+                (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                        maxBytesPerSecond / BYTES_PER_MEGABIT));
+        DatabaseDescriptor.setStreamThroughputOutboundMegabitsPerSec(megabits);
+        DatabaseDescriptor.setInterDCStreamThroughputOutboundMegabitsPerSec(
+                megabits);
+        LOGGER.info("Set bulk load stream throughput to {} Mb/s " +
+                "(0 is unlimited)", megabits);
+    }
+
+    /**
+     * Gets the number of tables a load streams concurrently.
+     *
+     * @return The maximum number of tables streamed concurrently by a call
+     * to load.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    private void load(final Load load,
+                      final File directory,
+                      final TableProgress progress) throws Exception {
+        LOGGER.info("Bulk loading... keyspace: {} column family: {}",
+                progress.getKeyspace(), progress.getTable());
+        final SSTableLoader loader = new SSTableLoader(directory,
+                newClient(),
+                new LoggingOutputHandler());
+        final StreamState state;
+        try {
+            state = loader.stream(Collections.emptySet(),
+                    new ProgressHandler(load, progress)).get();
+        } catch (ExecutionException e) {
+            throw new IOException(String.format(
+                    "Failed bulk loading keyspace: %s column family: %s",
+                    progress.getKeyspace(), progress.getTable()), e.getCause());
+        }
+        if (state.hasFailedSession() || !loader.getFailedHosts().isEmpty()) {
+            throw new IOException(String.format(
+                    "Failed bulk loading keyspace: %s column family: %s " +
+                            "to hosts: %s",
+                    progress.getKeyspace(), progress.getTable(),
+                    loader.getFailedHosts()));
+        }
+        progress.finish();
+        LOGGER.info("Done bulk loading! keyspace: {} column family: {}",
+                progress.getKeyspace(), progress.getTable());
+        load.report(true);
+    }
+
+    /**
+     * Loads the SSTables of a set of tables. The method returns when all
+     * tables are loaded, or throws when the first table fails to load, in
+     * which case the loads of the other tables are interrupted. Loads of
+     * different sets of tables may run concurrently.
+     *
+     * @param directories The directories of the tables, each directory must
+     *                    be named after its table and be contained in a
+     *                    directory named after its keyspace.
+     * @param listener    The listener that receives the progress of the
+     *                    load.
+     * @throws Exception If a table fails to load.
+     */
+    public void load(final List<File> directories,
+                     final ProgressListener listener) throws Exception {
+        if (directories.isEmpty()) {
+            return;
+        }
+        final List<TableProgress> progress = directories.stream()
+                .map(dir -> new TableProgress(dir.getParentFile().getName(),
+                        dir.getName()))
+                .collect(Collectors.toList());
+        final Load load = new Load(progress, listener);
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(concurrency, directories.size()));
+        try {
+            final ExecutorCompletionService<Void> completion =
+                    new ExecutorCompletionService<>(executor);
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < directories.size(); i++) {
+                final File directory = directories.get(i);
+                final TableProgress table = progress.get(i);
+                futures.add(completion.submit(() -> {
+                    load(load, directory, table);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Summarizes the progress of a load. The summary has a fixed size
+     * whatever the number of tables, so that it fits a status update.
+     *
+     * @param progress The progress of each table of the load.
+     * @return The number of tables loaded and of bytes streamed.
+     */
+    public static String summarize(final List<TableProgress> progress) {
+        return String.format("loaded %d of %d tables, streamed %d of %d bytes",
+                progress.stream().filter(TableProgress::isDone).count(),
+                progress.size(),
+                progress.stream().mapToLong(TableProgress::getBytesSent).sum(),
+                progress.stream().mapToLong(TableProgress::getBytesTotal).sum());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.executor.Probe;
+import org.apache.cassandra.tools.NodeProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * SSTableRefresher loads the SSTables placed in the data directories of
+ * tables into a running Cassandra daemon (nodetool refresh). Tables are
+ * refreshed with one JMX call each, through a bounded number of concurrent
+ * calls on a dedicated JMX connection, so that long refreshes do not hold
+ * up the calls on the shared one, and the duration and number of SSTables
+ * loaded is recorded for each table.
+ */
+public class SSTableRefresher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            SSTableRefresher.class);
+
+    /**
+     * The number of tables refreshed concurrently when no limit is given.
+     */
+    public static final int DEFAULT_CONCURRENT_TABLES = 4;
+
+    private static final String LIVE_SSTABLE_COUNT = "LiveSSTableCount";
+    private static final int SLOWEST_TABLES = 5;
+
+    /**
+     * The result of refreshing a table.
+     */
+    public static class Result {
+        private final String keyspace;
+        private final String table;
+        private final int sstables;
+        private final long millis;
+
+        Result(final String keyspace,
+               final String table,
+               final int sstables,
+               final long millis) {
+            this.keyspace = keyspace;
+            this.table = table;
+            this.sstables = sstables;
+            this.millis = millis;
+        }
+
+        /**
+         * Gets the keyspace of the table.
+         *
+         * @return The name of the keyspace.
+         */
+        public String getKeyspace() {
+            return keyspace;
+        }
+
+        /**
+         * Gets the name of the table.
+         *
+         * @return The name of the table.
+         */
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * Gets the number of SSTables loaded by the refresh.
+         *
+         * @return The increase of the live SSTable count of the table, or
+         * -1 if it could not be determined.
+         */
+        public int getSSTables() {
+            return sstables;
+        }
+
+        /**
+         * Gets the duration of the refresh.
+         *
+         * @return The duration of the refresh in milliseconds.
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return keyspace + "." + table + ": " +
+                    (sstables < 0 ? "?" : Integer.toString(sstables)) +
+                    " SSTables in " + millis + " ms";
+        }
+    }
+
+    /**
+     * Receives the result of each table as soon as it is refreshed.
+     */
+    public interface Listener {
+        /**
+         * Called when a table has been refreshed.
+         *
+         * @param result The result of the refresh.
+         */
+        void onRefreshed(Result result);
+    }
+
+    private final Probe probe;
+    private final int concurrency;
+
+    /**
+     * Constructs a new SSTableRefresher.
+     *
+     * @param probe       The Probe of the daemon.
+     * @param concurrency The maximum number of tables refreshed
+     *                    concurrently, or 0 for the default.
+     */
+    public SSTableRefresher(final Probe probe, final int concurrency) {
+        this.probe = probe;
+        this.concurrency = concurrency > 0 ? concurrency :
+                DEFAULT_CONCURRENT_TABLES;
+    }
+
+    private static int getLiveSSTableCount(final NodeProbe probe,
+                                           final String keyspace,
+                                           final String table) {
+        try {
+            return ((Number) probe.getColumnFamilyMetric(keyspace, table,
+                    LIVE_SSTABLE_COUNT)).intValue();
+        } catch (Throwable t) {
+            LOGGER.debug("Failed to read the SSTable count of {}.{}",
+                    keyspace, table, t);
+            return -1;
+        }
+    }
+
+    /**
+     * Refreshes a single table.
+     *
+     * @param keyspace The keyspace of the table.
+     * @param table    The name of the table.
+     * @return The result of the refresh.
+     * @throws IOException If the connection to the daemon fails.
+     */
+    public Result refresh(final String keyspace, final String table)
+            throws IOException {
+        try (NodeProbe dedicated = probe.dedicated()) {
+            return refresh(dedicated, keyspace, table);
+        }
+    }
+
+    private static Result refresh(final NodeProbe probe,
+                                  final String keyspace,
+                                  final String table) {
+        final int before = getLiveSSTableCount(probe, keyspace, table);
+        final long start = System.currentTimeMillis();
+        probe.loadNewSSTables(keyspace, table);
+        final long millis = System.currentTimeMillis() - start;
+        final int after = getLiveSSTableCount(probe, keyspace, table);
+        final Result result = new Result(keyspace, table,
+                before < 0 || after < 0 ? -1 : Math.max(0, after - before),
+                millis);
+        LOGGER.info("Completed nodetool refresh for {}", result);
+        return result;
+    }
+
+    /**
+     * Refreshes a set of tables concurrently. The method returns when all
+     * tables are refreshed, or throws when the first table fails, in which
+     * case no further tables are refreshed.
+     *
+     * @param tables   The names of the tables to refresh by keyspace.
+     * @param listener The listener that receives the result of each table.
+     * @return The results of all tables.
+     * @throws Exception If a table fails to refresh.
+     */
+    public List<Result> refresh(final Map<String, List<String>> tables,
+                                final Listener listener) throws Exception {
+        final List<Result> results = new ArrayList<>();
+        final int count = tables.values().stream().mapToInt(List::size).sum();
+        if (count == 0) {
+            return results;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(concurrency, count));
+        try (NodeProbe dedicated = probe.dedicated()) {
+            final ExecutorCompletionService<Result> completion =
+                    new ExecutorCompletionService<>(executor);
+            for (Map.Entry<String, List<String>> keyspace : tables.entrySet()) {
+                for (String table : keyspace.getValue()) {
+                    completion.submit(() ->
+                            refresh(dedicated, keyspace.getKey(), table));
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                final Result result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                results.add(result);
+                listener.onRefreshed(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Summarizes the results of a refresh.
+     *
+     * @param results The results of the refreshed tables.
+     * @return The number of tables and SSTables refreshed, and the slowest
+     * tables.
+     */
+    public static String summarize(final List<Result> results) {
+        final int sstables = results.stream()
+                .mapToInt(result -> Math.max(0, result.getSSTables()))
+                .sum();
+        final String slowest = results.stream()
+                .sorted(Comparator.comparingLong(Result::getMillis).reversed())
+                .limit(SLOWEST_TABLES)
+                .map(Result::toString)
+                .collect(Collectors.joining(", "));
+        return String.format("refreshed %d tables with %d SSTables, " +
+                "slowest: [%s]", results.size(), sstables, slowest);
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SchemaRestorer restores a schema exported as a CQL script. The script is
+ * split into statements and the statements are run in stages ordered by
+ * their dependencies: keyspaces, types, functions, aggregates, tables,
+ * indexes and views. The independent statements of a stage are sent
+ * concurrently and the restorer waits for schema agreement once at the end
+ * of each stage, rather than after every statement. Types may depend on
+ * other types of their keyspace, so the types of a keyspace are created in
+ * the order of the script, as are statements of an unknown kind.
+ */
+public class SchemaRestorer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            SchemaRestorer.class);
+
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    public static final long DEFAULT_AGREEMENT_TIMEOUT_MS =
+            TimeUnit.SECONDS.toMillis(60);
+
+    private static final long AGREEMENT_POLL_MS = 200;
+
+    /**
+     * The connection on which the statements of the schema are run.
+     */
+    public interface Connection {
+
+        /**
+         * Runs a statement.
+         *
+         * @param statement The CQL statement.
+         * @return False if the statement was not applied because the object
+         * it creates already exists.
+         * @throws Exception If the statement failed.
+         */
+        boolean execute(String statement) throws Exception;
+
+        /**
+         * Tests if the nodes of the cluster agree on the schema.
+         *
+         * @return True if all live nodes have the same schema version.
+         */
+        boolean checkSchemaAgreement();
+    }
+
+    /**
+     * The stages of a restore in the order they run.
+     */
+    public enum Stage {
+        KEYSPACE,
+        TYPE,
+        FUNCTION,
+        AGGREGATE,
+        TABLE,
+        INDEX,
+        VIEW,
+        OTHER
+    }
+
+    /**
+     * A statement of the schema.
+     */
+    public static class Statement {
+        private final Stage stage;
+        private final String keyspace;
+        private final String cql;
+
+        Statement(Stage stage, String keyspace, String cql) {
+            this.stage = stage;
+            this.keyspace = keyspace;
+            this.cql = cql;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        /**
+         * Gets the keyspace of the statement.
+         *
+         * @return The keyspace the statement creates or creates an object
+         * in, or an empty string if the statement does not name it.
+         */
+        public String getKeyspace() {
+            return keyspace;
+        }
+
+        public String getCql() {
+            return cql;
+        }
+
+        @Override
+        public String toString() {
+            return stage + " " + keyspace + ": " + cql;
+        }
+    }
+
+    /**
+     * The outcome of a restore.
+     */
+    public static class Result {
+        private final int applied;
+        private final int existing;
+        private final int stages;
+
+        Result(int applied, int existing, int stages) {
+            this.applied = applied;
+            this.existing = existing;
+            this.stages = stages;
+        }
+
+        /**
+         * @return The number of statements that were applied.
+         */
+        public int getApplied() {
+            return applied;
+        }
+
+        /**
+         * @return The number of statements that were skipped because the
+         * object already existed.
+         */
+        public int getExisting() {
+            return existing;
+        }
+
+        /**
+         * @return The number of stages that had statements.
+         */
+        public int getStages() {
+            return stages;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d statements applied in %d stages, " +
+                    "%d already existed", applied, stages, existing);
+        }
+    }
+
+    /**
+     * Splits a CQL script into statements. Semicolons in string literals,
+     * quoted identifiers and $$ blocks do not end a statement, and comments
+     * are removed.
+     *
+     * @param script The CQL script.
+     * @return The non empty statements of the script without their
+     * terminating semicolons.
+     */
+    public static List<String> split(final String script) {
+        final List<String> statements = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        final int length = script.length();
+        int i = 0;
+        while (i < length) {
+            final char c = script.charAt(i);
+            final char next = i + 1 < length ? script.charAt(i + 1) : 0;
+            if (c == '\'' || c == '"') {
+                final int end = endOfQuoted(script, i, c);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '$' && next == '$') {
+                final int close = script.indexOf("$$", i + 2);
+                final int end = close < 0 ? length : close + 2;
+                current.append(script, i, end);
+                i = end;
+            } else if ((c == '-' && next == '-') || (c == '/' && next == '/')) {
+                final int newline = script.indexOf('\n', i);
+                i = newline < 0 ? length : newline;
+            } else if (c == '/' && next == '*') {
+                final int close = script.indexOf("*/", i + 2);
+                i = close < 0 ? length : close + 2;
+                current.append(' ');
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(final List<String> statements,
+                                     final StringBuilder current) {
+        final String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Finds the end of a quoted string or identifier, where a doubled quote
+     * is an escaped quote.
+     *
+     * @return The index after the closing quote.
+     */
+    private static int endOfQuoted(final String script,
+                                   final int start,
+                                   final char quote) {
+        int i = start + 1;
+        while (i < script.length()) {
+            if (script.charAt(i) == quote) {
+                if (i + 1 < script.length() && script.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return script.length();
+    }
+
+    /**
+     * Splits a statement into words, quoted identifiers, literals and
+     * single punctuation characters.
+     */
+    static List<String> tokenize(final String statement) {
+        final List<String> tokens = new ArrayList<>();
+        final int length = statement.length();
+        int i = 0;
+        while (i < length) {
+            final char c = statement.charAt(i);
+            int end;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                end = i + 1;
+                while (end < length &&
+                        (Character.isLetterOrDigit(statement.charAt(end)) ||
+                                statement.charAt(end) == '_')) {
+                    end++;
+                }
+            } else if (c == '\'' || c == '"') {
+                end = endOfQuoted(statement, i, c);
+            } else if (c == '$' && statement.startsWith("$$", i)) {
+                final int close = statement.indexOf("$$", i + 2);
+                end = close < 0 ? length : close + 2;
+            } else {
+                end = i + 1;
+            }
+            tokens.add(statement.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static boolean isKeyword(final List<String> tokens,
+                                     final int index,
+                                     final String keyword) {
+        return index < tokens.size() &&
+                tokens.get(index).equalsIgnoreCase(keyword);
+    }
+
+    /**
+     * Normalizes an identifier, unquoted identifiers are case insensitive.
+     */
+    private static String identifier(final String token) {
+        return token.startsWith("\"") ?
+                token : token.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Gets the keyspace of the possibly qualified name at index.
+     */
+    private static String keyspaceOf(final List<String> tokens,
+                                     final int index) {
+        return index + 2 < tokens.size() && ".".equals(tokens.get(index + 1)) ?
+                identifier(tokens.get(index)) : "";
+    }
+
+    /**
+     * Classifies a statement into the stage it runs in.
+     *
+     * @param cql A statement of the schema.
+     * @return The statement with its stage and keyspace.
+     */
+    public static Statement classify(final String cql) {
+        final List<String> tokens = tokenize(cql);
+        if (!isKeyword(tokens, 0, "CREATE")) {
+            return new Statement(Stage.OTHER, "", cql);
+        }
+        int i = 1;
+        if (isKeyword(tokens, i, "OR") && isKeyword(tokens, i + 1, "REPLACE")) {
+            i += 2;
+        }
+        if (isKeyword(tokens, i, "CUSTOM") ||
+                isKeyword(tokens, i, "MATERIALIZED")) {
+            i++;
+        }
+        if (i >= tokens.size()) {
+            return new Statement(Stage.OTHER, "", cql);
+        }
+        final String kind = tokens.get(i++).toUpperCase(Locale.ENGLISH);
+        if (isKeyword(tokens, i, "IF") && isKeyword(tokens, i + 1, "NOT") &&
+                isKeyword(tokens, i + 2, "EXISTS")) {
+            i += 3;
+        }
+        switch (kind) {
+            case "KEYSPACE":
+            case "SCHEMA":
+                return new Statement(Stage.KEYSPACE,
+                        i < tokens.size() ? identifier(tokens.get(i)) : "",
+                        cql);
+            case "TYPE":
+                return new Statement(Stage.TYPE, keyspaceOf(tokens, i), cql);
+            case "FUNCTION":
+                return new Statement(Stage.FUNCTION, keyspaceOf(tokens, i), cql);
+            case "AGGREGATE":
+                return new Statement(Stage.AGGREGATE, keyspaceOf(tokens, i), cql);
+            case "TABLE":
+            case "COLUMNFAMILY":
+                return new Statement(Stage.TABLE, keyspaceOf(tokens, i), cql);
+            case "VIEW":
+                return new Statement(Stage.VIEW, keyspaceOf(tokens, i), cql);
+            case "INDEX":
+                // The index name is optional, the keyspace is the one of the
+                // table the index is on.
+                for (int on = i; on < tokens.size(); on++) {
+                    if (isKeyword(tokens, on, "ON")) {
+                        return new Statement(Stage.INDEX,
+                                keyspaceOf(tokens, on + 1), cql);
+                    }
+                }
+                return new Statement(Stage.INDEX, "", cql);
+            default:
+                return new Statement(Stage.OTHER, keyspaceOf(tokens, i), cql);
+        }
+    }
+
+    /**
+     * Plans the restore of a schema.
+     *
+     * @param script The CQL script of the schema.
+     * @return The chains of statements of each stage in the order the stages
+     * run. The chains of a stage are independent and can run concurrently,
+     * the statements of a chain run in order.
+     */
+    public static Map<Stage, List<List<Statement>>> plan(final String script) {
+        final Map<Stage, Map<String, List<Statement>>> sequential =
+                new EnumMap<>(Stage.class);
+        final Map<Stage, List<List<Statement>>> plan =
+                new EnumMap<>(Stage.class);
+        for (String cql : split(script)) {
+            final Statement statement = classify(cql);
+            final Stage stage = statement.getStage();
+            final List<List<Statement>> chains =
+                    plan.computeIfAbsent(stage, key -> new ArrayList<>());
+            if (stage == Stage.TYPE || stage == Stage.OTHER) {
+                // Types run in order per keyspace, unknown statements run in
+                // the order of the script.
+                final String key = stage == Stage.TYPE ?
+                        statement.getKeyspace() : "";
+                final Map<String, List<Statement>> byKey =
+                        sequential.computeIfAbsent(stage,
+                                value -> new LinkedHashMap<>());
+                List<Statement> chain = byKey.get(key);
+                if (chain == null) {
+                    chain = new ArrayList<>();
+                    byKey.put(key, chain);
+                    chains.add(chain);
+                }
+                chain.add(statement);
+            } else {
+                chains.add(Collections.singletonList(statement));
+            }
+        }
+        return plan;
+    }
+
+    private final Connection connection;
+    private final int parallelism;
+    private final long agreementTimeoutMs;
+
+    /**
+     * Constructs a new SchemaRestorer.
+     *
+     * @param connection         The connection on which the schema is
+     *                           restored.
+     * @param parallelism        The maximum number of statements in flight.
+     * @param agreementTimeoutMs The maximum time to wait for schema agreement
+     *                           at the end of a stage.
+     */
+    public SchemaRestorer(final Connection connection,
+                          final int parallelism,
+                          final long agreementTimeoutMs) {
+        this.connection = connection;
+        this.parallelism = Math.max(1, parallelism);
+        this.agreementTimeoutMs = agreementTimeoutMs;
+    }
+
+    public SchemaRestorer(final Connection connection) {
+        this(connection, DEFAULT_PARALLELISM, DEFAULT_AGREEMENT_TIMEOUT_MS);
+    }
+
+    /**
+     * Restores a schema.
+     *
+     * @param script The CQL script of the schema.
+     * @return The outcome of the restore.
+     * @throws Exception If a statement failed for another reason than the
+     *                   object already existing. The restore stops at the end
+     *                   of the stage of the failed statement.
+     */
+    public Result restore(final String script) throws Exception {
+        final Map<Stage, List<List<Statement>>> plan = plan(script);
+        final AtomicInteger applied = new AtomicInteger();
+        final AtomicInteger existing = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                parallelism);
+        try {
+            for (Map.Entry<Stage, List<List<Statement>>> stage :
+                    plan.entrySet()) {
+                LOGGER.info("Restoring schema stage: {}, {} statements",
+                        stage.getKey(),
+                        stage.getValue().stream().mapToInt(List::size).sum());
+                final List<Future<Void>> futures = new ArrayList<>();
+                for (List<Statement> chain : stage.getValue()) {
+                    futures.add(executor.submit(() -> {
+                        for (Statement statement : chain) {
+                            if (connection.execute(statement.getCql())) {
+                                applied.incrementAndGet();
+                            } else {
+                                LOGGER.info("Schema already exists: {}",
+                                        statement.getCql());
+                                existing.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                Exception failure = null;
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause() instanceof Exception ?
+                                    (Exception) e.getCause() :
+                                    new IOException(e.getCause());
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                awaitSchemaAgreement(stage.getKey());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(applied.get(), existing.get(), plan.size());
+    }
+
+    private void awaitSchemaAgreement(final Stage stage)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + agreementTimeoutMs;
+        while (!connection.checkSchemaAgreement()) {
+            if (System.currentTimeMillis() >= deadline) {
+                LOGGER.warn("Schema did not agree within {} ms after stage: " +
+                        "{}, continuing", agreementTimeoutMs, stage);
+                return;
+            }
+            Thread.sleep(AGREEMENT_POLL_MS);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * SnapshotFileInputStream reads a snapshot file with large sequential
+ * FileChannel reads and drops the pages it has read from the page cache, so
+ * that uploading a backup does not evict the working set of the Cassandra
+ * daemon. Snapshot files are hard links to live SSTables, so pages that were
+ * already cached before they were read are left in the cache. When native IO
+ * is not available the file is read normally.
+ *
+ * O_DIRECT is not used as FileChannel can not open files with it on Java 8
+ * and it would require page aligned buffers for every read.
+ */
+class SnapshotFileInputStream extends InputStream {
+
+    /**
+     * The size of the reads from the file.
+     */
+    static final int DEFAULT_READ_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The number of reads covered by a sample of the residency of the file.
+     * A window must be larger than the read ahead of the kernel, as it is
+     * sampled one window ahead of the reads.
+     */
+    private static final int READS_PER_WINDOW = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int fd;
+    private final long window;
+    private long windowStart = 0;
+    private byte[] residency;
+    private byte[] nextResidency;
+    private long position = 0;
+    private boolean eof = false;
+
+    /**
+     * Opens a snapshot file.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file can not be opened.
+     */
+    SnapshotFileInputStream(final File file) throws IOException {
+        this(file, DEFAULT_READ_SIZE);
+    }
+
+    /**
+     * Opens a snapshot file.
+     *
+     * @param file     The file to read.
+     * @param readSize The size of the reads from the file. It is rounded up
+     *                 to a multiple of the page size.
+     * @throws IOException If the file can not be opened.
+     */
+    SnapshotFileInputStream(final File file, final int readSize)
+            throws IOException {
+        final int pageSize = NativeIO.pageSize();
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(
+                ((Math.max(readSize, 1) + pageSize - 1) / pageSize) * pageSize);
+        this.buffer.limit(0);
+        this.window = (long) buffer.capacity() * READS_PER_WINDOW;
+        this.fd = NativeIO.openFile(file.toPath());
+        this.residency = NativeIO.residency(fd, 0, window);
+        this.nextResidency = NativeIO.residency(fd, window, window);
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        final long start = position;
+        if (start >= windowStart + window) {
+            // The residency of a window is sampled before the preceding
+            // window is read, as the read ahead of the kernel pulls the
+            // pages that follow a read into the cache.
+            windowStart += window;
+            residency = nextResidency;
+            nextResidency = NativeIO.residency(fd, windowStart + window,
+                    window);
+        }
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                eof = true;
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+        dropCache(start, position);
+        return buffer.hasRemaining();
+    }
+
+    private void dropCache(final long start, final long end) {
+        if (fd == NativeIO.INVALID_FD || end <= start) {
+            return;
+        }
+        if (residency == null) {
+            NativeIO.dropCache(fd, start, end - start);
+            return;
+        }
+        // Drop each run of pages that was not cached before the read.
+        final long pageSize = NativeIO.pageSize();
+        final int first = (int) ((start - windowStart) / pageSize);
+        final int last = (int) Math.min(residency.length,
+                (end - windowStart + pageSize - 1) / pageSize);
+        int run = -1;
+        for (int page = first; page <= last; page++) {
+            final boolean cold = page < last && (residency[page] & 1) == 0;
+            if (cold && run < 0) {
+                run = page;
+            } else if (!cold && run >= 0) {
+                final long offset = windowStart + run * pageSize;
+                NativeIO.dropCache(fd, offset,
+                        Math.min(end, windowStart + page * pageSize) - offset);
+                run = -1;
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        final int read = Math.min(len, buffer.remaining());
+        buffer.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            NativeIO.closeFile(fd);
+        }
+    }
+}
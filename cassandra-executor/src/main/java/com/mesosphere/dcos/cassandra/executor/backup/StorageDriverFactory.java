@@ -1,29 +1,42 @@
 package com.mesosphere.dcos.cassandra.executor.backup;
 
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupPruneTask;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupSchemaTask;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupUploadTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupTask;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.DownloadSnapshotTask;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.RestoreSchemaTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.VerifyBackupTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Selects the storage driver for uploading and downloading.  The external location should start
- * with "s3://xyz" or "azure://xyz".  The default is S3.
+ * with "s3://xyz", "azure://xyz" or "file:///xyz".  The default is S3.
  */
 public class StorageDriverFactory {
   private static final Logger LOGGER = LoggerFactory.getLogger(StorageDriverFactory.class);
 
-  public static BackupStorageDriver createStorageDriver(CassandraTask cassandraTask) {
+  public static BackupStorageDriver createStorageDriver(CassandraTask cassandraTask,
+                                                        TransferThrottle throttle) {
     String externalLocation = null;
     switch (cassandraTask.getType()) {
-      case BACKUP_SNAPSHOT:
+      case BACKUP_UPLOAD:
         externalLocation = ((BackupUploadTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
         break;
       case BACKUP_SCHEMA:
         externalLocation = ((BackupSchemaTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
         break;
+    case BACKUP_PRUNE:
+        externalLocation = ((BackupPruneTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
+        break;
+    case VERIFY_BACKUP:
+        externalLocation = ((VerifyBackupTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
+        break;
+    case COPY_BACKUP:
+        externalLocation = ((CopyBackupTask)cassandraTask).getCopyBackupContext().getSource().getExternalLocation();
+        break;
     case SCHEMA_RESTORE:
         externalLocation = ((RestoreSchemaTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
         break;
@@ -31,16 +44,20 @@ public class StorageDriverFactory {
         externalLocation = ((DownloadSnapshotTask)cassandraTask).getBackupRestoreContext().getExternalLocation();
         break;
     }
-    return getBackupStorageDriver(externalLocation);
+    return getBackupStorageDriver(externalLocation, throttle);
   }
 
-  private static BackupStorageDriver getBackupStorageDriver(String externalLocation) {
+  private static BackupStorageDriver getBackupStorageDriver(String externalLocation,
+                                                            TransferThrottle throttle) {
     if (StorageUtil.isAzure(externalLocation)) {
       LOGGER.info("Using the Azure Driver.");
-      return new AzureStorageDriver();
+      return new AzureStorageDriver(throttle);
+    } else if (StorageUtil.isFile(externalLocation)) {
+      LOGGER.info("Using the File Driver.");
+      return new FileStorageDriver(throttle);
     } else {
       LOGGER.info("Using the S3 Driver.");
-      return new S3StorageDriver();
+      return new S3StorageDriver(throttle);
     }
   }
 }
@@ -2,13 +2,16 @@ package com.mesosphere.dcos.cassandra.executor.backup;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -60,11 +63,47 @@ public final class StorageUtil {
     return Optional.of(validSnapshot);
   }
 
+  /**
+   * Lists the table directories that the snapshot files of a restore are downloaded to. Tables of
+   * a "new" restore are staged under <local>/<backup>/<node>, tables of an "existing" restore are
+   * downloaded into the table directories of the node.
+   */
+  static List<File> getDownloadedTables(BackupRestoreContext ctx) {
+    final File root;
+    if (Objects.equals(ctx.getRestoreType(), "new")) {
+      root = new File(ctx.getLocalLocation() + File.separator + ctx.getName() +
+        File.separator + ctx.getNodeId());
+    } else {
+      root = new File(ctx.getLocalLocation());
+    }
+    final List<File> tables = new ArrayList<>();
+    final File[] keyspaces = root.listFiles(File::isDirectory);
+    if (keyspaces == null) {
+      return tables;
+    }
+    for (File keyspace : keyspaces) {
+      if (SKIP_KEYSPACES.contains(keyspace.getName())) {
+        continue;
+      }
+      final File[] columnFamilies = keyspace.listFiles(File::isDirectory);
+      if (columnFamilies != null) {
+        for (File columnFamily : columnFamilies) {
+          tables.add(columnFamily);
+        }
+      }
+    }
+    return tables;
+  }
+
   static boolean isAzure(String externalLocation) {
     // default to s3 (backward compatible)
     return StringUtils.isNotEmpty(externalLocation) && externalLocation.startsWith("azure:");
   }
 
+  static boolean isFile(String externalLocation) {
+    return StringUtils.isNotEmpty(externalLocation) && externalLocation.startsWith("file:");
+  }
+
   public static List<String> filterSystemKeyspaces(List<String> keyspaces) {
     return keyspaces.stream()
             .filter(k -> !SKIP_SYSTEM_KEYSPACES.contains(k))
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.codahale.metrics.Meter;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * TransferThrottle limits the bandwidth and the number of concurrent file
+ * transfers used by the BackupStorageDrivers of an executor. A single
+ * instance is shared by all uploads and downloads on the node, and its
+ * limits may be changed while transfers are in progress. The limits of a
+ * backup or restore are applied once, when its transfer task is launched, so
+ * limits set at runtime through BackupThrottleController take precedence
+ * over them until the next transfer task is launched. Every byte that
+ * passes through the throttle is recorded by the bytes transferred Meter.
+ * <p>
+ * The bandwidth limit is a token bucket. A transfer proceeds at once when
+ * the bytes before it have been paid for, and the bytes it transfers delay
+ * the transfers after it. Up to a second of unused bandwidth is stored, so
+ * that a transfer that resumes after a pause may burst.
+ */
+public class TransferThrottle {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TransferThrottle.class);
+
+    /**
+     * The name of the Meter that records the bytes transferred.
+     */
+    public static final String BYTES_TRANSFERRED_METER =
+            "backup.bytes-transferred";
+
+    /**
+     * The number of files transferred concurrently when no limit is
+     * configured.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_FILES = 10;
+
+    /**
+     * The unused bandwidth that may be stored for a burst.
+     */
+    static final long MAX_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Sleeps the calling thread.
+     */
+    interface Sleeper {
+        void sleep(long ms) throws InterruptedException;
+    }
+
+    private static final class AdjustableSemaphore extends Semaphore {
+
+        private int permits;
+
+        private AdjustableSemaphore(final int permits) {
+            super(permits, true);
+            this.permits = permits;
+        }
+
+        private synchronized void setPermits(final int permits) {
+            final int delta = permits - this.permits;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+            this.permits = permits;
+        }
+    }
+
+    private final class ThrottledInputStream extends FilterInputStream {
+
+        private ThrottledInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                acquireBytes(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                acquireBytes(read);
+            }
+            return read;
+        }
+    }
+
+    private final class ThrottledOutputStream extends FilterOutputStream {
+
+        private ThrottledOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            acquireBytes(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            acquireBytes(len);
+            out.write(b, off, len);
+        }
+    }
+
+    private final Meter bytesTransferred = new Meter();
+    private final AdjustableSemaphore files =
+            new AdjustableSemaphore(DEFAULT_MAX_CONCURRENT_FILES);
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+    private volatile long maxBytesPerSecond = BackupRestoreContext.UNLIMITED;
+    private volatile int maxConcurrentFiles = BackupRestoreContext.UNLIMITED;
+    private long nextFreeNanos;
+
+    TransferThrottle(final LongSupplier clock, final Sleeper sleeper) {
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.nextFreeNanos = clock.getAsLong();
+    }
+
+    /**
+     * Constructs a new TransferThrottle without limits.
+     */
+    public TransferThrottle() {
+        this(System::nanoTime, TimeUnit.MILLISECONDS::sleep);
+    }
+
+    /**
+     * Applies the limits requested for a backup or restore, replacing any
+     * limits set before. It is called once when the task that transfers the
+     * files of the backup or restore is launched.
+     *
+     * @param context The context of the backup or restore.
+     */
+    public void configure(final BackupRestoreContext context) {
+        setMaxBytesPerSecond(context.getMaxBytesPerSecond());
+        setMaxConcurrentFiles(context.getMaxConcurrentFiles());
+    }
+
+    /**
+     * Gets the bandwidth limit.
+     *
+     * @return The maximum number of bytes transferred per second, or
+     * UNLIMITED.
+     */
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * Sets the bandwidth limit. The new limit applies to transfers that are
+     * already in progress.
+     *
+     * @param maxBytesPerSecond The maximum number of bytes transferred per
+     *                          second, or UNLIMITED.
+     */
+    public synchronized void setMaxBytesPerSecond(
+            final long maxBytesPerSecond) {
+        if (maxBytesPerSecond < 0) {
+            throw new IllegalArgumentException(
+                    "maxBytesPerSecond must not be negative: " +
+                            maxBytesPerSecond);
+        }
+        if (this.maxBytesPerSecond == BackupRestoreContext.UNLIMITED) {
+            // Bytes transferred without a limit are not paid for.
+            nextFreeNanos = clock.getAsLong();
+        }
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        LOGGER.info("Set backup transfer bandwidth limit: bytes/s = {}",
+                maxBytesPerSecond);
+    }
+
+    /**
+     * Gets the concurrent file limit.
+     *
+     * @return The maximum number of files transferred concurrently, or
+     * UNLIMITED if the default of DEFAULT_MAX_CONCURRENT_FILES applies.
+     */
+    public int getMaxConcurrentFiles() {
+        return maxConcurrentFiles;
+    }
+
+    /**
+     * Sets the concurrent file limit. Lowering the limit does not interrupt
+     * transfers that are in progress, but no new transfer starts until the
+     * number of active transfers is below the new limit.
+     *
+     * @param maxConcurrentFiles The maximum number of files transferred
+     *                           concurrently, or UNLIMITED to use
+     *                           DEFAULT_MAX_CONCURRENT_FILES.
+     */
+    public synchronized void setMaxConcurrentFiles(
+            final int maxConcurrentFiles) {
+        if (maxConcurrentFiles < 0) {
+            throw new IllegalArgumentException(
+                    "maxConcurrentFiles must not be negative: " +
+                            maxConcurrentFiles);
+        }
+        files.setPermits(
+                maxConcurrentFiles == BackupRestoreContext.UNLIMITED ?
+                        DEFAULT_MAX_CONCURRENT_FILES : maxConcurrentFiles);
+        this.maxConcurrentFiles = maxConcurrentFiles;
+        LOGGER.info("Set backup concurrent file limit: files = {}",
+                maxConcurrentFiles);
+    }
+
+    /**
+     * Gets the Meter that records the bytes transferred through the
+     * throttle.
+     *
+     * @return The bytes transferred Meter.
+     */
+    public Meter getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Reserves the bandwidth of a transfer.
+     *
+     * @param bytes The number of bytes that will be transferred.
+     * @return The time in milliseconds the transfer must wait for the bytes
+     * before it to be paid for.
+     */
+    private synchronized long reserve(final int bytes) {
+        final long limit = maxBytesPerSecond;
+        if (limit == BackupRestoreContext.UNLIMITED) {
+            return 0;
+        }
+        final long now = clock.getAsLong();
+        nextFreeNanos = Math.max(nextFreeNanos, now - MAX_BURST_NANOS);
+        final long waitNanos = Math.max(0, nextFreeNanos - now);
+        nextFreeNanos += (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) /
+                limit);
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    /**
+     * Blocks until the transfer of bytes is permitted by the bandwidth limit
+     * and records them as transferred.
+     *
+     * @param bytes The number of bytes that will be transferred.
+     * @throws InterruptedIOException If the thread is interrupted while
+     *                                waiting, its interrupt status is
+     *                                restored.
+     */
+    public void acquireBytes(final int bytes) throws InterruptedIOException {
+        if (bytes <= 0) {
+            return;
+        }
+        if (maxBytesPerSecond != BackupRestoreContext.UNLIMITED) {
+            final long waitMs = reserve(bytes);
+            if (waitMs > 0) {
+                try {
+                    sleeper.sleep(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            "Interrupted while waiting for bandwidth");
+                }
+            }
+        }
+        bytesTransferred.mark(bytes);
+    }
+
+    /**
+     * Blocks until a file transfer may start. Each successful call must be
+     * followed by a call to releaseFile when the transfer completes.
+     *
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting.
+     */
+    public void acquireFile() throws InterruptedException {
+        files.acquire();
+    }
+
+    /**
+     * Releases a file transfer acquired by acquireFile.
+     */
+    public void releaseFile() {
+        files.release();
+    }
+
+    /**
+     * Wraps an InputStream so that reads are limited by the throttle.
+     *
+     * @param in The InputStream to throttle.
+     * @return An InputStream that reads from in subject to the bandwidth
+     * limit.
+     */
+    public InputStream throttle(final InputStream in) {
+        return new ThrottledInputStream(in);
+    }
+
+    /**
+     * Wraps an OutputStream so that writes are limited by the throttle.
+     *
+     * @param out The OutputStream to throttle.
+     * @return An OutputStream that writes to out subject to the bandwidth
+     * limit.
+     */
+    public OutputStream throttle(final OutputStream out) {
+        return new ThrottledOutputStream(out);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.codahale.metrics.Meter;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * TransferTracker records the progress of the upload or download of the
+ * files of a backup by a BackupStorageDriver. Each driver has its own
+ * tracker, unlike the TransferThrottle that is shared by all drivers of the
+ * executor. The totals grow as the driver discovers the files to transfer.
+ * Files that do not need to be transferred, because they are already stored
+ * or can be linked, count as done but do not count towards the rate.
+ */
+public class TransferTracker {
+
+    private final class TrackedInputStream extends FilterInputStream {
+
+        private TrackedInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                addBytes(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                addBytes(read);
+            }
+            return read;
+        }
+    }
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong totalFiles = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Meter rate = new Meter();
+
+    /**
+     * Adds files to the transfer.
+     *
+     * @param files The number of files.
+     * @param bytes The size of the files in bytes.
+     */
+    public void addTotal(final long files, final long bytes) {
+        totalFiles.addAndGet(files);
+        totalBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Adds the regular files of a directory and its subdirectories to the
+     * transfer.
+     *
+     * @param directory The directory.
+     * @throws IOException If the directory can not be read.
+     */
+    public void addDirectory(final Path directory) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            paths = stream.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        long size = 0;
+        for (Path path : paths) {
+            size += Files.size(path);
+        }
+        addTotal(paths.size(), size);
+    }
+
+    /**
+     * Records transferred bytes.
+     *
+     * @param bytes The number of bytes transferred.
+     */
+    public void addBytes(final long bytes) {
+        if (bytes > 0) {
+            this.bytes.addAndGet(bytes);
+            rate.mark(bytes);
+        }
+    }
+
+    /**
+     * Records that the transfer of a file completed.
+     */
+    public void completeFile() {
+        files.incrementAndGet();
+    }
+
+    /**
+     * Records bytes that did not need to be transferred, such as the bytes
+     * of a file that was linked rather than copied.
+     *
+     * @param bytes The number of bytes.
+     */
+    public void skipBytes(final long bytes) {
+        this.bytes.addAndGet(bytes);
+    }
+
+    /**
+     * Records a file that did not need to be transferred.
+     *
+     * @param bytes The size of the file in bytes.
+     */
+    public void skipFile(final long bytes) {
+        skipBytes(bytes);
+        completeFile();
+    }
+
+    /**
+     * Sets the progress of a transfer whose progress is reported as a
+     * whole rather than per file.
+     *
+     * @param files      The number of files transferred.
+     * @param totalFiles The number of files to transfer.
+     * @param bytes      The number of bytes transferred.
+     * @param totalBytes The number of bytes to transfer.
+     */
+    public synchronized void set(final long files,
+                                 final long totalFiles,
+                                 final long bytes,
+                                 final long totalBytes) {
+        this.files.set(files);
+        this.totalFiles.set(totalFiles);
+        this.totalBytes.set(totalBytes);
+        final long delta = bytes - this.bytes.getAndSet(bytes);
+        if (delta > 0) {
+            rate.mark(delta);
+        }
+    }
+
+    /**
+     * Wraps an InputStream so that the bytes read from it are recorded as
+     * transferred.
+     *
+     * @param in The InputStream to track.
+     * @return An InputStream that reads from in.
+     */
+    public InputStream track(final InputStream in) {
+        return new TrackedInputStream(in);
+    }
+
+    /**
+     * Gets the progress of the transfer.
+     *
+     * @return The progress of the transfer, whose rate is the one minute
+     * moving average of the bytes transferred, or the mean rate during the
+     * first minute.
+     */
+    public TransferProgress getProgress() {
+        final double oneMinuteRate = rate.getOneMinuteRate();
+        return TransferProgress.create(files.get(),
+                totalFiles.get(),
+                bytes.get(),
+                totalBytes.get(),
+                oneMinuteRate > 0 ? oneMinuteRate : rate.getMeanRate());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.cleanup;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelCleanup cleans several key spaces of a node at a time. Cleanup
+ * rewrites the SSTables of a key space, which may need up to the size of the
+ * key space in free space, so a key space only starts while the free space
+ * of the data volume covers its size and the size of the key spaces being
+ * cleaned. A key space that does not fit waits for the others to complete,
+ * and is cleaned alone if it does not fit at all, as a sequential cleanup
+ * would.
+ */
+public class ParallelCleanup {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ParallelCleanup.class);
+
+    /**
+     * Cleans a key space.
+     */
+    public interface Cleaner {
+        void cleanup(String keySpace) throws Exception;
+    }
+
+    private final Map<String, Long> sizes;
+    private final long freeBytes;
+    private final List<String> completed = new ArrayList<>();
+    private long reservedBytes = 0;
+    private int running = 0;
+
+    /**
+     * Constructs a new ParallelCleanup.
+     *
+     * @param sizes     The bytes used by each key space to clean, in the
+     *                  order they are cleaned.
+     * @param freeBytes The free space of the data volume.
+     */
+    public ParallelCleanup(final Map<String, Long> sizes,
+                           final long freeBytes) {
+        this.sizes = new LinkedHashMap<>(sizes);
+        this.freeBytes = freeBytes;
+    }
+
+    private synchronized void acquire(final String keySpace)
+            throws InterruptedException {
+        final long size = sizes.get(keySpace);
+        while (running > 0 && reservedBytes + size > freeBytes) {
+            LOGGER.info("Waiting for free space to clean {}: size = {}, " +
+                            "reserved = {}, free = {}",
+                    keySpace, size, reservedBytes, freeBytes);
+            wait();
+        }
+        running++;
+        reservedBytes += size;
+    }
+
+    private synchronized void release(final String keySpace,
+                                      final boolean success) {
+        running--;
+        reservedBytes -= sizes.get(keySpace);
+        if (success) {
+            completed.add(keySpace);
+        }
+        notifyAll();
+    }
+
+    /**
+     * @return The key spaces that were cleaned in the order they completed.
+     */
+    public synchronized List<String> getCompleted() {
+        return new ArrayList<>(completed);
+    }
+
+    /**
+     * Cleans the key spaces. The cleanup stops at the first key space that
+     * fails, the key spaces being cleaned are interrupted.
+     *
+     * @param name              The name of the threads of the cleanup.
+     * @param cleaner           Cleans a key space.
+     * @param parallelKeySpaces The number of key spaces cleaned at a time.
+     * @param reportIntervalMs  The interval between two calls of reporter
+     *                          while key spaces are being cleaned.
+     * @param reporter          Reports the progress of the cleanup.
+     * @throws Exception If a key space fails to clean or the cleanup is
+     *                   interrupted.
+     */
+    public void run(final String name,
+                    final Cleaner cleaner,
+                    final int parallelKeySpaces,
+                    final long reportIntervalMs,
+                    final Runnable reporter) throws Exception {
+        if (sizes.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelKeySpaces, sizes.size())),
+                new ThreadFactoryBuilder()
+                        .setNameFormat(name + "-%d")
+                        .setDaemon(true)
+                        .build());
+        try {
+            final CompletionService<String> completion =
+                    new ExecutorCompletionService<>(executor);
+            for (String keySpace : sizes.keySet()) {
+                completion.submit(() -> {
+                    acquire(keySpace);
+                    boolean success = false;
+                    try {
+                        LOGGER.info("Starting cleanup: keySpace = {}",
+                                keySpace);
+                        cleaner.cleanup(keySpace);
+                        LOGGER.info("Completed cleanup: keySpace = {}",
+                                keySpace);
+                        success = true;
+                    } finally {
+                        release(keySpace, success);
+                    }
+                    return keySpace;
+                });
+            }
+            int remaining = sizes.size();
+            while (remaining > 0) {
+                final Future<String> done = completion.poll(reportIntervalMs,
+                        TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    reporter.run();
+                    continue;
+                }
+                try {
+                    done.get();
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof Exception ?
+                            (Exception) ex.getCause() :
+                            ex;
+                }
+                remaining--;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
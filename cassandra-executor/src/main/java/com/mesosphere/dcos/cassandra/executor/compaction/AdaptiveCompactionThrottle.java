@@ -0,0 +1,493 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.compaction;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+import com.mesosphere.dcos.cassandra.executor.metrics.NodeLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * AdaptiveCompactionThrottle moves the compaction throughput of the node,
+ * and optionally its number of concurrent compactors, within the bounds set
+ * by the operator. Every interval it reads the pending compactions and the
+ * 99th percentile latency of client reads and writes of the node and the
+ * utilization of its data disk:
+ * <ul>
+ * <li>While the latency or the disk utilization exceeds its limit, the
+ * throughput is halved and a compactor is removed, so that compaction
+ * yields quickly to client requests at peak.</li>
+ * <li>Otherwise, while the pending compactions exceed their target, the
+ * throughput is raised by a step and, once it is at its maximum, a
+ * compactor is added, so that the compaction debt is paid down off-peak.
+ * </li>
+ * <li>Otherwise the throughput is lowered by a step and a compactor is
+ * removed, down to their minimums.</li>
+ * </ul>
+ * The throughput is read from the node on every adjustment. When it was
+ * changed outside the throttle, e.g. by a configuration update, the throttle
+ * adjusts from the new throughput and restores it when it is disabled. While
+ * a task overrides the throughput, e.g. a cleanup, the throttle yields to it.
+ * <p>
+ * The bounds are persisted on the volume of the node, so that the throttle
+ * keeps running when the executor restarts. When the throttle is disabled,
+ * the throughput and compactors it found when it started are restored,
+ * unless the throughput was changed outside the throttle since.
+ */
+public class AdaptiveCompactionThrottle implements Runnable {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AdaptiveCompactionThrottle.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final long INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
+
+    public static final String BOUNDS_FILE = "compaction-throttle.json";
+
+    /**
+     * The number of steps between the minimum and maximum throughputs.
+     */
+    static final int STEPS = 8;
+
+    /**
+     * Reads and changes the compaction settings of the node.
+     */
+    public interface Compactor {
+        int getThroughput() throws IOException;
+
+        void setThroughput(int mbPerSec) throws IOException;
+
+        int getConcurrentCompactors() throws IOException;
+
+        void setConcurrentCompactors(int compactors) throws IOException;
+    }
+
+    /**
+     * The bounds of the throttle with the settings it applied last.
+     */
+    public static final class State {
+        @JsonProperty("bounds")
+        private final CompactionBounds bounds;
+        @JsonProperty("throughput_mb_per_sec")
+        private final Integer throughputMbPerSec;
+        @JsonProperty("concurrent_compactors")
+        private final Integer concurrentCompactors;
+        @JsonProperty("reason")
+        private final String reason;
+        @JsonProperty("adjusted_ms")
+        private final long adjustedMs;
+
+        private State(final CompactionBounds bounds,
+                      final Integer throughputMbPerSec,
+                      final Integer concurrentCompactors,
+                      final String reason,
+                      final long adjustedMs) {
+            this.bounds = bounds;
+            this.throughputMbPerSec = throughputMbPerSec;
+            this.concurrentCompactors = concurrentCompactors;
+            this.reason = reason;
+            this.adjustedMs = adjustedMs;
+        }
+
+        public CompactionBounds getBounds() {
+            return bounds;
+        }
+
+        /**
+         * @return The throughput set by the throttle, or null if it has not
+         * run since it was enabled.
+         */
+        public Integer getThroughputMbPerSec() {
+            return throughputMbPerSec;
+        }
+
+        /**
+         * @return The compactors set by the throttle, or null if it does
+         * not change them.
+         */
+        public Integer getConcurrentCompactors() {
+            return concurrentCompactors;
+        }
+
+        /**
+         * @return The reason of the last adjustment.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        public long getAdjustedMs() {
+            return adjustedMs;
+        }
+
+        @Override
+        public String toString() {
+            return JsonUtils.toJsonString(this);
+        }
+    }
+
+    private final Supplier<Optional<NodeMetrics>> metrics;
+    private final Supplier<OptionalDouble> diskUtilization;
+    private final Compactor compactor;
+    private final ScheduledExecutorService executor;
+    private final Path boundsFile;
+    private CompactionBounds bounds = CompactionBounds.DISABLED;
+    private ScheduledFuture<?> future = null;
+    private Integer originalThroughput = null;
+    private Integer originalCompactors = null;
+    private Integer throughput = null;
+    private Integer applied = null;
+    private Integer compactors = null;
+    private int overrides = 0;
+    private Integer overridden = null;
+    private boolean compactorsSupported = true;
+    private String reason = null;
+    private long adjustedMs = 0;
+
+    /**
+     * Constructs a new AdaptiveCompactionThrottle and starts it if the
+     * persisted bounds enable it.
+     *
+     * @param metrics         Supplies the latest metrics of the node, or
+     *                        empty if they are not known.
+     * @param diskUtilization Supplies the utilization of the data disk in
+     *                        percent since the previous call, or empty if it
+     *                        is not known.
+     * @param compactor       Changes the compaction settings of the node.
+     * @param executor        The executor on which the throttle runs.
+     * @param boundsFile      The file in which the bounds are persisted.
+     */
+    public AdaptiveCompactionThrottle(
+            final Supplier<Optional<NodeMetrics>> metrics,
+            final Supplier<OptionalDouble> diskUtilization,
+            final Compactor compactor,
+            final ScheduledExecutorService executor,
+            final Path boundsFile) {
+        this.metrics = metrics;
+        this.diskUtilization = diskUtilization;
+        this.compactor = compactor;
+        this.executor = executor;
+        this.boundsFile = boundsFile;
+        if (Files.exists(boundsFile)) {
+            try {
+                bounds = MAPPER.readValue(boundsFile.toFile(),
+                        CompactionBounds.class);
+                LOGGER.info("Loaded compaction throttle bounds: {}", bounds);
+            } catch (IOException ex) {
+                LOGGER.error("Failed to load compaction throttle bounds", ex);
+            }
+        }
+        if (bounds.isEnabled()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (future == null) {
+            future = executor.scheduleWithFixedDelay(this,
+                    INTERVAL_MS,
+                    INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancel() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    /**
+     * @return The bounds of the throttle with the settings it applied last.
+     */
+    public synchronized State getState() {
+        return new State(bounds, throughput, compactors, reason, adjustedMs);
+    }
+
+    /**
+     * Updates the bounds of the throttle. The new bounds apply from the next
+     * adjustment. If they disable the throttle, the settings of the node
+     * are restored.
+     *
+     * @param updated The new bounds.
+     * @return The state of the throttle.
+     * @throws IOException If the bounds could not be persisted or the
+     *                     settings of the node could not be restored.
+     */
+    public synchronized State setBounds(final CompactionBounds updated)
+            throws IOException {
+        LOGGER.info("Updating compaction throttle bounds: {}", updated);
+        Files.write(boundsFile, MAPPER.writeValueAsBytes(updated));
+        bounds = updated;
+        if (bounds.isEnabled()) {
+            schedule();
+        } else {
+            cancel();
+            restore();
+        }
+        return getState();
+    }
+
+    private void restore() throws IOException {
+        if (originalThroughput != null) {
+            if (overrides > 0) {
+                LOGGER.info("Restoring compaction throughput of {} MB/s " +
+                        "when it is released", originalThroughput);
+                overridden = originalThroughput;
+            } else {
+                final int live = compactor.getThroughput();
+                if (live == applied) {
+                    LOGGER.info("Restoring compaction throughput: {} MB/s",
+                            originalThroughput);
+                    compactor.setThroughput(originalThroughput);
+                } else {
+                    LOGGER.info("Keeping compaction throughput of {} MB/s " +
+                            "set outside the throttle", live);
+                }
+            }
+        }
+        if (originalCompactors != null) {
+            LOGGER.info("Restoring concurrent compactors: {}",
+                    originalCompactors);
+            compactor.setConcurrentCompactors(originalCompactors);
+        }
+        originalThroughput = null;
+        originalCompactors = null;
+        throughput = null;
+        applied = null;
+        compactors = null;
+        reason = "Disabled";
+        adjustedMs = System.currentTimeMillis();
+    }
+
+    private static int clamp(final int value, final int min, final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Overrides the compaction throughput of the node until it is released.
+     * The throttle does not adjust the throughput while it is overridden.
+     * Overrides may nest, the throughput is released with the last of them.
+     *
+     * @param mbPerSec The throughput in MB/s, 0 for unthrottled.
+     * @throws IOException If communication with the node fails.
+     */
+    public synchronized void override(final int mbPerSec) throws IOException {
+        final int live = compactor.getThroughput();
+        if (overrides == 0) {
+            overridden = live;
+        }
+        LOGGER.info("Overriding compaction throughput from {} to {} MB/s",
+                live, mbPerSec);
+        compactor.setThroughput(mbPerSec);
+        overrides++;
+    }
+
+    /**
+     * Releases an override of the compaction throughput. When the last
+     * override is released, the throughput it found is set again, or the
+     * throughput to restore if the throttle was disabled in the meantime.
+     *
+     * @throws IOException If communication with the node fails.
+     */
+    public synchronized void release() throws IOException {
+        if (overrides == 0 || --overrides > 0) {
+            return;
+        }
+        LOGGER.info("Releasing compaction throughput override, setting {} " +
+                "MB/s", overridden);
+        compactor.setThroughput(overridden);
+        if (throughput != null) {
+            applied = overridden;
+        }
+        overridden = null;
+    }
+
+    /**
+     * Gets the reason compaction should back off.
+     *
+     * @param node        The metrics of the node.
+     * @param utilization The utilization of the data disk.
+     * @return The limit the load of the node exceeds, or empty if it does
+     * not exceed any limit.
+     */
+    Optional<String> getOverload(final NodeMetrics node,
+                                 final OptionalDouble utilization) {
+        final Optional<String> latency =
+                NodeLoad.exceedsLatency(node, bounds.getMaxLatencyMs());
+        if (latency.isPresent()) {
+            return latency;
+        }
+        return NodeLoad.exceedsDiskUtilization(utilization,
+                bounds.getMaxDiskUtilization());
+    }
+
+    private void startFrom(final int live) {
+        originalThroughput = live;
+        applied = live;
+        // A throughput of 0 is unthrottled, the throttle starts from the
+        // top of its range.
+        throughput = live == 0 ? bounds.getMaxThroughputMbPerSec() : live;
+    }
+
+    private void start(final int live) throws IOException {
+        startFrom(live);
+        if (bounds.getMinConcurrentCompactors().isPresent() &&
+                compactorsSupported) {
+            try {
+                originalCompactors = compactor.getConcurrentCompactors();
+                compactors = originalCompactors;
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.warn("Concurrent compactors can not be read, only " +
+                        "the throughput is adjusted: {}", ex.toString());
+                compactorsSupported = false;
+            }
+        }
+    }
+
+    private void setCompactors(final int next) {
+        try {
+            compactor.setConcurrentCompactors(next);
+            compactors = next;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Concurrent compactors can not be set, only the " +
+                    "throughput is adjusted: {}", ex.toString());
+            compactorsSupported = false;
+        }
+    }
+
+    /**
+     * Adjusts the compaction settings of the node to its current load.
+     *
+     * @throws IOException If communication with the node fails.
+     */
+    synchronized void adjust() throws IOException {
+        if (!bounds.isEnabled()) {
+            return;
+        }
+        final Optional<NodeMetrics> current = metrics.get();
+        final OptionalDouble utilization = diskUtilization.get();
+        if (!current.isPresent()) {
+            return;
+        }
+        final int live = compactor.getThroughput();
+        if (overrides > 0) {
+            reason = String.format("Yielding to an explicit compaction " +
+                    "throughput of %d MB/s", live);
+            return;
+        }
+        if (throughput == null) {
+            start(live);
+        } else if (live != applied) {
+            LOGGER.info("Compaction throughput was changed outside the " +
+                    "throttle from {} to {} MB/s, adjusting from it",
+                    applied, live);
+            startFrom(live);
+        }
+        final int min = bounds.getMinThroughputMbPerSec();
+        final int max = bounds.getMaxThroughputMbPerSec();
+        final int step = Math.max(1, (max - min) / STEPS);
+        final int currentThroughput = clamp(throughput, min, max);
+        final boolean adjustCompactors = compactorsSupported &&
+                compactors != null &&
+                bounds.getMinConcurrentCompactors().isPresent();
+        final int minCompactors =
+                bounds.getMinConcurrentCompactors().orElse(0);
+        final int maxCompactors =
+                bounds.getMaxConcurrentCompactors().orElse(0);
+        final int currentCompactors = adjustCompactors ?
+                clamp(compactors, minCompactors, maxCompactors) : 0;
+        final long pending = current.get().getPendingCompactions();
+
+        final int nextThroughput;
+        int nextCompactors = currentCompactors;
+        final Optional<String> overload =
+                getOverload(current.get(), utilization);
+        final String nextReason;
+        if (overload.isPresent()) {
+            nextThroughput = clamp(currentThroughput / 2, min, max);
+            nextCompactors = currentCompactors - 1;
+            nextReason = "Backing off: " + overload.get();
+        } else if (pending > bounds.getTargetPendingCompactions()) {
+            if (currentThroughput < max) {
+                nextThroughput = clamp(currentThroughput + step, min, max);
+            } else {
+                nextThroughput = max;
+                nextCompactors = currentCompactors + 1;
+            }
+            nextReason = String.format("Paying down %d pending compactions",
+                    pending);
+        } else {
+            nextThroughput = clamp(currentThroughput - step, min, max);
+            nextCompactors = currentCompactors - 1;
+            nextReason = String.format("Relaxing with %d pending " +
+                    "compactions", pending);
+        }
+
+        throughput = nextThroughput;
+        if (nextThroughput != live) {
+            LOGGER.info("Setting compaction throughput from {} to {} MB/s: " +
+                    "{}", live, nextThroughput, nextReason);
+            compactor.setThroughput(nextThroughput);
+            applied = nextThroughput;
+            reason = nextReason;
+            adjustedMs = System.currentTimeMillis();
+        }
+        if (adjustCompactors) {
+            nextCompactors = clamp(nextCompactors, minCompactors,
+                    maxCompactors);
+            if (nextCompactors != compactors) {
+                LOGGER.info("Setting concurrent compactors from {} to {}: " +
+                        "{}", compactors, nextCompactors, nextReason);
+                setCompactors(nextCompactors);
+                reason = nextReason;
+                adjustedMs = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Stops the throttle, leaving the settings of the node as they are.
+     */
+    public synchronized void close() {
+        cancel();
+    }
+
+    @Override
+    public void run() {
+        try {
+            adjust();
+        } catch (Throwable t) {
+            // The throttle retries on the next interval, e.g. while the
+            // daemon starts.
+            LOGGER.warn("Failed to adjust compaction: {}", t.toString());
+        }
+    }
+}
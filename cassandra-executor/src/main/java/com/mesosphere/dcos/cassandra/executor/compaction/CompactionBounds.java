@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.compaction;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * CompactionBounds is the operator's configuration of an
+ * AdaptiveCompactionThrottle: whether it runs, the range within which it
+ * moves the compaction throughput and, optionally, the number of concurrent
+ * compactors, and the limits of the load of the node beyond which it backs
+ * off.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CompactionBounds {
+
+    public static final int DEFAULT_MIN_THROUGHPUT_MB_PER_SEC = 8;
+    public static final int DEFAULT_MAX_THROUGHPUT_MB_PER_SEC = 128;
+    public static final long DEFAULT_TARGET_PENDING_COMPACTIONS = 10;
+    public static final int DEFAULT_MAX_DISK_UTILIZATION = 80;
+
+    /**
+     * The bounds of a node whose throttle has never been enabled.
+     */
+    public static final CompactionBounds DISABLED = create(false, null, null,
+            null, null, null, null, null);
+
+    @JsonCreator
+    public static CompactionBounds create(
+            @JsonProperty("enabled") final boolean enabled,
+            @JsonProperty("min_throughput_mb_per_sec") final Integer
+                    minThroughputMbPerSec,
+            @JsonProperty("max_throughput_mb_per_sec") final Integer
+                    maxThroughputMbPerSec,
+            @JsonProperty("min_concurrent_compactors") final Integer
+                    minConcurrentCompactors,
+            @JsonProperty("max_concurrent_compactors") final Integer
+                    maxConcurrentCompactors,
+            @JsonProperty("target_pending_compactions") final Long
+                    targetPendingCompactions,
+            @JsonProperty("max_latency_ms") final Long maxLatencyMs,
+            @JsonProperty("max_disk_utilization") final Integer
+                    maxDiskUtilization) {
+        return new CompactionBounds(enabled,
+                minThroughputMbPerSec == null ?
+                        DEFAULT_MIN_THROUGHPUT_MB_PER_SEC :
+                        minThroughputMbPerSec,
+                maxThroughputMbPerSec == null ?
+                        DEFAULT_MAX_THROUGHPUT_MB_PER_SEC :
+                        maxThroughputMbPerSec,
+                minConcurrentCompactors,
+                maxConcurrentCompactors,
+                targetPendingCompactions == null ?
+                        DEFAULT_TARGET_PENDING_COMPACTIONS :
+                        targetPendingCompactions,
+                maxLatencyMs == null ? 0 : maxLatencyMs,
+                maxDiskUtilization == null ?
+                        DEFAULT_MAX_DISK_UTILIZATION :
+                        maxDiskUtilization);
+    }
+
+    @JsonProperty("enabled")
+    private final boolean enabled;
+    @JsonProperty("min_throughput_mb_per_sec")
+    private final int minThroughputMbPerSec;
+    @JsonProperty("max_throughput_mb_per_sec")
+    private final int maxThroughputMbPerSec;
+    @JsonProperty("min_concurrent_compactors")
+    private final Integer minConcurrentCompactors;
+    @JsonProperty("max_concurrent_compactors")
+    private final Integer maxConcurrentCompactors;
+    @JsonProperty("target_pending_compactions")
+    private final long targetPendingCompactions;
+    @JsonProperty("max_latency_ms")
+    private final long maxLatencyMs;
+    @JsonProperty("max_disk_utilization")
+    private final int maxDiskUtilization;
+
+    private CompactionBounds(final boolean enabled,
+                             final int minThroughputMbPerSec,
+                             final int maxThroughputMbPerSec,
+                             final Integer minConcurrentCompactors,
+                             final Integer maxConcurrentCompactors,
+                             final long targetPendingCompactions,
+                             final long maxLatencyMs,
+                             final int maxDiskUtilization) {
+        this.enabled = enabled;
+        this.minThroughputMbPerSec = minThroughputMbPerSec;
+        this.maxThroughputMbPerSec = maxThroughputMbPerSec;
+        this.minConcurrentCompactors = minConcurrentCompactors;
+        this.maxConcurrentCompactors = maxConcurrentCompactors;
+        this.targetPendingCompactions = targetPendingCompactions;
+        this.maxLatencyMs = maxLatencyMs;
+        this.maxDiskUtilization = maxDiskUtilization;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMinThroughputMbPerSec() {
+        return minThroughputMbPerSec;
+    }
+
+    public int getMaxThroughputMbPerSec() {
+        return maxThroughputMbPerSec;
+    }
+
+    /**
+     * @return The range of the number of concurrent compactors, or empty if
+     * the throttle does not change it.
+     */
+    @JsonIgnore
+    public Optional<Integer> getMinConcurrentCompactors() {
+        return Optional.ofNullable(minConcurrentCompactors);
+    }
+
+    @JsonIgnore
+    public Optional<Integer> getMaxConcurrentCompactors() {
+        return Optional.ofNullable(maxConcurrentCompactors);
+    }
+
+    /**
+     * @return The number of pending compactions above which the throttle
+     * raises the throughput to pay down the compaction debt.
+     */
+    public long getTargetPendingCompactions() {
+        return targetPendingCompactions;
+    }
+
+    /**
+     * @return The 99th percentile latency of client reads or writes in
+     * milliseconds above which the throttle backs off, or 0 for no limit.
+     */
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * @return The utilization of the data disk in percent above which the
+     * throttle backs off, or 0 for no limit.
+     */
+    public int getMaxDiskUtilization() {
+        return maxDiskUtilization;
+    }
+
+    @JsonIgnore
+    public boolean isValid() {
+        return minThroughputMbPerSec > 0 &&
+                maxThroughputMbPerSec >= minThroughputMbPerSec &&
+                (minConcurrentCompactors == null) ==
+                        (maxConcurrentCompactors == null) &&
+                (minConcurrentCompactors == null ||
+                        (minConcurrentCompactors > 0 &&
+                                maxConcurrentCompactors >=
+                                        minConcurrentCompactors)) &&
+                targetPendingCompactions >= 0 &&
+                maxLatencyMs >= 0 &&
+                maxDiskUtilization >= 0 &&
+                maxDiskUtilization <= 100;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactionBounds)) return false;
+        CompactionBounds that = (CompactionBounds) o;
+        return enabled == that.enabled &&
+                minThroughputMbPerSec == that.minThroughputMbPerSec &&
+                maxThroughputMbPerSec == that.maxThroughputMbPerSec &&
+                targetPendingCompactions == that.targetPendingCompactions &&
+                maxLatencyMs == that.maxLatencyMs &&
+                maxDiskUtilization == that.maxDiskUtilization &&
+                Objects.equals(minConcurrentCompactors,
+                        that.minConcurrentCompactors) &&
+                Objects.equals(maxConcurrentCompactors,
+                        that.maxConcurrentCompactors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, minThroughputMbPerSec,
+                maxThroughputMbPerSec, minConcurrentCompactors,
+                maxConcurrentCompactors, targetPendingCompactions,
+                maxLatencyMs, maxDiskUtilization);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.compaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * DiskStats measures the utilization of a disk from /proc/diskstats, the
+ * share of the time between two samples during which the disk was busy
+ * with I/O, as iostat reports it. The disk is the device of the file
+ * system of the data volume. If that device is not listed, e.g. because
+ * the volume is on an overlay or device mapper file system, the highest
+ * utilization of the listed disks is used instead.
+ */
+public class DiskStats implements Supplier<OptionalDouble> {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DiskStats.class);
+
+    public static final Path PROC_DISKSTATS = Paths.get("/proc/diskstats");
+
+    // The fields of a line are the major and minor numbers, the name of the
+    // device and its statistics. The tenth statistic is the time in ms
+    // the device spent doing I/O.
+    private static final int NAME_FIELD = 2;
+    private static final int IO_TICKS_FIELD = 12;
+
+    private final Path diskstats;
+    private final String device;
+    private final LongSupplier clock;
+    private Map<String, Long> previousTicks = new HashMap<>();
+    private long previousMs = 0;
+
+    DiskStats(final Path diskstats,
+              final String device,
+              final LongSupplier clock) {
+        this.diskstats = diskstats;
+        this.device = device;
+        this.clock = clock;
+    }
+
+    /**
+     * Constructs a new DiskStats.
+     *
+     * @param volume A path on the file system of the disk to measure.
+     */
+    public DiskStats(final Path volume) {
+        this(PROC_DISKSTATS, deviceOf(volume), System::currentTimeMillis);
+    }
+
+    /**
+     * Gets the device of a file system.
+     *
+     * @param path A path on the file system.
+     * @return The name of the device of the file system as listed in
+     * /proc/diskstats, e.g. sda1, or null if it is not known.
+     */
+    public static String deviceOf(final Path path) {
+        try {
+            final String name = Files.getFileStore(path).name();
+            return name.startsWith("/dev/") ?
+                    name.substring("/dev/".length()) :
+                    null;
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to get the device of {}: {}", path,
+                    ex.toString());
+            return null;
+        }
+    }
+
+    private static boolean isVirtual(final String name) {
+        return name.startsWith("loop") || name.startsWith("ram");
+    }
+
+    private Map<String, Long> readTicks() throws IOException {
+        final List<String> lines =
+                Files.readAllLines(diskstats, StandardCharsets.US_ASCII);
+        final Map<String, Long> ticks = new HashMap<>(lines.size());
+        for (String line : lines) {
+            final String[] fields = line.trim().split("\\s+");
+            if (fields.length > IO_TICKS_FIELD &&
+                    !isVirtual(fields[NAME_FIELD])) {
+                ticks.put(fields[NAME_FIELD],
+                        Long.parseLong(fields[IO_TICKS_FIELD]));
+            }
+        }
+        return ticks;
+    }
+
+    private static double utilization(final long ticks,
+                                      final long previous,
+                                      final long elapsedMs) {
+        return Math.min(100.0, 100.0 * (ticks - previous) / elapsedMs);
+    }
+
+    /**
+     * Gets the utilization of the disk since the previous call.
+     *
+     * @return The percentage of the time the disk was busy, or empty on the
+     * first call or if /proc/diskstats can not be read.
+     */
+    @Override
+    public synchronized OptionalDouble get() {
+        final Map<String, Long> ticks;
+        try {
+            ticks = readTicks();
+        } catch (IOException | NumberFormatException ex) {
+            LOGGER.debug("Failed to read {}: {}", diskstats, ex.toString());
+            return OptionalDouble.empty();
+        }
+        final long nowMs = clock.getAsLong();
+        final long elapsedMs = nowMs - previousMs;
+        final Map<String, Long> previous = previousTicks;
+        previousTicks = ticks;
+        previousMs = nowMs;
+        if (previous.isEmpty() || elapsedMs <= 0) {
+            return OptionalDouble.empty();
+        }
+        if (device != null && ticks.containsKey(device) &&
+                previous.containsKey(device)) {
+            return OptionalDouble.of(utilization(ticks.get(device),
+                    previous.get(device), elapsedMs));
+        }
+        return ticks.entrySet().stream()
+                .filter(entry -> previous.containsKey(entry.getKey()))
+                .mapToDouble(entry -> utilization(entry.getValue(),
+                        previous.get(entry.getKey()), elapsedMs))
+                .max();
+    }
+}
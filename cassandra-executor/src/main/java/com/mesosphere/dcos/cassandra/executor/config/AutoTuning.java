@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.config;
+
+import com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig;
+import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
+import com.mesosphere.dcos.cassandra.executor.compaction.DiskStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * AutoTuning derives the concurrency and memory settings of cassandra.yaml
+ * that are not set in the application configuration from the resources of
+ * the node:
+ * <ul>
+ * <li>concurrent_reads is 16 per data disk, or 32 if the disk is not
+ * rotational.</li>
+ * <li>concurrent_writes is 8 per core, and concurrent_counter_writes, which
+ * read before they write, is the smaller of that and concurrent_reads.</li>
+ * <li>concurrent_compactors and memtable_flush_writers follow the cores on
+ * solid state disks and the data disks on rotational disks, between 2 and
+ * 8.</li>
+ * <li>memtable_heap_space_in_mb is a quarter of the heap.
+ * memtable_offheap_space_in_mb and file_cache_size_in_mb, which is at most
+ * 512, are a quarter of the heap but no more than a quarter of the memory
+ * of the node outside the heap.</li>
+ * <li>disk_optimization_strategy is spinning on rotational disks and ssd
+ * otherwise.</li>
+ * </ul>
+ * Settings that are set explicitly are kept.
+ */
+public class AutoTuning {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AutoTuning.class);
+
+    public static final Path SYS_BLOCK = Paths.get("/sys/class/block");
+
+    /**
+     * Nodes store their data in a single data directory on their volume.
+     */
+    static final int DATA_DISKS = 1;
+
+    static final int MAX_FILE_CACHE_SIZE_MB = 512;
+
+    /**
+     * The least off heap memory given to memtables and the file cache, so
+     * that a node with little memory outside its heap can still start.
+     */
+    static final int MIN_OFFHEAP_SPACE_MB = 32;
+
+    private AutoTuning() {
+        // do not instantiate
+    }
+
+    private static int clamp(final int value, final int min, final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Gets whether the device of a file system is rotational.
+     *
+     * @param sysBlock The directory of the block devices in sysfs.
+     * @param device   The name of the device, e.g. sda1.
+     * @return True if the device is rotational, or empty if it is not known.
+     */
+    static Optional<Boolean> isRotational(final Path sysBlock,
+                                          final String device) {
+        if (device == null) {
+            return Optional.empty();
+        }
+        try {
+            Path queue = sysBlock.resolve(device).resolve("queue");
+            if (!Files.exists(queue)) {
+                // Partitions share the queue of their disk.
+                queue = sysBlock.resolve(device).toRealPath().getParent()
+                        .resolve("queue");
+            }
+            final String rotational = new String(Files.readAllBytes(
+                    queue.resolve("rotational")),
+                    StandardCharsets.US_ASCII).trim();
+            return Optional.of("1".equals(rotational));
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to determine if {} is rotational: {}",
+                    device, ex.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets whether the disk of a volume is rotational.
+     *
+     * @param volume A path on the volume.
+     * @return True if the disk is rotational, or empty if it is not known.
+     */
+    public static Optional<Boolean> isRotational(final Path volume) {
+        return isRotational(SYS_BLOCK, DiskStats.deviceOf(volume));
+    }
+
+    /**
+     * Derives the settings of the application configuration of a node that
+     * are not set.
+     *
+     * @param config     The configuration of the node.
+     * @param rotational True if the data disk of the node is rotational,
+     *                   empty if it is not known.
+     * @return The application configuration of the node with all of its
+     * concurrency and memory settings set.
+     */
+    public static CassandraApplicationConfig tune(
+            final CassandraConfig config,
+            final Optional<Boolean> rotational) {
+        return tune(config.getApplication(),
+                config.getCpus(),
+                config.getMemoryMb(),
+                config.getHeap().getSizeMb(),
+                rotational);
+    }
+
+    static CassandraApplicationConfig tune(
+            final CassandraApplicationConfig application,
+            final double cpus,
+            final int memoryMb,
+            final int heapMb,
+            final Optional<Boolean> rotational) {
+        final boolean spinning = rotational.orElse(false);
+        final int cores = Math.max(1, (int) Math.ceil(cpus));
+        final int offHeapMb = Math.max(0, memoryMb - heapMb);
+
+        final int reads = (spinning ? 16 : 32) * DATA_DISKS;
+        final int writes = 8 * cores;
+        final int parallelism = clamp(spinning ? DATA_DISKS : cores, 2, 8);
+        final int memtableOffheap = Math.max(MIN_OFFHEAP_SPACE_MB,
+                Math.min(heapMb / 4, offHeapMb / 4));
+        final int fileCache = Math.max(MIN_OFFHEAP_SPACE_MB,
+                Math.min(MAX_FILE_CACHE_SIZE_MB,
+                        Math.min(heapMb / 4, offHeapMb / 4)));
+
+        final CassandraApplicationConfig.Builder builder =
+                application.toBuilder();
+        if (application.getConcurrentReads() == null) {
+            builder.setConcurrentReads(reads);
+        }
+        if (application.getConcurrentWrites() == null) {
+            builder.setConcurrentWrites(writes);
+        }
+        if (application.getConcurrentCounterWrites() == null) {
+            builder.setConcurrentCounterWrites(Math.min(writes, reads));
+        }
+        if (application.getConcurrentCompactors() == null) {
+            builder.setConcurrentCompactors(parallelism);
+        }
+        if (application.getMemtableFlushWritersKey() == null) {
+            builder.setMemtableFlushWriters(parallelism);
+        }
+        if (application.getMemtableHeapSpaceInMb() == null) {
+            builder.setMemtableHeapSpaceInMb(heapMb / 4);
+        }
+        if (application.getMemtableOffheapSpaceInMb() == null) {
+            builder.setMemtableOffheapSpaceInMb(memtableOffheap);
+        }
+        if (application.getFileCacheSizeInMb() == null) {
+            builder.setFileCacheSizeInMb(fileCache);
+        }
+        if (application.getDiskOptimizationStrategy() == null) {
+            builder.setDiskOptimizationStrategy(spinning ? "spinning" : "ssd");
+        }
+        final CassandraApplicationConfig tuned = builder.build();
+        LOGGER.info("Tuned configuration for {} cores, {} MB of memory, " +
+                        "{} MB of heap and rotational disk {}: " +
+                        "concurrent_reads = {}, concurrent_writes = {}, " +
+                        "concurrent_counter_writes = {}, " +
+                        "concurrent_compactors = {}, " +
+                        "memtable_flush_writers = {}, " +
+                        "memtable_heap_space_in_mb = {}, " +
+                        "memtable_offheap_space_in_mb = {}, " +
+                        "file_cache_size_in_mb = {}, " +
+                        "disk_optimization_strategy = {}",
+                cores, memoryMb, heapMb, rotational,
+                tuned.getConcurrentReads(),
+                tuned.getConcurrentWrites(),
+                tuned.getConcurrentCounterWrites(),
+                tuned.getConcurrentCompactors(),
+                tuned.getMemtableFlushWritersKey(),
+                tuned.getMemtableHeapSpaceInMb(),
+                tuned.getMemtableOffheapSpaceInMb(),
+                tuned.getFileCacheSizeInMb(),
+                tuned.getDiskOptimizationStrategy());
+        return tuned;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.config;
+
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.executor.JmxConnections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig.*;
+
+/**
+ * HotConfig applies settings of the application configuration to a running
+ * Cassandra daemon. Each hot-applicable key of cassandra.yaml is mapped to
+ * the writable attribute of the MBean that changes it at runtime. After the
+ * settings are applied, they are written to cassandra.yaml so that the file
+ * describes the running daemon.
+ */
+public class HotConfig {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(HotConfig.class);
+
+    private static final ObjectName STORAGE_SERVICE =
+            JmxConnections.objectName(JmxConnections.STORAGE_SERVICE_MBEAN);
+
+    private static final ObjectName STORAGE_PROXY =
+            JmxConnections.objectName("org.apache.cassandra.db:type=StorageProxy");
+
+    private static final ObjectName CACHES =
+            JmxConnections.objectName("org.apache.cassandra.db:type=Caches");
+
+    private static final ObjectName FAILURE_DETECTOR =
+            JmxConnections.objectName("org.apache.cassandra.net:type=FailureDetector");
+
+    private static final class Setting {
+        private final ObjectName mbean;
+        private final String attribute;
+        private final Function<Object, Object> type;
+
+        private Setting(final ObjectName mbean,
+                        final String attribute,
+                        final Function<Object, Object> type) {
+            this.mbean = mbean;
+            this.attribute = attribute;
+            this.type = type;
+        }
+    }
+
+    private static Object asInt(final Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+        return ((Number) value).intValue();
+    }
+
+    private static Object asLong(final Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static Object asDouble(final Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static Object asBoolean(final Object value) {
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+        return value;
+    }
+
+    private static Setting setting(final ObjectName mbean,
+                                   final String attribute,
+                                   final Function<Object, Object> type) {
+        return new Setting(mbean, attribute, type);
+    }
+
+    private static final Map<String, Setting> SETTINGS =
+            ImmutableMap.<String, Setting>builder()
+                    .put(COMPACTION_THROUGHPUT_MB_PER_SEC_KEY, setting(
+                            STORAGE_SERVICE, "CompactionThroughputMbPerSec",
+                            HotConfig::asInt))
+                    .put(STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY,
+                            setting(STORAGE_SERVICE,
+                                    "StreamThroughputMbPerSec",
+                                    HotConfig::asInt))
+                    .put(INTER_DC_STREAM_THROUGHPUT_OUTBOUND_MEGABITS_PER_SEC_KEY,
+                            setting(STORAGE_SERVICE,
+                                    "InterDCStreamThroughputMbPerSec",
+                                    HotConfig::asInt))
+                    .put(HINTED_HANDOFF_ENABLED_KEY, setting(
+                            STORAGE_PROXY, "HintedHandoffEnabled",
+                            HotConfig::asBoolean))
+                    .put(HINTED_HANDOFF_THROTTLE_IN_KB_KEY, setting(
+                            STORAGE_SERVICE, "HintedHandoffThrottleInKB",
+                            HotConfig::asInt))
+                    .put(MAX_HINT_WINDOW_IN_MS_KEY, setting(
+                            STORAGE_PROXY, "MaxHintWindow",
+                            HotConfig::asInt))
+                    .put(TOMBSTONE_WARN_THRESHOLD_KEY, setting(
+                            STORAGE_SERVICE, "TombstoneWarnThreshold",
+                            HotConfig::asInt))
+                    .put(TOMBSTONE_FAILURE_THRESHOLD_KEY, setting(
+                            STORAGE_SERVICE, "TombstoneFailureThreshold",
+                            HotConfig::asInt))
+                    .put(REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "RpcTimeout",
+                            HotConfig::asLong))
+                    .put(READ_REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "ReadRpcTimeout",
+                            HotConfig::asLong))
+                    .put(RANGE_REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "RangeRpcTimeout",
+                            HotConfig::asLong))
+                    .put(WRITE_REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "WriteRpcTimeout",
+                            HotConfig::asLong))
+                    .put(COUNTER_WRITE_REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "CounterWriteRpcTimeout",
+                            HotConfig::asLong))
+                    .put(CAS_CONTENTION_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "CasContentionTimeout",
+                            HotConfig::asLong))
+                    .put(TRUNCATE_REQUEST_TIMEOUT_IN_MS_KEY, setting(
+                            STORAGE_SERVICE, "TruncateRpcTimeout",
+                            HotConfig::asLong))
+                    .put(INCREMENTAL_BACKUPS_KEY, setting(
+                            STORAGE_SERVICE, "IncrementalBackupsEnabled",
+                            HotConfig::asBoolean))
+                    .put(KEY_CACHE_SIZE_IN_MB_KEY, setting(
+                            CACHES, "KeyCacheCapacityInMB",
+                            HotConfig::asLong))
+                    .put(KEY_CACHE_SAVE_PERIOD_KEY, setting(
+                            CACHES, "KeyCacheSavePeriodInSeconds",
+                            HotConfig::asInt))
+                    .put(KEY_CACHE_KEYS_TO_SAVE_KEY, setting(
+                            CACHES, "KeyCacheKeysToSave",
+                            HotConfig::asInt))
+                    .put(ROW_CACHE_SIZE_IN_MB_KEY, setting(
+                            CACHES, "RowCacheCapacityInMB",
+                            HotConfig::asLong))
+                    .put(ROW_CACHE_SAVE_PERIOD_KEY, setting(
+                            CACHES, "RowCacheSavePeriodInSeconds",
+                            HotConfig::asInt))
+                    .put(ROW_CACHE_KEYS_TO_SAVE_KEY, setting(
+                            CACHES, "RowCacheKeysToSave",
+                            HotConfig::asInt))
+                    .put(COUNTER_CACHE_SIZE_IN_MB_KEY, setting(
+                            CACHES, "CounterCacheCapacityInMB",
+                            HotConfig::asLong))
+                    .put(COUNTER_CACHE_SAVE_PERIOD_KEY, setting(
+                            CACHES, "CounterCacheSavePeriodInSeconds",
+                            HotConfig::asInt))
+                    .put(COUNTER_CACHE_KEYS_TO_SAVE_KEY, setting(
+                            CACHES, "CounterCacheKeysToSave",
+                            HotConfig::asInt))
+                    .put(PHI_CONVICT_THRESHOLD_KEY, setting(
+                            FAILURE_DETECTOR, "PhiConvictThreshold",
+                            HotConfig::asDouble))
+                    .build();
+
+    private HotConfig() {
+        // do not instantiate
+    }
+
+    /**
+     * @return The keys of cassandra.yaml that can be applied to a running
+     * daemon.
+     */
+    public static Set<String> getKeys() {
+        return SETTINGS.keySet();
+    }
+
+    /**
+     * Validates settings and converts their values to the types of the
+     * attributes that apply them.
+     *
+     * @param settings The keys of cassandra.yaml with their new values.
+     * @return The settings with converted values, in the order of settings.
+     * @throws IllegalArgumentException If a key is not hot-applicable or a
+     *                                  value has the wrong type.
+     */
+    public static Map<String, Object> validate(
+            final Map<String, Object> settings) {
+        final Map<String, Object> validated = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : settings.entrySet()) {
+            final Setting setting = SETTINGS.get(entry.getKey());
+            if (setting == null) {
+                throw new IllegalArgumentException(
+                        "Not a hot-applicable setting: " + entry.getKey());
+            }
+            try {
+                validated.put(entry.getKey(),
+                        setting.type.apply(entry.getValue()));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid value for %s: %s", entry.getKey(),
+                        ex.getMessage()));
+            }
+        }
+        return validated;
+    }
+
+    /**
+     * Applies settings to a running daemon.
+     *
+     * @param server   The MBean server of the daemon.
+     * @param settings The validated settings.
+     * @throws IOException If communication with the daemon fails or it
+     *                     rejects a setting.
+     */
+    public static void apply(final MBeanServerConnection server,
+                             final Map<String, Object> settings)
+            throws IOException {
+        for (Map.Entry<String, Object> entry : settings.entrySet()) {
+            final Setting setting = SETTINGS.get(entry.getKey());
+            try {
+                server.setAttribute(setting.mbean,
+                        new Attribute(setting.attribute, entry.getValue()));
+                LOGGER.info("Applied {} = {}", entry.getKey(),
+                        entry.getValue());
+            } catch (JMException ex) {
+                throw new IOException(String.format(
+                        "Failed to apply %s = %s", entry.getKey(),
+                        entry.getValue()), ex);
+            }
+        }
+    }
+
+    /**
+     * Writes settings to cassandra.yaml. The other keys of the file are
+     * kept as they are.
+     *
+     * @param path     The path of cassandra.yaml.
+     * @param settings The validated settings.
+     * @throws IOException If the file can not be read or written.
+     */
+    @SuppressWarnings("unchecked")
+    public static void write(final Path path,
+                             final Map<String, Object> settings)
+            throws IOException {
+        final DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        final Yaml yaml = new Yaml(options);
+        final Map<String, Object> config = new LinkedHashMap<>();
+        try (BufferedReader reader =
+                     Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final Object loaded = yaml.load(reader);
+            if (loaded instanceof Map) {
+                config.putAll((Map<String, Object>) loaded);
+            }
+        }
+        config.putAll(settings);
+        // Replace the file atomically so that a daemon that starts while
+        // it is written never reads a partial configuration.
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer =
+                     Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            yaml.dump(config, writer);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
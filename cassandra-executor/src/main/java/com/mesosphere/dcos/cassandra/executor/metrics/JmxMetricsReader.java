@@ -0,0 +1,279 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import com.mesosphere.dcos.cassandra.executor.JmxConnections;
+import com.mesosphere.dcos.cassandra.executor.ManagedConnection;
+
+import javax.management.Attribute;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JmxMetricsReader reads NodeMetrics from the metrics MBeans of the daemon
+ * over its own JMX connection. As JMX can not read the attributes of several
+ * MBeans at once, each group of metrics is read with one query for the names
+ * of its MBeans and one bulk attribute read per MBean.
+ */
+public class JmxMetricsReader implements MetricsCollector.Reader,
+        AutoCloseable {
+
+    private static final long TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * The length of the bucket array of the latency histograms of Cassandra,
+     * an EstimatedHistogram of 164 buckets and an overflow bucket. Older
+     * versions expose samples rather than buckets, which are not reported.
+     */
+    private static final int LATENCY_BUCKETS = 165;
+
+    private static final Map<String, String> OPERATIONS = ImmutableMap.of(
+            "Read", "read",
+            "Write", "write",
+            "RangeSlice", "range_slice");
+
+    private static final String[] LATENCY_ATTRIBUTES = {
+            "Count",
+            "OneMinuteRate",
+            "Mean",
+            "50thPercentile",
+            "95thPercentile",
+            "99thPercentile",
+            "999thPercentile",
+            "Max"
+    };
+
+    private static final String[] COUNT_ATTRIBUTES = {"Count"};
+
+    private static final String[] VALUE_ATTRIBUTES = {"Value"};
+
+    private static final String[] GC_ATTRIBUTES = {
+            "CollectionCount",
+            "CollectionTime"
+    };
+
+    private static final String FLUSH_POOL = "MemtableFlushWriter";
+
+    private final ManagedConnection<JMXConnector> connection;
+
+    /**
+     * Constructs a new JmxMetricsReader.
+     *
+     * @param jmxPort The JMX port of the daemon on the loopback interface.
+     */
+    public JmxMetricsReader(final int jmxPort) {
+        this.connection = new ManagedConnection<>("metrics",
+                () -> JmxConnections.connect(jmxPort),
+                JMXConnector::getConnectionId,
+                TimeUnit.SECONDS.toMillis(30),
+                TIMEOUT_MS,
+                100,
+                TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static Map<String, Object> getAttributes(
+            final MBeanServerConnection server,
+            final ObjectName name,
+            final String[] attributes) throws Exception {
+        final Map<String, Object> values = new HashMap<>(attributes.length);
+        for (Attribute attribute :
+                server.getAttributes(name, attributes).asList()) {
+            values.put(attribute.getName(), attribute.getValue());
+        }
+        return values;
+    }
+
+    private static long asLong(final Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static double asDouble(final Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static Set<ObjectName> query(final MBeanServerConnection server,
+                                         final String pattern)
+            throws IOException {
+        return server.queryNames(JmxConnections.objectName(pattern), null);
+    }
+
+    private static Map<String, NodeMetrics.Latency> readLatencies(
+            final MBeanServerConnection server) throws Exception {
+        final Map<String, Map<String, Object>> latencies = new HashMap<>();
+        final Map<String, long[]> buckets = new HashMap<>();
+        final Map<String, Long> timeouts = new HashMap<>();
+        final Map<String, Long> unavailables = new HashMap<>();
+        for (ObjectName name : query(server,
+                "org.apache.cassandra.metrics:type=ClientRequest,*")) {
+            final String operation = OPERATIONS.get(
+                    name.getKeyProperty("scope"));
+            if (operation == null) {
+                continue;
+            }
+            switch (String.valueOf(name.getKeyProperty("name"))) {
+                case "Latency":
+                    latencies.put(operation,
+                            getAttributes(server, name, LATENCY_ATTRIBUTES));
+                    final Object values = server.invoke(name, "values",
+                            null, null);
+                    if (values instanceof long[] &&
+                            ((long[]) values).length == LATENCY_BUCKETS) {
+                        buckets.put(operation, (long[]) values);
+                    }
+                    break;
+                case "Timeouts":
+                    timeouts.put(operation, asLong(getAttributes(server, name,
+                            COUNT_ATTRIBUTES).get("Count")));
+                    break;
+                case "Unavailables":
+                    unavailables.put(operation, asLong(getAttributes(server,
+                            name, COUNT_ATTRIBUTES).get("Count")));
+                    break;
+                default:
+                    break;
+            }
+        }
+        final Map<String, NodeMetrics.Latency> result = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry :
+                latencies.entrySet()) {
+            final String operation = entry.getKey();
+            final Map<String, Object> values = entry.getValue();
+            result.put(operation, NodeMetrics.Latency.create(
+                    asLong(values.get("Count")),
+                    timeouts.getOrDefault(operation, 0L),
+                    unavailables.getOrDefault(operation, 0L),
+                    asDouble(values.get("OneMinuteRate")),
+                    asDouble(values.get("Mean")),
+                    asDouble(values.get("50thPercentile")),
+                    asDouble(values.get("95thPercentile")),
+                    asDouble(values.get("99thPercentile")),
+                    asDouble(values.get("999thPercentile")),
+                    asDouble(values.get("Max")),
+                    buckets.get(operation)));
+        }
+        return result;
+    }
+
+    private static Map<String, NodeMetrics.ThreadPool> readThreadPools(
+            final MBeanServerConnection server) throws Exception {
+        final Map<String, long[]> pools = new HashMap<>();
+        for (ObjectName name : query(server,
+                "org.apache.cassandra.metrics:type=ThreadPools,*")) {
+            final String pool = name.getKeyProperty("scope");
+            if (pool == null) {
+                continue;
+            }
+            final int index;
+            final String[] attributes;
+            switch (String.valueOf(name.getKeyProperty("name"))) {
+                case "ActiveTasks":
+                    index = 0;
+                    attributes = VALUE_ATTRIBUTES;
+                    break;
+                case "PendingTasks":
+                    index = 1;
+                    attributes = VALUE_ATTRIBUTES;
+                    break;
+                case "CurrentlyBlockedTasks":
+                    index = 2;
+                    attributes = COUNT_ATTRIBUTES;
+                    break;
+                case "TotalBlockedTasks":
+                    index = 3;
+                    attributes = COUNT_ATTRIBUTES;
+                    break;
+                default:
+                    continue;
+            }
+            pools.computeIfAbsent(pool, key -> new long[4])[index] =
+                    asLong(getAttributes(server, name, attributes)
+                            .get(attributes[0]));
+        }
+        final Map<String, NodeMetrics.ThreadPool> result = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : pools.entrySet()) {
+            final long[] tasks = entry.getValue();
+            result.put(entry.getKey(), NodeMetrics.ThreadPool.create(
+                    tasks[0], tasks[1], tasks[2], tasks[3]));
+        }
+        return result;
+    }
+
+    private static Map<String, Long> readDroppedMessages(
+            final MBeanServerConnection server) throws Exception {
+        final Map<String, Long> dropped = new HashMap<>();
+        for (ObjectName name : query(server,
+                "org.apache.cassandra.metrics:type=DroppedMessage," +
+                        "name=Dropped,*")) {
+            final String verb = name.getKeyProperty("scope");
+            if (verb != null) {
+                dropped.put(verb, asLong(getAttributes(server, name,
+                        COUNT_ATTRIBUTES).get("Count")));
+            }
+        }
+        return dropped;
+    }
+
+    private static Map<String, NodeMetrics.GarbageCollector>
+    readGarbageCollectors(final MBeanServerConnection server)
+            throws Exception {
+        final Map<String, NodeMetrics.GarbageCollector> collectors =
+                new HashMap<>();
+        for (ObjectName name : query(server,
+                "java.lang:type=GarbageCollector,*")) {
+            final Map<String, Object> values = getAttributes(server, name,
+                    GC_ATTRIBUTES);
+            collectors.put(name.getKeyProperty("name"),
+                    NodeMetrics.GarbageCollector.create(
+                            asLong(values.get("CollectionCount")),
+                            asLong(values.get("CollectionTime"))));
+        }
+        return collectors;
+    }
+
+    @Override
+    public NodeMetrics read() throws IOException {
+        return connection.call(connector -> {
+            final MBeanServerConnection server =
+                    connector.getMBeanServerConnection();
+            final Map<String, NodeMetrics.ThreadPool> pools =
+                    readThreadPools(server);
+            final NodeMetrics.ThreadPool flushes = pools.get(FLUSH_POOL);
+            return NodeMetrics.create(System.currentTimeMillis(),
+                    readLatencies(server),
+                    asLong(getAttributes(server, JmxConnections.objectName(
+                            "org.apache.cassandra.metrics:type=Compaction," +
+                                    "name=PendingTasks"),
+                            VALUE_ATTRIBUTES).get("Value")),
+                    flushes != null ? flushes.getPending() : 0,
+                    pools,
+                    readDroppedMessages(server),
+                    readGarbageCollectors(server));
+        });
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * MetricsCollector reads the performance metrics of the Cassandra daemon on
+ * a fixed interval and renders each collection, as JSON and in the
+ * Prometheus text format, into buffers that are served as they are. Metrics
+ * requests never query the daemon, so scraping every node of a cluster as
+ * often as a monitoring system likes costs the daemons one collection per
+ * interval. When collections fail, the last one is served until it is older
+ * than the maximum age, after which the metrics are unknown.
+ */
+public class MetricsCollector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            MetricsCollector.class);
+
+    public static final long DEFAULT_INTERVAL_MS =
+            TimeUnit.SECONDS.toMillis(10);
+
+    public static final long DEFAULT_MAX_AGE_MS =
+            TimeUnit.SECONDS.toMillis(60);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Reads the metrics of the daemon.
+     */
+    public interface Reader {
+        NodeMetrics read() throws IOException;
+    }
+
+    /**
+     * A collection of the metrics with its renderings.
+     */
+    public static final class Snapshot {
+        private final NodeMetrics metrics;
+        private final byte[] json;
+        private final byte[] prometheus;
+        private final long collectedAt;
+
+        private Snapshot(final NodeMetrics metrics,
+                         final byte[] json,
+                         final byte[] prometheus,
+                         final long collectedAt) {
+            this.metrics = metrics;
+            this.json = json;
+            this.prometheus = prometheus;
+            this.collectedAt = collectedAt;
+        }
+
+        public NodeMetrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * @return The metrics as UTF-8 encoded JSON.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return The metrics in the Prometheus text format.
+         */
+        public byte[] getPrometheus() {
+            return prometheus;
+        }
+    }
+
+    private final Reader reader;
+    private final ScheduledExecutorService executor;
+    private final long intervalMs;
+    private final long maxAgeMs;
+    private final LongSupplier clock;
+    private volatile Snapshot snapshot = null;
+    private ScheduledFuture<?> future = null;
+
+    MetricsCollector(final Reader reader,
+                     final ScheduledExecutorService executor,
+                     final long intervalMs,
+                     final long maxAgeMs,
+                     final LongSupplier clock) {
+        this.reader = reader;
+        this.executor = executor;
+        this.intervalMs = intervalMs;
+        this.maxAgeMs = maxAgeMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Constructs a new MetricsCollector.
+     *
+     * @param reader     Reads the metrics of the daemon.
+     * @param executor   The executor on which the metrics are collected.
+     * @param intervalMs The interval between collections.
+     */
+    public MetricsCollector(final Reader reader,
+                            final ScheduledExecutorService executor,
+                            final long intervalMs) {
+        this(reader, executor, intervalMs, DEFAULT_MAX_AGE_MS,
+                System::currentTimeMillis);
+    }
+
+    public MetricsCollector(final Reader reader,
+                            final ScheduledExecutorService executor) {
+        this(reader, executor, DEFAULT_INTERVAL_MS);
+    }
+
+    /**
+     * Starts collecting the metrics.
+     */
+    public synchronized void start() {
+        if (future == null) {
+            future = executor.scheduleWithFixedDelay(this::collect,
+                    0,
+                    intervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops collecting the metrics.
+     */
+    public synchronized void close() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    /**
+     * Gets the metrics.
+     *
+     * @return The latest collection of the metrics, or empty if none
+     * succeeded yet or the latest is older than the maximum age.
+     */
+    public Optional<Snapshot> getSnapshot() {
+        final Snapshot current = snapshot;
+        if (current == null ||
+                clock.getAsLong() - current.collectedAt >= maxAgeMs) {
+            return Optional.empty();
+        }
+        return Optional.of(current);
+    }
+
+    /**
+     * @return The interval between collections.
+     */
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    void collect() {
+        try {
+            final NodeMetrics metrics = reader.read();
+            snapshot = new Snapshot(metrics,
+                    MAPPER.writeValueAsBytes(metrics),
+                    PrometheusFormat.format(metrics)
+                            .getBytes(StandardCharsets.UTF_8),
+                    clock.getAsLong());
+        } catch (Throwable t) {
+            // The previous collection is served until one succeeds or it
+            // expires, e.g. while the daemon restarts.
+            LOGGER.debug("Failed to collect the metrics of the Cassandra " +
+                    "Daemon: {}", t.toString());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.metrics;
+
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * NodeLoad tests the load of the node against the limits of the background
+ * work that yields to client requests, such as compaction and repair. Each
+ * test returns the limit that the load exceeds, or empty if it does not
+ * exceed it or the limit is not set.
+ */
+public class NodeLoad {
+
+    /**
+     * The client requests whose latency is limited.
+     */
+    private static final String[] REQUESTS = {"read", "write"};
+
+    private NodeLoad() {
+        // do not instantiate
+    }
+
+    /**
+     * Gets the 99th percentile latency of a client request.
+     *
+     * @param node    The metrics of the node.
+     * @param request The client request, e.g. read.
+     * @return The latency in milliseconds, or 0 if it is not known.
+     */
+    public static double p99Ms(final NodeMetrics node, final String request) {
+        final NodeMetrics.Latency latency = node.getLatencies().get(request);
+        // Latencies are in microseconds.
+        return latency == null ? 0 : latency.getP99() / 1000.0;
+    }
+
+    /**
+     * Tests the 99th percentile latency of client reads and writes.
+     *
+     * @param node         The metrics of the node.
+     * @param maxLatencyMs The limit in milliseconds. If not positive, there
+     *                     is no limit.
+     * @return The request whose latency exceeds the limit.
+     */
+    public static Optional<String> exceedsLatency(final NodeMetrics node,
+                                                  final long maxLatencyMs) {
+        if (maxLatencyMs > 0) {
+            for (String request : REQUESTS) {
+                final double p99 = p99Ms(node, request);
+                if (p99 > maxLatencyMs) {
+                    return Optional.of(String.format(
+                            "%s p99 latency of %.1f ms exceeds %d ms",
+                            request, p99, maxLatencyMs));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Tests the pending compactions.
+     *
+     * @param node                  The metrics of the node.
+     * @param maxPendingCompactions The limit. If not positive, there is no
+     *                              limit.
+     * @return The pending compactions that exceed the limit.
+     */
+    public static Optional<String> exceedsPendingCompactions(
+            final NodeMetrics node,
+            final long maxPendingCompactions) {
+        if (maxPendingCompactions > 0 &&
+                node.getPendingCompactions() > maxPendingCompactions) {
+            return Optional.of(String.format(
+                    "%d pending compactions exceed %d",
+                    node.getPendingCompactions(), maxPendingCompactions));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Tests the utilization of the data disk.
+     *
+     * @param utilization    The utilization in percent, or empty if it is
+     *                       not known.
+     * @param maxUtilization The limit in percent. If not positive, there is
+     *                       no limit.
+     * @return The utilization that exceeds the limit.
+     */
+    public static Optional<String> exceedsDiskUtilization(
+            final OptionalDouble utilization,
+            final int maxUtilization) {
+        if (maxUtilization > 0 &&
+                utilization.isPresent() &&
+                utilization.getAsDouble() > maxUtilization) {
+            return Optional.of(String.format(
+                    "disk utilization of %.1f%% exceeds %d%%",
+                    utilization.getAsDouble(), maxUtilization));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.metrics;
+
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * PrometheusFormat renders NodeMetrics in the Prometheus text exposition
+ * format, version 0.0.4.
+ */
+public class PrometheusFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4";
+
+    private PrometheusFormat() {
+        // do not instantiate
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n");
+    }
+
+    private static String number(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        } else {
+            return Double.toString(value);
+        }
+    }
+
+    private static void header(final StringBuilder builder,
+                               final String name,
+                               final String type,
+                               final String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help)
+                .append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type)
+                .append('\n');
+    }
+
+    private static void sample(final StringBuilder builder,
+                               final String name,
+                               final String labels,
+                               final double value) {
+        builder.append(name);
+        if (!labels.isEmpty()) {
+            builder.append('{').append(labels).append('}');
+        }
+        builder.append(' ').append(number(value)).append('\n');
+    }
+
+    private static String label(final String name, final String value) {
+        return name + "=\"" + escape(value) + "\"";
+    }
+
+    private static <T> void family(final StringBuilder builder,
+                                   final String name,
+                                   final String type,
+                                   final String help,
+                                   final String label,
+                                   final Map<String, T> values,
+                                   final ToDoubleFunction<T> value) {
+        if (values.isEmpty()) {
+            return;
+        }
+        header(builder, name, type, help);
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            sample(builder, name, label(label, entry.getKey()),
+                    value.applyAsDouble(entry.getValue()));
+        }
+    }
+
+    private static void quantiles(final StringBuilder builder,
+                                  final Map<String, NodeMetrics.Latency> latencies) {
+        if (latencies.isEmpty()) {
+            return;
+        }
+        final String name = "cassandra_client_request_latency_microseconds";
+        header(builder, name, "gauge",
+                "Recent latency of client requests by quantile.");
+        final String[] quantiles = {"0.5", "0.95", "0.99", "0.999", "1"};
+        for (Map.Entry<String, NodeMetrics.Latency> entry :
+                latencies.entrySet()) {
+            final NodeMetrics.Latency value = entry.getValue();
+            final double[] latency = {
+                    value.getP50(),
+                    value.getP95(),
+                    value.getP99(),
+                    value.getP999(),
+                    value.getMax()};
+            for (int i = 0; i < quantiles.length; i++) {
+                sample(builder, name,
+                        label("operation", entry.getKey()) + "," +
+                                label("quantile", quantiles[i]),
+                        latency[i]);
+            }
+        }
+    }
+
+    /**
+     * Renders metrics in the Prometheus text format.
+     *
+     * @param metrics The metrics of a node.
+     * @return The metrics in the Prometheus text format.
+     */
+    public static String format(final NodeMetrics metrics) {
+        final StringBuilder builder = new StringBuilder(8192);
+        final Map<String, NodeMetrics.Latency> latencies =
+                metrics.getLatencies();
+        quantiles(builder, latencies);
+        family(builder, "cassandra_client_request_latency_mean_microseconds",
+                "gauge", "Recent mean latency of client requests.",
+                "operation", latencies, NodeMetrics.Latency::getMean);
+        family(builder, "cassandra_client_requests_total",
+                "counter", "Client requests.",
+                "operation", latencies, NodeMetrics.Latency::getCount);
+        family(builder, "cassandra_client_request_rate",
+                "gauge", "Client requests per second over the last minute.",
+                "operation", latencies, NodeMetrics.Latency::getOneMinuteRate);
+        family(builder, "cassandra_client_request_timeouts_total",
+                "counter", "Client requests that timed out.",
+                "operation", latencies, NodeMetrics.Latency::getTimeouts);
+        family(builder, "cassandra_client_request_unavailables_total",
+                "counter", "Client requests that failed for lack of replicas.",
+                "operation", latencies, NodeMetrics.Latency::getUnavailables);
+
+        header(builder, "cassandra_pending_compactions", "gauge",
+                "Compactions that are pending.");
+        sample(builder, "cassandra_pending_compactions", "",
+                metrics.getPendingCompactions());
+        header(builder, "cassandra_pending_flushes", "gauge",
+                "Memtable flushes that are pending.");
+        sample(builder, "cassandra_pending_flushes", "",
+                metrics.getPendingFlushes());
+
+        final Map<String, NodeMetrics.ThreadPool> pools =
+                metrics.getThreadPools();
+        family(builder, "cassandra_thread_pool_active_tasks",
+                "gauge", "Tasks that a thread pool is running.",
+                "pool", pools, NodeMetrics.ThreadPool::getActive);
+        family(builder, "cassandra_thread_pool_pending_tasks",
+                "gauge", "Tasks that are queued on a thread pool.",
+                "pool", pools, NodeMetrics.ThreadPool::getPending);
+        family(builder, "cassandra_thread_pool_currently_blocked_tasks",
+                "gauge", "Tasks that are blocked on a full thread pool.",
+                "pool", pools, NodeMetrics.ThreadPool::getCurrentlyBlocked);
+        family(builder, "cassandra_thread_pool_blocked_tasks_total",
+                "counter", "Tasks that were blocked on a full thread pool.",
+                "pool", pools, NodeMetrics.ThreadPool::getTotalBlocked);
+
+        family(builder, "cassandra_dropped_messages_total",
+                "counter", "Messages dropped because they timed out.",
+                "verb", metrics.getDroppedMessages(), Long::doubleValue);
+
+        final Map<String, NodeMetrics.GarbageCollector> collectors =
+                metrics.getGarbageCollectors();
+        family(builder, "jvm_gc_collections_total",
+                "counter", "Garbage collections of the Cassandra JVM.",
+                "collector", collectors,
+                NodeMetrics.GarbageCollector::getCollections);
+        family(builder, "jvm_gc_collection_seconds_total",
+                "counter", "Time spent in garbage collections of the " +
+                        "Cassandra JVM.",
+                "collector", collectors,
+                collector -> collector.getCollectionTimeMs() / 1000.0);
+
+        header(builder, "cassandra_metrics_collected_timestamp_seconds",
+                "gauge", "Time at which the metrics were collected.");
+        sample(builder, "cassandra_metrics_collected_timestamp_seconds", "",
+                metrics.getTimestampMs() / 1000.0);
+        return builder.toString();
+    }
+}
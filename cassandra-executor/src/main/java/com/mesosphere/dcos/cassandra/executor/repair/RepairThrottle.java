@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import com.mesosphere.dcos.cassandra.executor.metrics.NodeLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * RepairThrottle paces the segments of a SubrangeRepair. The starts of the
+ * segments are spaced by a fixed interval, so that the segments of a node
+ * are spread over the time it is given to repair instead of being repaired
+ * in a burst. A segment does not start while the node is loaded, that is
+ * while its pending compactions or the 99th percentile latency of its client
+ * reads or writes exceed their limits. The node is checked again after a
+ * pause, and the interval is kept from the end of the pause so that a
+ * pause is not followed by a burst of segments. A segment pauses for at
+ * most MAX_PAUSE_MS, then it starts despite the load so that the repair of
+ * a node that stays loaded still completes.
+ */
+public class RepairThrottle implements SubrangeRepair.Gate {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RepairThrottle.class);
+
+    /**
+     * The time a segment waits before the load of the node is checked
+     * again.
+     */
+    public static final long PAUSE_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * The longest time a segment pauses while the node is loaded.
+     */
+    public static final long MAX_PAUSE_MS = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * Sleeps the calling thread.
+     */
+    interface Sleeper {
+        void sleep(long ms) throws InterruptedException;
+    }
+
+    private final Supplier<Optional<NodeMetrics>> metrics;
+    private final long intervalMs;
+    private final long maxPendingCompactions;
+    private final long maxLatencyMs;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+    private long lastStart = Long.MIN_VALUE;
+
+    RepairThrottle(final Supplier<Optional<NodeMetrics>> metrics,
+                   final long intervalMs,
+                   final long maxPendingCompactions,
+                   final long maxLatencyMs,
+                   final LongSupplier clock,
+                   final Sleeper sleeper) {
+        this.metrics = metrics;
+        this.intervalMs = Math.max(0, intervalMs);
+        this.maxPendingCompactions = maxPendingCompactions;
+        this.maxLatencyMs = maxLatencyMs;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Constructs a new RepairThrottle.
+     *
+     * @param metrics               Supplies the latest metrics of the node,
+     *                              or empty if they are not known.
+     * @param intervalMs            The minimum time between the starts of
+     *                              two segments.
+     * @param maxPendingCompactions The number of pending compactions above
+     *                              which segments do not start. If not
+     *                              positive, there is no limit.
+     * @param maxLatencyMs          The 99th percentile latency of client
+     *                              reads or writes in milliseconds above
+     *                              which segments do not start. If not
+     *                              positive, there is no limit.
+     */
+    public RepairThrottle(final Supplier<Optional<NodeMetrics>> metrics,
+                          final long intervalMs,
+                          final long maxPendingCompactions,
+                          final long maxLatencyMs) {
+        this(metrics, intervalMs, maxPendingCompactions, maxLatencyMs,
+                System::currentTimeMillis, Thread::sleep);
+    }
+
+    /**
+     * Gets the reason a segment may not start.
+     *
+     * @return The limit the load of the node exceeds, or empty if it does
+     * not exceed any limit or its metrics are not known.
+     */
+    Optional<String> getOverload() {
+        final Optional<NodeMetrics> current = metrics.get();
+        if (!current.isPresent()) {
+            return Optional.empty();
+        }
+        final Optional<String> compactions = NodeLoad.exceedsPendingCompactions(
+                current.get(), maxPendingCompactions);
+        if (compactions.isPresent()) {
+            return compactions;
+        }
+        return NodeLoad.exceedsLatency(current.get(), maxLatencyMs);
+    }
+
+    /**
+     * Blocks until the interval since the start of the previous segment has
+     * passed and the node is not overloaded, or it has paused for
+     * MAX_PAUSE_MS. Segments pass the throttle one at a time.
+     *
+     * @throws InterruptedException If the repair is interrupted.
+     */
+    @Override
+    public synchronized void await() throws InterruptedException {
+        if (lastStart != Long.MIN_VALUE) {
+            final long wait = lastStart + intervalMs - clock.getAsLong();
+            if (wait > 0) {
+                sleeper.sleep(wait);
+            }
+        }
+        final long pausedSince = clock.getAsLong();
+        Optional<String> overload;
+        while ((overload = getOverload()).isPresent()) {
+            if (clock.getAsLong() - pausedSince >= MAX_PAUSE_MS) {
+                LOGGER.warn("Starting repair segment after pausing for {} " +
+                        "ms: {}", MAX_PAUSE_MS, overload.get());
+                break;
+            }
+            LOGGER.info("Pausing repair for {} ms: {}", PAUSE_MS,
+                    overload.get());
+            sleeper.sleep(PAUSE_MS);
+        }
+        lastStart = clock.getAsLong();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * SubrangeRepair repairs the primary ranges of a node one segment at a time.
+ * Each primary range is split into segments that hold about the same number
+ * of partitions, so that every repair session validates and streams a
+ * bounded amount of data, and a failed session only repeats the work of its
+ * segment. A bounded number of segments are repaired in parallel. The
+ * segments that were repaired are tracked as a RepairProgress, from which a
+ * new SubrangeRepair resumes without repairing them again. A Gate may delay
+ * the start of each segment to pace the repair.
+ */
+public class SubrangeRepair {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(SubrangeRepair.class);
+
+    /**
+     * Repairs a segment of a key space.
+     */
+    public interface Runner {
+        void repair(String keySpace, TokenRange segment) throws Exception;
+    }
+
+    /**
+     * Decides when the next segment may start.
+     */
+    public interface Gate {
+        /**
+         * Blocks until the next segment may start.
+         *
+         * @throws InterruptedException If the repair is interrupted.
+         */
+        void await() throws InterruptedException;
+    }
+
+    private static final Gate OPEN = () -> { };
+
+    private static class Segment {
+        private final String keySpace;
+        private final TokenRange range;
+
+        private Segment(final String keySpace, final TokenRange range) {
+            this.keySpace = keySpace;
+            this.range = range;
+        }
+    }
+
+    /**
+     * Splits primary ranges into segments.
+     *
+     * @param ring                 The ring of the partitioner.
+     * @param primaryRanges        The primary ranges of the node.
+     * @param estimates            The estimated number of partitions of each
+     *                             primary range.
+     * @param partitionsPerSegment The number of partitions of a segment. If
+     *                             not positive, the ranges are not split.
+     * @return The segments of the primary ranges.
+     */
+    public static List<TokenRange> plan(final TokenRing ring,
+                                        final List<TokenRange> primaryRanges,
+                                        final Map<TokenRange, Long> estimates,
+                                        final long partitionsPerSegment) {
+        final List<TokenRange> segments = new ArrayList<>();
+        for (TokenRange range : primaryRanges) {
+            final long partitions = estimates.getOrDefault(range, 0L);
+            final long count = (partitionsPerSegment <= 0 || partitions <= 0) ?
+                    1 :
+                    (partitions + partitionsPerSegment - 1) /
+                            partitionsPerSegment;
+            segments.addAll(ring.split(range, count));
+        }
+        return segments;
+    }
+
+    private final TokenRing ring;
+    private final Set<Segment> pending = new LinkedHashSet<>();
+    private final Map<String, Integer> remaining = new HashMap<>();
+    private final Map<String, List<TokenRange>> repaired =
+            new LinkedHashMap<>();
+    private final List<String> keySpaces = new ArrayList<>();
+    private final long totalSegments;
+    private long segments = 0;
+
+    /**
+     * Constructs a new SubrangeRepair.
+     *
+     * @param ring     The ring of the partitioner.
+     * @param plan     The segments to repair in each key space, in the order
+     *                 they are repaired.
+     * @param previous The progress of a previous repair of the same ranges.
+     *                 Its segments are not repaired again.
+     */
+    public SubrangeRepair(final TokenRing ring,
+                          final Map<String, List<TokenRange>> plan,
+                          final RepairProgress previous) {
+        this.ring = ring;
+        final Map<String, List<TokenRange>> previouslyRepaired =
+                previous.getRepaired().stream().collect(Collectors.groupingBy(
+                        RepairProgress.Range::getKeySpace,
+                        Collectors.mapping(range -> new TokenRange(
+                                        range.getStart(), range.getEnd()),
+                                Collectors.toList())));
+        long total = 0;
+        for (Map.Entry<String, List<TokenRange>> entry : plan.entrySet()) {
+            final String keySpace = entry.getKey();
+            total += entry.getValue().size();
+            if (previous.getKeySpaces().contains(keySpace)) {
+                segments += entry.getValue().size();
+                keySpaces.add(keySpace);
+                continue;
+            }
+            final List<TokenRange> done = previouslyRepaired.getOrDefault(
+                    keySpace, Collections.emptyList());
+            int left = 0;
+            for (TokenRange segment : entry.getValue()) {
+                if (ring.covers(done, segment)) {
+                    segments++;
+                } else {
+                    pending.add(new Segment(keySpace, segment));
+                    left++;
+                }
+            }
+            if (left == 0) {
+                keySpaces.add(keySpace);
+            } else {
+                remaining.put(keySpace, left);
+                repaired.put(keySpace, new ArrayList<>(done));
+            }
+        }
+        totalSegments = total;
+    }
+
+    /**
+     * @return The number of segments that remain to be repaired.
+     */
+    public synchronized int getPendingSegments() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the progress of the repair.
+     *
+     * @return The segments that were repaired, including those of the
+     * previous repair.
+     */
+    public synchronized RepairProgress getProgress() {
+        final List<RepairProgress.Range> ranges = new ArrayList<>();
+        repaired.forEach((keySpace, done) -> done.forEach(range ->
+                ranges.add(new RepairProgress.Range(keySpace,
+                        range.getStart(), range.getEnd()))));
+        return RepairProgress.create(segments, totalSegments, ranges,
+                new ArrayList<>(keySpaces));
+    }
+
+    private synchronized void completed(final Segment segment) {
+        segments++;
+        pending.remove(segment);
+        final int left = remaining.merge(segment.keySpace, -1, Integer::sum);
+        if (left == 0) {
+            remaining.remove(segment.keySpace);
+            repaired.remove(segment.keySpace);
+            keySpaces.add(segment.keySpace);
+        } else {
+            final List<TokenRange> done = repaired.get(segment.keySpace);
+            done.add(segment.range);
+            repaired.put(segment.keySpace, TokenRing.coalesce(done));
+        }
+    }
+
+    /**
+     * Repairs the pending segments. The repair stops at the first segment
+     * that fails, the segments being repaired are interrupted.
+     *
+     * @param name             The name of the threads of the repair.
+     * @param runner           Repairs a segment.
+     * @param parallelSegments The number of segments repaired at a time.
+     * @param listener         Receives the progress of the repair after
+     *                         each segment.
+     * @throws Exception If a segment fails to repair or the repair is
+     *                   interrupted.
+     */
+    public void run(final String name,
+                    final Runner runner,
+                    final int parallelSegments,
+                    final Consumer<RepairProgress> listener) throws Exception {
+        run(name, runner, parallelSegments, OPEN, listener);
+    }
+
+    /**
+     * Repairs the pending segments, starting each segment when gate opens.
+     * The repair stops at the first segment that fails, the segments being
+     * repaired are interrupted.
+     *
+     * @param name             The name of the threads of the repair.
+     * @param runner           Repairs a segment.
+     * @param parallelSegments The number of segments repaired at a time.
+     * @param gate             Blocks each segment until it may start.
+     * @param listener         Receives the progress of the repair after
+     *                         each segment.
+     * @throws Exception If a segment fails to repair or the repair is
+     *                   interrupted.
+     */
+    public void run(final String name,
+                    final Runner runner,
+                    final int parallelSegments,
+                    final Gate gate,
+                    final Consumer<RepairProgress> listener) throws Exception {
+        final List<Segment> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(pending);
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelSegments, segments.size())),
+                new ThreadFactoryBuilder()
+                        .setNameFormat(name + "-%d")
+                        .setDaemon(true)
+                        .build());
+        try {
+            final CompletionService<Segment> completion =
+                    new ExecutorCompletionService<>(executor);
+            for (Segment segment : segments) {
+                completion.submit(() -> {
+                    gate.await();
+                    LOGGER.info("Starting repair of segment: keySpace = {}, " +
+                            "range = {}", segment.keySpace, segment.range);
+                    runner.repair(segment.keySpace, segment.range);
+                    return segment;
+                });
+            }
+            for (int i = 0; i < segments.size(); i++) {
+                final Segment segment;
+                try {
+                    segment = completion.take().get();
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof Exception ?
+                            (Exception) ex.getCause() :
+                            ex;
+                }
+                completed(segment);
+                listener.accept(getProgress());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
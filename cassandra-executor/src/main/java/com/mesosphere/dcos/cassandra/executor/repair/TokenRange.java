@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import java.util.Objects;
+
+/**
+ * TokenRange is the range of tokens (start, end] of the ring of a Cassandra
+ * cluster. The tokens are kept in the string form Cassandra uses in its JMX
+ * operations and system tables. A range whose start is not less than its end
+ * wraps around the ring.
+ */
+public class TokenRange {
+    private final String start;
+    private final String end;
+
+    public TokenRange(final String start, final String end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TokenRange)) return false;
+        TokenRange that = (TokenRange) o;
+        return Objects.equals(start, that.start) &&
+                Objects.equals(end, that.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    /**
+     * @return The range in the form start:end of the ranges option of a
+     * Cassandra repair.
+     */
+    @Override
+    public String toString() {
+        return start + ":" + end;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TokenRing does the arithmetic of the tokens of a partitioner. The tokens
+ * of the Murmur3Partitioner and the RandomPartitioner are integers, so their
+ * ranges can be split into segments of equal width, which hold about the
+ * same number of partitions as the partitioners distribute keys uniformly.
+ * The tokens of other partitioners are not split, each range is a single
+ * segment.
+ */
+public class TokenRing {
+
+    public static final String MURMUR3_PARTITIONER =
+            "org.apache.cassandra.dht.Murmur3Partitioner";
+
+    public static final String RANDOM_PARTITIONER =
+            "org.apache.cassandra.dht.RandomPartitioner";
+
+    /**
+     * Gets the ring of a partitioner.
+     *
+     * @param partitioner The class name of the partitioner of the cluster.
+     * @return The TokenRing of partitioner.
+     */
+    public static TokenRing forPartitioner(final String partitioner) {
+        if (MURMUR3_PARTITIONER.equals(partitioner)) {
+            // Tokens are longs from -2^63 to 2^63 - 1.
+            return new TokenRing(BigInteger.valueOf(Long.MIN_VALUE),
+                    BigInteger.ONE.shiftLeft(64));
+        } else if (RANDOM_PARTITIONER.equals(partitioner)) {
+            // Tokens are integers from -1, the minimum token, to 2^127.
+            return new TokenRing(BigInteger.ONE.negate(),
+                    BigInteger.ONE.shiftLeft(127).add(BigInteger.valueOf(2)));
+        } else {
+            return new TokenRing(null, null);
+        }
+    }
+
+    private final BigInteger minimum;
+    private final BigInteger size;
+
+    private TokenRing(final BigInteger minimum, final BigInteger size) {
+        this.minimum = minimum;
+        this.size = size;
+    }
+
+    /**
+     * @return True if the ranges of the ring can be split.
+     */
+    public boolean isSplittable() {
+        return size != null;
+    }
+
+    private BigInteger offset(final String from, final String to) {
+        return new BigInteger(to).subtract(new BigInteger(from)).mod(size);
+    }
+
+    private BigInteger width(final TokenRange range) {
+        final BigInteger offset = offset(range.getStart(), range.getEnd());
+        // A range from a token to itself is the whole ring.
+        return offset.signum() == 0 ? size : offset;
+    }
+
+    private String token(final String from, final BigInteger offset) {
+        return new BigInteger(from).subtract(minimum).add(offset).mod(size)
+                .add(minimum).toString();
+    }
+
+    /**
+     * Gets the primary ranges of a node, the ranges that end at its tokens.
+     *
+     * @param tokenToEndpoint The endpoint of each token of the ring, as
+     *                        returned by NodeProbe ordered by token.
+     * @param endpoint        The endpoint of the node.
+     * @return The primary ranges of endpoint in the order of the ring.
+     */
+    public List<TokenRange> getPrimaryRanges(
+            final Map<String, String> tokenToEndpoint,
+            final String endpoint) {
+        final List<String> tokens = new ArrayList<>(tokenToEndpoint.keySet());
+        if (isSplittable()) {
+            tokens.sort((first, second) ->
+                    new BigInteger(first).compareTo(new BigInteger(second)));
+        }
+        final List<TokenRange> ranges = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (endpoint.equals(tokenToEndpoint.get(tokens.get(i)))) {
+                ranges.add(new TokenRange(
+                        tokens.get((i + tokens.size() - 1) % tokens.size()),
+                        tokens.get(i)));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Splits a range into segments of equal width.
+     *
+     * @param range    The range to split.
+     * @param segments The number of segments.
+     * @return The consecutive segments of range, fewer than segments if the
+     * range does not hold that many tokens, and range itself if the ring can
+     * not be split.
+     */
+    public List<TokenRange> split(final TokenRange range,
+                                  final long segments) {
+        if (!isSplittable() || segments <= 1) {
+            return Collections.singletonList(range);
+        }
+        final BigInteger width = width(range);
+        final BigInteger count = width.min(BigInteger.valueOf(segments));
+        final List<TokenRange> split = new ArrayList<>(count.intValue());
+        String start = range.getStart();
+        for (BigInteger i = BigInteger.ONE; i.compareTo(count) < 0;
+             i = i.add(BigInteger.ONE)) {
+            final String end = token(range.getStart(),
+                    width.multiply(i).divide(count));
+            split.add(new TokenRange(start, end));
+            start = end;
+        }
+        split.add(new TokenRange(start, range.getEnd()));
+        return split;
+    }
+
+    /**
+     * Tests if a segment was repaired.
+     *
+     * @param repaired The ranges that were repaired.
+     * @param segment  The segment.
+     * @return True if segment is within one of the repaired ranges.
+     */
+    public boolean covers(final Collection<TokenRange> repaired,
+                          final TokenRange segment) {
+        if (!isSplittable()) {
+            return repaired.contains(segment);
+        }
+        final BigInteger width = width(segment);
+        for (TokenRange range : repaired) {
+            if (offset(range.getStart(), segment.getStart()).add(width)
+                    .compareTo(width(range)) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges the ranges that follow each other, so that the ranges
+     * repaired one segment at a time are recorded as the primary ranges
+     * they are part of.
+     *
+     * @param ranges The ranges to merge.
+     * @return The ranges, with the ranges that end where another starts
+     * merged into one range.
+     */
+    public static List<TokenRange> coalesce(
+            final Collection<TokenRange> ranges) {
+        final Map<String, TokenRange> byStart = new LinkedHashMap<>();
+        for (TokenRange range : ranges) {
+            byStart.put(range.getStart(), range);
+        }
+        final List<TokenRange> merged = new ArrayList<>();
+        while (!byStart.isEmpty()) {
+            TokenRange range = byStart.remove(
+                    byStart.keySet().iterator().next());
+            // Extend the range forward, then backward.
+            TokenRange next;
+            while (!range.getStart().equals(range.getEnd()) &&
+                    (next = byStart.remove(range.getEnd())) != null) {
+                range = new TokenRange(range.getStart(), next.getEnd());
+            }
+            boolean extended = true;
+            while (extended && !range.getStart().equals(range.getEnd())) {
+                extended = false;
+                for (TokenRange previous : byStart.values()) {
+                    if (previous.getEnd().equals(range.getStart())) {
+                        byStart.remove(previous.getStart());
+                        range = new TokenRange(previous.getStart(),
+                                range.getEnd());
+                        extended = true;
+                        break;
+                    }
+                }
+            }
+            merged.add(range);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.resources;
+
+import com.codahale.metrics.annotation.Counted;
+import com.google.inject.Inject;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * BackupThrottleController implements the API for reading and adjusting the
+ * limits applied to backup uploads and restore downloads while they run.
+ * Limits set here take precedence over the limits of the running transfer
+ * task, until the next transfer task applies its own.
+ */
+@Path("/v1/backup/throttle")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class BackupThrottleController {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(BackupThrottleController.class);
+
+    private final TransferThrottle throttle;
+
+    /**
+     * Constructs a new controller.
+     * @param throttle The TransferThrottle shared by the storage drivers of
+     *                 the executor.
+     */
+    @Inject
+    public BackupThrottleController(final TransferThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Gets the current limits.
+     * @return The limits applied to backup and restore transfers.
+     */
+    @GET
+    @Counted
+    public BackupThrottleSettings getSettings() {
+        return BackupThrottleSettings.from(throttle);
+    }
+
+    /**
+     * Updates the limits. The new limits apply to transfers in progress.
+     * @param settings The limits to change.
+     * @return The limits applied to backup and restore transfers.
+     */
+    @PUT
+    @Counted
+    public BackupThrottleSettings setSettings(
+            final BackupThrottleSettings settings) {
+        if (settings == null || !settings.isValid()) {
+            throw new BadRequestException(
+                    "Throttle limits must not be negative");
+        }
+        LOGGER.info("Updating backup throttle: settings = {}", settings);
+        settings.applyTo(throttle);
+        return BackupThrottleSettings.from(throttle);
+    }
+}
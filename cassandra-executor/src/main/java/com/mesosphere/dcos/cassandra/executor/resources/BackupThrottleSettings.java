@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.resources;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
+
+import java.util.Optional;
+
+/**
+ * BackupThrottleSettings is the representation of the limits of the
+ * executor's TransferThrottle exchanged with BackupThrottleController. When
+ * used to update the throttle, absent limits are left unchanged.
+ */
+public class BackupThrottleSettings {
+
+    @JsonCreator
+    public static BackupThrottleSettings create(
+            @JsonProperty("max_bytes_per_second")
+            final Long maxBytesPerSecond,
+            @JsonProperty("max_concurrent_files")
+            final Integer maxConcurrentFiles) {
+        return new BackupThrottleSettings(maxBytesPerSecond,
+                maxConcurrentFiles);
+    }
+
+    public static BackupThrottleSettings from(final TransferThrottle throttle) {
+        return create(throttle.getMaxBytesPerSecond(),
+                throttle.getMaxConcurrentFiles());
+    }
+
+    @JsonProperty("max_bytes_per_second")
+    private final Long maxBytesPerSecond;
+
+    @JsonProperty("max_concurrent_files")
+    private final Integer maxConcurrentFiles;
+
+    private BackupThrottleSettings(final Long maxBytesPerSecond,
+                                   final Integer maxConcurrentFiles) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxConcurrentFiles = maxConcurrentFiles;
+    }
+
+    @JsonIgnore
+    public Optional<Long> getMaxBytesPerSecond() {
+        return Optional.ofNullable(maxBytesPerSecond);
+    }
+
+    @JsonIgnore
+    public Optional<Integer> getMaxConcurrentFiles() {
+        return Optional.ofNullable(maxConcurrentFiles);
+    }
+
+    /**
+     * Applies the settings that are present to the throttle.
+     *
+     * @param throttle The TransferThrottle that will be updated.
+     */
+    public void applyTo(final TransferThrottle throttle) {
+        getMaxBytesPerSecond().ifPresent(throttle::setMaxBytesPerSecond);
+        getMaxConcurrentFiles().ifPresent(throttle::setMaxConcurrentFiles);
+    }
+
+    @JsonIgnore
+    public boolean isValid() {
+        return getMaxBytesPerSecond().orElse(0L) >= 0 &&
+                getMaxConcurrentFiles().orElse(0) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
@@ -21,13 +21,21 @@ import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraStatus;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
 import com.mesosphere.dcos.cassandra.executor.CassandraExecutor;
+import com.mesosphere.dcos.cassandra.executor.compaction.AdaptiveCompactionThrottle;
+import com.mesosphere.dcos.cassandra.executor.compaction.CompactionBounds;
+import com.mesosphere.dcos.cassandra.executor.metrics.MetricsCollector;
+import com.mesosphere.dcos.cassandra.executor.metrics.PrometheusFormat;
 import org.apache.mesos.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CassandraDaemonController implements the API for remote controll of the
@@ -89,4 +97,106 @@ public class CassandraDaemonController {
 
         return getDaemon().getTask().getConfig();
     }
+
+    /**
+     * Applies settings of the application configuration to the Cassandra
+     * daemon without restarting it. The settings are also written to the
+     * cassandra.yaml of the daemon.
+     * @param settings The hot-applicable keys of cassandra.yaml with their
+     * new values.
+     * @return The applied settings.
+     * @throws IOException If the settings could not be applied or written.
+     */
+    @PUT
+    @Counted
+    @Path("/configuration")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Map<String, Object> applyConfig(
+            final Map<String, Object> settings) throws IOException {
+
+        if (settings == null) {
+            throw new BadRequestException("No configuration settings");
+        }
+        try {
+            return getDaemon().applyConfiguration(settings);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException(ex.getMessage());
+        }
+    }
+
+    private MetricsCollector.Snapshot getMetricsSnapshot() {
+
+        final MetricsCollector metrics = getDaemon().getMetrics();
+        return metrics.getSnapshot().orElseThrow(() ->
+                new ServiceUnavailableException(TimeUnit.MILLISECONDS
+                        .toSeconds(metrics.getIntervalMs())));
+    }
+
+    /**
+     * Gets the performance metrics of the Cassandra daemon. The metrics
+     * are collected in the background, and served as they were last
+     * collected until that collection expires.
+     * @return The metrics of the node as JSON.
+     */
+    @GET
+    @Counted
+    @Path("/metrics")
+    public Response getMetrics() {
+
+        return Response.ok(getMetricsSnapshot().getJson(),
+                MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    /**
+     * Gets the performance metrics of the Cassandra daemon in the
+     * Prometheus text format.
+     * @return The metrics of the node in the Prometheus text format.
+     */
+    @GET
+    @Counted
+    @Path("/metrics/prometheus")
+    @Produces(PrometheusFormat.CONTENT_TYPE)
+    public Response getPrometheusMetrics() {
+
+        return Response.ok(getMetricsSnapshot().getPrometheus(),
+                PrometheusFormat.CONTENT_TYPE).build();
+    }
+
+    /**
+     * Gets the bounds of the adaptive compaction throttle of the Cassandra
+     * daemon with the compaction settings it applied last.
+     * @return The state of the throttle.
+     */
+    @GET
+    @Counted
+    @Path("/compaction/throttle")
+    public AdaptiveCompactionThrottle.State getCompactionThrottle() {
+
+        return getDaemon().getCompactionThrottle().getState();
+    }
+
+    /**
+     * Updates the bounds of the adaptive compaction throttle of the
+     * Cassandra daemon. Disabling the throttle restores the compaction
+     * settings of the daemon.
+     * @param bounds The new bounds.
+     * @return The state of the throttle.
+     * @throws IOException If the bounds could not be persisted or the
+     * compaction settings could not be restored.
+     */
+    @PUT
+    @Counted
+    @Path("/compaction/throttle")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public AdaptiveCompactionThrottle.State setCompactionThrottle(
+            final CompactionBounds bounds) throws IOException {
+
+        if (bounds == null || !bounds.isValid()) {
+            throw new BadRequestException("Invalid compaction throttle " +
+                    "bounds: the minimum throughput must be positive, the " +
+                    "minimums must not exceed the maximums, and the disk " +
+                    "utilization must be a percentage");
+        }
+        return getDaemon().getCompactionThrottle().setBounds(bounds);
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupPruneTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.executor.backup.BackupRetention;
+import com.mesosphere.dcos.cassandra.executor.backup.BackupStorageDriver;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.apache.mesos.executor.ExecutorTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Future;
+
+/**
+ * BackupPrune implements BackupPruneTask by delegating the deletion of the
+ * expired backups, and of the files that are no longer referenced by any
+ * backup, to a BackupStorageDriver implementation.
+ */
+public class BackupPrune implements ExecutorTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+        BackupPrune.class);
+    private final ExecutorDriver driver;
+    private final BackupRestoreContext context;
+    private final BackupPruneTask cassandraTask;
+    private final BackupStorageDriver backupStorageDriver;
+
+    /**
+     * Constructs a new BackupPrune
+     *
+     * @param driver              The ExecutorDriver used to send task status.
+     * @param cassandraTask       The BackupPruneTask that will be executed.
+     * @param backupStorageDriver The BackupStorageDriver used to delete the
+     *                            expired backups.
+     */
+    public BackupPrune(
+        ExecutorDriver driver,
+        BackupPruneTask cassandraTask,
+        BackupStorageDriver backupStorageDriver) {
+        this.driver = driver;
+        this.cassandraTask = cassandraTask;
+        this.backupStorageDriver = backupStorageDriver;
+        context = cassandraTask.getBackupRestoreContext();
+    }
+
+    private void sendStatus(ExecutorDriver driver,
+                            Protos.TaskState state,
+                            String message) {
+        Protos.TaskStatus status = cassandraTask.createStatus(state,
+            Optional.of(message)).getTaskStatus();
+        driver.sendStatusUpdate(status);
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Send TASK_RUNNING
+            sendStatus(driver, Protos.TaskState.TASK_RUNNING,
+                "Started pruning backups");
+
+            final BackupRetention.Result result =
+                backupStorageDriver.prune(context);
+            LOGGER.info("Pruned backups: {}", result);
+
+            // Send TASK_FINISHED
+            sendStatus(driver, Protos.TaskState.TASK_FINISHED,
+                "Finished pruning backups. " + result);
+        } catch (Throwable t) {
+            LOGGER.error("Prune backups failed", t);
+            sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
+        }
+    }
+
+    @Override
+    public void stop(Future<?> future) {
+        future.cancel(true);
+    }
+}
@@ -34,7 +34,8 @@ import java.util.concurrent.Future;
 
 /**
  * Implements the backing up of schema for current CassandraDaemonProcess
- * using Datastax Java Driver.
+ * using Datastax Java Driver. The schema is read from the metadata of the
+ * session shared by the tasks of the executor.
  */
 public class BackupSchema implements ExecutorTask {
   private static final Logger LOGGER = LoggerFactory.getLogger(
@@ -74,14 +75,12 @@ public class BackupSchema implements ExecutorTask {
 
   @Override
   public void run() {
-      Cluster cluster = null;
-
       try {
           // Send TASK_RUNNING
           sendStatus(driver, Protos.TaskState.TASK_RUNNING,
                   "Started taking schema backup");
 
-          cluster = Cluster.builder().addContactPoint(daemon.getProbe().getEndpoint()).build();
+          final Cluster cluster = daemon.getSession().getCluster();
           final List<String> keyspaces = StorageUtil.filterSystemKeyspaces(daemon.getNonSystemKeySpaces());
 
           if (keyspaces.size() > 0) {
@@ -100,9 +99,6 @@ public class BackupSchema implements ExecutorTask {
       } catch (Throwable t){
           LOGGER.error("Schema backup failed. Reason: ", t);
           sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
-      } finally {
-          if (cluster != null)
-              cluster.close();
       }
   }
 
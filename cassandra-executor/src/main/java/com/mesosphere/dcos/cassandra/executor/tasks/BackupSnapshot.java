@@ -15,6 +15,7 @@
  */
 package com.mesosphere.dcos.cassandra.executor.tasks;
 
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupSnapshotTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
 import org.apache.mesos.ExecutorDriver;
@@ -23,18 +24,33 @@ import org.apache.mesos.executor.ExecutorTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * Implements the execution of BackupSnapshot by executing the snapshot
  * method of the CassandraDaemonProcess and reporting status via the
- * ExecutorDriver.
+ * ExecutorDriver. The memtables of the selected key spaces are flushed once,
+ * in parallel per key space, and the snapshot of all of the selected key
+ * spaces, or column families, is taken in a single invocation.
  */
 public class BackupSnapshot implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(
             BackupSnapshot.class);
+
+    /**
+     * The number of key spaces flushed concurrently.
+     */
+    static final int FLUSH_PARALLELISM = 4;
+
     private CassandraDaemonProcess daemon;
     private ExecutorDriver driver;
     private BackupSnapshotTask cassandraTask;
@@ -62,26 +78,130 @@ public class BackupSnapshot implements ExecutorTask {
         this.cassandraTask = cassandraTask;
     }
 
+    /**
+     * Selects the column families to snapshot.
+     *
+     * @param context The context of the backup.
+     * @return A map of the selected key spaces to the column families
+     * selected in each key space. An empty list of column families selects
+     * the whole key space.
+     */
+    private Map<String, List<String>> select(BackupRestoreContext context)
+            throws Exception {
+        final List<String> keySpaces = daemon.getNonSystemKeySpaces();
+        final Map<String, List<String>> selected = new LinkedHashMap<>();
+        for (String keySpace : keySpaces) {
+            if (!context.getKeySpaces().isEmpty() &&
+                    !context.getKeySpaces().contains(keySpace)) {
+                continue;
+            }
+            if (context.getColumnFamilies().isEmpty()) {
+                selected.put(keySpace, new ArrayList<>());
+                continue;
+            }
+            final List<String> columnFamilies =
+                    daemon.getColumnFamilies(keySpace).stream()
+                            .filter(context.getColumnFamilies()::contains)
+                            .collect(Collectors.toList());
+            if (!columnFamilies.isEmpty()) {
+                selected.put(keySpace, columnFamilies);
+            }
+        }
+        return selected;
+    }
+
+    private void flush(Map<String, List<String>> selected) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(FLUSH_PARALLELISM, selected.size()));
+        try {
+            final List<Future<?>> flushes = new ArrayList<>(selected.size());
+            for (Map.Entry<String, List<String>> entry : selected.entrySet()) {
+                flushes.add(executor.submit(() -> {
+                    LOGGER.info("Flushing keyspace: {} column families: {}",
+                            entry.getKey(), entry.getValue());
+                    daemon.flush(entry.getKey(), entry.getValue().toArray(
+                            new String[entry.getValue().size()]));
+                    return null;
+                }));
+            }
+            for (Future<?> flush : flushes) {
+                try {
+                    flush.get();
+                } catch (ExecutionException e) {
+                    throw new Exception(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void snapshot(String snapshotName,
+                          Map<String, List<String>> selected,
+                          boolean byColumnFamily) throws Exception {
+        if (byColumnFamily) {
+            final List<String> columnFamilies = new ArrayList<>();
+            for (Map.Entry<String, List<String>> entry : selected.entrySet()) {
+                for (String columnFamily : entry.getValue()) {
+                    columnFamilies.add(entry.getKey() + "." + columnFamily);
+                }
+            }
+            LOGGER.info("Taking snapshot {} for column families: {}",
+                    snapshotName, columnFamilies);
+            daemon.takeTableSnapShot(snapshotName, columnFamilies);
+        } else {
+            LOGGER.info("Taking snapshot {} for keyspaces: {}",
+                    snapshotName, selected.keySet());
+            daemon.takeSnapShot(snapshotName, selected.keySet().toArray(
+                    new String[selected.size()]));
+        }
+    }
+
     @Override
     public void run() {
         try {
             // Send TASK_RUNNING
             sendStatus(driver, Protos.TaskState.TASK_RUNNING, "Started taking snapshot");
 
-            final String snapshotName = this.cassandraTask.getBackupRestoreContext().getName();
+            final BackupRestoreContext context =
+                    this.cassandraTask.getBackupRestoreContext();
+            final String snapshotName = context.getName();
             final List<String> nonSystemKeyspaces = daemon.getNonSystemKeySpaces();
-            LOGGER.info("Started taking snapshot for non system keyspaces: {}", nonSystemKeyspaces);
 
-            for (String keyspace : nonSystemKeyspaces) {
-                LOGGER.info("Clearing snapshot {} for keyspace: {}", snapshotName, keyspace);
-                daemon.clearSnapshot(snapshotName, keyspace);
-                LOGGER.info("Taking snapshot {} for keyspace: {}", snapshotName, keyspace);
-                daemon.takeSnapShot(snapshotName, keyspace);
+            // Clear the snapshot from all key spaces, so that a stale
+            // snapshot of an unselected key space is not uploaded.
+            if (!nonSystemKeyspaces.isEmpty()) {
+                LOGGER.info("Clearing snapshot {} for keyspaces: {}",
+                        snapshotName, nonSystemKeyspaces);
+                daemon.clearSnapshot(snapshotName, nonSystemKeyspaces.toArray(
+                        new String[nonSystemKeyspaces.size()]));
+            }
+
+            final Map<String, List<String>> selected = select(context);
+            if (selected.isEmpty()) {
+                sendStatus(driver, Protos.TaskState.TASK_FINISHED,
+                        "No keyspaces selected for snapshot");
+                return;
             }
+            LOGGER.info("Started taking snapshot for keyspaces: {}", selected);
+
+            final long flushStart = System.currentTimeMillis();
+            flush(selected);
+            final long flushMillis = System.currentTimeMillis() - flushStart;
+
+            final long snapshotStart = System.currentTimeMillis();
+            snapshot(snapshotName, selected,
+                    !context.getColumnFamilies().isEmpty());
+            final long snapshotMillis =
+                    System.currentTimeMillis() - snapshotStart;
+            LOGGER.info("Took snapshot {}, flush: {} ms, snapshot: {} ms",
+                    snapshotName, flushMillis, snapshotMillis);
 
             // Send TASK_FINISHED
             sendStatus(driver, Protos.TaskState.TASK_FINISHED,
-                    "Finished taking snapshot for non system keyspaces: " + nonSystemKeyspaces);
+                    "Finished taking snapshot for keyspaces: " +
+                            selected.keySet() + " (flush: " + flushMillis +
+                            " ms, snapshot: " + snapshotMillis + " ms)");
         } catch (Throwable t) {
             LOGGER.error("Snapshot failed",t);
             sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
@@ -7,6 +7,7 @@ import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairTask;
 import com.mesosphere.dcos.cassandra.common.tasks.upgradesstable.UpgradeSSTableTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
 import com.mesosphere.dcos.cassandra.executor.backup.StorageDriverFactory;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
 import org.apache.mesos.ExecutorDriver;
 import org.apache.mesos.Protos;
 import org.apache.mesos.executor.ExecutorTask;
@@ -29,10 +30,12 @@ public class CassandraTaskFactory implements ExecutorTaskFactory {
     private final ScheduledExecutorService scheduledExecutorService =
             Executors.newScheduledThreadPool(DEFAULT_CORE_THREAD_POOL_SIZE);
     private final ExecutorDriver driver;
+    private final TransferThrottle throttle;
     private CassandraDaemonProcess cassandra;
 
-    public CassandraTaskFactory(ExecutorDriver driver) {
+    public CassandraTaskFactory(ExecutorDriver driver, TransferThrottle throttle) {
        this.driver = driver;
+       this.throttle = throttle;
     }
 
     public CassandraDaemonProcess getCassandra() {
@@ -70,25 +73,50 @@ public class CassandraTaskFactory implements ExecutorTaskFactory {
                     cassandra,
                     (BackupSnapshotTask) cassandraTask);
             case BACKUP_UPLOAD:
+                throttle.configure(((BackupUploadTask) cassandraTask)
+                        .getBackupRestoreContext());
                 return new UploadSnapshot(
                     driver,
                     cassandra,
                     (BackupUploadTask) cassandraTask,
                     StorageDriverFactory.createStorageDriver(
-                                cassandraTask));
+                                cassandraTask, throttle));
             case BACKUP_SCHEMA:
                 return new BackupSchema(
                         driver,
                         cassandra,
                         (BackupSchemaTask) cassandraTask,
                         StorageDriverFactory.createStorageDriver(
-                                cassandraTask));
+                                cassandraTask, throttle));
+            case BACKUP_PRUNE:
+                return new BackupPrune(
+                        driver,
+                        (BackupPruneTask) cassandraTask,
+                        StorageDriverFactory.createStorageDriver(
+                                cassandraTask, throttle));
+            case VERIFY_BACKUP:
+                return new VerifyBackup(
+                        driver,
+                        (VerifyBackupTask) cassandraTask,
+                        StorageDriverFactory.createStorageDriver(
+                                cassandraTask, throttle));
+            case COPY_BACKUP:
+                throttle.configure(((CopyBackupTask) cassandraTask)
+                        .getCopyBackupContext().getSource());
+                return new CopyBackup(
+                        driver,
+                        (CopyBackupTask) cassandraTask,
+                        StorageDriverFactory.createStorageDriver(
+                                cassandraTask, throttle));
             case SNAPSHOT_DOWNLOAD:
+                throttle.configure(((DownloadSnapshotTask) cassandraTask)
+                        .getBackupRestoreContext());
                 return new DownloadSnapshot(
                     driver,
                     (DownloadSnapshotTask) cassandraTask,
                     StorageDriverFactory.createStorageDriver(
-                                cassandraTask));
+                                cassandraTask, throttle),
+                    cassandra);
             case SNAPSHOT_RESTORE:
                 return new RestoreSnapshot(
                     driver,
@@ -100,7 +128,7 @@ public class CassandraTaskFactory implements ExecutorTaskFactory {
                     cassandra,
                     (RestoreSchemaTask) cassandraTask,
                     StorageDriverFactory.createStorageDriver(
-                                cassandraTask));
+                                cassandraTask, throttle));
             case CLEANUP:
                 return new Cleanup(
                     driver,
@@ -15,8 +15,11 @@
  */
 package com.mesosphere.dcos.cassandra.executor.tasks;
 
+import com.mesosphere.dcos.cassandra.common.tasks.cleanup.CleanupContext;
 import com.mesosphere.dcos.cassandra.common.tasks.cleanup.CleanupTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
+import com.mesosphere.dcos.cassandra.executor.cleanup.ParallelCleanup;
+import com.mesosphere.dcos.cassandra.executor.compaction.AdaptiveCompactionThrottle;
 import org.apache.mesos.ExecutorDriver;
 import org.apache.mesos.Protos;
 import org.apache.mesos.executor.ExecutorTask;
@@ -24,18 +27,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Implements the execution of CleanupTask for the node invoking the cleanup
  * methods of the CassandraDaemonProcess for the key spaces and column
- * families indicated by the task.
+ * families indicated by the task. Key spaces are cleaned in parallel as far
+ * as the free space of the data volume allows, with the compaction
+ * throughput of the task, if any, applied while they are cleaned. The
+ * progress of the cleanup compactions of each table is sent with the status
+ * updates of the task.
  */
 public class Cleanup implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(Cleanup.class);
 
+    /**
+     * The interval between two status updates with the progress of the
+     * cleanup.
+     */
+    public static final long REPORT_INTERVAL_MS =
+        TimeUnit.SECONDS.toMillis(30);
+
+    private static final String CLEANUP_COMPACTION = "Cleanup";
+
     private final CassandraDaemonProcess daemon;
     private final ExecutorDriver driver;
     private final CleanupTask task;
@@ -52,6 +72,46 @@ public class Cleanup implements ExecutorTask {
         return task.getCleanupContext().getColumnFamilies();
     }
 
+    /**
+     * Formats the progress of cleanup compactions.
+     *
+     * @param compactions The cleanup compactions reported by the
+     *                    CompactionManager MBean.
+     * @return The percentage of each table that was cleaned, in the form
+     * keyspace.table percent%.
+     */
+    static String formatProgress(List<Map<String, String>> compactions) {
+        final Map<String, long[]> tables = new LinkedHashMap<>();
+        for (Map<String, String> compaction : compactions) {
+            final long[] bytes = tables.computeIfAbsent(
+                compaction.get("keyspace") + "." +
+                    compaction.get("columnfamily"),
+                table -> new long[2]);
+            bytes[0] += Long.parseLong(compaction.get("completed"));
+            bytes[1] += Long.parseLong(compaction.get("total"));
+        }
+        return tables.entrySet().stream()
+            .map(table -> String.format("%s %.1f%%", table.getKey(),
+                table.getValue()[1] > 0 ?
+                    100.0 * table.getValue()[0] / table.getValue()[1] :
+                    0.0))
+            .collect(Collectors.joining(", "));
+    }
+
+    private void report(ParallelCleanup cleanup, int keySpaces) {
+        try {
+            sendStatus(driver, Protos.TaskState.TASK_RUNNING,
+                String.format("Cleaning: %d of %d key spaces cleaned, " +
+                        "tables = [%s]",
+                    cleanup.getCompleted().size(),
+                    keySpaces,
+                    formatProgress(daemon.getCompactions(
+                        CLEANUP_COMPACTION))));
+        } catch (Throwable t) {
+            LOGGER.warn("Failed to read the progress of the cleanup", t);
+        }
+    }
+
     private void sendStatus(ExecutorDriver driver,
                             Protos.TaskState state, String message) {
         Protos.TaskStatus status =
@@ -86,18 +146,34 @@ public class Cleanup implements ExecutorTask {
                     keySpaces,
                     columnFamilies));
 
+            final CleanupContext context = task.getCleanupContext();
+            final Map<String, Long> sizes = new LinkedHashMap<>();
             for (String keyspace : keySpaces) {
-                LOGGER.info("Starting cleanup : keySpace = {}, " +
-                        "columnFamilies = {}",
-                    keyspace,
-                    Arrays.asList(columnFamilies));
-
-                daemon.cleanup(keyspace, columnFamilies);
-
-                LOGGER.info("Completed cleanup : keySpace = {}, " +
-                        "columnFamilies = {}",
-                    keyspace,
-                    Arrays.asList(columnFamilies));
+                sizes.put(keyspace,
+                    daemon.getLiveDiskSpaceUsed(keyspace, columnFamilies));
+            }
+            final ParallelCleanup cleanup = new ParallelCleanup(sizes,
+                daemon.getDataUsableSpace());
+            final Optional<Integer> throughput =
+                context.getCompactionThroughputMbPerSec();
+            final AdaptiveCompactionThrottle throttle =
+                daemon.getCompactionThrottle();
+            try {
+                if (throughput.isPresent()) {
+                    // The throttle yields to the throughput of the cleanup
+                    // until it is released.
+                    throttle.override(throughput.get());
+                }
+                cleanup.run(task.getName(),
+                    keyspace -> daemon.cleanup(keyspace, columnFamilies,
+                        context.getJobs()),
+                    context.getParallelKeySpaces(),
+                    REPORT_INTERVAL_MS,
+                    () -> report(cleanup, keySpaces.size()));
+            } finally {
+                if (throughput.isPresent()) {
+                    throttle.release();
+                }
             }
 
             sendStatus(driver, Protos.TaskState.TASK_FINISHED,
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupTask;
+import com.mesosphere.dcos.cassandra.executor.backup.BackupStorageDriver;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.apache.mesos.executor.ExecutorTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Future;
+
+/**
+ * CopyBackup implements CopyBackupTask by delegating the copy of the backup
+ * of all nodes from the source to the destination external location to a
+ * BackupStorageDriver implementation.
+ */
+public class CopyBackup implements ExecutorTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+        CopyBackup.class);
+    private final ExecutorDriver driver;
+    private final CopyBackupContext context;
+    private final CopyBackupTask cassandraTask;
+    private final BackupStorageDriver backupStorageDriver;
+    private final ProgressReporter reporter;
+
+    /**
+     * Constructs a new CopyBackup
+     *
+     * @param driver              The ExecutorDriver used to send task status.
+     * @param cassandraTask       The CopyBackupTask that will be executed.
+     * @param backupStorageDriver The BackupStorageDriver used to copy the
+     *                            backup.
+     */
+    public CopyBackup(
+        ExecutorDriver driver,
+        CopyBackupTask cassandraTask,
+        BackupStorageDriver backupStorageDriver) {
+        this.driver = driver;
+        this.cassandraTask = cassandraTask;
+        this.backupStorageDriver = backupStorageDriver;
+        context = cassandraTask.getCopyBackupContext();
+        reporter = new ProgressReporter(driver, cassandraTask,
+            backupStorageDriver.getTracker()::getProgress,
+            "Copying backup");
+    }
+
+    private void sendStatus(ExecutorDriver driver,
+                            Protos.TaskState state,
+                            String message) {
+        reporter.send(state, message);
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Send TASK_RUNNING
+            sendStatus(driver, Protos.TaskState.TASK_RUNNING,
+                "Started copying backup");
+            reporter.start();
+
+            backupStorageDriver.copy(context.getSource(),
+                context.getDestination());
+            reporter.close();
+            LOGGER.info("Copied backup: {} to: {}", context.getSource().getName(),
+                context.getDestination().getExternalLocation());
+
+            // Send TASK_FINISHED
+            sendStatus(driver, Protos.TaskState.TASK_FINISHED,
+                "Finished copying backup: " +
+                    backupStorageDriver.getTracker().getProgress());
+        } catch (Throwable t) {
+            LOGGER.error("Copy backup failed", t);
+            reporter.close();
+            sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
+        }
+    }
+
+    @Override
+    public void stop(Future<?> future) {
+        reporter.close();
+        future.cancel(true);
+    }
+}
@@ -17,7 +17,10 @@ package com.mesosphere.dcos.cassandra.executor.tasks;
 
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.DownloadSnapshotTask;
+import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
 import com.mesosphere.dcos.cassandra.executor.backup.BackupStorageDriver;
+import com.mesosphere.dcos.cassandra.executor.backup.SSTableBulkLoader;
+import com.mesosphere.dcos.cassandra.executor.backup.SSTableRefresher;
 import org.apache.mesos.ExecutorDriver;
 import org.apache.mesos.Protos;
 import org.apache.mesos.executor.ExecutorTask;
@@ -29,29 +32,58 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Optional;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * DownloadSnapshot implements the execution of the DownloadSnapshotTask by
  * delegating download of the snapshotted tables to a BackupStorageDriver
- * implementation.
+ * implementation. Each table is loaded as soon as all of its files are
+ * downloaded, while the download of the next tables continues, and the
+ * staged files of a table restored to a new cluster are deleted once it is
+ * loaded. Up to the maximum number of concurrent files of the restore
+ * tables are loaded concurrently, through a single bulk loader, and at most
+ * MAX_STAGED_TABLES further downloaded tables wait to be loaded, so the
+ * scratch space used by a restore is bounded by a few tables. The
+ * progress of the download is reported periodically while it runs, the
+ * tables loaded are only logged so that the rate of status updates does not
+ * grow with the number of tables.
  */
 public class DownloadSnapshot implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(
             DownloadSnapshot.class);
+
+    /**
+     * The number of downloaded tables that may wait to be loaded before
+     * the download blocks.
+     */
+    static final int MAX_STAGED_TABLES = 2;
+
     private ExecutorDriver driver;
     private BackupRestoreContext context;
     private DownloadSnapshotTask cassandraTask;
     private BackupStorageDriver backupStorageDriver;
+    private CassandraDaemonProcess cassandra;
+    private SSTableRefresher refresher;
+    private SSTableBulkLoader loader;
+    private final ProgressReporter reporter;
+    private final ExecutorService loadExecutor;
+    private final Semaphore staged;
+    private final List<Future<?>> loads =
+            Collections.synchronizedList(new ArrayList<>());
 
     private void sendStatus(ExecutorDriver driver,
                             Protos.TaskState state,
                             String message) {
-        Protos.TaskStatus status = cassandraTask.createStatus(state,
-            Optional.of(message)).getTaskStatus();
-        driver.sendStatusUpdate(status);
+        reporter.send(state, message);
     }
 
     /**
@@ -61,14 +93,108 @@ public class DownloadSnapshot implements ExecutorTask {
      * @param task                The DownloadSnapshotTask that will be executed.
      * @param backupStorageDriver The BackupStorageDriver that implements
      *                            downloading the snapshot.
+     * @param cassandra           The CassandraDaemonProcess that the
+     *                            downloaded tables are loaded into.
      */
     public DownloadSnapshot(ExecutorDriver driver,
                             DownloadSnapshotTask task,
-                            BackupStorageDriver backupStorageDriver) {
+                            BackupStorageDriver backupStorageDriver,
+                            CassandraDaemonProcess cassandra) {
         this.driver = driver;
         this.backupStorageDriver = backupStorageDriver;
         this.cassandraTask = task;
         this.context = task.getBackupRestoreContext();
+        this.cassandra = cassandra;
+        this.reporter = new ProgressReporter(driver, task,
+                backupStorageDriver.getTracker()::getProgress,
+                "Downloading snapshot");
+        final int concurrency = context.getMaxConcurrentFiles() > 0 ?
+                context.getMaxConcurrentFiles() :
+                SSTableBulkLoader.DEFAULT_CONCURRENT_TABLES;
+        this.loadExecutor = Executors.newFixedThreadPool(concurrency);
+        this.staged = new Semaphore(concurrency + MAX_STAGED_TABLES);
+    }
+
+    private boolean isNewRestore() {
+        return Objects.equals(context.getRestoreType(), "new");
+    }
+
+    private static void delete(Path path) throws Exception {
+        if (path.toFile().exists()) {
+            Files.walk(path, FileVisitOption.FOLLOW_LINKS)
+                    .sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    private void checkLoads() throws Exception {
+        synchronized (loads) {
+            for (Future<?> load : loads) {
+                if (load.isDone()) {
+                    try {
+                        load.get();
+                    } catch (ExecutionException e) {
+                        throw new Exception(e.getCause());
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized SSTableRefresher getRefresher() {
+        if (refresher == null) {
+            refresher = new SSTableRefresher(cassandra.getProbe(),
+                    context.getMaxConcurrentFiles());
+        }
+        return refresher;
+    }
+
+    private synchronized SSTableBulkLoader getLoader() throws Exception {
+        if (loader == null) {
+            loader = SSTableBulkLoader.create(cassandra, context);
+        }
+        return loader;
+    }
+
+    private void load(File directory) throws Exception {
+        final String keyspace = directory.getParentFile().getName();
+        final String columnFamily = directory.getName();
+        if (isNewRestore()) {
+            getLoader().load(
+                    Collections.singletonList(directory),
+                    progress -> LOGGER.info("Restoring snapshot: {}",
+                            SSTableBulkLoader.summarize(progress)));
+            delete(directory.toPath());
+            LOGGER.info("Restored keyspace: {} column family: {}", keyspace,
+                    columnFamily);
+        } else {
+            final String table =
+                    columnFamily.substring(0, columnFamily.indexOf("-"));
+            final SSTableRefresher.Result result =
+                    getRefresher().refresh(keyspace, table);
+            RefreshedTables.add(context, keyspace, table);
+            LOGGER.info("Refreshed {}", result);
+        }
+    }
+
+    private void onTableDownloaded(File directory) throws Exception {
+        // Fail the download as soon as a table fails to load.
+        checkLoads();
+        staged.acquire();
+        try {
+            loads.add(loadExecutor.submit(() -> {
+                try {
+                    load(directory);
+                } finally {
+                    staged.release();
+                }
+                return null;
+            }));
+        } catch (Throwable t) {
+            staged.release();
+            throw t;
+        }
     }
 
     @Override
@@ -79,29 +205,54 @@ public class DownloadSnapshot implements ExecutorTask {
             // Send TASK_RUNNING
             sendStatus(driver, Protos.TaskState.TASK_RUNNING,
                     "Started downloading snapshot");
+            reporter.start();
+
+            // Forget the tables refreshed by an earlier download.
+            RefreshedTables.clear(context);
 
             // cleanup downloaded snapshot directory recursively if exists.
             Path rootPath = Paths.get(context.getLocalLocation() + File.separator + context.getName());
-            if (rootPath.toFile().exists()) {
-                Files.walk(rootPath, FileVisitOption.FOLLOW_LINKS)
-                        .sorted(Comparator.reverseOrder())
-                        .map(Path::toFile)
-                        .forEach(File::delete);
+            delete(rootPath);
+            // A node restoring a backup taken by a cluster with a different
+            // topology downloads the backups of several source nodes.
+            for (String node : context.getRestoredNodes()) {
+                backupStorageDriver.download(context.forNode(node),
+                        this::onTableDownloaded);
+            }
+
+            // Wait for the tables that are still being loaded.
+            final List<Future<?>> pending;
+            synchronized (loads) {
+                pending = new ArrayList<>(loads);
+            }
+            for (Future<?> load : pending) {
+                try {
+                    load.get();
+                } catch (ExecutionException e) {
+                    throw new Exception(e.getCause());
+                }
             }
-            backupStorageDriver.download(context);
 
             // Send TASK_FINISHED
-            sendStatus(driver, Protos.TaskState.TASK_FINISHED,
-                    "Finished downloading snapshots");
+            reporter.close();
+            sendStatus(driver, Protos.TaskState.TASK_FINISHED, String.format(
+                    "Finished downloading and restoring %d tables: %s",
+                    pending.size(), backupStorageDriver.getTracker().getProgress()));
         } catch (Throwable t) {
 
             LOGGER.error("Download snapshot failed",t);
+            reporter.close();
             sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
+        } finally {
+            reporter.close();
+            loadExecutor.shutdownNow();
         }
     }
 
     @Override
     public void stop(Future<?> future) {
+        reporter.close();
         future.cancel(true);
+        loadExecutor.shutdownNow();
     }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ProgressReporter sends the status updates of a task that transfers the
+ * files of a backup. Every status carries the current TransferProgress of
+ * the task in its data, and while the task runs a TASK_RUNNING status with
+ * the progress is sent periodically. Periodic updates are only sent when
+ * the progress changed and no other status was sent during the interval.
+ * A TASK_RUNNING status sent less than an interval after the last status is
+ * held back and sent by the next periodic update instead, replacing any
+ * status held back before it, so the rate of status updates is bounded
+ * however fast the transfer is. Other states are always sent immediately.
+ */
+public class ProgressReporter implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            ProgressReporter.class);
+
+    /**
+     * The minimum interval between two periodic progress updates.
+     */
+    public static final long DEFAULT_REPORT_INTERVAL_MS =
+            TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Adds the progress of a transfer to a status.
+     *
+     * @param status   The status of a task.
+     * @param progress The progress of the transfer of the task.
+     * @return The status with progress in its data.
+     */
+    static Protos.TaskStatus withProgress(final Protos.TaskStatus status,
+                                          final TransferProgress progress) {
+        return Protos.TaskStatus.newBuilder(status)
+                .setData(CassandraData.parse(status.getData())
+                        .withProgress(progress)
+                        .getBytes())
+                .build();
+    }
+
+    private final ExecutorDriver driver;
+    private final CassandraTask task;
+    private final Supplier<TransferProgress> progress;
+    private final String description;
+    private final long intervalMs;
+    private ScheduledExecutorService scheduler;
+    private long lastSent = 0;
+    private TransferProgress lastProgress = null;
+    private String pending = null;
+
+    /**
+     * Constructs a new ProgressReporter.
+     *
+     * @param driver      The ExecutorDriver used to send task status.
+     * @param task        The task whose status is sent.
+     * @param progress    Supplies the current progress of the task.
+     * @param description The description of the transfer in the messages of
+     *                    periodic updates.
+     * @param intervalMs  The minimum interval between two periodic updates.
+     */
+    public ProgressReporter(final ExecutorDriver driver,
+                            final CassandraTask task,
+                            final Supplier<TransferProgress> progress,
+                            final String description,
+                            final long intervalMs) {
+        this.driver = driver;
+        this.task = task;
+        this.progress = progress;
+        this.description = description;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Constructs a new ProgressReporter that sends periodic updates at most
+     * every DEFAULT_REPORT_INTERVAL_MS.
+     */
+    public ProgressReporter(final ExecutorDriver driver,
+                            final CassandraTask task,
+                            final Supplier<TransferProgress> progress,
+                            final String description) {
+        this(driver, task, progress, description, DEFAULT_REPORT_INTERVAL_MS);
+    }
+
+    /**
+     * Starts sending periodic updates.
+     */
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("progress-" + task.getName())
+                            .setDaemon(true)
+                            .build());
+            scheduler.scheduleWithFixedDelay(this::report, intervalMs,
+                    intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends a status with the current progress. A TASK_RUNNING status is
+     * held back until the next periodic update if a status was sent less
+     * than an interval ago.
+     *
+     * @param state   The state of the task.
+     * @param message The message of the status.
+     */
+    public synchronized void send(final Protos.TaskState state,
+                                  final String message) {
+        if (state == Protos.TaskState.TASK_RUNNING &&
+                System.currentTimeMillis() - lastSent < intervalMs) {
+            pending = message;
+            return;
+        }
+        sendNow(state, message);
+    }
+
+    private void sendNow(final Protos.TaskState state, final String message) {
+        final TransferProgress current = progress.get();
+        driver.sendStatusUpdate(withProgress(
+                task.createStatus(state, Optional.of(message)).getTaskStatus(),
+                current));
+        lastSent = System.currentTimeMillis();
+        lastProgress = current;
+        pending = null;
+    }
+
+    /**
+     * Tests if no bytes or files were transferred or discovered since the
+     * last status, the rate is ignored as it decays while nothing happens.
+     */
+    private boolean isUnchanged(final TransferProgress current) {
+        return lastProgress != null &&
+                current.getFiles() == lastProgress.getFiles() &&
+                current.getTotalFiles() == lastProgress.getTotalFiles() &&
+                current.getBytes() == lastProgress.getBytes() &&
+                current.getTotalBytes() == lastProgress.getTotalBytes();
+    }
+
+    synchronized void report() {
+        try {
+            if (System.currentTimeMillis() - lastSent < intervalMs) {
+                return;
+            }
+            if (pending != null) {
+                sendNow(Protos.TaskState.TASK_RUNNING, pending);
+                return;
+            }
+            final TransferProgress current = progress.get();
+            if (!isUnchanged(current)) {
+                sendNow(Protos.TaskState.TASK_RUNNING,
+                        description + ": " + current);
+            }
+        } catch (Throwable t) {
+            LOGGER.warn("Failed to report progress of task: {}",
+                    task.getName(), t);
+        }
+    }
+
+    /**
+     * Stops sending periodic updates.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
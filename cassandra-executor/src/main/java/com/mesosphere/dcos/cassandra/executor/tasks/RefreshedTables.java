@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * RefreshedTables records the tables that DownloadSnapshot refreshed while
+ * it downloaded a backup to an existing cluster, so that RestoreSnapshot
+ * does not refresh them again. The record is a file in the directory the
+ * backup is downloaded to, so it survives a restart of the executor between
+ * the download and the restore. A lost record only causes tables to be
+ * refreshed twice, so failures to read or write it are logged and ignored.
+ */
+final class RefreshedTables {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+            RefreshedTables.class);
+
+    private RefreshedTables() {
+        // do not instantiate
+    }
+
+    /**
+     * Gets the path of the record of the tables refreshed for a restore.
+     *
+     * @param context The context of the restore.
+     * @return The path of the record in the local location of the restore.
+     */
+    static Path path(final BackupRestoreContext context) {
+        return Paths.get(context.getLocalLocation(),
+                "." + context.getName() + ".refreshed");
+    }
+
+    /**
+     * Records that a table was refreshed.
+     *
+     * @param context  The context of the restore.
+     * @param keyspace The keyspace of the table.
+     * @param table    The name of the table.
+     */
+    static synchronized void add(final BackupRestoreContext context,
+                                 final String keyspace,
+                                 final String table) {
+        try {
+            Files.write(path(context),
+                    Collections.singletonList(keyspace + "." + table),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to record refresh of keyspace: {} table: {}",
+                    keyspace, table, e);
+        }
+    }
+
+    /**
+     * Reads the tables refreshed for a restore.
+     *
+     * @param context The context of the restore.
+     * @return The tables refreshed, as keyspace.table, empty if none were
+     * recorded.
+     */
+    static synchronized Set<String> read(final BackupRestoreContext context) {
+        final Path path = path(context);
+        try {
+            return Files.exists(path) ?
+                    new LinkedHashSet<>(Files.readAllLines(path,
+                            StandardCharsets.UTF_8)) :
+                    Collections.emptySet();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read refreshed tables: {}", path, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Deletes the record of the tables refreshed for a restore.
+     *
+     * @param context The context of the restore.
+     */
+    static synchronized void clear(final BackupRestoreContext context) {
+        try {
+            Files.deleteIfExists(path(context));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete refreshed tables: {}",
+                    path(context), e);
+        }
+    }
+}
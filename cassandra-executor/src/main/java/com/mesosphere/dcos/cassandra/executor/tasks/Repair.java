@@ -15,8 +15,16 @@
  */
 package com.mesosphere.dcos.cassandra.executor.tasks;
 
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairContext;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
+import com.mesosphere.dcos.cassandra.executor.metrics.MetricsCollector;
+import com.mesosphere.dcos.cassandra.executor.repair.RepairThrottle;
+import com.mesosphere.dcos.cassandra.executor.repair.SubrangeRepair;
+import com.mesosphere.dcos.cassandra.executor.repair.TokenRange;
+import com.mesosphere.dcos.cassandra.executor.repair.TokenRing;
 import org.apache.cassandra.repair.RepairParallelism;
 import org.apache.cassandra.repair.messages.RepairOption;
 import org.apache.mesos.ExecutorDriver;
@@ -25,22 +33,42 @@ import org.apache.mesos.executor.ExecutorTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Implements anti-entropy, primary range, sequential repair by executing
- * RepairTask by delegating repair to the CassandraDaemonProcess.
+ * Implements anti-entropy, primary range repair by executing RepairTask by
+ * delegating repair to the CassandraDaemonProcess. The primary ranges of the
+ * node are split into segments sized by the estimated number of partitions
+ * of each range, which are repaired with a bounded parallelism by a
+ * SubrangeRepair. The progress is sent with the status updates of the task,
+ * so that a relaunched task resumes where the previous one stopped. The
+ * segments are spread over the duration per node of the repair, and do not
+ * start while the node is loaded beyond the limits of the repair. Nodes
+ * that have not joined the ring, and repairs that are not split, are
+ * repaired with an incremental repair of all their primary ranges.
  */
 public class Repair implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(Repair.class);
 
+    /**
+     * The minimum interval between two status updates with the progress of
+     * the repair.
+     */
+    public static final long REPORT_INTERVAL_MS =
+        TimeUnit.SECONDS.toMillis(5);
+
     private final CassandraDaemonProcess daemon;
     private final ExecutorDriver driver;
     private final RepairTask task;
+    private volatile SubrangeRepair subrange = null;
+    private long lastReport = 0;
 
     private List<String> getKeySpaces() {
         if (task.getRepairContext().getKeySpaces().isEmpty()) {
@@ -78,6 +106,63 @@ public class Repair implements ExecutorTask {
                 keyspace, columnFamilies));
     }
 
+    private void repairSegment(String keyspace,
+                               List<String> columnFamilies,
+                               TokenRange segment) throws Exception {
+        // Cassandra does not repair sub-ranges incrementally, and the
+        // segments are all within the primary ranges of the node.
+        Map<String, String> options = new HashMap<>();
+        options.put(RepairOption.PRIMARY_RANGE_KEY, "false");
+        options.put(RepairOption.RANGES_KEY, segment.toString());
+        options.put(RepairOption.COLUMNFAMILIES_KEY,
+            String.join(",", columnFamilies));
+        options.put(RepairOption.PARALLELISM_KEY,
+            task.getRepairContext().getParallelism());
+        options.put(RepairOption.INCREMENTAL_KEY, "false");
+
+        String result = daemon.repair(keyspace, options);
+
+        LOGGER.info("Completed repair of segment: keySpace = {}, " +
+            "range = {}, output = {}", keyspace, segment, result);
+    }
+
+    private SubrangeRepair plan(TokenRing ring,
+                                List<TokenRange> primaryRanges,
+                                List<String> keySpaces,
+                                List<String> columnFamilies) {
+        final long partitionsPerSegment =
+            task.getRepairContext().getPartitionsPerSegment();
+        final Map<String, List<TokenRange>> segments = new LinkedHashMap<>();
+        for (String keyspace : keySpaces) {
+            segments.put(keyspace, SubrangeRepair.plan(ring, primaryRanges,
+                daemon.getPartitionEstimates(keyspace, columnFamilies),
+                partitionsPerSegment));
+        }
+        return new SubrangeRepair(ring, segments,
+            task.getRepairProgress().orElse(RepairProgress.NONE));
+    }
+
+    private RepairThrottle throttle(SubrangeRepair subrange) {
+        final RepairContext context = task.getRepairContext();
+        final int pending = subrange.getPendingSegments();
+        final long intervalMs = pending > 0 ?
+            context.getDurationPerNodeMs() / pending : 0;
+        return new RepairThrottle(
+            () -> daemon.getMetrics().getSnapshot()
+                .map(MetricsCollector.Snapshot::getMetrics),
+            intervalMs,
+            context.getMaxPendingCompactions(),
+            context.getMaxLatencyMs());
+    }
+
+    private void report(RepairProgress progress) {
+        final long now = System.currentTimeMillis();
+        if (now - lastReport >= REPORT_INTERVAL_MS) {
+            sendStatus(driver, Protos.TaskState.TASK_RUNNING,
+                "Repairing: " + progress);
+        }
+    }
+
     /**
      * Creates a new Repair.
      *
@@ -105,8 +190,30 @@ public class Repair implements ExecutorTask {
                     keySpaces,
                     columnFamilies));
 
-            for (String keyspace : keySpaces) {
-                repairKeyspace(keyspace, columnFamilies);
+            final TokenRing ring = daemon.getTokenRing();
+            final List<TokenRange> primaryRanges =
+                task.getRepairContext().getPartitionsPerSegment() > 0 ?
+                    daemon.getPrimaryRanges(ring) :
+                    Collections.emptyList();
+            if (primaryRanges.isEmpty()) {
+                for (String keyspace : keySpaces) {
+                    repairKeyspace(keyspace, columnFamilies);
+                }
+            } else {
+                subrange = plan(ring, primaryRanges, keySpaces,
+                    columnFamilies);
+                LOGGER.info("Repairing {} segments of {} primary ranges, " +
+                        "{} at a time: {}",
+                    subrange.getPendingSegments(),
+                    primaryRanges.size(),
+                    task.getRepairContext().getParallelSegments(),
+                    subrange.getProgress());
+                subrange.run(task.getName(),
+                    (keyspace, segment) ->
+                        repairSegment(keyspace, columnFamilies, segment),
+                    task.getRepairContext().getParallelSegments(),
+                    throttle(subrange),
+                    this::report);
             }
 
             // Send TASK_FINISHED
@@ -128,6 +235,17 @@ public class Repair implements ExecutorTask {
         Protos.TaskStatus status = task
             .createStatus(state, Optional.of(message))
             .getTaskStatus();
+        final SubrangeRepair current = subrange;
+        if (current != null) {
+            // The progress of the segments is kept in the data of the
+            // status, from which the scheduler resumes a relaunched task.
+            status = Protos.TaskStatus.newBuilder(status)
+                .setData(CassandraData.parse(status.getData())
+                    .withRepairProgress(current.getProgress())
+                    .getBytes())
+                .build();
+            lastReport = System.currentTimeMillis();
+        }
         driver.sendStatusUpdate(status);
     }
 
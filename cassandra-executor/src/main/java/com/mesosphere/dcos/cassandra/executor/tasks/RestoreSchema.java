@@ -7,6 +7,7 @@ import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.RestoreSchemaTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
 import com.mesosphere.dcos.cassandra.executor.backup.BackupStorageDriver;
+import com.mesosphere.dcos.cassandra.executor.backup.SchemaRestorer;
 import org.apache.mesos.ExecutorDriver;
 import org.apache.mesos.Protos;
 import org.apache.mesos.executor.ExecutorTask;
@@ -14,11 +15,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
-import java.util.Scanner;
 import java.util.concurrent.Future;
 
 /**
  * Restores the schema first before restoring the data and only if it does not exist.
+ * The statements are run by a SchemaRestorer over the session shared by the
+ * tasks of the executor.
  */
 public class RestoreSchema implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(
@@ -58,45 +60,40 @@ public class RestoreSchema implements ExecutorTask {
 
     @Override
     public void run() {
-        Cluster cluster = null;
-        Session session = null;
-        Scanner read = null;
         try {
             // Send TASK_RUNNING
             sendStatus(driver, Protos.TaskState.TASK_RUNNING,
                     "Started restoring schema");
 
-            cluster = Cluster.builder().addContactPoint(daemon.getProbe().getEndpoint()).build();
-            session = cluster.connect();
-            read = new Scanner(backupStorageDriver.downloadSchema(context));
-            read.useDelimiter(";");
-            while (read.hasNext()) {
-                try {
-                    String cqlStmt = read.next().trim();
-                    if (cqlStmt.isEmpty())
-                        continue;
-                    cqlStmt += ";";
-                    session.execute(cqlStmt);
-                } catch (AlreadyExistsException e) {
-                    LOGGER.info("Schema already exists: {}", e.toString());
-                }
-            }
+            final Session session = daemon.getSession().get();
+            final Cluster cluster = session.getCluster();
+            final SchemaRestorer.Result result = new SchemaRestorer(
+                    new SchemaRestorer.Connection() {
+                        @Override
+                        public boolean execute(String statement) {
+                            try {
+                                session.execute(statement);
+                                return true;
+                            } catch (AlreadyExistsException e) {
+                                return false;
+                            }
+                        }
+
+                        @Override
+                        public boolean checkSchemaAgreement() {
+                            return cluster.getMetadata().checkSchemaAgreement();
+                        }
+                    }).restore(backupStorageDriver.downloadSchema(
+                            context.forNode(context.getRestoredNodes().get(0))));
 
             // Send TASK_FINISHED
             sendStatus(driver, Protos.TaskState.TASK_FINISHED,
-                    "Finished restoring schema");
+                    "Finished restoring schema: " + result);
         } catch (Throwable t) {
             // Send TASK_FAILED
             final String errorMessage = "Failed restoring schema. Reason: " + t;
             LOGGER.error(errorMessage);
             sendStatus(driver, Protos.TaskState.TASK_FAILED, errorMessage);
-        } finally {
-            if (read != null)
-                read.close();
-            if (session != null)
-                session.close();
-            if (cluster != null)
-                cluster.close();
         }
     }
 
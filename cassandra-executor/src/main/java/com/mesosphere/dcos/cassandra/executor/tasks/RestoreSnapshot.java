@@ -18,31 +18,32 @@ package com.mesosphere.dcos.cassandra.executor.tasks;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.RestoreSnapshotTask;
 import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
-import com.mesosphere.dcos.cassandra.executor.CassandraPaths;
-import com.mesosphere.dcos.cassandra.executor.backup.StorageUtil;
-import org.apache.commons.lang3.StringUtils;
+import com.mesosphere.dcos.cassandra.executor.backup.SSTableBulkLoader;
+import com.mesosphere.dcos.cassandra.executor.backup.SSTableRefresher;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferTracker;
 import org.apache.mesos.ExecutorDriver;
 import org.apache.mesos.Protos;
 import org.apache.mesos.executor.ExecutorTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
-import java.net.InetAddress;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Implements RestoreSnapshotTask by invoking the SSTableLoader binary that is
- * packaged with the Cassandra distribution.
- *
- * @TODO Why not just invoke the SSTableLoader class directly ins
+ * Implements RestoreSnapshotTask. Snapshots restored to a new cluster are
+ * streamed by an SSTableBulkLoader running in the executor, snapshots
+ * restored to an existing cluster are loaded with nodetool refresh. The
+ * status updates carry the progress of the restore, the tables loaded and
+ * the bytes streamed for a new cluster, the tables refreshed for an
+ * existing cluster. The progress is reported periodically while the restore
+ * runs.
  */
 public class RestoreSnapshot implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(
@@ -52,7 +53,8 @@ public class RestoreSnapshot implements ExecutorTask {
     private final BackupRestoreContext context;
     private final RestoreSnapshotTask cassandraTask;
     private final CassandraDaemonProcess cassandra;
-    private final String version;
+    private final TransferTracker tracker = new TransferTracker();
+    private final ProgressReporter reporter;
 
     /**
      * Constructs a new RestoreSnapshot.
@@ -69,8 +71,8 @@ public class RestoreSnapshot implements ExecutorTask {
         this.cassandraTask = cassandraTask;
         this.context = cassandraTask.getBackupRestoreContext();
         this.cassandra = cassandra;
-        this.version = cassandra.getTask().getConfig().getVersion();
-
+        this.reporter = new ProgressReporter(driver, cassandraTask,
+                tracker::getProgress, "Restoring snapshot");
     }
 
     @Override
@@ -79,82 +81,48 @@ public class RestoreSnapshot implements ExecutorTask {
             // Send TASK_RUNNING
             sendStatus(driver, Protos.TaskState.TASK_RUNNING,
                     "Started restoring snapshot");
+            reporter.start();
 
+            String summary = "";
             if (Objects.equals(context.getRestoreType(), new String("new"))) {
-                final String keyspaceDirectory =
-                        context.getLocalLocation() + File.separator +
-                                context.getName() + File.separator +
-                                context.getNodeId();
-
-                final String ssTableLoaderBinary =
-                        CassandraPaths.create(version).bin()
-                                .resolve("sstableloader").toString();
-                final String cassandraYaml =
-                        CassandraPaths.create(version).cassandraConfig().toString();
-
-                final File keyspacesDirectory = new File(keyspaceDirectory);
-                LOGGER.info("Keyspace Directory {} exists: {}", keyspaceDirectory, keyspacesDirectory.exists());
-
-                final File[] keyspaces = keyspacesDirectory.listFiles();
-
-                String libProcessAddress = System.getenv("LIBPROCESS_IP");
-                libProcessAddress = StringUtils.isBlank(
-                        libProcessAddress) ? InetAddress.getLocalHost().getHostAddress() : libProcessAddress;
-
-                for (File keyspace : keyspaces) {
-                    final File[] columnFamilies = keyspace.listFiles();
-
-                    final String keyspaceName = keyspace.getName();
-                    if (keyspaceName.equals(StorageUtil.SCHEMA_FILE))
-                        continue;
-                    LOGGER.info("Going to bulk load keyspace: {}", keyspaceName);
-
-
-                    for (File columnFamily : columnFamilies) {
-                        final String columnFamilyName = columnFamily.getName();
-                        if (columnFamilyName.equals(StorageUtil.SCHEMA_FILE))
-                            continue;
-                        LOGGER.info(
-                                "Bulk loading... keyspace: {} column family: {}",
-                                keyspaceName, columnFamilyName);
-
-                        final String columnFamilyPath = columnFamily.getAbsolutePath();
-                        final List<String> command = Arrays.asList(
-                                ssTableLoaderBinary, "-d", libProcessAddress, "-f",
-                                cassandraYaml, columnFamilyPath);
-                        LOGGER.info("Executing command: {}", command);
-
-                        final ProcessBuilder processBuilder = new ProcessBuilder(
-                                command);
-                        processBuilder.redirectErrorStream(true);
-                        Process process = processBuilder.start();
-
-                        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            LOGGER.info(line);
-                        }
-                        
-                        int exitCode = process.waitFor();
-                        LOGGER.info("Command exit code: {}", exitCode);
-
-                        // Send TASK_ERROR
-                        if (exitCode != 0) {
-                            final String errMessage = String.format(
-                                    "Error restoring snapshot. Exit code: %s",
-                                    (exitCode + ""));
-                            LOGGER.error(errMessage);
-                            sendStatus(driver, Protos.TaskState.TASK_ERROR,
-                                    errMessage);
+                // Tables are loaded as they are downloaded, only tables left
+                // behind by an earlier download remain to be loaded here.
+                final List<File> columnFamilies = new ArrayList<>();
+                for (String node : context.getRestoredNodes()) {
+                    final String keyspaceDirectory =
+                            context.getLocalLocation() + File.separator +
+                                    context.getName() + File.separator +
+                                    node;
+
+                    final File keyspacesDirectory = new File(keyspaceDirectory);
+                    LOGGER.info("Keyspace Directory {} exists: {}", keyspaceDirectory, keyspacesDirectory.exists());
+
+                    final File[] keyspaces = keyspacesDirectory.listFiles(File::isDirectory);
+                    for (File keyspace : keyspaces == null ? new File[0] : keyspaces) {
+                        for (File columnFamily : keyspace.listFiles(File::isDirectory)) {
+                            columnFamilies.add(columnFamily);
                         }
-
-                        LOGGER.info(
-                                "Done bulk loading! keyspace: {} column family: {}",
-                                keyspaceName, columnFamilyName);
                     }
-                    LOGGER.info("Successfully bulk loaded keyspace: {}",
-                            keyspaceName);
                 }
+
+                if (!columnFamilies.isEmpty()) {
+                    LOGGER.info("Going to bulk load column families: {}",
+                            columnFamilies);
+                    SSTableBulkLoader.create(cassandra, context).load(
+                            columnFamilies,
+                            progress -> {
+                                tracker.set(
+                                        progress.stream().filter(SSTableBulkLoader.TableProgress::isDone).count(),
+                                        progress.size(),
+                                        progress.stream().mapToLong(SSTableBulkLoader.TableProgress::getBytesSent).sum(),
+                                        progress.stream().mapToLong(SSTableBulkLoader.TableProgress::getBytesTotal).sum());
+                                LOGGER.info("Restoring snapshot: {}",
+                                        SSTableBulkLoader.summarize(progress));
+                            });
+                    LOGGER.info("Successfully bulk loaded {} column families",
+                            columnFamilies.size());
+                }
+
                 // cleanup downloaded snapshot directory recursively.
                 Path rootPath = Paths.get(context.getLocalLocation() + File.separator + context.getName());
                 if (rootPath.toFile().exists()) {
@@ -165,40 +133,62 @@ public class RestoreSnapshot implements ExecutorTask {
                 }
             } else {
                 // run nodetool refresh rather than SSTableLoader, as on performance test
-                // I/O stream was pretty slow between mesos container processes
+                // I/O stream was pretty slow between mesos container processes.
+                // Tables are refreshed as they are downloaded, only tables
+                // that the download did not record as refreshed remain to be
+                // refreshed here.
+                final Set<String> downloaded = RefreshedTables.read(context);
                 final String localLocation = context.getLocalLocation();
-                final List<String> keyspaces = cassandra.getNonSystemKeySpaces();
-                for (String keyspace : keyspaces) {
+                final Map<String, List<String>> tables = new LinkedHashMap<>();
+                for (String keyspace : cassandra.getNonSystemKeySpaces()) {
                     final String keySpaceDirPath = localLocation + "/" + keyspace;
                     File keySpaceDir = new File(keySpaceDirPath);
                     File[] cfNames = keySpaceDir.listFiles(
                             (current, name) -> new File(current, name).isDirectory());
+                    final List<String> columnFamilies = new ArrayList<>();
                     for (File cfName : cfNames) {
-                        String columnFamily = cfName.getName().substring(0, cfName.getName().indexOf("-"));
-                        cassandra.getProbe().loadNewSSTables(keyspace, columnFamily);
-                        LOGGER.info("Completed nodetool refresh for keyspace {} & columnfamily {}", keyspace, columnFamily);
+                        final String table = cfName.getName().substring(0, cfName.getName().indexOf("-"));
+                        if (!downloaded.contains(keyspace + "." + table)) {
+                            columnFamilies.add(table);
+                        }
                     }
+                    tables.put(keyspace, columnFamilies);
                 }
+                final int total = tables.values().stream().mapToInt(List::size).sum();
+                final AtomicInteger refreshed = new AtomicInteger();
+                final List<SSTableRefresher.Result> results =
+                        new SSTableRefresher(cassandra.getProbe(),
+                                context.getMaxConcurrentFiles())
+                                .refresh(tables, result -> {
+                                    tracker.set(refreshed.incrementAndGet(), total, 0, 0);
+                                    LOGGER.info("Refreshed {}", result);
+                                });
+                RefreshedTables.clear(context);
+                summary = String.format(": %s, %d tables were refreshed " +
+                                "while downloading",
+                        SSTableRefresher.summarize(results), downloaded.size());
             }
 
-            final String message = "Finished restoring snapshot";
+            final String message = "Finished restoring snapshot" + summary;
             LOGGER.info(message);
+            reporter.close();
             sendStatus(driver, Protos.TaskState.TASK_FINISHED, message);
         } catch (Throwable t) {
             // Send TASK_FAILED
             final String errorMessage = "Failed restoring snapshot. Reason: "
                     + t;
             LOGGER.error(errorMessage, t);
+            reporter.close();
             sendStatus(driver, Protos.TaskState.TASK_FAILED, errorMessage);
+        } finally {
+            reporter.close();
         }
     }
 
     private void sendStatus(ExecutorDriver driver,
                             Protos.TaskState state,
                             String message) {
-        Protos.TaskStatus status = cassandraTask
-            .createStatus(state, Optional.of(message)).getTaskStatus();
-        driver.sendStatusUpdate(status);
+        reporter.send(state, message);
     }
 
     @Override
@@ -25,13 +25,13 @@ import org.apache.mesos.executor.ExecutorTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Optional;
 import java.util.concurrent.Future;
 
 /**
  * UploadSnapshot implements UploadSnapshotTask by delegating the upload of
  * the snapshot to a BackupStorageDriver implementation and the clearing of
- * the local snapshot to CassandraDaemonProcess.
+ * the local snapshot to CassandraDaemonProcess. The progress of the upload
+ * is reported periodically while it runs.
  */
 public class UploadSnapshot implements ExecutorTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(
@@ -41,6 +41,7 @@ public class UploadSnapshot implements ExecutorTask {
     private final BackupRestoreContext context;
     private final BackupUploadTask cassandraTask;
     private final BackupStorageDriver backupStorageDriver;
+    private final ProgressReporter reporter;
 
     /**
      * Constructs a new UploadSnapshot
@@ -61,14 +62,15 @@ public class UploadSnapshot implements ExecutorTask {
         this.cassandraTask = cassandraTask;
         this.backupStorageDriver = backupStorageDriver;
         context = cassandraTask.getBackupRestoreContext();
+        reporter = new ProgressReporter(driver, cassandraTask,
+            backupStorageDriver.getTracker()::getProgress,
+            "Uploading snapshots");
     }
 
     private void sendStatus(ExecutorDriver driver,
                             Protos.TaskState state,
                             String message) {
-        Protos.TaskStatus status = cassandraTask.createStatus(state,
-            Optional.of(message)).getTaskStatus();
-        driver.sendStatusUpdate(status);
+        reporter.send(state, message);
     }
 
     @Override
@@ -77,24 +79,29 @@ public class UploadSnapshot implements ExecutorTask {
             // Send TASK_RUNNING
             sendStatus(driver, Protos.TaskState.TASK_RUNNING,
                 "Started uploading snapshots");
+            reporter.start();
 
             // Upload snapshots to external location.
             backupStorageDriver.upload(context);
+            reporter.close();
 
             // Once we have uploaded all existing snapshots, let's clear on-disk snapshots
-            daemon.clearSnapShot(context.getName());
+            daemon.clearSnapshot(context.getName());
 
             // Send TASK_FINISHED
             sendStatus(driver, Protos.TaskState.TASK_FINISHED,
-                "Finished uploading snapshots");
+                "Finished uploading snapshots: " +
+                    backupStorageDriver.getTracker().getProgress());
         } catch (Throwable t) {
             LOGGER.error("Upload snapshot failed", t);
+            reporter.close();
             sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
         }
     }
 
     @Override
     public void stop(Future<?> future) {
+        reporter.close();
         future.cancel(true);
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.VerifyBackupTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.executor.backup.BackupStorageDriver;
+import com.mesosphere.dcos.cassandra.executor.backup.BackupVerification;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.apache.mesos.executor.ExecutorTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Future;
+
+/**
+ * VerifyBackup implements VerifyBackupTask by delegating the verification of
+ * the stored files of the backup of the node to a BackupStorageDriver
+ * implementation. The task fails if any file is missing or does not match
+ * the manifest of the backup.
+ */
+public class VerifyBackup implements ExecutorTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(
+        VerifyBackup.class);
+    private final ExecutorDriver driver;
+    private final BackupRestoreContext context;
+    private final VerifyBackupTask cassandraTask;
+    private final BackupStorageDriver backupStorageDriver;
+
+    /**
+     * Constructs a new VerifyBackup
+     *
+     * @param driver              The ExecutorDriver used to send task status.
+     * @param cassandraTask       The VerifyBackupTask that will be executed.
+     * @param backupStorageDriver The BackupStorageDriver used to verify the
+     *                            backup.
+     */
+    public VerifyBackup(
+        ExecutorDriver driver,
+        VerifyBackupTask cassandraTask,
+        BackupStorageDriver backupStorageDriver) {
+        this.driver = driver;
+        this.cassandraTask = cassandraTask;
+        this.backupStorageDriver = backupStorageDriver;
+        context = cassandraTask.getBackupRestoreContext();
+    }
+
+    private void sendStatus(ExecutorDriver driver,
+                            Protos.TaskState state,
+                            String message) {
+        Protos.TaskStatus status = cassandraTask.createStatus(state,
+            Optional.of(message)).getTaskStatus();
+        driver.sendStatusUpdate(status);
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Send TASK_RUNNING
+            sendStatus(driver, Protos.TaskState.TASK_RUNNING,
+                "Started verifying backup");
+
+            final BackupVerification.Result result =
+                backupStorageDriver.verify(context);
+            LOGGER.info("Verified backup: {}, {}", context.getName(), result);
+
+            if (result.isValid()) {
+                // Send TASK_FINISHED
+                sendStatus(driver, Protos.TaskState.TASK_FINISHED,
+                    "Finished verifying backup. " + result);
+            } else {
+                sendStatus(driver, Protos.TaskState.TASK_FAILED,
+                    "Backup is invalid. " + result);
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Verify backup failed", t);
+            sendStatus(driver, Protos.TaskState.TASK_FAILED, t.getMessage());
+        }
+    }
+
+    @Override
+    public void stop(Future<?> future) {
+        future.cancel(true);
+    }
+}
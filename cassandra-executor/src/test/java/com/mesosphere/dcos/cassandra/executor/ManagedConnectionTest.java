@@ -0,0 +1,203 @@
+package com.mesosphere.dcos.cassandra.executor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.rmi.ConnectException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ManagedConnectionTest {
+
+    private static class FakeConnection implements AutoCloseable {
+        private final int id;
+        private volatile boolean healthy = true;
+        private volatile boolean closed = false;
+
+        FakeConnection(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private ManagedConnection<FakeConnection> connection;
+
+    private ManagedConnection<FakeConnection> create(long healthCheckIntervalMs,
+                                                     long callTimeoutMs) {
+        connection = new ManagedConnection<>("test",
+                () -> {
+                    final int attempt = attempts.incrementAndGet();
+                    if (failures.getAndDecrement() > 0) {
+                        throw new IOException("Connection refused");
+                    }
+                    return new FakeConnection(attempt);
+                },
+                fake -> {
+                    if (!fake.healthy) {
+                        throw new IOException("Unhealthy");
+                    }
+                },
+                healthCheckIntervalMs,
+                callTimeoutMs,
+                1,
+                4);
+        return connection;
+    }
+
+    @After
+    public void afterEach() {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testRetriesUntilConnected() throws Exception {
+        failures.set(3);
+        final FakeConnection first = create(60000, 1000).get();
+        Assert.assertEquals(4, attempts.get());
+        Assert.assertSame(first, connection.get());
+    }
+
+    @Test
+    public void testReplacesUnhealthyConnection() throws Exception {
+        final FakeConnection first = create(0, 1000).get();
+        first.healthy = false;
+        final FakeConnection second = connection.get();
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(first.closed);
+        Assert.assertFalse(second.closed);
+    }
+
+    @Test
+    public void testReconnectsAfterConnectionFailure() throws Exception {
+        final FakeConnection first = create(60000, 1000).get();
+        try {
+            connection.call(fake -> {
+                throw new UndeclaredThrowableException(
+                        new ConnectException("Connection reset"));
+            });
+            Assert.fail("Expected the call to fail");
+        } catch (UndeclaredThrowableException expected) {
+        }
+        Assert.assertTrue(first.closed);
+        Assert.assertEquals(2, (int) connection.call(fake -> fake.id));
+    }
+
+    @Test
+    public void testKeepsConnectionAfterOperationFailure() throws Exception {
+        final FakeConnection first = create(60000, 1000).get();
+        try {
+            connection.call(fake -> {
+                throw new IllegalArgumentException("Unknown keyspace");
+            });
+            Assert.fail("Expected the call to fail");
+        } catch (IllegalArgumentException expected) {
+        }
+        Assert.assertFalse(first.closed);
+        Assert.assertSame(first, connection.get());
+    }
+
+    @Test
+    public void testCallTimesOut() throws Exception {
+        final FakeConnection first = create(60000, 1000).get();
+        final long start = System.currentTimeMillis();
+        try {
+            connection.call(fake -> {
+                Thread.sleep(10000);
+                return null;
+            }, 50);
+            Assert.fail("Expected the call to time out");
+        } catch (IOException expected) {
+            Assert.assertTrue(expected.getMessage().contains("timed out"));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        // A hung connection is replaced.
+        Assert.assertTrue(first.closed);
+        Assert.assertEquals(2, (int) connection.call(fake -> fake.id));
+    }
+
+    @Test
+    public void testDedicatedConnectionDoesNotBlockCalls() throws Exception {
+        create(60000, 1000).get();
+        final FakeConnection dedicated = connection.dedicated();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> operation = executor.submit(() -> {
+                started.countDown();
+                release.await();
+                dedicated.close();
+                return null;
+            });
+            started.await();
+            Assert.assertNotSame(dedicated, connection.get());
+            Assert.assertEquals(1, (int) connection.call(fake -> fake.id));
+            release.countDown();
+            operation.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConnectTimesOutWhileUnreachable() throws Exception {
+        failures.set(Integer.MAX_VALUE);
+        create(60000, 1000);
+        final long start = System.currentTimeMillis();
+        try {
+            connection.call(fake -> fake.id, 50);
+            Assert.fail("Expected connecting to time out");
+        } catch (IOException expected) {
+            Assert.assertTrue(expected.getMessage().contains("timed out"));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void testCloseDoesNotWaitForConnectingCallers() throws Exception {
+        failures.set(Integer.MAX_VALUE);
+        create(60000, 60000);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> caller = executor.submit(() -> connection.get());
+            while (attempts.get() == 0) {
+                Thread.sleep(1);
+            }
+            connection.close();
+            try {
+                caller.get(5, TimeUnit.SECONDS);
+                Assert.fail("Expected the caller to fail");
+            } catch (ExecutionException expected) {
+                Assert.assertTrue(expected.getCause() instanceof IOException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIsConnectionFailure() {
+        Assert.assertTrue(ManagedConnection.isConnectionFailure(
+                new UndeclaredThrowableException(new ConnectException("lost"))));
+        Assert.assertTrue(ManagedConnection.isConnectionFailure(
+                new java.net.SocketException("reset")));
+        Assert.assertFalse(ManagedConnection.isConnectionFailure(
+                new IOException("Snapshot already exists")));
+    }
+}
@@ -0,0 +1,157 @@
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModeTrackerTest {
+
+    /**
+     * Fails the first connections and then serves the current mode,
+     * counting the reads.
+     */
+    private static class FakeConnector implements ModeTracker.Connector {
+        private final AtomicInteger failures;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile String mode = "STARTING";
+        private volatile Runnable onNotification;
+        private volatile Runnable onDisconnect;
+
+        FakeConnector(int failures) {
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public ModeTracker.ModeSource connect(Runnable onNotification,
+                                              Runnable onDisconnect)
+                throws IOException {
+            if (failures.getAndDecrement() > 0) {
+                throw new IOException("Connection refused");
+            }
+            connections.incrementAndGet();
+            this.onNotification = onNotification;
+            this.onDisconnect = onDisconnect;
+            return new ModeTracker.ModeSource() {
+                @Override
+                public String getOperationMode() {
+                    reads.incrementAndGet();
+                    return mode;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    private ScheduledExecutorService executor;
+    private final List<CassandraMode> changes = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void beforeEach() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        changes.clear();
+    }
+
+    @After
+    public void afterEach() {
+        executor.shutdownNow();
+    }
+
+    private ModeTracker tracker(FakeConnector connector, long stablePollMs) {
+        return new ModeTracker(executor, connector, changes::add, 20,
+                stablePollMs, 10, 40);
+    }
+
+    private static void await(String description, Check check)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!check.test()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Timed out waiting for " + description);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Check {
+        boolean test();
+    }
+
+    @Test
+    public void testConnectsWithBackoffAndReportsChanges() throws Exception {
+        final FakeConnector connector = new FakeConnector(3);
+        final ModeTracker tracker = tracker(connector, 60000);
+        tracker.start();
+        await("connection", () -> connector.connections.get() == 1);
+        Assert.assertEquals(CassandraMode.STARTING, tracker.getMode());
+        // The start mode is not a change.
+        Assert.assertTrue(changes.isEmpty());
+
+        connector.mode = "JOINING";
+        await("joining", () -> tracker.getMode() == CassandraMode.JOINING);
+        connector.mode = "NORMAL";
+        await("normal", () -> tracker.getMode() == CassandraMode.NORMAL);
+        tracker.close();
+        Assert.assertEquals(
+                Arrays.asList(CassandraMode.JOINING, CassandraMode.NORMAL),
+                changes);
+    }
+
+    @Test
+    public void testPollsRarelyInStableModeAndReadsOnNotification()
+            throws Exception {
+        final FakeConnector connector = new FakeConnector(0);
+        connector.mode = "NORMAL";
+        final ModeTracker tracker = tracker(connector, 60000);
+        tracker.start();
+        await("normal", () -> tracker.getMode() == CassandraMode.NORMAL);
+        TimeUnit.MILLISECONDS.sleep(200);
+        Assert.assertEquals(1, connector.reads.get());
+
+        connector.mode = "LEAVING";
+        connector.onNotification.run();
+        await("leaving", () -> tracker.getMode() == CassandraMode.LEAVING);
+        tracker.close();
+    }
+
+    @Test
+    public void testReconnectsWhenDisconnected() throws Exception {
+        final FakeConnector connector = new FakeConnector(0);
+        connector.mode = "NORMAL";
+        final ModeTracker tracker = tracker(connector, 60000);
+        tracker.start();
+        await("connection", () -> connector.connections.get() == 1);
+
+        connector.onDisconnect.run();
+        await("reconnection", () -> connector.connections.get() == 2);
+        tracker.close();
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        final FakeConnector connector = new FakeConnector(0);
+        connector.mode = "NORMAL";
+        final ModeTracker tracker = tracker(connector, 60000);
+        tracker.start();
+        await("normal", () -> tracker.getMode() == CassandraMode.NORMAL);
+
+        connector.mode = "DRAINED";
+        tracker.refresh();
+        await("drained", () -> tracker.getMode() == CassandraMode.DRAINED);
+        tracker.close();
+    }
+}
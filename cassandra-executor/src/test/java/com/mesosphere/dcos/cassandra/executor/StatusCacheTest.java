@@ -0,0 +1,117 @@
+package com.mesosphere.dcos.cassandra.executor;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraMode;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StatusCacheTest {
+
+    /**
+     * Runs background reads when asked to, so that tests control when they
+     * happen.
+     */
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> pending = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+
+        void runAll() {
+            final List<Runnable> commands = new ArrayList<>(pending);
+            pending.clear();
+            commands.forEach(Runnable::run);
+        }
+    }
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private volatile boolean failing = false;
+
+    private CassandraStatus read() throws IOException {
+        if (failing) {
+            throw new IOException("Connection refused");
+        }
+        return CassandraStatus.create(CassandraMode.NORMAL, true, false, true,
+                true, true, "host-" + reads.incrementAndGet(), "10.0.0.1", 256,
+                "dc1", "rack1", "3.0.9");
+    }
+
+    @Test
+    public void testServesFromMemoryWithinTtl() {
+        final ManualExecutor executor = new ManualExecutor();
+        final StatusCache cache = new StatusCache(this::read, executor,
+                60000, 120000);
+        final CassandraStatus first = cache.get();
+        Assert.assertEquals("host-1", first.getHostId());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("host-1", cache.get().getHostId());
+        }
+        Assert.assertEquals(1, reads.get());
+        Assert.assertTrue(executor.pending.isEmpty());
+        Assert.assertTrue(cache.get().getAgeMs() >= 0);
+    }
+
+    @Test
+    public void testRefreshesInBackgroundAfterTtl() throws Exception {
+        final ManualExecutor executor = new ManualExecutor();
+        final StatusCache cache = new StatusCache(this::read, executor,
+                0, 120000);
+        cache.get();
+        // A stale status is served while a single read runs in background.
+        Assert.assertEquals("host-1", cache.get().getHostId());
+        Assert.assertEquals("host-1", cache.get().getHostId());
+        Assert.assertEquals(1, executor.pending.size());
+        executor.runAll();
+        Assert.assertEquals(2, reads.get());
+        Assert.assertEquals("host-2", cache.get().getHostId());
+    }
+
+    @Test
+    public void testWaitsForReadAfterMaxAge() {
+        final ManualExecutor executor = new ManualExecutor();
+        final StatusCache cache = new StatusCache(this::read, executor, 0, 0);
+        Assert.assertEquals("host-1", cache.get().getHostId());
+        Assert.assertEquals("host-2", cache.get().getHostId());
+        Assert.assertTrue(executor.pending.isEmpty());
+    }
+
+    @Test
+    public void testRefreshOnEvent() {
+        final ManualExecutor executor = new ManualExecutor();
+        final StatusCache cache = new StatusCache(this::read, executor,
+                60000, 120000);
+        cache.get();
+        cache.refresh();
+        cache.refresh();
+        Assert.assertEquals(1, executor.pending.size());
+        executor.runAll();
+        Assert.assertEquals("host-2", cache.get().getHostId());
+    }
+
+    @Test
+    public void testKeepsSnapshotWhenBackgroundReadFails() {
+        final ManualExecutor executor = new ManualExecutor();
+        final StatusCache cache = new StatusCache(this::read, executor,
+                60000, 120000);
+        cache.get();
+        failing = true;
+        cache.refresh();
+        executor.runAll();
+        Assert.assertEquals("host-1", cache.get().getHostId());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testFailsWithoutSnapshot() {
+        failing = true;
+        new StatusCache(this::read, new ManualExecutor()).get();
+    }
+}
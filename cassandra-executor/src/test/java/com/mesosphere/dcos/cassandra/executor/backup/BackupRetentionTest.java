@@ -0,0 +1,99 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tests the BackupRetention class.
+ */
+public class BackupRetentionTest {
+    private static final long NOW = TimeUnit.DAYS.toMillis(100);
+
+    private static BackupManifest manifest(String backup, String node,
+                                           long ageDays, String... digests) {
+        final BackupManifest.Entry[] entries = new BackupManifest.Entry[digests.length];
+        for (int i = 0; i < digests.length; i++) {
+            entries[i] = BackupManifest.Entry.create("ks", "cf-1", "file-" + i,
+                    digests[i], null, 1);
+        }
+        return BackupManifest.create(backup, node,
+                NOW - TimeUnit.DAYS.toMillis(ageDays), Arrays.asList(entries));
+    }
+
+    private static final List<BackupManifest> MANIFESTS = Arrays.asList(
+            manifest("b1", "node-0", 10, "aa"),
+            manifest("b1", "node-1", 10, "bb"),
+            manifest("b2", "node-0", 5, "aa", "cc"),
+            manifest("b3", "node-0", 1, "cc", "dd"));
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    @Test
+    public void testNoPolicyRetainsEverything() {
+        Assert.assertEquals(Collections.emptySet(),
+                new BackupRetention("b3", 0, 0, NOW).getExpiredBackups(MANIFESTS));
+    }
+
+    @Test
+    public void testRetainBackups() {
+        Assert.assertEquals(set("b1"),
+                new BackupRetention("b3", 2, 0, NOW).getExpiredBackups(MANIFESTS));
+        Assert.assertEquals(set("b1", "b2"),
+                new BackupRetention("b3", 1, 0, NOW).getExpiredBackups(MANIFESTS));
+    }
+
+    @Test
+    public void testRetainDays() {
+        Assert.assertEquals(set("b1"),
+                new BackupRetention("b3", 0, 7, NOW).getExpiredBackups(MANIFESTS));
+    }
+
+    @Test
+    public void testCurrentBackupIsRetained() {
+        Assert.assertEquals(set("b2", "b3"),
+                new BackupRetention("b1", 1, 0, NOW).getExpiredBackups(MANIFESTS));
+        Assert.assertEquals(Collections.emptySet(),
+                new BackupRetention("b1", 0, 7, NOW).getExpiredBackups(MANIFESTS));
+    }
+
+    @Test
+    public void testPartialBackupsAreNotCounted() {
+        Assert.assertEquals(Collections.emptySet(),
+                new BackupRetention("b3", 2, 0, NOW)
+                        .getExpiredBackups(MANIFESTS, set("b2")));
+        Assert.assertEquals(set("b1", "b2"),
+                new BackupRetention("b3", 1, 0, NOW)
+                        .getExpiredBackups(MANIFESTS, set("b2")));
+    }
+
+    @Test
+    public void testReferencedDigests() {
+        Assert.assertEquals(set("aa", "cc", "dd"),
+                BackupRetention.getReferencedDigests(MANIFESTS, set("b1")));
+        Assert.assertEquals(set("cc", "dd"),
+                BackupRetention.getReferencedDigests(MANIFESTS, set("b1", "b2")));
+    }
+
+    @Test
+    public void testUnreferencedObjectsRespectGracePeriod() {
+        final BackupRetention retention = new BackupRetention("b3", 1, 0, NOW);
+        final BackupRetention.StoredObject old = new BackupRetention.StoredObject(
+                "aa", 1, NOW - BackupRetention.GRACE_PERIOD_MS - 1);
+        final BackupRetention.StoredObject recent = new BackupRetention.StoredObject(
+                "bb", 1, NOW - 1);
+        final BackupRetention.StoredObject referenced = new BackupRetention.StoredObject(
+                "cc", 1, 0);
+        Assert.assertEquals(Collections.singletonList(old),
+                retention.getUnreferencedObjects(
+                        Arrays.asList(old, recent, referenced), set("cc", "dd")));
+    }
+}
@@ -0,0 +1,48 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+/**
+ * This class tests the Crc32c class.
+ */
+public class Crc32cTest {
+
+    private static String crc(Checksum checksum, byte[] bytes) {
+        checksum.update(bytes, 0, bytes.length);
+        return Crc32c.toHex(checksum);
+    }
+
+    @Test
+    public void testCheckValue() {
+        final byte[] bytes = "123456789".getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals("e3069283", crc(new Crc32c(), bytes));
+        Assert.assertEquals("e3069283", crc(Crc32c.create(), bytes));
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertEquals("00000000", crc(new Crc32c(), new byte[0]));
+    }
+
+    @Test
+    public void testMatchesCreatedChecksum() {
+        final byte[] bytes = new byte[100000];
+        new Random(42).nextBytes(bytes);
+        final Checksum checksum = new Crc32c();
+        // Update in uneven chunks and single bytes.
+        checksum.update(bytes, 0, 1000);
+        for (int i = 1000; i < 1010; i++) {
+            checksum.update(bytes[i]);
+        }
+        checksum.update(bytes, 1010, bytes.length - 1010);
+        Assert.assertEquals(crc(Crc32c.create(), bytes), Crc32c.toHex(checksum));
+
+        checksum.reset();
+        Assert.assertEquals("00000000", Crc32c.toHex(checksum));
+    }
+}
@@ -0,0 +1,299 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.Checksum;
+
+/**
+ * This class tests the FileStorageDriver class.
+ */
+public class FileStorageDriverTest {
+    private static final String BACKUP = "backup";
+    private static final String NODE = "node-0";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileStorageDriver driver;
+    private File external;
+
+    @Before
+    public void beforeEach() throws Exception {
+        driver = new FileStorageDriver(new TransferThrottle(), 2);
+        external = folder.newFolder("external");
+    }
+
+    private BackupRestoreContext context(File local, String restoreType) {
+        return BackupRestoreContext.create(
+                NODE,
+                BACKUP,
+                external.toURI().toString(),
+                local.getAbsolutePath(),
+                "",
+                "",
+                false,
+                restoreType);
+    }
+
+    private static Path write(File dir, String name, String content)
+            throws Exception {
+        final Path file = dir.toPath().resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testGetBackupRoot() throws Exception {
+        Assert.assertEquals(external.toPath().resolve(BACKUP),
+                driver.getBackupRoot(context(folder.getRoot(), "new")));
+    }
+
+    private BackupManifest manifest(String backup) throws Exception {
+        return BackupManifest.parse(Files.readAllBytes(external.toPath()
+                .resolve(backup).resolve(NODE).resolve(BackupManifest.MANIFEST_FILE)));
+    }
+
+    private static long count(Path directory) throws Exception {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void testUploadAndDownloadNew() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-1-big-Data.db", "one");
+        write(data, "ks/other-5678/snapshots/" + BACKUP + "/ma-2-big-Data.db", "two");
+        write(data, "ks/other-5678/ma-3-big-Data.db", "live");
+
+        driver.upload(context(data, "new"));
+
+        final BackupManifest manifest = manifest(BACKUP);
+        Assert.assertEquals(BACKUP, manifest.getBackupName());
+        Assert.assertEquals(NODE, manifest.getNodeId());
+        Assert.assertEquals(2, manifest.getFiles().size());
+        for (BackupManifest.Entry entry : manifest.getFiles()) {
+            Assert.assertTrue(Files.exists(external.toPath()
+                    .resolve(BackupManifest.getObjectPath(entry.getDigest()))));
+        }
+        Assert.assertEquals(2, count(external.toPath().resolve(BackupManifest.OBJECTS_DIRECTORY)));
+        Assert.assertEquals(TransferProgress.create(2, 2, 6, 6,
+                driver.getTracker().getProgress().getBytesPerSecond()),
+                driver.getTracker().getProgress());
+
+        final File restore = folder.newFolder("restore");
+        driver.download(context(restore, "new"));
+
+        final Path restored = restore.toPath().resolve(BACKUP).resolve(NODE);
+        Assert.assertEquals("one", read(restored.resolve("ks/table-1234/ma-1-big-Data.db")));
+        Assert.assertEquals("two", read(restored.resolve("ks/other-5678/ma-2-big-Data.db")));
+    }
+
+    @Test
+    public void testUploadStoresIdenticalFilesOnce() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-1-big-Data.db", "same");
+        write(data, "ks/table-1234/snapshots/other/ma-1-big-Data.db", "same");
+        write(data, "ks/other-5678/snapshots/" + BACKUP + "/ma-2-big-Data.db", "same");
+        write(data, "ks/other-5678/snapshots/other/ma-3-big-Data.db", "different");
+
+        driver.upload(context(data, "new"));
+        driver.upload(BackupRestoreContext.create(NODE, "other",
+                external.toURI().toString(), data.getAbsolutePath(), "", "",
+                false, "new"));
+
+        Assert.assertEquals(2, manifest(BACKUP).getFiles().size());
+        Assert.assertEquals(2, manifest("other").getFiles().size());
+        Assert.assertEquals(2, count(external.toPath().resolve(BackupManifest.OBJECTS_DIRECTORY)));
+    }
+
+    @Test
+    public void testDownloadExistingFromManifest() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-1-big-Data.db", "one");
+        driver.upload(context(data, "existing"));
+
+        final File target = folder.newFolder("target");
+        Files.createDirectories(target.toPath().resolve("ks/table-9999"));
+        driver.download(context(target, "existing"));
+
+        Assert.assertEquals("one",
+                read(target.toPath().resolve("ks/table-9999/ma-1-big-Data.db")));
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/old/ma-1-big-Data.db", "old");
+        write(data, "ks/table-1234/snapshots/new/ma-1-big-Data.db", "new");
+        for (String backup : Arrays.asList("old", "new")) {
+            driver.upload(BackupRestoreContext.create(NODE, backup,
+                    external.toURI().toString(), data.getAbsolutePath(), "", "",
+                    false, "new"));
+        }
+        final BackupManifest old = manifest("old");
+        Files.write(external.toPath().resolve("old").resolve(NODE).resolve(BackupManifest.MANIFEST_FILE),
+                BackupManifest.create("old", NODE, old.getCreated() - 1000, old.getFiles()).toBytes());
+        final Path oldObject = external.toPath().resolve(
+                BackupManifest.getObjectPath(old.getFiles().get(0).getDigest()));
+
+        final BackupRetention.Result result = driver.prune(
+                context(data, "new").toBuilder().setName("new").setRetainBackups(1).build());
+
+        Assert.assertEquals(Collections.singleton("old"), result.getExpiredBackups());
+        Assert.assertFalse(Files.exists(external.toPath().resolve("old")));
+        Assert.assertTrue(Files.exists(external.toPath().resolve("new")));
+        // The files of the expired backup are within the grace period.
+        Assert.assertTrue(Files.exists(oldObject));
+        Assert.assertEquals(0, result.getDeletedFiles());
+    }
+
+    @Test
+    public void testVerify() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-1-big-Data.db", "one");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-2-big-Data.db", "two");
+        final BackupRestoreContext ctx = context(data, "new").toBuilder()
+                .setVerifySampleBytes(2)
+                .build();
+        driver.upload(ctx);
+        for (BackupManifest.Entry entry : manifest(BACKUP).getFiles()) {
+            Assert.assertEquals(Crc32c.toHex(crc(entry.getFile().contains("ma-1") ? "one" : "two")),
+                    entry.getCrc32c());
+        }
+
+        BackupVerification.Result result = driver.verify(ctx);
+        Assert.assertTrue(result.toString(), result.isValid());
+        Assert.assertEquals(2, result.getFiles());
+        Assert.assertEquals(6, result.getBytes());
+
+        final BackupManifest.Entry entry = manifest(BACKUP).getFiles().get(0);
+        final Path object = external.toPath().resolve(BackupManifest.getObjectPath(entry.getDigest()));
+        Files.delete(object);
+        Files.write(object, "o".getBytes(StandardCharsets.UTF_8));
+        result = driver.verify(ctx);
+        Assert.assertFalse(result.isValid());
+        Assert.assertEquals(1, result.getProblems().size());
+        Assert.assertTrue(result.getProblems().get(0), result.getProblems().get(0).contains("has 1 bytes"));
+
+        Files.delete(object);
+        result = driver.verify(ctx);
+        Assert.assertTrue(result.getProblems().get(0), result.getProblems().get(0).contains("is missing"));
+    }
+
+    private static Checksum crc(String content) {
+        final Checksum checksum = Crc32c.create();
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        checksum.update(bytes, 0, bytes.length);
+        return checksum;
+    }
+
+    @Test
+    public void testDownloadExisting() throws Exception {
+        write(external, BACKUP + "/" + NODE + "/ks/table-1234/ma-1-big-Data.db", "one");
+        final File data = folder.newFolder("data");
+        Files.createDirectories(data.toPath().resolve("ks/table-9999"));
+
+        driver.download(context(data, "existing"));
+
+        Assert.assertEquals("one",
+                read(data.toPath().resolve("ks/table-9999/ma-1-big-Data.db")));
+    }
+
+    @Test
+    public void testDownloadReportsEachTable() throws Exception {
+        write(external, BACKUP + "/" + NODE + "/ks/table-1234/ma-1-big-Data.db", "one");
+        write(external, BACKUP + "/" + NODE + "/ks/other-5678/ma-2-big-Data.db", "two");
+        final File restore = folder.newFolder("restore");
+        final Set<File> tables = ConcurrentHashMap.newKeySet();
+
+        driver.download(context(restore, "new"), directory -> {
+            Assert.assertTrue(directory.listFiles().length > 0);
+            tables.add(directory);
+        });
+
+        final Path restored = restore.toPath().resolve(BACKUP).resolve(NODE);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(
+                restored.resolve("ks/table-1234").toFile(),
+                restored.resolve("ks/other-5678").toFile())), tables);
+    }
+
+    @Test
+    public void testSchema() throws Exception {
+        final BackupRestoreContext ctx = context(folder.getRoot(), "new");
+        driver.uploadSchema(ctx, "CREATE KEYSPACE ks;");
+        Assert.assertEquals("CREATE KEYSPACE ks;", driver.downloadSchema(ctx));
+        Assert.assertTrue(Files.exists(external.toPath()
+                .resolve(BACKUP).resolve(NODE).resolve(StorageUtil.SCHEMA_FILE)));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        final File data = folder.newFolder("data");
+        write(data, "ks/table-1234/snapshots/" + BACKUP + "/ma-1-big-Data.db", "one");
+        write(data, "ks/other-5678/snapshots/" + BACKUP + "/ma-2-big-Data.db", "two");
+        final BackupRestoreContext source = context(data, "new");
+        driver.upload(source);
+        driver.uploadSchema(source, "CREATE KEYSPACE ks;");
+
+        final File copy = folder.newFolder("copy");
+        final BackupRestoreContext destination = source.withExternalLocation(
+                copy.toURI().toString(), "", "", false);
+        final FileStorageDriver copier = new FileStorageDriver(new TransferThrottle(), 2);
+        copier.copy(source, destination);
+
+        Assert.assertEquals(count(external.toPath()), count(copy.toPath()));
+        Assert.assertEquals("CREATE KEYSPACE ks;", copier.downloadSchema(destination));
+        Assert.assertEquals(4, copier.getTracker().getProgress().getFiles());
+        Assert.assertEquals(4, copier.getTracker().getProgress().getTotalFiles());
+
+        final File restore = folder.newFolder("restore");
+        copier.download(destination.withLocalLocation(restore.getAbsolutePath()));
+        final Path restored = restore.toPath().resolve(BACKUP).resolve(NODE);
+        Assert.assertEquals("one", read(restored.resolve("ks/table-1234/ma-1-big-Data.db")));
+        Assert.assertEquals("two", read(restored.resolve("ks/other-5678/ma-2-big-Data.db")));
+
+        // Files that are already stored in the destination are not copied again.
+        final FileStorageDriver again = new FileStorageDriver(new TransferThrottle(), 2);
+        again.copy(source, destination);
+        Assert.assertEquals(4, again.getTracker().getProgress().getFiles());
+        Assert.assertEquals(count(external.toPath()), count(copy.toPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCopyMissingBackup() throws Exception {
+        final BackupRestoreContext source = context(folder.getRoot(), "new");
+        driver.copy(source, source.withExternalLocation(
+                folder.newFolder("copy").toURI().toString(), "", "", false));
+    }
+
+    @Test
+    public void testCopyFileReplacesTarget() throws Exception {
+        final Path source = write(folder.getRoot(), "source", "new");
+        final Path target = write(folder.getRoot(), "target", "old");
+        driver.copyFile(source, target);
+        Assert.assertEquals("new", read(target));
+    }
+}
@@ -0,0 +1,158 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the page cache residency of a "hot" file, standing in for the
+ * working set of the Cassandra daemon, before and after a simulated backup
+ * reads a set of cold snapshot files. The backup is run once with buffered
+ * FileInputStreams, as the storage drivers used to read, and once with
+ * SnapshotFileInputStream.
+ *
+ * Run with the test classpath on Linux:
+ * java -Dbenchmark.dir=/var/tmp -Dbenchmark.hotMb=256 -Dbenchmark.backupMb=4096 \
+ *   com.mesosphere.dcos.cassandra.executor.backup.PageCacheResidencyBenchmark
+ *
+ * The hot file is only evicted if the backup is larger than the free
+ * memory of the host, the residency of the backed up files shows the
+ * pollution of the cache in any case.
+ */
+public class PageCacheResidencyBenchmark {
+
+    private static final int FILES = 8;
+    private static final int MB = 1024 * 1024;
+
+    private interface Opener {
+        InputStream open(File file) throws IOException;
+    }
+
+    private static File createFile(File dir, String name, long bytes)
+            throws IOException {
+        final File file = new File(dir, name);
+        final byte[] block = new byte[MB];
+        new Random(name.hashCode()).nextBytes(block);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            for (long written = 0; written < bytes; written += block.length) {
+                raf.write(block);
+            }
+            raf.getFD().sync();
+        }
+        return file;
+    }
+
+    private static double residency(File file) {
+        final int fd = NativeIO.openFile(file.toPath());
+        try {
+            final long chunk = 64L * MB;
+            long resident = 0;
+            long pages = 0;
+            for (long offset = 0; offset < file.length(); offset += chunk) {
+                final byte[] vec = NativeIO.residency(fd, offset,
+                        Math.min(chunk, file.length() - offset));
+                if (vec == null) {
+                    return Double.NaN;
+                }
+                for (byte page : vec) {
+                    resident += page & 1;
+                }
+                pages += vec.length;
+            }
+            return pages == 0 ? 0 : 100.0 * resident / pages;
+        } finally {
+            NativeIO.closeFile(fd);
+        }
+    }
+
+    private static double residency(List<File> files) {
+        double total = 0;
+        for (File file : files) {
+            total += residency(file);
+        }
+        return total / files.size();
+    }
+
+    private static void evict(File file) {
+        final int fd = NativeIO.openFile(file.toPath());
+        try {
+            NativeIO.dropCache(fd, 0, file.length());
+        } finally {
+            NativeIO.closeFile(fd);
+        }
+    }
+
+    private static void read(File file, Opener opener) throws IOException {
+        try (InputStream in = opener.open(file);
+             OutputStream out = new NullOutputStream()) {
+            IOUtils.copy(in, out, SnapshotFileInputStream.DEFAULT_READ_SIZE);
+        }
+    }
+
+    private static void run(String name,
+                            File hot,
+                            List<File> snapshot,
+                            Opener opener) throws IOException {
+        read(hot, FileInputStream::new);
+        for (File file : snapshot) {
+            evict(file);
+        }
+        final double hotBefore = residency(hot);
+        final long start = System.nanoTime();
+        for (File file : snapshot) {
+            read(file, opener);
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = 0;
+        for (File file : snapshot) {
+            bytes += file.length();
+        }
+        System.out.printf(
+                "%-24s hot file resident: %6.2f%% -> %6.2f%% | " +
+                        "snapshot resident: %6.2f%% | %8.1f MB/s%n",
+                name, hotBefore, residency(hot), residency(snapshot),
+                bytes / seconds / MB);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (!NativeIO.isAvailable()) {
+            System.out.println("Native IO is not available, page cache " +
+                    "residency can not be measured");
+            return;
+        }
+        final File dir = Files.createTempDirectory(
+                new File(System.getProperty("benchmark.dir",
+                        System.getProperty("java.io.tmpdir"))).toPath(),
+                "page-cache-benchmark").toFile();
+        final long hotMb = Long.getLong("benchmark.hotMb", 256);
+        final long backupMb = Long.getLong("benchmark.backupMb", 2048);
+        try {
+            final File hot = createFile(dir, "hot-Data.db", hotMb * MB);
+            final List<File> snapshot = new ArrayList<>();
+            for (int i = 0; i < FILES; i++) {
+                snapshot.add(createFile(dir, "ma-" + i + "-big-Data.db",
+                        backupMb * MB / FILES));
+            }
+            run("FileInputStream", hot, snapshot,
+                    file -> new BufferedInputStream(new FileInputStream(file)));
+            run("SnapshotFileInputStream", hot, snapshot,
+                    SnapshotFileInputStream::new);
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+}
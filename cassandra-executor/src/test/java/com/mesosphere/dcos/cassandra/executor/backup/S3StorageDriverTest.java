@@ -6,6 +6,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
 
 /**
@@ -184,4 +185,41 @@ public class S3StorageDriverTest {
                 "existing");
         Assert.assertEquals(endpoint, s3StorageDriver.getEndpoint(backupRestoreContext));
     }
+
+    @Test
+    public void testGetPartSize() {
+        Assert.assertEquals(S3Clients.MIN_PART_SIZE, S3Clients.getPartSize(0));
+        Assert.assertEquals(S3Clients.MIN_PART_SIZE,
+                S3Clients.getPartSize(S3Clients.MIN_PART_SIZE * S3Clients.TARGET_PARTS));
+        Assert.assertEquals(2 * S3Clients.MIN_PART_SIZE,
+                S3Clients.getPartSize(S3Clients.MIN_PART_SIZE * S3Clients.TARGET_PARTS + 1));
+        Assert.assertEquals(S3Clients.MAX_PART_SIZE, S3Clients.getPartSize(Long.MAX_VALUE / 2));
+        Assert.assertEquals(2 * S3Clients.MIN_PART_SIZE,
+                S3Clients.getMultipartThreshold(S3Clients.MIN_PART_SIZE));
+    }
+
+    @Test
+    public void testClientsAreShared() {
+        final S3Clients clients = S3Clients.get("http://host:1000", "key", "secret", true);
+        Assert.assertSame(clients, S3Clients.get("http://host:1000", "key", "secret", true));
+        Assert.assertNotSame(clients, S3Clients.get("http://host:1000", "other", "secret", true));
+        Assert.assertSame(clients.getTransferManager(1), clients.getTransferManager(2));
+        Assert.assertNotSame(clients.getTransferManager(1),
+                clients.getTransferManager(S3Clients.MAX_PART_SIZE * S3Clients.TARGET_PARTS));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCopyRequiresSameEndpoint() throws Exception {
+        final BackupRestoreContext source = BackupRestoreContext.create(
+                "node-id",
+                "name",
+                "s3://source-bucket",
+                "local-location",
+                "account-id",
+                "secret-key",
+                false,
+                "existing");
+        s3StorageDriver.copy(source, source.withExternalLocation(
+                "http://127.0.0.1:9000/destination-bucket", "account-id", "secret-key", true));
+    }
 }
@@ -0,0 +1,99 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.EncryptionOptions;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SSTableBulkLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testProgressBeforePrepare() {
+        final SSTableBulkLoader.TableProgress progress =
+                new SSTableBulkLoader.TableProgress("ks", "table-1234");
+        progress.update("/10.0.0.1:ma-1-big-Data.db", 10);
+        Assert.assertEquals(0, progress.getPercentComplete());
+        Assert.assertEquals("ks.table-1234: 0%", progress.toString());
+    }
+
+    @Test
+    public void testProgressAcrossPeersAndFiles() {
+        final SSTableBulkLoader.TableProgress progress =
+                new SSTableBulkLoader.TableProgress("ks", "table-1234");
+        progress.addTotal(100);
+        progress.addTotal(100);
+        progress.update("/10.0.0.1:ma-1-big-Data.db", 20);
+        progress.update("/10.0.0.1:ma-1-big-Data.db", 50);
+        progress.update("/10.0.0.2:ma-1-big-Data.db", 50);
+        Assert.assertEquals(100, progress.getBytesSent());
+        Assert.assertEquals(200, progress.getBytesTotal());
+        Assert.assertEquals(50, progress.getPercentComplete());
+    }
+
+    @Test
+    public void testProgressIsCompleteOnlyWhenDone() {
+        final SSTableBulkLoader.TableProgress progress =
+                new SSTableBulkLoader.TableProgress("ks", "table-1234");
+        progress.addTotal(100);
+        progress.update("/10.0.0.1:ma-1-big-Data.db", 100);
+        Assert.assertEquals(99, progress.getPercentComplete());
+        Assert.assertFalse(progress.isDone());
+        progress.finish();
+        Assert.assertEquals(100, progress.getPercentComplete());
+        Assert.assertTrue(progress.isDone());
+    }
+
+    @Test
+    public void testSummarizesProgressOfAllTables() {
+        final SSTableBulkLoader.TableProgress done =
+                new SSTableBulkLoader.TableProgress("ks", "table-1234");
+        done.addTotal(100);
+        done.update("/10.0.0.1:ma-1-big-Data.db", 100);
+        done.finish();
+        final SSTableBulkLoader.TableProgress running =
+                new SSTableBulkLoader.TableProgress("ks", "table-5678");
+        running.addTotal(300);
+        running.update("/10.0.0.1:ma-1-big-Data.db", 50);
+        Assert.assertEquals("loaded 1 of 2 tables, streamed 150 of 400 bytes",
+                SSTableBulkLoader.summarize(Arrays.asList(done, running)));
+    }
+
+    @Test
+    public void testStreamsWithTheServerEncryptionOfTheNode()
+            throws Exception {
+        final Path yaml = folder.newFile("cassandra.yaml").toPath();
+        Files.write(yaml, ("server_encryption_options:\n" +
+                "    internode_encryption: all\n" +
+                "    keystore: conf/.keystore\n" +
+                "    keystore_password: cassandra\n" +
+                "    truststore: conf/.truststore\n" +
+                "    truststore_password: cassandra\n")
+                .getBytes(StandardCharsets.UTF_8));
+        final Config config = SSTableBulkLoader.loadConfig(yaml);
+
+        final SSTableBulkLoader loader = new SSTableBulkLoader(
+                Collections.singleton(InetAddress.getLoopbackAddress()),
+                9042, 7000, 7001, config, 1);
+        final EncryptionOptions.ServerEncryptionOptions options =
+                (EncryptionOptions.ServerEncryptionOptions)
+                        FieldUtils.readField(
+                                loader.newClient().getConnectionFactory(),
+                                "encryptionOptions", true);
+        Assert.assertEquals(
+                EncryptionOptions.ServerEncryptionOptions.InternodeEncryption.all,
+                options.internode_encryption);
+    }
+}
@@ -0,0 +1,92 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.executor.Probe;
+import org.apache.cassandra.tools.NodeProbe;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SSTableRefresherTest {
+
+    @Mock
+    private Probe probe;
+
+    @Mock
+    private NodeProbe nodeProbe;
+
+    @Before
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(probe.dedicated()).thenReturn(nodeProbe);
+    }
+
+    @Test
+    public void testRefreshCountsLoadedSSTables() throws Exception {
+        when(nodeProbe.getColumnFamilyMetric("ks", "table", "LiveSSTableCount"))
+                .thenReturn(2, 5);
+
+        final SSTableRefresher.Result result =
+                new SSTableRefresher(probe, 1).refresh("ks", "table");
+
+        verify(nodeProbe).loadNewSSTables("ks", "table");
+        Assert.assertEquals(3, result.getSSTables());
+        Assert.assertTrue(result.toString().startsWith("ks.table: 3 SSTables in "));
+    }
+
+    @Test
+    public void testRefreshWithoutMetrics() throws Exception {
+        final SSTableRefresher.Result result =
+                new SSTableRefresher(probe, 1).refresh("ks", "table");
+
+        Assert.assertEquals(-1, result.getSSTables());
+        Assert.assertTrue(result.toString().startsWith("ks.table: ? SSTables in "));
+    }
+
+    @Test
+    public void testRefreshesAllTables() throws Exception {
+        final Map<String, List<String>> tables = new LinkedHashMap<>();
+        tables.put("ks1", Arrays.asList("a", "b", "c"));
+        tables.put("ks2", Collections.singletonList("d"));
+        final List<SSTableRefresher.Result> reported =
+                Collections.synchronizedList(new ArrayList<>());
+
+        final List<SSTableRefresher.Result> results =
+                new SSTableRefresher(probe, 2).refresh(tables, reported::add);
+
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals(results, reported);
+        verify(nodeProbe).loadNewSSTables("ks1", "a");
+        verify(nodeProbe).loadNewSSTables("ks1", "b");
+        verify(nodeProbe).loadNewSSTables("ks1", "c");
+        verify(nodeProbe).loadNewSSTables("ks2", "d");
+        // All tables are refreshed on a single dedicated connection.
+        verify(probe).dedicated();
+        verify(nodeProbe).close();
+        Assert.assertTrue(SSTableRefresher.summarize(results)
+                .startsWith("refreshed 4 tables with 0 SSTables"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRefreshFailsOnFirstFailure() throws Exception {
+        doThrow(new IllegalStateException("refresh failed"))
+                .when(nodeProbe).loadNewSSTables("ks", "b");
+
+        new SSTableRefresher(probe, 1).refresh(
+                Collections.singletonMap("ks", Arrays.asList("a", "b")),
+                result -> {
+                });
+    }
+}
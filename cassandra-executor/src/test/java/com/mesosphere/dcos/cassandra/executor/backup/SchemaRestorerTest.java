@@ -0,0 +1,176 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SchemaRestorerTest {
+
+    private static final String SCHEMA =
+            "CREATE KEYSPACE ks WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n" +
+            "CREATE TYPE ks.address (street text);\n" +
+            "CREATE TYPE ks.person (name text, home frozen<address>);\n" +
+            "CREATE TABLE ks.users (id int PRIMARY KEY, person frozen<person>)\n" +
+            "    WITH comment = 'users; with a semicolon';\n" +
+            "CREATE INDEX users_person ON ks.users (person);\n" +
+            "CREATE MATERIALIZED VIEW ks.by_person AS SELECT * FROM ks.users\n" +
+            "    WHERE person IS NOT NULL AND id IS NOT NULL PRIMARY KEY (person, id);\n" +
+            "-- a comment; with a semicolon\n" +
+            "CREATE FUNCTION ks.twice (x int) CALLED ON NULL INPUT RETURNS int\n" +
+            "    LANGUAGE java AS $$ return x * 2; $$;\n" +
+            "CREATE AGGREGATE ks.total (int) SFUNC twice STYPE int;\n" +
+            "CREATE TABLE \"Ks2\".\"Events\" (id int PRIMARY KEY);\n" +
+            "/* block; comment */ CREATE KEYSPACE \"Ks2\" WITH replication = {'class': 'SimpleStrategy', 'replication_factor': '1'};\n";
+
+    /**
+     * Records the statements it runs and reports schema agreement after a
+     * number of checks.
+     */
+    private static class FakeConnection implements SchemaRestorer.Connection {
+        private final List<String> executed =
+                Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger checks = new AtomicInteger();
+        private final int disagreements;
+
+        FakeConnection(int disagreements) {
+            this.disagreements = disagreements;
+        }
+
+        @Override
+        public boolean execute(String statement) throws Exception {
+            if (statement.contains("FAIL")) {
+                throw new Exception("Invalid statement");
+            }
+            executed.add(statement);
+            return !statement.startsWith("CREATE TYPE ks.address");
+        }
+
+        @Override
+        public boolean checkSchemaAgreement() {
+            return checks.incrementAndGet() > disagreements;
+        }
+    }
+
+    @Test
+    public void testSplit() {
+        final List<String> statements = SchemaRestorer.split(SCHEMA);
+        Assert.assertEquals(10, statements.size());
+        Assert.assertTrue(statements.get(3).endsWith("'users; with a semicolon'"));
+        Assert.assertEquals("CREATE FUNCTION ks.twice (x int) CALLED ON NULL " +
+                        "INPUT RETURNS int\n    LANGUAGE java AS $$ return x * 2; $$",
+                statements.get(6));
+        Assert.assertTrue(statements.get(9).startsWith("CREATE KEYSPACE \"Ks2\""));
+        Assert.assertEquals(Arrays.asList("SELECT 'it''s; here' FROM t", "SELECT 1"),
+                SchemaRestorer.split("SELECT 'it''s; here' FROM t;; SELECT 1"));
+    }
+
+    @Test
+    public void testClassify() {
+        assertStatement(SchemaRestorer.Stage.KEYSPACE, "ks",
+                "CREATE KEYSPACE IF NOT EXISTS Ks WITH replication = {}");
+        assertStatement(SchemaRestorer.Stage.TYPE, "ks",
+                "CREATE TYPE ks.address (street text)");
+        assertStatement(SchemaRestorer.Stage.FUNCTION, "ks",
+                "CREATE OR REPLACE FUNCTION ks.f (x int) RETURNS int LANGUAGE java AS $$ return x; $$");
+        assertStatement(SchemaRestorer.Stage.AGGREGATE, "ks",
+                "CREATE AGGREGATE ks.a (int) SFUNC f STYPE int");
+        assertStatement(SchemaRestorer.Stage.TABLE, "\"Ks2\"",
+                "CREATE TABLE \"Ks2\".t (id int PRIMARY KEY)");
+        assertStatement(SchemaRestorer.Stage.INDEX, "ks",
+                "CREATE CUSTOM INDEX ON ks.t (v) USING 'org.example.Index'");
+        assertStatement(SchemaRestorer.Stage.VIEW, "ks",
+                "CREATE MATERIALIZED VIEW ks.v AS SELECT * FROM ks.t");
+        assertStatement(SchemaRestorer.Stage.TABLE, "",
+                "CREATE TABLE t (id int PRIMARY KEY)");
+        assertStatement(SchemaRestorer.Stage.OTHER, "",
+                "ALTER TABLE ks.t ADD v int");
+    }
+
+    private static void assertStatement(SchemaRestorer.Stage stage,
+                                        String keyspace,
+                                        String cql) {
+        final SchemaRestorer.Statement statement = SchemaRestorer.classify(cql);
+        Assert.assertEquals(stage, statement.getStage());
+        Assert.assertEquals(keyspace, statement.getKeyspace());
+        Assert.assertEquals(cql, statement.getCql());
+    }
+
+    @Test
+    public void testPlan() {
+        final Map<SchemaRestorer.Stage, List<List<SchemaRestorer.Statement>>> plan =
+                SchemaRestorer.plan(SCHEMA);
+        Assert.assertEquals(Arrays.asList(
+                SchemaRestorer.Stage.KEYSPACE,
+                SchemaRestorer.Stage.TYPE,
+                SchemaRestorer.Stage.FUNCTION,
+                SchemaRestorer.Stage.AGGREGATE,
+                SchemaRestorer.Stage.TABLE,
+                SchemaRestorer.Stage.INDEX,
+                SchemaRestorer.Stage.VIEW), new ArrayList<>(plan.keySet()));
+        Assert.assertEquals(2, plan.get(SchemaRestorer.Stage.KEYSPACE).size());
+        // The types of a keyspace are a single chain in script order.
+        final List<List<SchemaRestorer.Statement>> types =
+                plan.get(SchemaRestorer.Stage.TYPE);
+        Assert.assertEquals(1, types.size());
+        Assert.assertEquals(2, types.get(0).size());
+        Assert.assertTrue(types.get(0).get(0).getCql().contains("address"));
+        Assert.assertEquals(2, plan.get(SchemaRestorer.Stage.TABLE).size());
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        final FakeConnection connection = new FakeConnection(2);
+        final SchemaRestorer.Result result =
+                new SchemaRestorer(connection, 4, 10000).restore(SCHEMA);
+
+        Assert.assertEquals(9, result.getApplied());
+        Assert.assertEquals(1, result.getExisting());
+        Assert.assertEquals(7, result.getStages());
+        // One agreement check per stage plus the two failed checks.
+        Assert.assertEquals(9, connection.checks.get());
+
+        final List<String> executed = connection.executed;
+        Assert.assertEquals(10, executed.size());
+        Assert.assertTrue(executed.get(0).startsWith("CREATE KEYSPACE"));
+        Assert.assertTrue(executed.get(1).startsWith("CREATE KEYSPACE"));
+        Assert.assertTrue(executed.get(2).contains("TYPE ks.address"));
+        Assert.assertTrue(executed.get(3).contains("TYPE ks.person"));
+        Assert.assertTrue(executed.get(9).startsWith("CREATE MATERIALIZED VIEW"));
+        Assert.assertTrue(executed.indexOf(SchemaRestorer.split(SCHEMA).get(4)) >
+                executed.indexOf(SchemaRestorer.split(SCHEMA).get(3)));
+    }
+
+    @Test
+    public void testRestoreStopsAfterFailedStage() throws Exception {
+        final FakeConnection connection = new FakeConnection(0);
+        try {
+            new SchemaRestorer(connection, 4, 10000).restore(
+                    "CREATE KEYSPACE ks WITH replication = {};" +
+                            "CREATE TABLE ks.a (FAIL int PRIMARY KEY);" +
+                            "CREATE TABLE ks.b (id int PRIMARY KEY);" +
+                            "CREATE INDEX ON ks.b (id);");
+            Assert.fail("Expected the restore to fail");
+        } catch (Exception e) {
+            Assert.assertEquals("Invalid statement", e.getMessage());
+        }
+        Assert.assertEquals(2, connection.executed.size());
+        Assert.assertFalse(connection.executed.stream()
+                .anyMatch(statement -> statement.startsWith("CREATE INDEX")));
+    }
+
+    @Test
+    public void testRestoreContinuesWithoutAgreement() throws Exception {
+        final FakeConnection connection = new FakeConnection(Integer.MAX_VALUE);
+        final SchemaRestorer.Result result = new SchemaRestorer(connection, 2, 0)
+                .restore("CREATE KEYSPACE ks WITH replication = {};" +
+                        "CREATE TABLE ks.a (id int PRIMARY KEY);");
+        Assert.assertEquals(2, result.getApplied());
+        Assert.assertEquals(2, connection.checks.get());
+    }
+}
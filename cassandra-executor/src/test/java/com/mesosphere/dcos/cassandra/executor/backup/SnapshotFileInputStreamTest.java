@@ -0,0 +1,55 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class SnapshotFileInputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(int size) throws Exception {
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        final File file = folder.newFile();
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    @Test
+    public void testReadsWholeFileAcrossReads() throws Exception {
+        final File file = createFile(3 * 8192 + 123);
+        try (InputStream in = new SnapshotFileInputStream(file, 8192)) {
+            Assert.assertArrayEquals(Files.readAllBytes(file.toPath()),
+                    IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testReadsSingleBytes() throws Exception {
+        final File file = createFile(10);
+        final byte[] expected = Files.readAllBytes(file.toPath());
+        try (InputStream in = new SnapshotFileInputStream(file)) {
+            for (byte b : expected) {
+                Assert.assertEquals(b & 0xFF, in.read());
+            }
+            Assert.assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testReadsEmptyFile() throws Exception {
+        final File file = createFile(0);
+        try (InputStream in = new SnapshotFileInputStream(file)) {
+            Assert.assertEquals(-1, in.read(new byte[16], 0, 16));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TransferThrottleTest {
+    private final List<Long> sleeps = new ArrayList<>();
+    private long nowNanos = 0;
+    private TransferThrottle throttle;
+
+    private void sleep(final long ms) {
+        sleeps.add(ms);
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    @Before
+    public void beforeEach() {
+        throttle = new TransferThrottle(() -> nowNanos, this::sleep);
+    }
+
+    @Test
+    public void testStreamsRecordBytesTransferred() throws Exception {
+        final byte[] data = new byte[1024];
+        try (InputStream in = throttle.throttle(new ByteArrayInputStream(data));
+             OutputStream out = throttle.throttle(new ByteArrayOutputStream())) {
+            IOUtils.copy(in, out);
+        }
+        Assert.assertEquals(2 * data.length,
+                throttle.getBytesTransferred().getCount());
+    }
+
+    @Test
+    public void testConfigureFromContext() {
+        throttle.configure(BackupRestoreContext.builder()
+                .setNodeId("node-id")
+                .setName("name")
+                .setExternalLocation("s3://bucket")
+                .setLocalLocation("local-location")
+                .setAccountId("account-id")
+                .setSecretKey("secret-key")
+                .setRestoreType("existing")
+                .setMaxBytesPerSecond(1024 * 1024)
+                .setMaxConcurrentFiles(2)
+                .build());
+        Assert.assertEquals(1024 * 1024, throttle.getMaxBytesPerSecond());
+        Assert.assertEquals(2, throttle.getMaxConcurrentFiles());
+    }
+
+    @Test
+    public void testBandwidthLimit() throws Exception {
+        throttle.acquireBytes(1000000);
+        Assert.assertTrue(sleeps.isEmpty());
+
+        // Bytes transferred without a limit are not paid for, each
+        // acquisition waits for the bytes before it to be paid for.
+        throttle.setMaxBytesPerSecond(1000);
+        throttle.acquireBytes(1000);
+        throttle.acquireBytes(1000);
+        throttle.acquireBytes(1);
+        Assert.assertEquals(Arrays.asList(1000L, 1000L), sleeps);
+    }
+
+    @Test
+    public void testBurstAfterPause() throws Exception {
+        throttle.setMaxBytesPerSecond(1000);
+        throttle.acquireBytes(1000);
+        nowNanos += TimeUnit.SECONDS.toNanos(5);
+        // Up to one second of unused bandwidth is stored, the second
+        // second of bytes is granted immediately and the last acquisition
+        // waits for it to be paid back.
+        throttle.acquireBytes(1000);
+        throttle.acquireBytes(1000);
+        throttle.acquireBytes(1);
+        Assert.assertEquals(Collections.singletonList(1000L), sleeps);
+    }
+
+    @Test
+    public void testBandwidthLimitChangesApplyToNextAcquisition()
+            throws Exception {
+        throttle.setMaxBytesPerSecond(1000);
+        throttle.acquireBytes(1000);
+        throttle.setMaxBytesPerSecond(500);
+        throttle.acquireBytes(1000);
+        throttle.acquireBytes(1);
+        Assert.assertEquals(Arrays.asList(1000L, 2000L), sleeps);
+    }
+
+    @Test
+    public void testConcurrentFileLimitIsAdjustable() throws Exception {
+        throttle.setMaxConcurrentFiles(1);
+        throttle.acquireFile();
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiter = new Thread(() -> {
+            try {
+                throttle.acquireFile();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        Assert.assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+        throttle.setMaxConcurrentFiles(2);
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+
+        throttle.releaseFile();
+        throttle.releaseFile();
+    }
+
+    @Test
+    public void testInterruptedWaitPropagatesInterrupt() throws Exception {
+        throttle = new TransferThrottle(() -> nowNanos, ms -> {
+            throw new InterruptedException();
+        });
+        throttle.setMaxBytesPerSecond(1000);
+        throttle.acquireBytes(1000);
+        try {
+            throttle.acquireBytes(1000);
+            Assert.fail("Expected InterruptedIOException");
+        } catch (InterruptedIOException e) {
+            // Clears the interrupt status for the next tests.
+            Assert.assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimitIsRejected() {
+        throttle.setMaxBytesPerSecond(-1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mesosphere.dcos.cassandra.executor.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class TransferTrackerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTracksStreamsAndFiles() throws Exception {
+        final TransferTracker tracker = new TransferTracker();
+        tracker.addTotal(3, 3000);
+        try (InputStream in = tracker.track(new ByteArrayInputStream(new byte[1000]))) {
+            IOUtils.copy(in, new ByteArrayOutputStream());
+        }
+        tracker.completeFile();
+        tracker.skipFile(1000);
+
+        final TransferProgress progress = tracker.getProgress();
+        Assert.assertEquals(2, progress.getFiles());
+        Assert.assertEquals(3, progress.getTotalFiles());
+        Assert.assertEquals(2000, progress.getBytes());
+        Assert.assertEquals(3000, progress.getTotalBytes());
+        Assert.assertEquals(66, progress.getPercentComplete());
+        Assert.assertTrue(progress.getBytesPerSecond() > 0);
+    }
+
+    @Test
+    public void testAddDirectory() throws Exception {
+        final Path directory = folder.newFolder("table").toPath();
+        Files.write(directory.resolve("one"), new byte[10]);
+        Files.createDirectories(directory.resolve("nested"));
+        Files.write(directory.resolve("nested").resolve("two"), new byte[5]);
+
+        final TransferTracker tracker = new TransferTracker();
+        tracker.addDirectory(directory);
+
+        Assert.assertEquals(2, tracker.getProgress().getTotalFiles());
+        Assert.assertEquals(15, tracker.getProgress().getTotalBytes());
+    }
+
+    @Test
+    public void testSet() {
+        final TransferTracker tracker = new TransferTracker();
+        tracker.set(1, 4, 100, 400);
+        tracker.set(2, 4, 200, 400);
+
+        final TransferProgress progress = tracker.getProgress();
+        Assert.assertEquals(TransferProgress.create(2, 4, 200, 400,
+                progress.getBytesPerSecond()), progress);
+        Assert.assertEquals(50, progress.getPercentComplete());
+    }
+
+    @Test
+    public void testSumAndEta() {
+        final TransferProgress sum = TransferProgress.sum(Arrays.asList(
+                TransferProgress.create(1, 2, 500, 1000, 10),
+                TransferProgress.create(0, 1, 0, 500, 15)));
+        Assert.assertEquals(TransferProgress.create(1, 3, 500, 1500, 25), sum);
+        Assert.assertEquals(40, sum.getEtaSeconds());
+        Assert.assertEquals(-1,
+                TransferProgress.create(0, 1, 0, 10, 0).getEtaSeconds());
+        Assert.assertEquals(0, TransferProgress.NONE.getEtaSeconds());
+    }
+}
@@ -0,0 +1,80 @@
+package com.mesosphere.dcos.cassandra.executor.cleanup;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelCleanupTest {
+
+    private static Map<String, Long> sizes(final long... sizes) {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            map.put("ks" + i, sizes[i]);
+        }
+        return map;
+    }
+
+    private static int maximumRunning(final ParallelCleanup cleanup,
+                                      final int parallelKeySpaces)
+            throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        cleanup.run("cleanup", keySpace -> {
+            maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+        }, parallelKeySpaces, 1000, () -> { });
+        return maximum.get();
+    }
+
+    @Test
+    public void testCleansKeySpacesInParallel() throws Exception {
+        final ParallelCleanup cleanup =
+                new ParallelCleanup(sizes(10, 10, 10, 10), 100);
+        Assert.assertEquals(2, maximumRunning(cleanup, 2));
+        Assert.assertEquals(4, cleanup.getCompleted().size());
+    }
+
+    @Test
+    public void testCleansKeySpacesThatDoNotFitOneAtATime()
+            throws Exception {
+        // Each key space fits, but no two of them fit at once, and the
+        // last one does not fit at all.
+        final ParallelCleanup cleanup =
+                new ParallelCleanup(sizes(60, 60, 60, 200), 100);
+        Assert.assertEquals(1, maximumRunning(cleanup, 4));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("ks0", "ks1", "ks2",
+                "ks3")), new HashSet<>(cleanup.getCompleted()));
+    }
+
+    @Test
+    public void testStopsAtTheFirstFailure() throws Exception {
+        final ParallelCleanup cleanup =
+                new ParallelCleanup(sizes(1, 1, 1), 100);
+        try {
+            cleanup.run("cleanup", keySpace -> {
+                if (keySpace.equals("ks0")) {
+                    throw new Exception("Cleanup failed");
+                }
+            }, 1, 1000, () -> { });
+            Assert.fail("Expected the cleanup to fail");
+        } catch (Exception ex) {
+            Assert.assertEquals("Cleanup failed", ex.getMessage());
+        }
+        Assert.assertFalse(cleanup.getCompleted().contains("ks0"));
+    }
+
+    @Test
+    public void testReportsWhileKeySpacesAreCleaned() throws Exception {
+        final AtomicInteger reports = new AtomicInteger();
+        new ParallelCleanup(sizes(1), 100).run("cleanup",
+                keySpace -> Thread.sleep(100), 1, 10,
+                reports::incrementAndGet);
+        Assert.assertTrue(reports.get() > 0);
+    }
+}
@@ -0,0 +1,280 @@
+package com.mesosphere.dcos.cassandra.executor.compaction;
+
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveCompactionThrottleTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScheduledExecutorService executor =
+            Mockito.mock(ScheduledExecutorService.class);
+    private NodeMetrics metrics = null;
+    private OptionalDouble utilization = OptionalDouble.empty();
+    private int throughput = 16;
+    private int compactors = 2;
+    private boolean compactorsSupported = true;
+    private Path boundsFile;
+
+    private final AdaptiveCompactionThrottle.Compactor compactor =
+            new AdaptiveCompactionThrottle.Compactor() {
+                @Override
+                public int getThroughput() {
+                    return throughput;
+                }
+
+                @Override
+                public void setThroughput(int mbPerSec) {
+                    throughput = mbPerSec;
+                }
+
+                @Override
+                public int getConcurrentCompactors() throws IOException {
+                    if (!compactorsSupported) {
+                        throw new IOException("Operation not supported");
+                    }
+                    return compactors;
+                }
+
+                @Override
+                public void setConcurrentCompactors(int concurrent) {
+                    compactors = concurrent;
+                }
+            };
+
+    @Before
+    public void beforeEach() throws Exception {
+        boundsFile = folder.getRoot().toPath().resolve(
+                AdaptiveCompactionThrottle.BOUNDS_FILE);
+        Mockito.when(executor.scheduleWithFixedDelay(Mockito.any(),
+                Mockito.anyLong(), Mockito.anyLong(), Mockito.any()))
+                .thenReturn(Mockito.mock(ScheduledFuture.class));
+    }
+
+    private static NodeMetrics metrics(final long pendingCompactions,
+                                       final long readP99Us) {
+        return NodeMetrics.create(0,
+                Collections.singletonMap("read", NodeMetrics.Latency.create(
+                        10, 0, 0, 1, readP99Us, readP99Us, readP99Us,
+                        readP99Us, readP99Us, readP99Us, null)),
+                pendingCompactions, 0, Collections.emptyMap(),
+                Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private static CompactionBounds bounds(final boolean enabled,
+                                           final Integer minCompactors,
+                                           final Integer maxCompactors) {
+        return CompactionBounds.create(enabled, 8, 72, minCompactors,
+                maxCompactors, 10L, 20L, 80);
+    }
+
+    private AdaptiveCompactionThrottle throttle() {
+        return new AdaptiveCompactionThrottle(
+                () -> Optional.ofNullable(metrics),
+                () -> utilization,
+                compactor,
+                executor,
+                boundsFile);
+    }
+
+    @Test
+    public void testDoesNotRunUntilEnabled() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        Assert.assertEquals(16, throughput);
+        Mockito.verify(executor, Mockito.never()).scheduleWithFixedDelay(
+                Mockito.any(), Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any());
+
+        throttle.setBounds(bounds(true, null, null));
+        Mockito.verify(executor).scheduleWithFixedDelay(throttle,
+                AdaptiveCompactionThrottle.INTERVAL_MS,
+                AdaptiveCompactionThrottle.INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testPaysDownPendingCompactions() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, 1, 4));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        // A step is an eighth of the range.
+        Assert.assertEquals(24, throughput);
+        Assert.assertEquals(2, compactors);
+        for (int i = 0; i < 10; i++) {
+            throttle.adjust();
+        }
+        Assert.assertEquals(72, throughput);
+        Assert.assertEquals(4, compactors);
+        Assert.assertEquals("Paying down 100 pending compactions",
+                throttle.getState().getReason());
+    }
+
+    @Test
+    public void testBacksOffUnderLoad() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, 1, 4));
+        throughput = 64;
+        metrics = metrics(100, 30000);
+        throttle.adjust();
+        Assert.assertEquals(32, throughput);
+        Assert.assertEquals(1, compactors);
+
+        metrics = metrics(100, 1000);
+        utilization = OptionalDouble.of(95);
+        throttle.adjust();
+        throttle.adjust();
+        throttle.adjust();
+        Assert.assertEquals(8, throughput);
+        Assert.assertTrue(throttle.getState().getReason()
+                .contains("disk utilization"));
+    }
+
+    @Test
+    public void testRelaxesWithoutDebt() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, null, null));
+        throughput = 0;
+        metrics = metrics(0, 1000);
+        throttle.adjust();
+        // An unthrottled node starts from the maximum.
+        Assert.assertEquals(64, throughput);
+        Assert.assertEquals(2, compactors);
+    }
+
+    @Test
+    public void testRestoresSettingsWhenDisabled() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, 1, 4));
+        metrics = metrics(0, 1000);
+        throttle.adjust();
+        Assert.assertEquals(8, throughput);
+        Assert.assertEquals(1, compactors);
+
+        throttle.setBounds(bounds(false, 1, 4));
+        Assert.assertEquals(16, throughput);
+        Assert.assertEquals(2, compactors);
+        Assert.assertNull(throttle.getState().getThroughputMbPerSec());
+    }
+
+    @Test
+    public void testAdjustsFromThroughputChangedOutside() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, null, null));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        Assert.assertEquals(24, throughput);
+
+        // e.g. a configuration update
+        throughput = 48;
+        throttle.adjust();
+        Assert.assertEquals(56, throughput);
+
+        throttle.setBounds(bounds(false, null, null));
+        Assert.assertEquals(48, throughput);
+    }
+
+    @Test
+    public void testKeepsThroughputChangedOutsideWhenDisabled()
+            throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, null, null));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        Assert.assertEquals(24, throughput);
+
+        throughput = 48;
+        throttle.setBounds(bounds(false, null, null));
+        Assert.assertEquals(48, throughput);
+    }
+
+    @Test
+    public void testYieldsToOverride() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, null, null));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        Assert.assertEquals(24, throughput);
+
+        throttle.override(0);
+        throttle.adjust();
+        throttle.adjust();
+        Assert.assertEquals(0, throughput);
+        Assert.assertEquals("Yielding to an explicit compaction throughput " +
+                "of 0 MB/s", throttle.getState().getReason());
+
+        throttle.release();
+        Assert.assertEquals(24, throughput);
+        throttle.adjust();
+        Assert.assertEquals(32, throughput);
+    }
+
+    @Test
+    public void testRestoresWhenOverrideIsReleased() throws Exception {
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, null, null));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        throttle.override(0);
+
+        throttle.setBounds(bounds(false, null, null));
+        Assert.assertEquals(0, throughput);
+        throttle.release();
+        Assert.assertEquals(16, throughput);
+    }
+
+    @Test
+    public void testAdjustsOnlyThroughputWithoutCompactorSupport()
+            throws Exception {
+        compactorsSupported = false;
+        final AdaptiveCompactionThrottle throttle = throttle();
+        throttle.setBounds(bounds(true, 1, 4));
+        metrics = metrics(100, 1000);
+        throttle.adjust();
+        Assert.assertEquals(24, throughput);
+        Assert.assertNull(throttle.getState().getConcurrentCompactors());
+    }
+
+    @Test
+    public void testPersistsBounds() throws Exception {
+        throttle().setBounds(bounds(true, 1, 4));
+        final AdaptiveCompactionThrottle restarted = throttle();
+        Assert.assertEquals(bounds(true, 1, 4),
+                restarted.getState().getBounds());
+        Mockito.verify(executor, Mockito.times(2)).scheduleWithFixedDelay(
+                Mockito.any(), Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any());
+    }
+
+    @Test
+    public void testValidatesBounds() {
+        Assert.assertTrue(CompactionBounds.DISABLED.isValid());
+        Assert.assertFalse(CompactionBounds.create(true, 0, 64, null, null,
+                null, null, null).isValid());
+        Assert.assertFalse(CompactionBounds.create(true, 64, 8, null, null,
+                null, null, null).isValid());
+        Assert.assertFalse(CompactionBounds.create(true, null, null, 2, null,
+                null, null, null).isValid());
+        Assert.assertFalse(CompactionBounds.create(true, null, null, 4, 2,
+                null, null, null).isValid());
+        Assert.assertFalse(CompactionBounds.create(true, null, null, null,
+                null, null, null, 101).isValid());
+    }
+}
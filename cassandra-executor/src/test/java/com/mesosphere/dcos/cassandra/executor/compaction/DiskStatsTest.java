@@ -0,0 +1,67 @@
+package com.mesosphere.dcos.cassandra.executor.compaction;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DiskStatsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong(10000);
+
+    private static String line(final String device, final long ioTicks) {
+        return String.format("   8       0 %s 1 2 3 4 5 6 7 8 0 %d 9%n",
+                device, ioTicks);
+    }
+
+    private void write(final Path diskstats,
+                       final long sdaTicks,
+                       final long sdbTicks) throws Exception {
+        Files.write(diskstats, (line("loop0", 0) +
+                line("sda", sdaTicks) +
+                line("sdb", sdbTicks)).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMeasuresTheDeviceOfTheVolume() throws Exception {
+        final Path diskstats = folder.newFile("diskstats").toPath();
+        final DiskStats stats = new DiskStats(diskstats, "sda", now::get);
+        write(diskstats, 1000, 1000);
+        Assert.assertFalse(stats.get().isPresent());
+
+        write(diskstats, 1250, 1900);
+        now.addAndGet(1000);
+        Assert.assertEquals(25.0, stats.get().getAsDouble(), 0.01);
+    }
+
+    @Test
+    public void testMeasuresTheBusiestDiskOfAnUnknownDevice()
+            throws Exception {
+        final Path diskstats = folder.newFile("diskstats").toPath();
+        final DiskStats stats = new DiskStats(diskstats, null, now::get);
+        write(diskstats, 1000, 1000);
+        stats.get();
+
+        write(diskstats, 1250, 3000);
+        now.addAndGet(1000);
+        // Utilization is capped at 100%.
+        Assert.assertEquals(100.0, stats.get().getAsDouble(), 0.01);
+    }
+
+    @Test
+    public void testEmptyWithoutDiskstats() {
+        final DiskStats stats = new DiskStats(
+                folder.getRoot().toPath().resolve("missing"), "sda",
+                now::get);
+        Assert.assertFalse(stats.get().isPresent());
+        Assert.assertFalse(stats.get().isPresent());
+    }
+}
@@ -0,0 +1,112 @@
+package com.mesosphere.dcos.cassandra.executor.config;
+
+import com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class AutoTuningTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CassandraApplicationConfig.Builder auto() {
+        // The tuned settings are derived unless they are set.
+        return CassandraApplicationConfig.builder();
+    }
+
+    @Test
+    public void testTunesSolidStateNode() {
+        final CassandraApplicationConfig tuned = AutoTuning.tune(
+                auto().build(), 7.5, 32768, 8192, Optional.of(false));
+        Assert.assertEquals(Integer.valueOf(32), tuned.getConcurrentReads());
+        Assert.assertEquals(Integer.valueOf(64), tuned.getConcurrentWrites());
+        Assert.assertEquals(Integer.valueOf(32),
+                tuned.getConcurrentCounterWrites());
+        Assert.assertEquals(Integer.valueOf(8),
+                tuned.getConcurrentCompactors());
+        Assert.assertEquals(Integer.valueOf(8),
+                tuned.getMemtableFlushWritersKey());
+        Assert.assertEquals(Integer.valueOf(2048),
+                tuned.getMemtableHeapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(2048),
+                tuned.getMemtableOffheapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(512),
+                tuned.getFileCacheSizeInMb());
+        Assert.assertEquals("ssd", tuned.getDiskOptimizationStrategy());
+    }
+
+    @Test
+    public void testTunesSmallRotationalNode() {
+        final CassandraApplicationConfig tuned = AutoTuning.tune(
+                auto().build(), 0.5, 4096, 2048, Optional.of(true));
+        Assert.assertEquals(Integer.valueOf(16), tuned.getConcurrentReads());
+        Assert.assertEquals(Integer.valueOf(8), tuned.getConcurrentWrites());
+        Assert.assertEquals(Integer.valueOf(8),
+                tuned.getConcurrentCounterWrites());
+        Assert.assertEquals(Integer.valueOf(2),
+                tuned.getConcurrentCompactors());
+        Assert.assertEquals(Integer.valueOf(2),
+                tuned.getMemtableFlushWritersKey());
+        Assert.assertEquals(Integer.valueOf(512),
+                tuned.getMemtableHeapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(512),
+                tuned.getMemtableOffheapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(512),
+                tuned.getFileCacheSizeInMb());
+        Assert.assertEquals("spinning", tuned.getDiskOptimizationStrategy());
+    }
+
+    @Test
+    public void testLimitsOffHeapSpaceToTheMemoryOutsideTheHeap() {
+        final CassandraApplicationConfig tuned = AutoTuning.tune(
+                auto().build(), 2, 9216, 8192, Optional.empty());
+        Assert.assertEquals(Integer.valueOf(2048),
+                tuned.getMemtableHeapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(256),
+                tuned.getMemtableOffheapSpaceInMb());
+        Assert.assertEquals(Integer.valueOf(256),
+                tuned.getFileCacheSizeInMb());
+        Assert.assertEquals("ssd", tuned.getDiskOptimizationStrategy());
+    }
+
+    @Test
+    public void testKeepsExplicitSettings() {
+        final CassandraApplicationConfig tuned = AutoTuning.tune(
+                auto().setConcurrentWrites(48)
+                        .setDiskOptimizationStrategy("ssd")
+                        .build(),
+                16, 65536, 8192, Optional.of(true));
+        Assert.assertEquals(Integer.valueOf(48), tuned.getConcurrentWrites());
+        Assert.assertEquals("ssd", tuned.getDiskOptimizationStrategy());
+        Assert.assertEquals(Integer.valueOf(16), tuned.getConcurrentReads());
+    }
+
+    @Test
+    public void testReadsRotationalFlagOfPartitions() throws Exception {
+        final Path sysBlock = folder.newFolder("block").toPath();
+        final Path disk = folder.newFolder("devices", "sda").toPath();
+        Files.createDirectories(disk.resolve("queue"));
+        Files.write(disk.resolve("queue").resolve("rotational"),
+                "1\n".getBytes(StandardCharsets.US_ASCII));
+        Files.createDirectories(disk.resolve("sda1"));
+        Files.createSymbolicLink(sysBlock.resolve("sda"), disk);
+        Files.createSymbolicLink(sysBlock.resolve("sda1"),
+                disk.resolve("sda1"));
+
+        Assert.assertEquals(Optional.of(true),
+                AutoTuning.isRotational(sysBlock, "sda"));
+        Assert.assertEquals(Optional.of(true),
+                AutoTuning.isRotational(sysBlock, "sda1"));
+        Assert.assertEquals(Optional.empty(),
+                AutoTuning.isRotational(sysBlock, "sdb"));
+        Assert.assertEquals(Optional.empty(),
+                AutoTuning.isRotational(sysBlock, null));
+    }
+}
@@ -0,0 +1,122 @@
+package com.mesosphere.dcos.cassandra.executor.config;
+
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.common.config.ConfigDiff;
+import com.mesosphere.dcos.cassandra.executor.JmxConnections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.StandardMBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.mesosphere.dcos.cassandra.common.config.CassandraApplicationConfig.*;
+
+public class HotConfigTest {
+
+    public interface StorageServiceMBean {
+        int getCompactionThroughputMbPerSec();
+
+        void setCompactionThroughputMbPerSec(int value);
+
+        long getReadRpcTimeout();
+
+        void setReadRpcTimeout(long value);
+    }
+
+    public static class StorageService implements StorageServiceMBean {
+        private int compactionThroughput = 16;
+        private long readRpcTimeout = 5000;
+
+        @Override
+        public int getCompactionThroughputMbPerSec() {
+            return compactionThroughput;
+        }
+
+        @Override
+        public void setCompactionThroughputMbPerSec(int value) {
+            compactionThroughput = value;
+        }
+
+        @Override
+        public long getReadRpcTimeout() {
+            return readRpcTimeout;
+        }
+
+        @Override
+        public void setReadRpcTimeout(long value) {
+            readRpcTimeout = value;
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StorageService storageService = new StorageService();
+    private MBeanServer server;
+
+    @Before
+    public void beforeEach() throws Exception {
+        server = MBeanServerFactory.newMBeanServer();
+        server.registerMBean(
+                new StandardMBean(storageService, StorageServiceMBean.class),
+                JmxConnections.objectName(JmxConnections.STORAGE_SERVICE_MBEAN));
+    }
+
+    @Test
+    public void testCoversTheHotApplicableKeys() {
+        Assert.assertEquals(ConfigDiff.HOT_APPLICABLE_KEYS,
+                HotConfig.getKeys());
+    }
+
+    @Test
+    public void testApply() throws Exception {
+        // JSON numbers are converted to the types of the attributes.
+        final Map<String, Object> settings = HotConfig.validate(
+                ImmutableMap.of(
+                        COMPACTION_THROUGHPUT_MB_PER_SEC_KEY, 64,
+                        READ_REQUEST_TIMEOUT_IN_MS_KEY, 10000));
+        HotConfig.apply(server, settings);
+        Assert.assertEquals(64, storageService.getCompactionThroughputMbPerSec());
+        Assert.assertEquals(10000L, storageService.getReadRpcTimeout());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRestartRequiredKeys() {
+        HotConfig.validate(ImmutableMap.of(CONCURRENT_WRITES_KEY, 64));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidValues() {
+        HotConfig.validate(ImmutableMap.of(HINTED_HANDOFF_ENABLED_KEY, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteKeepsOtherKeys() throws Exception {
+        final Path yaml = folder.newFile("cassandra.yaml").toPath();
+        Files.write(yaml, ("cluster_name: test\n" +
+                "listen_address: 10.0.0.1\n" +
+                "compaction_throughput_mb_per_sec: 16\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        HotConfig.write(yaml, ImmutableMap.of(
+                COMPACTION_THROUGHPUT_MB_PER_SEC_KEY, 64));
+
+        final Map<String, Object> written = (Map<String, Object>)
+                new Yaml().load(new String(Files.readAllBytes(yaml),
+                        StandardCharsets.UTF_8));
+        Assert.assertEquals(ImmutableMap.of(
+                "cluster_name", "test",
+                "listen_address", "10.0.0.1",
+                COMPACTION_THROUGHPUT_MB_PER_SEC_KEY, 64), written);
+    }
+}
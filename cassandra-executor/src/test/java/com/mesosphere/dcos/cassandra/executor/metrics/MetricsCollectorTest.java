@@ -0,0 +1,167 @@
+package com.mesosphere.dcos.cassandra.executor.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MetricsCollectorTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private volatile boolean failing = false;
+
+    private NodeMetrics read() throws IOException {
+        if (failing) {
+            throw new IOException("Connection refused");
+        }
+        final long[] buckets = new long[165];
+        buckets[10] = 3;
+        return NodeMetrics.create(1000L * reads.incrementAndGet(),
+                ImmutableMap.of(
+                        "read", NodeMetrics.Latency.create(100, 1, 0, 2.5,
+                                420.5, 379, 1109, 1597, 2299, 2759, buckets),
+                        "write", NodeMetrics.Latency.create(200, 0, 2, 5.0,
+                                80, 60, 103, 149, 215, 310, null)),
+                7,
+                1,
+                ImmutableMap.of(
+                        "MutationStage",
+                        NodeMetrics.ThreadPool.create(2, 4, 0, 12),
+                        "MemtableFlushWriter",
+                        NodeMetrics.ThreadPool.create(1, 1, 0, 0)),
+                ImmutableMap.of("MUTATION", 5L, "READ", 0L),
+                ImmutableMap.of("G1 Young Generation",
+                        NodeMetrics.GarbageCollector.create(40, 1250)));
+    }
+
+    private MetricsCollector collector() {
+        return new MetricsCollector(this::read,
+                Executors.newSingleThreadScheduledExecutor());
+    }
+
+    @Test
+    public void testEmptyBeforeCollection() {
+        Assert.assertFalse(collector().getSnapshot().isPresent());
+    }
+
+    @Test
+    public void testRendersJson() throws Exception {
+        final MetricsCollector collector = collector();
+        collector.collect();
+        final NodeMetrics metrics = new ObjectMapper().readValue(
+                collector.getSnapshot().get().getJson(), NodeMetrics.class);
+        Assert.assertEquals(1000, metrics.getTimestampMs());
+        Assert.assertEquals(7, metrics.getPendingCompactions());
+        Assert.assertEquals(1, metrics.getPendingFlushes());
+        Assert.assertEquals(1597,
+                metrics.getLatencies().get("read").getP99(), 0.0);
+        Assert.assertEquals(3,
+                metrics.getLatencies().get("read").getBuckets()[10]);
+        Assert.assertEquals(0,
+                metrics.getLatencies().get("write").getBuckets().length);
+        Assert.assertEquals(12, metrics.getThreadPools()
+                .get("MutationStage").getTotalBlocked());
+        Assert.assertEquals(5L,
+                (long) metrics.getDroppedMessages().get("MUTATION"));
+        Assert.assertEquals(1250, metrics.getGarbageCollectors()
+                .get("G1 Young Generation").getCollectionTimeMs());
+    }
+
+    @Test
+    public void testRendersPrometheus() {
+        final MetricsCollector collector = collector();
+        collector.collect();
+        final String text = new String(
+                collector.getSnapshot().get().getPrometheus(),
+                StandardCharsets.UTF_8);
+        Assert.assertTrue(text.contains(
+                "# TYPE cassandra_client_request_latency_microseconds gauge\n"));
+        Assert.assertTrue(text.contains(
+                "cassandra_client_request_latency_microseconds" +
+                        "{operation=\"read\",quantile=\"0.99\"} 1597\n"));
+        Assert.assertTrue(text.contains(
+                "cassandra_client_request_latency_mean_microseconds" +
+                        "{operation=\"read\"} 420.5\n"));
+        Assert.assertTrue(text.contains(
+                "cassandra_client_requests_total{operation=\"write\"} 200\n"));
+        Assert.assertTrue(text.contains("cassandra_pending_compactions 7\n"));
+        Assert.assertTrue(text.contains("cassandra_pending_flushes 1\n"));
+        Assert.assertTrue(text.contains(
+                "cassandra_thread_pool_pending_tasks" +
+                        "{pool=\"MutationStage\"} 4\n"));
+        Assert.assertTrue(text.contains(
+                "cassandra_dropped_messages_total{verb=\"MUTATION\"} 5\n"));
+        Assert.assertTrue(text.contains(
+                "jvm_gc_collection_seconds_total" +
+                        "{collector=\"G1 Young Generation\"} 1.25\n"));
+        Assert.assertTrue(text.endsWith("\n"));
+    }
+
+    @Test
+    public void testEscapesLabelValues() {
+        final String text = PrometheusFormat.format(NodeMetrics.create(0,
+                null, 0, 0, null,
+                ImmutableMap.of("a\"b\\c\nd", 1L),
+                null));
+        Assert.assertTrue(text.contains(
+                "cassandra_dropped_messages_total{verb=\"a\\\"b\\\\c\\nd\"} 1\n"));
+    }
+
+    @Test
+    public void testKeepsSnapshotWhenCollectionFails() {
+        final MetricsCollector collector = collector();
+        collector.collect();
+        failing = true;
+        collector.collect();
+        Assert.assertEquals(1000, collector.getSnapshot().get()
+                .getMetrics().getTimestampMs());
+    }
+
+    @Test
+    public void testExpiresSnapshotWhenCollectionsFail() {
+        final AtomicLong now = new AtomicLong();
+        final MetricsCollector collector = new MetricsCollector(this::read,
+                Executors.newSingleThreadScheduledExecutor(),
+                MetricsCollector.DEFAULT_INTERVAL_MS,
+                MetricsCollector.DEFAULT_MAX_AGE_MS,
+                now::get);
+        collector.collect();
+        failing = true;
+        now.set(MetricsCollector.DEFAULT_MAX_AGE_MS - 1);
+        collector.collect();
+        Assert.assertTrue(collector.getSnapshot().isPresent());
+        now.set(MetricsCollector.DEFAULT_MAX_AGE_MS);
+        Assert.assertFalse(collector.getSnapshot().isPresent());
+        failing = false;
+        collector.collect();
+        Assert.assertTrue(collector.getSnapshot().isPresent());
+    }
+
+    @Test
+    public void testCollectsOnInterval() throws Exception {
+        final ScheduledExecutorService executor =
+                Executors.newSingleThreadScheduledExecutor();
+        try {
+            final MetricsCollector collector = new MetricsCollector(
+                    this::read, executor, 10);
+            collector.start();
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (reads.get() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            collector.close();
+            Assert.assertTrue(reads.get() >= 3);
+            Assert.assertTrue(collector.getSnapshot().isPresent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RepairThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private void sleep(final long ms) {
+        sleeps.add(ms);
+        now.addAndGet(ms);
+    }
+
+    private static NodeMetrics metrics(final long pendingCompactions) {
+        return NodeMetrics.create(0, Collections.emptyMap(),
+                pendingCompactions, 0, Collections.emptyMap(),
+                Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    @Test
+    public void testSpacesSegmentsByTheInterval() throws Exception {
+        final RepairThrottle throttle = new RepairThrottle(Optional::empty,
+                100, 0, 0, now::get, this::sleep);
+        throttle.await();
+        Assert.assertTrue(sleeps.isEmpty());
+        now.addAndGet(30);
+        throttle.await();
+        now.addAndGet(150);
+        throttle.await();
+        Assert.assertEquals(Collections.singletonList(70L), sleeps);
+    }
+
+    @Test
+    public void testPausesWhileCompactionsArePending() throws Exception {
+        final List<NodeMetrics> readings = new ArrayList<>(Arrays.asList(
+                metrics(500), metrics(200), metrics(10)));
+        final RepairThrottle throttle = new RepairThrottle(
+                () -> Optional.of(readings.size() > 1 ?
+                        readings.remove(0) : readings.get(0)),
+                100, 100, 0, now::get, this::sleep);
+        throttle.await();
+        Assert.assertEquals(Arrays.asList(RepairThrottle.PAUSE_MS,
+                RepairThrottle.PAUSE_MS), sleeps);
+        // The interval starts when the paused segment starts.
+        throttle.await();
+        Assert.assertEquals(100L, (long) sleeps.get(2));
+    }
+
+    @Test
+    public void testStartsAfterTheLongestPause() throws Exception {
+        final RepairThrottle throttle = new RepairThrottle(
+                () -> Optional.of(metrics(500)),
+                100, 100, 0, now::get, this::sleep);
+        throttle.await();
+        Assert.assertEquals(
+                RepairThrottle.MAX_PAUSE_MS / RepairThrottle.PAUSE_MS,
+                sleeps.size());
+        Assert.assertEquals(RepairThrottle.MAX_PAUSE_MS,
+                sleeps.stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testDetectsClientLatency() {
+        final NodeMetrics.Latency write = NodeMetrics.Latency.create(
+                10, 0, 0, 1, 5000, 4000, 20000, 50000, 80000, 90000, null);
+        final NodeMetrics slow = NodeMetrics.create(0,
+                Collections.singletonMap("write", write), 0, 0,
+                Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyMap());
+        Assert.assertEquals("write p99 latency of 50.0 ms exceeds 20 ms",
+                new RepairThrottle(() -> Optional.of(slow), 0, 0, 20,
+                        now::get, this::sleep).getOverload().get());
+        Assert.assertFalse(new RepairThrottle(() -> Optional.of(slow), 0, 0,
+                50, now::get, this::sleep).getOverload().isPresent());
+    }
+
+    @Test
+    public void testIgnoresLimitsThatAreNotSet() throws Exception {
+        final RepairThrottle throttle = new RepairThrottle(
+                () -> Optional.of(metrics(1000000)),
+                0, 0, 0, now::get, this::sleep);
+        Assert.assertFalse(throttle.getOverload().isPresent());
+        throttle.await();
+        throttle.await();
+        Assert.assertTrue(sleeps.isEmpty());
+    }
+}
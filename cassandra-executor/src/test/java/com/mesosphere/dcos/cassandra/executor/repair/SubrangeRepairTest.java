@@ -0,0 +1,154 @@
+package com.mesosphere.dcos.cassandra.executor.repair;
+
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubrangeRepairTest {
+
+    private static final TokenRing MURMUR3 =
+            TokenRing.forPartitioner(TokenRing.MURMUR3_PARTITIONER);
+
+    private static TokenRange range(final long start, final long end) {
+        return new TokenRange(Long.toString(start), Long.toString(end));
+    }
+
+    @Test
+    public void testPrimaryRangesEndAtTheTokensOfTheNode() {
+        final Map<String, String> ring = ImmutableMap.of(
+                "100", "10.0.0.2",
+                "-100", "10.0.0.1",
+                "0", "10.0.0.3",
+                "200", "10.0.0.1");
+        Assert.assertEquals(Arrays.asList(range(200, -100), range(100, 200)),
+                MURMUR3.getPrimaryRanges(ring, "10.0.0.1"));
+    }
+
+    @Test
+    public void testSplitsRangesIntoEqualSegments() {
+        Assert.assertEquals(Arrays.asList(range(0, 25), range(25, 50),
+                range(50, 75), range(75, 100)),
+                MURMUR3.split(range(0, 100), 4));
+        // A range never has more segments than tokens.
+        Assert.assertEquals(3, MURMUR3.split(range(0, 3), 10).size());
+        // The segments of a wrapping range wrap around the ring.
+        final List<TokenRange> wrapping = MURMUR3.split(
+                range(Long.MAX_VALUE - 9, Long.MIN_VALUE + 10), 2);
+        Assert.assertEquals(Arrays.asList(
+                range(Long.MAX_VALUE - 9, Long.MIN_VALUE),
+                range(Long.MIN_VALUE, Long.MIN_VALUE + 10)), wrapping);
+        // Other partitioners are not split.
+        final TokenRange bytes = new TokenRange("00", "ff");
+        Assert.assertEquals(Collections.singletonList(bytes),
+                TokenRing.forPartitioner(
+                        "org.apache.cassandra.dht.ByteOrderedPartitioner")
+                        .split(bytes, 4));
+    }
+
+    @Test
+    public void testCoversSegmentsWithinRepairedRanges() {
+        final List<TokenRange> repaired = TokenRing.coalesce(Arrays.asList(
+                range(50, 75), range(0, 25), range(25, 50),
+                range(Long.MAX_VALUE - 9, Long.MIN_VALUE)));
+        Assert.assertEquals(Arrays.asList(range(0, 75),
+                range(Long.MAX_VALUE - 9, Long.MIN_VALUE)), repaired);
+        Assert.assertTrue(MURMUR3.covers(repaired, range(10, 40)));
+        Assert.assertTrue(MURMUR3.covers(repaired, range(0, 75)));
+        Assert.assertTrue(MURMUR3.covers(repaired,
+                range(Long.MAX_VALUE - 5, Long.MAX_VALUE)));
+        Assert.assertFalse(MURMUR3.covers(repaired, range(70, 80)));
+        Assert.assertFalse(MURMUR3.covers(repaired, range(-10, 10)));
+        // A range from a token to itself is the whole ring.
+        Assert.assertTrue(MURMUR3.covers(
+                Collections.singletonList(range(5, 5)), range(70, 80)));
+    }
+
+    @Test
+    public void testPlansSegmentsByEstimatedPartitions() {
+        final List<TokenRange> segments = SubrangeRepair.plan(MURMUR3,
+                Arrays.asList(range(0, 1000), range(2000, 3000)),
+                ImmutableMap.of(range(0, 1000), 250000L),
+                100000);
+        // 3 segments for the estimated range, 1 for the other.
+        Assert.assertEquals(4, segments.size());
+        Assert.assertEquals(range(2000, 3000), segments.get(3));
+        Assert.assertEquals(2, SubrangeRepair.plan(MURMUR3,
+                Arrays.asList(range(0, 1000), range(2000, 3000)),
+                ImmutableMap.of(range(0, 1000), 250000L),
+                0).size());
+    }
+
+    @Test
+    public void testResumesFromProgress() throws Exception {
+        final Map<String, List<TokenRange>> plan = new LinkedHashMap<>();
+        plan.put("ks1", MURMUR3.split(range(0, 100), 4));
+        plan.put("ks2", MURMUR3.split(range(0, 100), 4));
+        final SubrangeRepair first = new SubrangeRepair(MURMUR3, plan,
+                RepairProgress.NONE);
+        Assert.assertEquals(8, first.getPendingSegments());
+        try {
+            first.run("repair", (keySpace, segment) -> {
+                if (keySpace.equals("ks2") &&
+                        segment.equals(range(50, 75))) {
+                    throw new Exception("Repair session failed");
+                }
+            }, 1, progress -> { });
+            Assert.fail("Expected the repair to fail");
+        } catch (Exception ex) {
+            Assert.assertEquals("Repair session failed", ex.getMessage());
+        }
+        final RepairProgress progress = first.getProgress();
+        Assert.assertEquals(6, progress.getSegments());
+        Assert.assertEquals(8, progress.getTotalSegments());
+        Assert.assertEquals(75.0, progress.getPercentComplete(), 0.0);
+        Assert.assertEquals(Collections.singletonList("ks1"),
+                progress.getKeySpaces());
+        Assert.assertEquals(Collections.singletonList(
+                new RepairProgress.Range("ks2", "0", "50")),
+                progress.getRepaired());
+
+        // Estimates changed since: the segments of the resumed repair are
+        // not those of the first, but only unrepaired tokens are repaired.
+        plan.put("ks2", MURMUR3.split(range(0, 100), 2));
+        final SubrangeRepair second = new SubrangeRepair(MURMUR3, plan,
+                progress);
+        Assert.assertEquals(1, second.getPendingSegments());
+        final AtomicInteger reports = new AtomicInteger();
+        second.run("repair", (keySpace, segment) ->
+                Assert.assertEquals("ks2" + range(50, 100),
+                        keySpace + segment),
+                4, current -> reports.incrementAndGet());
+        Assert.assertEquals(1, reports.get());
+        Assert.assertEquals(6, second.getProgress().getTotalSegments());
+        Assert.assertEquals(100.0,
+                second.getProgress().getPercentComplete(), 0.0);
+        Assert.assertEquals(Arrays.asList("ks1", "ks2"),
+                second.getProgress().getKeySpaces());
+        Assert.assertTrue(second.getProgress().getRepaired().isEmpty());
+    }
+
+    @Test
+    public void testRepairsSegmentsInParallel() throws Exception {
+        final Map<String, List<TokenRange>> plan = new LinkedHashMap<>();
+        plan.put("ks", MURMUR3.split(range(0, 1000), 16));
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        new SubrangeRepair(MURMUR3, plan, RepairProgress.NONE).run("repair",
+                (keySpace, segment) -> {
+                    maximum.accumulateAndGet(running.incrementAndGet(),
+                            Math::max);
+                    Thread.sleep(10);
+                    running.decrementAndGet();
+                }, 3, progress -> { });
+        Assert.assertTrue(maximum.get() <= 3);
+        Assert.assertTrue(maximum.get() > 1);
+    }
+}
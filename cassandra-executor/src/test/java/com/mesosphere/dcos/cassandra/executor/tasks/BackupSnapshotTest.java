@@ -0,0 +1,124 @@
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupSnapshotStatus;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupSnapshotTask;
+import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BackupSnapshotTest {
+
+    @Mock
+    private ExecutorDriver executorDriver;
+
+    @Mock
+    private CassandraDaemonProcess cassandraDaemonProcess;
+
+    @Mock
+    private BackupSnapshotTask backupSnapshotTask;
+
+    @Mock
+    private BackupSnapshotStatus backupSnapshotStatus;
+
+    @Before
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        when(backupSnapshotTask.createStatus(any(Protos.TaskState.class), any(Optional.class)))
+                .thenReturn(backupSnapshotStatus);
+        when(cassandraDaemonProcess.getNonSystemKeySpaces())
+                .thenReturn(Arrays.asList("ks1", "ks2"));
+        when(cassandraDaemonProcess.getColumnFamilies("ks1"))
+                .thenReturn(Arrays.asList("table1", "table2"));
+        when(cassandraDaemonProcess.getColumnFamilies("ks2"))
+                .thenReturn(Collections.singletonList("table1"));
+    }
+
+    private BackupSnapshot backupSnapshot(List<String> keySpaces,
+                                          List<String> columnFamilies) {
+        when(backupSnapshotTask.getBackupRestoreContext()).thenReturn(
+                BackupRestoreContext.builder()
+                        .setNodeId("node-0")
+                        .setName("backup")
+                        .setExternalLocation("s3://bucket")
+                        .setLocalLocation("/var/lib/cassandra/data")
+                        .setAccountId("key")
+                        .setSecretKey("secret")
+                        .setRestoreType("existing")
+                        .setKeySpaces(keySpaces)
+                        .setColumnFamilies(columnFamilies)
+                        .build());
+        return new BackupSnapshot(executorDriver, cassandraDaemonProcess,
+                backupSnapshotTask);
+    }
+
+    @Test
+    public void testSnapshotsAllKeyspacesOnce() throws Exception {
+        backupSnapshot(Collections.emptyList(), Collections.emptyList()).run();
+
+        verify(cassandraDaemonProcess).clearSnapshot("backup", "ks1", "ks2");
+        verify(cassandraDaemonProcess).flush("ks1");
+        verify(cassandraDaemonProcess).flush("ks2");
+        verify(cassandraDaemonProcess).takeSnapShot("backup", "ks1", "ks2");
+        verify(backupSnapshotTask).createStatus(eq(Protos.TaskState.TASK_FINISHED), any(Optional.class));
+    }
+
+    @Test
+    public void testSnapshotsSelectedKeyspaces() throws Exception {
+        backupSnapshot(Collections.singletonList("ks2"), Collections.emptyList()).run();
+
+        verify(cassandraDaemonProcess).clearSnapshot("backup", "ks1", "ks2");
+        verify(cassandraDaemonProcess, never()).flush(eq("ks1"), anyVararg());
+        verify(cassandraDaemonProcess).takeSnapShot("backup", "ks2");
+    }
+
+    @Test
+    public void testSnapshotsSelectedColumnFamilies() throws Exception {
+        backupSnapshot(Collections.emptyList(), Collections.singletonList("table1")).run();
+
+        verify(cassandraDaemonProcess).flush("ks1", "table1");
+        verify(cassandraDaemonProcess).flush("ks2", "table1");
+        verify(cassandraDaemonProcess).takeTableSnapShot("backup",
+                Arrays.asList("ks1.table1", "ks2.table1"));
+    }
+
+    @Test
+    public void testNothingSelected() throws Exception {
+        backupSnapshot(Collections.singletonList("missing"), Collections.emptyList()).run();
+
+        verify(cassandraDaemonProcess, never()).takeSnapShot(any(String.class), anyVararg());
+        verify(backupSnapshotTask).createStatus(eq(Protos.TaskState.TASK_FINISHED), any(Optional.class));
+    }
+
+    @Test
+    public void testFlushFailureFailsTask() throws Exception {
+        when(cassandraDaemonProcess.getNonSystemKeySpaces())
+                .thenReturn(Collections.singletonList("ks1"));
+        doThrow(new IOException("flush failed"))
+                .when(cassandraDaemonProcess).flush("ks1");
+
+        backupSnapshot(Collections.emptyList(), Collections.emptyList()).run();
+
+        verify(cassandraDaemonProcess, never()).takeSnapShot(any(String.class), anyVararg());
+        verify(backupSnapshotTask).createStatus(eq(Protos.TaskState.TASK_FAILED), any(Optional.class));
+    }
+}
@@ -7,6 +7,7 @@ import com.mesosphere.dcos.cassandra.common.config.*;
 import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+import com.mesosphere.dcos.cassandra.executor.backup.TransferThrottle;
 import io.dropwizard.configuration.ConfigurationFactory;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
 import io.dropwizard.configuration.FileConfigurationSourceProvider;
@@ -116,7 +117,7 @@ public class CassandraTaskFactoryTest {
                 clusterTaskConfig,
                 stateStore);
 
-        taskFactory = new CassandraTaskFactory(executorDriver);
+        taskFactory = new CassandraTaskFactory(executorDriver, new TransferThrottle());
     }
 
     @After
@@ -0,0 +1,142 @@
+package com.mesosphere.dcos.cassandra.executor.tasks;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.DownloadSnapshotStatus;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.DownloadSnapshotTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+import com.mesosphere.dcos.cassandra.executor.CassandraDaemonProcess;
+import com.mesosphere.dcos.cassandra.executor.Probe;
+import com.mesosphere.dcos.cassandra.executor.backup.FileStorageDriver;
+import org.apache.cassandra.tools.NodeProbe;
+import org.apache.mesos.ExecutorDriver;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DownloadSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private ExecutorDriver executorDriver;
+
+    @Mock
+    private CassandraDaemonProcess cassandraDaemonProcess;
+
+    @Mock
+    private Probe probe;
+
+    @Mock
+    private NodeProbe nodeProbe;
+
+    @Mock
+    private DownloadSnapshotTask downloadSnapshotTask;
+
+    @Mock
+    private DownloadSnapshotStatus downloadSnapshotStatus;
+
+    private File data;
+
+    @Before
+    public void setup() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        final File external = folder.newFolder("external");
+        final Path backupFile = external.toPath()
+                .resolve("backup/node-0/ks/table-1234/ma-1-big-Data.db");
+        Files.createDirectories(backupFile.getParent());
+        Files.write(backupFile, new byte[]{1, 2, 3});
+
+        data = folder.newFolder("data");
+        Files.createDirectories(data.toPath().resolve("ks/table-5678"));
+
+        when(downloadSnapshotTask.getBackupRestoreContext()).thenReturn(
+                BackupRestoreContext.create(
+                        "node-0",
+                        "backup",
+                        external.toURI().toString(),
+                        data.getAbsolutePath(),
+                        "",
+                        "",
+                        false,
+                        "existing"));
+        when(downloadSnapshotTask.createStatus(any(Protos.TaskState.class), any(Optional.class)))
+                .thenReturn(downloadSnapshotStatus);
+        when(downloadSnapshotStatus.getTaskStatus()).thenReturn(
+                Protos.TaskStatus.newBuilder()
+                        .setTaskId(Protos.TaskID.newBuilder().setValue("download"))
+                        .setState(Protos.TaskState.TASK_RUNNING)
+                        .setData(CassandraData.createSnapshotDownloadStatusData().getBytes())
+                        .build());
+        when(cassandraDaemonProcess.getProbe()).thenReturn(probe);
+        when(probe.dedicated()).thenReturn(nodeProbe);
+    }
+
+    private DownloadSnapshot downloadSnapshot() {
+        return new DownloadSnapshot(executorDriver,
+                downloadSnapshotTask,
+                new FileStorageDriver(),
+                cassandraDaemonProcess);
+    }
+
+    @Test
+    public void testLoadsDownloadedTable() throws Exception {
+        downloadSnapshot().run();
+
+        assertTrue(data.toPath().resolve("ks/table-5678/ma-1-big-Data.db").toFile().exists());
+        verify(nodeProbe).loadNewSSTables("ks", "table");
+        assertEquals(Collections.singleton("ks.table"), RefreshedTables.read(
+                downloadSnapshotTask.getBackupRestoreContext()));
+        verify(downloadSnapshotTask).createStatus(eq(Protos.TaskState.TASK_FINISHED), any(Optional.class));
+    }
+
+    @Test
+    public void testReportsProgress() throws Exception {
+        downloadSnapshot().run();
+
+        final ArgumentCaptor<Protos.TaskStatus> statuses =
+                ArgumentCaptor.forClass(Protos.TaskStatus.class);
+        verify(executorDriver, atLeastOnce()).sendStatusUpdate(statuses.capture());
+        final Protos.TaskStatus last =
+                statuses.getAllValues().get(statuses.getAllValues().size() - 1);
+        final TransferProgress progress =
+                CassandraData.parse(last.getData()).getProgress().get();
+        assertEquals(1, progress.getFiles());
+        assertEquals(1, progress.getTotalFiles());
+        assertEquals(3, progress.getBytes());
+        assertEquals(3, progress.getTotalBytes());
+        assertEquals(100, progress.getPercentComplete());
+    }
+
+    @Test
+    public void testFailsWhenTableFailsToLoad() throws Exception {
+        doThrow(new RuntimeException("refresh failed"))
+                .when(nodeProbe).loadNewSSTables("ks", "table");
+
+        downloadSnapshot().run();
+
+        verify(downloadSnapshotTask).createStatus(eq(Protos.TaskState.TASK_FAILED), any(Optional.class));
+    }
+}
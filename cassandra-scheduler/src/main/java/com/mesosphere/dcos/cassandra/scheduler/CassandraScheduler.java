@@ -16,9 +16,12 @@ import com.mesosphere.dcos.cassandra.scheduler.plan.CassandraDaemonPhase;
 import com.mesosphere.dcos.cassandra.scheduler.plan.CassandraPlan;
 import com.mesosphere.dcos.cassandra.scheduler.plan.SyncDataCenterPhase;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.BackupManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.CopyBackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.RestoreManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.VerifyBackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.cleanup.CleanupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairScheduler;
 import com.mesosphere.dcos.cassandra.scheduler.plan.upgradesstable.UpgradeSSTableManager;
 import com.mesosphere.dcos.cassandra.scheduler.resources.*;
 import com.mesosphere.dcos.cassandra.scheduler.seeds.SeedsManager;
@@ -68,6 +71,8 @@ public class CassandraScheduler implements Scheduler, Observer {
     private final SchedulerClient client;
     private final BackupManager backup;
     private final RestoreManager restore;
+    private final VerifyBackupManager verify;
+    private final CopyBackupManager copy;
     private final CleanupManager cleanup;
     private final RepairManager repair;
     private final UpgradeSSTableManager upgrade;
@@ -102,6 +107,8 @@ public class CassandraScheduler implements Scheduler, Observer {
             final SchedulerClient client,
             final BackupManager backup,
             final RestoreManager restore,
+            final VerifyBackupManager verify,
+            final CopyBackupManager copy,
             final CleanupManager cleanup,
             final RepairManager repair,
             final UpgradeSSTableManager upgrade,
@@ -125,6 +132,8 @@ public class CassandraScheduler implements Scheduler, Observer {
         this.client = client;
         this.backup = backup;
         this.restore = restore;
+        this.verify = verify;
+        this.copy = copy;
         this.cleanup = cleanup;
         this.repair = repair;
         this.upgrade = upgrade;
@@ -170,7 +179,7 @@ public class CassandraScheduler implements Scheduler, Observer {
                     CassandraDaemonPhase.create(
                             cassandraState, offerRequirementProvider, client, defaultConfigurationManager),
                     Arrays.asList(
-                            backup, restore, cleanup, repair, upgrade));
+                            backup, restore, verify, copy, cleanup, repair, upgrade));
             plan.subscribe(this);
             planManager = new DefaultPlanManager(plan);
             reconciler.start();
@@ -181,11 +190,16 @@ public class CassandraScheduler implements Scheduler, Observer {
                     new SeedsResource(seeds),
                     new ConfigurationResource(defaultConfigurationManager),
                     new TasksResource(capabilities, cassandraState, client, configurationManager),
+                    new ClusterMetricsResource(cassandraState, client),
                     new PlansResource(ImmutableMap.of("deploy", planManager)), // TODO(nick) include recovery
-                    new BackupResource(backup),
-                    new RestoreResource(restore),
+                    new BackupResource(backup, copy, cassandraState),
+                    new RestoreResource(restore, cassandraState),
+                    new VerifyBackupResource(verify),
                     new CleanupResource(cleanup),
-                    new RepairResource(repair),
+                    new RepairResource(repair,
+                            new RepairScheduler(repair, cassandraState,
+                                    stateStore, executor),
+                            cassandraState),
                     new UpgradeSSTableResource(upgrade, enableUpgradeSSTableEndpoint),
                     new DataCenterResource(seeds),
                     new ConnectionResource(capabilities, cassandraState, configurationManager),
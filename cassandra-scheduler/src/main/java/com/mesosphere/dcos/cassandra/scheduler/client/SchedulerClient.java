@@ -2,6 +2,7 @@ package com.mesosphere.dcos.cassandra.scheduler.client;
 
 import com.google.inject.Inject;
 import com.mesosphere.dcos.cassandra.common.config.CassandraConfig;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraStatus;
 import com.mesosphere.dcos.cassandra.scheduler.seeds.DataCenterInfo;
 
@@ -18,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
@@ -148,6 +150,11 @@ public class SchedulerClient {
                 .class);
     }
 
+    public CompletionStage<NodeMetrics> metrics(String hostname, int port) {
+        return get(host(hostname, port), "/v1/cassandra/metrics",
+                NodeMetrics.class);
+    }
+
     public CompletionStage<CassandraConfig> configuration(
             String hostname,
             int port) {
@@ -155,6 +162,30 @@ public class SchedulerClient {
                 CassandraConfig.class);
     }
 
+    /**
+     * Applies settings to the configuration of a running Cassandra daemon.
+     *
+     * @param hostname The host of the executor of the daemon.
+     * @param port     The API port of the executor.
+     * @param settings The hot-applicable settings of the application
+     *                 configuration with their new values.
+     * @return True if the executor applied all the settings.
+     */
+    public CompletionStage<Boolean> applyConfiguration(
+            String hostname,
+            int port,
+            Map<String, Object> settings) {
+        try {
+            return put(new URIBuilder()
+                    .setScheme(SCHEME)
+                    .setHost(host(hostname, port))
+                    .setPath("/v1/cassandra/configuration")
+                    .build().toString(), settings);
+        } catch (Throwable t) {
+            return failure(t);
+        }
+    }
+
     public CompletionStage<DataCenterInfo> getDataCenterInfo(String url) {
         return get(url, DataCenterInfo.class);
     }
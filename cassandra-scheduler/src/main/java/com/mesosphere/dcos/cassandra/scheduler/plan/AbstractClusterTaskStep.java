@@ -38,6 +38,15 @@ public abstract class AbstractClusterTaskStep extends DefaultStep {
 
     protected abstract Optional<CassandraTask> getOrCreateTask() throws PersistenceException;
 
+    /**
+     * Called with a task that terminated without finishing, before it is
+     * removed so that the step launches a new one.
+     *
+     * @param task The terminated task.
+     */
+    protected void onTerminated(CassandraTask task) {
+    }
+
     @Override
     public Optional<OfferRequirement> start() {
         logger.info("Starting Step: name = {}, id = {}", getName(), getId());
@@ -111,6 +120,7 @@ public abstract class AbstractClusterTaskStep extends DefaultStep {
                     setStatus(Status.IN_PROGRESS);
                 } else if (task.isTerminated()) {
                     //need to progress with a new task
+                    onTerminated(task);
                     cassandraState.remove(getName());
                     logger.info("Reallocating task {} for step {}", getName(), getId());
                     setStatus(Status.PENDING);
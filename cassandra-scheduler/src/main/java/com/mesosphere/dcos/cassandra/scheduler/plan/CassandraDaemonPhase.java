@@ -22,6 +22,7 @@ public class CassandraDaemonPhase extends DefaultPhase {
     private static List<Step> createSteps(
             final CassandraState cassandraState,
             final PersistentOfferRequirementProvider provider,
+            final SchedulerClient client,
             final DefaultConfigurationManager configurationManager)
                 throws ConfigStoreException, IOException {
         final int servers = ((CassandraSchedulerConfiguration)configurationManager.getTargetConfig())
@@ -39,7 +40,7 @@ public class CassandraDaemonPhase extends DefaultPhase {
         // new step with a newly recorded task for a scale out
         final List<Step> steps = new ArrayList<>();
         for (int i = 0; i < servers; i++) {
-            steps.add(CassandraDaemonStep.create(names.get(i), provider, cassandraState));
+            steps.add(CassandraDaemonStep.create(names.get(i), provider, cassandraState, client));
         }
         return steps;
     }
@@ -51,7 +52,7 @@ public class CassandraDaemonPhase extends DefaultPhase {
             final DefaultConfigurationManager configurationManager) {
         try {
             return new CassandraDaemonPhase(
-                    createSteps(cassandraState, provider, configurationManager),
+                    createSteps(cassandraState, provider, client, configurationManager),
                     new ArrayList<>());
         } catch (Throwable e) {
             return new CassandraDaemonPhase(new ArrayList<>(), Arrays.asList(String.format(
@@ -1,9 +1,11 @@
 package com.mesosphere.dcos.cassandra.scheduler.plan;
 
 import com.google.protobuf.TextFormat;
+import com.mesosphere.dcos.cassandra.common.config.ConfigDiff;
 import com.mesosphere.dcos.cassandra.common.offer.PersistentOfferRequirementProvider;
 import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
 import com.mesosphere.dcos.cassandra.common.tasks.*;
+import com.mesosphere.dcos.cassandra.scheduler.client.SchedulerClient;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.mesos.Protos;
 import org.apache.mesos.config.ConfigStoreException;
@@ -16,12 +18,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CassandraDaemonStep extends DefaultStep {
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraDaemonStep.class);
 
     private final CassandraState cassandraState;
     private final PersistentOfferRequirementProvider provider;
+    private final Optional<SchedulerClient> client;
+    private final AtomicBoolean applying = new AtomicBoolean(false);
+    private volatile boolean applyFailed = false;
     private volatile CassandraMode mode = CassandraMode.UNKNOWN;
 
     public static boolean isComplete(Protos.TaskStatus status) {
@@ -76,6 +82,65 @@ public class CassandraDaemonStep extends DefaultStep {
                 cassandraState.createCassandraContainer(cassandraState.reconfigureDaemon(task), templateTask));
     }
 
+    /**
+     * Applies the target configuration to the running daemon of a task if
+     * all of its changes are hot-applicable.
+     *
+     * @return True if the configuration is applied, or being applied,
+     * without restarting the daemon. False if the daemon must be
+     * reconfigured with a restart.
+     */
+    private boolean applyConfig(final CassandraDaemonTask task) throws IOException {
+        if (!client.isPresent() || applyFailed) {
+            return false;
+        }
+        if (applying.get()) {
+            return true;
+        }
+        final Optional<Protos.TaskStatus> storedStatus =
+                cassandraState.getStateStore().fetchStatus(task.getName());
+        if (!storedStatus.isPresent() || !isComplete(storedStatus.get())) {
+            return false;
+        }
+        final ConfigDiff diff = cassandraState.getConfigDiff(task);
+        if (!diff.isHotApplicable()) {
+            LOGGER.info("Step {} - Config changes require a restart: {}",
+                    getName(), diff.getRestartRequired());
+            return false;
+        } else if (diff.getHotApplicable().isEmpty()) {
+            cassandraState.applyConfig(task);
+            return true;
+        }
+
+        LOGGER.info("Step {} - Applying config changes without a restart: {}",
+                getName(), diff.getHotApplicable());
+        applying.set(true);
+        client.get().applyConfiguration(
+                task.getHostname(),
+                task.getExecutor().getApiPort(),
+                diff.getHotApplicable()).whenComplete((applied, error) -> {
+            try {
+                if (error == null && applied) {
+                    cassandraState.applyConfig(task);
+                    LOGGER.info("Step {} - Applied config changes", getName());
+                } else {
+                    LOGGER.error(String.format(
+                            "Step %s - Failed to apply config changes, " +
+                                    "the node will be restarted", getName()),
+                            error);
+                    applyFailed = true;
+                }
+            } catch (Throwable t) {
+                LOGGER.error(String.format(
+                        "Step %s - Failed to record applied config", getName()), t);
+                applyFailed = true;
+            } finally {
+                applying.set(false);
+            }
+        });
+        return true;
+    }
+
     private Optional<OfferRequirement> replaceTask(final CassandraDaemonTask task) throws PersistenceException {
         String templateTaskName = CassandraTemplateTask.toTemplateTaskName(task.getName());
         CassandraTemplateTask templateTask = cassandraState.getOrCreateTemplateTask(templateTaskName, task);
@@ -94,13 +159,35 @@ public class CassandraDaemonStep extends DefaultStep {
                 cassandraState);
     }
 
+    public static CassandraDaemonStep create(
+            final String name,
+            final PersistentOfferRequirementProvider provider,
+            final CassandraState cassandraState,
+            final SchedulerClient client) throws IOException {
+
+        return new CassandraDaemonStep(
+                name,
+                provider,
+                cassandraState,
+                Optional.ofNullable(client));
+    }
+
     public CassandraDaemonStep(
             final String name,
             final PersistentOfferRequirementProvider provider,
             final CassandraState cassandraState) throws IOException {
+        this(name, provider, cassandraState, Optional.empty());
+    }
+
+    public CassandraDaemonStep(
+            final String name,
+            final PersistentOfferRequirementProvider provider,
+            final CassandraState cassandraState,
+            final Optional<SchedulerClient> client) throws IOException {
         super(name, Optional.empty(), Status.PENDING, Collections.emptyList());
         this.cassandraState = cassandraState;
         this.provider = provider;
+        this.client = client;
         if (isComplete(cassandraState.getOrCreateContainer(name))) {
             setStatus(Status.COMPLETE);
         }
@@ -132,6 +219,9 @@ public class CassandraDaemonStep extends DefaultStep {
                 LOGGER.info("Step {} - Task requires config update: id = {}",
                         getName(),
                         container.getId());
+                if (applyConfig(container.getDaemonTask())) {
+                    return Optional.empty();
+                }
                 return reconfigureTask(container.getDaemonTask());
             } else if (container.isTerminated() || container.isLaunching()) {
                 LOGGER.info("Step {} - Replacing container : id = {}",
@@ -48,10 +48,14 @@ public class BackupManager extends ClusterTaskManager<BackupRestoreRequest, Back
 
     @Override
     protected List<Phase> createPhases(BackupRestoreContext context) {
-        return Arrays.asList(
+        final List<Phase> phases = new ArrayList<>(Arrays.asList(
                 createBackupSnapshotPhase(context, cassandraState, provider),
                 createUploadBackupPhase(context, cassandraState, provider),
-                createBackupSchemaPhase(context, cassandraState, provider));
+                createBackupSchemaPhase(context, cassandraState, provider)));
+        if (context.hasRetentionPolicy()) {
+            phases.add(createBackupPrunePhase(context, cassandraState, provider));
+        }
+        return phases;
     }
 
     @Override
@@ -59,6 +63,7 @@ public class BackupManager extends ClusterTaskManager<BackupRestoreRequest, Back
         cassandraState.remove(cassandraState.getBackupSnapshotTasks().keySet());
         cassandraState.remove(cassandraState.getBackupUploadTasks().keySet());
         cassandraState.remove(cassandraState.getBackupSchemaTasks().keySet());
+        cassandraState.remove(cassandraState.getBackupPruneTasks().keySet());
     }
 
     private static Phase createBackupSnapshotPhase(
@@ -96,4 +101,21 @@ public class BackupManager extends ClusterTaskManager<BackupRestoreRequest, Back
                 .collect(Collectors.toList());
         return new DefaultPhase("BackupSchema", steps, new SerialStrategy<>(), Collections.emptyList());
     }
-}
\ No newline at end of file
+
+    /**
+     * The files of the backups are shared by all nodes, so the backups are
+     * pruned by the first node only, once the backup is complete.
+     */
+    private static Phase createBackupPrunePhase(
+            BackupRestoreContext context,
+            CassandraState cassandraState,
+            ClusterTaskOfferRequirementProvider provider) {
+        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
+        Collections.sort(daemons);
+        List<Step> steps = daemons.stream()
+                .limit(1)
+                .map(daemon -> new BackupPruneStep(daemon, cassandraState, provider, context))
+                .collect(Collectors.toList());
+        return new DefaultPhase("Prune", steps, new SerialStrategy<>(), Collections.emptyList());
+    }
+}
@@ -0,0 +1,71 @@
+package com.mesosphere.dcos.cassandra.scheduler.plan.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskManager;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
+import com.google.inject.Inject;
+import com.mesosphere.dcos.cassandra.common.offer.ClusterTaskOfferRequirementProvider;
+import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
+import com.mesosphere.dcos.cassandra.scheduler.resources.CopyBackupRequest;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+
+import org.apache.mesos.scheduler.plan.DefaultPhase;
+import org.apache.mesos.scheduler.plan.Phase;
+import org.apache.mesos.scheduler.plan.Step;
+import org.apache.mesos.scheduler.plan.strategy.SerialStrategy;
+import org.apache.mesos.state.StateStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * CopyBackupManager runs the copy of a backup to another external location.
+ * The backup is copied by the storage service, so no data of the nodes is
+ * involved and the backups of all nodes are copied by the first node.
+ */
+public class CopyBackupManager extends ClusterTaskManager<CopyBackupRequest, CopyBackupContext> {
+    static final String COPY_BACKUP_KEY = "copybackup";
+
+    private CassandraState cassandraState;
+    private final ClusterTaskOfferRequirementProvider provider;
+
+    @Inject
+    public CopyBackupManager(
+            final CassandraState cassandraState,
+            final ClusterTaskOfferRequirementProvider provider,
+            StateStore stateStore) {
+        super(stateStore, COPY_BACKUP_KEY, CopyBackupContext.class);
+        this.provider = provider;
+        this.cassandraState = cassandraState;
+        restore();
+    }
+
+    @Override
+    protected CopyBackupContext toContext(CopyBackupRequest request) {
+        return request.toCopyContext();
+    }
+
+    @Override
+    protected List<Phase> createPhases(CopyBackupContext context) {
+        return Collections.singletonList(
+                createCopyBackupPhase(context, cassandraState, provider));
+    }
+
+    @Override
+    protected void clearTasks() throws PersistenceException {
+        cassandraState.remove(cassandraState.getCopyBackupTasks().keySet());
+    }
+
+    private static Phase createCopyBackupPhase(
+            CopyBackupContext context,
+            CassandraState cassandraState,
+            ClusterTaskOfferRequirementProvider provider) {
+        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
+        Collections.sort(daemons);
+        List<Step> steps = daemons.stream()
+                .limit(1)
+                .map(daemon -> new CopyBackupStep(daemon, cassandraState, provider, context))
+                .collect(Collectors.toList());
+        return new DefaultPhase("Copy", steps, new SerialStrategy<>(), Collections.emptyList());
+    }
+}
@@ -11,12 +11,16 @@ import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
 import org.apache.mesos.scheduler.plan.DefaultPhase;
 import org.apache.mesos.scheduler.plan.Phase;
 import org.apache.mesos.scheduler.plan.Step;
+import org.apache.mesos.scheduler.plan.strategy.ParallelStrategy;
 import org.apache.mesos.scheduler.plan.strategy.SerialStrategy;
+import org.apache.mesos.scheduler.plan.strategy.Strategy;
 import org.apache.mesos.state.StateStore;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class RestoreManager extends ClusterTaskManager<BackupRestoreRequest, BackupRestoreContext> {
@@ -56,39 +60,88 @@ public class RestoreManager extends ClusterTaskManager<BackupRestoreRequest, Bac
         cassandraState.remove(cassandraState.getRestoreSnapshotTasks().keySet());
     }
 
+    /**
+     * Each node restores the schema of the first backup it restores, so a
+     * node without a backup of its own, when the cluster is larger than
+     * the backed up cluster, does not restore the schema.
+     */
     private static Phase createRestoreSchemaPhase(
             BackupRestoreContext context,
             CassandraState cassandraState,
             ClusterTaskOfferRequirementProvider provider) {
-        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
-        Collections.sort(daemons);
-        List<Step> steps = daemons.stream()
-                .map(daemon -> new RestoreSchemaStep(daemon, cassandraState, provider, context))
+        List<Step> steps = getNodeContexts(context, cassandraState).entrySet().stream()
+                .map(entry -> new RestoreSchemaStep(entry.getKey(), cassandraState, provider, entry.getValue()))
                 .collect(Collectors.toList());
         return new DefaultPhase("RestoreSchema", steps, new SerialStrategy<>(), Collections.emptyList());
     }
 
+    /**
+     * Spreads the source nodes of a restore across the nodes of the cluster.
+     * Source nodes are assigned round robin, so the number of source nodes
+     * restored by any two nodes differs by at most one.
+     *
+     * @param sourceNodes The nodes of the backed up cluster.
+     * @param daemons     The nodes of the cluster, sorted by name.
+     * @return The source nodes restored by each node. Nodes without source
+     * nodes, when the cluster is larger than the backed up cluster, are
+     * omitted.
+     */
+    static Map<String, List<String>> assignSourceNodes(
+            List<String> sourceNodes,
+            List<String> daemons) {
+        final Map<String, List<String>> assignments = new LinkedHashMap<>();
+        for (int i = 0; i < sourceNodes.size() && !daemons.isEmpty(); i++) {
+            assignments.computeIfAbsent(daemons.get(i % daemons.size()), daemon -> new ArrayList<>())
+                    .add(sourceNodes.get(i));
+        }
+        return assignments;
+    }
+
+    /**
+     * Gets the contexts of the nodes that download and restore snapshots.
+     * Each node restores its own backup unless the context has source
+     * nodes, which are then spread across the nodes.
+     */
+    private static Map<String, BackupRestoreContext> getNodeContexts(
+            BackupRestoreContext context,
+            CassandraState cassandraState) {
+        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
+        Collections.sort(daemons);
+        final Map<String, BackupRestoreContext> contexts = new LinkedHashMap<>();
+        if (context.hasSourceNodes()) {
+            assignSourceNodes(context.getSourceNodes(), daemons).forEach(
+                    (daemon, sourceNodes) -> contexts.put(daemon, context.withSourceNodes(sourceNodes)));
+        } else {
+            daemons.forEach(daemon -> contexts.put(daemon, context));
+        }
+        return contexts;
+    }
+
+    /**
+     * Nodes restoring their own backup load them one at a time, nodes
+     * restoring the backups of source nodes bulk load them in parallel.
+     */
+    private static Strategy<Step> getStrategy(BackupRestoreContext context) {
+        return context.hasSourceNodes() ? new ParallelStrategy<>() : new SerialStrategy<>();
+    }
+
     private static Phase createDownloadSnapshotPhase(
             BackupRestoreContext context,
             CassandraState cassandraState,
             ClusterTaskOfferRequirementProvider provider) {
-        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
-        Collections.sort(daemons);
-        List<Step> steps = daemons.stream()
-                .map(daemon -> new DownloadSnapshotStep(daemon, cassandraState, provider, context))
+        List<Step> steps = getNodeContexts(context, cassandraState).entrySet().stream()
+                .map(entry -> new DownloadSnapshotStep(entry.getKey(), cassandraState, provider, entry.getValue()))
                 .collect(Collectors.toList());
-        return new DefaultPhase("Download", steps, new SerialStrategy<>(), Collections.emptyList());
+        return new DefaultPhase("Download", steps, getStrategy(context), Collections.emptyList());
     }
 
     private static Phase createRestoreSnapshotPhase(
             BackupRestoreContext context,
             CassandraState cassandraState,
             ClusterTaskOfferRequirementProvider provider) {
-        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
-        Collections.sort(daemons);
-        List<Step> steps = daemons.stream()
-                .map(daemon -> new RestoreSnapshotStep(daemon, cassandraState, provider, context))
+        List<Step> steps = getNodeContexts(context, cassandraState).entrySet().stream()
+                .map(entry -> new RestoreSnapshotStep(entry.getKey(), cassandraState, provider, entry.getValue()))
                 .collect(Collectors.toList());
-        return new DefaultPhase("Restore", steps, new SerialStrategy<>(), Collections.emptyList());
+        return new DefaultPhase("Restore", steps, getStrategy(context), Collections.emptyList());
     }
 }
\ No newline at end of file
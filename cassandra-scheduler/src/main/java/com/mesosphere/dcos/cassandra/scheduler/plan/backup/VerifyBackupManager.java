@@ -0,0 +1,69 @@
+package com.mesosphere.dcos.cassandra.scheduler.plan.backup;
+
+import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskManager;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.google.inject.Inject;
+import com.mesosphere.dcos.cassandra.common.offer.ClusterTaskOfferRequirementProvider;
+import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
+import com.mesosphere.dcos.cassandra.scheduler.resources.BackupRestoreRequest;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+
+import org.apache.mesos.scheduler.plan.DefaultPhase;
+import org.apache.mesos.scheduler.plan.Phase;
+import org.apache.mesos.scheduler.plan.Step;
+import org.apache.mesos.scheduler.plan.strategy.SerialStrategy;
+import org.apache.mesos.state.StateStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * VerifyBackupManager runs the verification of a backup. Each node checks
+ * the stored files of its backup against the manifest of the backup.
+ */
+public class VerifyBackupManager extends ClusterTaskManager<BackupRestoreRequest, BackupRestoreContext> {
+    static final String VERIFY_BACKUP_KEY = "verifybackup";
+
+    private CassandraState cassandraState;
+    private final ClusterTaskOfferRequirementProvider provider;
+
+    @Inject
+    public VerifyBackupManager(
+            final CassandraState cassandraState,
+            final ClusterTaskOfferRequirementProvider provider,
+            StateStore stateStore) {
+        super(stateStore, VERIFY_BACKUP_KEY, BackupRestoreContext.class);
+        this.provider = provider;
+        this.cassandraState = cassandraState;
+        restore();
+    }
+
+    @Override
+    protected BackupRestoreContext toContext(BackupRestoreRequest request) {
+        return request.toContext();
+    }
+
+    @Override
+    protected List<Phase> createPhases(BackupRestoreContext context) {
+        return Collections.singletonList(
+                createVerifyBackupPhase(context, cassandraState, provider));
+    }
+
+    @Override
+    protected void clearTasks() throws PersistenceException {
+        cassandraState.remove(cassandraState.getVerifyBackupTasks().keySet());
+    }
+
+    private static Phase createVerifyBackupPhase(
+            BackupRestoreContext context,
+            CassandraState cassandraState,
+            ClusterTaskOfferRequirementProvider provider) {
+        final List<String> daemons = new ArrayList<>(cassandraState.getDaemons().keySet());
+        Collections.sort(daemons);
+        List<Step> steps = daemons.stream()
+                .map(daemon -> new VerifyBackupStep(daemon, cassandraState, provider, context))
+                .collect(Collectors.toList());
+        return new DefaultPhase("Verify", steps, new SerialStrategy<>(), Collections.emptyList());
+    }
+}
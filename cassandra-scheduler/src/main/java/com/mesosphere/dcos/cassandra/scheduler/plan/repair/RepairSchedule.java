@@ -0,0 +1,293 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.plan.repair;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairContext;
+import com.mesosphere.dcos.cassandra.common.util.JsonUtils;
+import com.mesosphere.dcos.cassandra.scheduler.resources.RepairRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RepairSchedule is the configuration and state of the continuous repair of
+ * the cluster. When enabled, a repair of all the nodes starts every cycle,
+ * so that every key space is repaired within its gc_grace_seconds if the
+ * cycle is shorter. Nodes are repaired one after another, each node
+ * spreading its segments over its share of the cycle, and pausing while it
+ * is loaded beyond the limits of the schedule.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RepairSchedule {
+
+    /**
+     * The default cycle, under the default gc_grace_seconds of ten days.
+     */
+    public static final long DEFAULT_CYCLE_HOURS = 216;
+
+    public static final long DEFAULT_MAX_PENDING_COMPACTIONS = 100;
+
+    /**
+     * The share of the cycle over which the nodes spread their segments,
+     * leaving time for pauses and retries before the next cycle.
+     */
+    public static final double PACED_SHARE = 0.75;
+
+    /**
+     * The estimated number of partitions of a segment of a scheduled repair
+     * by default. Scheduled repairs are paced segment by segment, so they
+     * are segmented unless the schedule sets partitions_per_segment.
+     */
+    public static final long DEFAULT_PARTITIONS_PER_SEGMENT = 100000;
+
+    /**
+     * The disabled schedule of a cluster that has never been scheduled.
+     */
+    public static final RepairSchedule DISABLED = create(false, null, null,
+            null, null, null, null, null, 0, 0);
+
+    @JsonCreator
+    public static RepairSchedule create(
+            @JsonProperty("enabled") final boolean enabled,
+            @JsonProperty("cycle_hours") final Long cycleHours,
+            @JsonProperty("key_spaces") final List<String> keySpaces,
+            @JsonProperty("parallelism") final String parallelism,
+            @JsonProperty("parallel_segments") final Integer parallelSegments,
+            @JsonProperty("partitions_per_segment") final Long
+                    partitionsPerSegment,
+            @JsonProperty("max_pending_compactions") final Long
+                    maxPendingCompactions,
+            @JsonProperty("max_latency_ms") final Long maxLatencyMs,
+            @JsonProperty("last_start_ms") final long lastStartMs,
+            @JsonProperty("last_completed_ms") final long lastCompletedMs) {
+        return new RepairSchedule(enabled,
+                cycleHours == null ? DEFAULT_CYCLE_HOURS : cycleHours,
+                keySpaces == null ? Collections.emptyList() : keySpaces,
+                parallelism,
+                parallelSegments,
+                partitionsPerSegment,
+                maxPendingCompactions == null ?
+                        DEFAULT_MAX_PENDING_COMPACTIONS :
+                        maxPendingCompactions,
+                maxLatencyMs == null ? 0 : maxLatencyMs,
+                lastStartMs,
+                lastCompletedMs);
+    }
+
+    @JsonProperty("enabled")
+    private final boolean enabled;
+    @JsonProperty("cycle_hours")
+    private final long cycleHours;
+    @JsonProperty("key_spaces")
+    private final List<String> keySpaces;
+    @JsonProperty("parallelism")
+    private final String parallelism;
+    @JsonProperty("parallel_segments")
+    private final Integer parallelSegments;
+    @JsonProperty("partitions_per_segment")
+    private final Long partitionsPerSegment;
+    @JsonProperty("max_pending_compactions")
+    private final long maxPendingCompactions;
+    @JsonProperty("max_latency_ms")
+    private final long maxLatencyMs;
+    @JsonProperty("last_start_ms")
+    private final long lastStartMs;
+    @JsonProperty("last_completed_ms")
+    private final long lastCompletedMs;
+
+    private RepairSchedule(final boolean enabled,
+                           final long cycleHours,
+                           final List<String> keySpaces,
+                           final String parallelism,
+                           final Integer parallelSegments,
+                           final Long partitionsPerSegment,
+                           final long maxPendingCompactions,
+                           final long maxLatencyMs,
+                           final long lastStartMs,
+                           final long lastCompletedMs) {
+        this.enabled = enabled;
+        this.cycleHours = cycleHours;
+        this.keySpaces = keySpaces;
+        this.parallelism = parallelism;
+        this.parallelSegments = parallelSegments;
+        this.partitionsPerSegment = partitionsPerSegment;
+        this.maxPendingCompactions = maxPendingCompactions;
+        this.maxLatencyMs = maxLatencyMs;
+        this.lastStartMs = lastStartMs;
+        this.lastCompletedMs = lastCompletedMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getCycleHours() {
+        return cycleHours;
+    }
+
+    public List<String> getKeySpaces() {
+        return keySpaces;
+    }
+
+    public String getParallelism() {
+        return parallelism;
+    }
+
+    public Integer getParallelSegments() {
+        return parallelSegments;
+    }
+
+    public Long getPartitionsPerSegment() {
+        return partitionsPerSegment;
+    }
+
+    public long getMaxPendingCompactions() {
+        return maxPendingCompactions;
+    }
+
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * @return The time the last scheduled repair started, or 0 if none did.
+     */
+    public long getLastStartMs() {
+        return lastStartMs;
+    }
+
+    /**
+     * @return The time the last scheduled repair completed, or 0 if none
+     * did.
+     */
+    public long getLastCompletedMs() {
+        return lastCompletedMs;
+    }
+
+    /**
+     * @return The time the next repair is due, the start of the last repair
+     * plus the cycle.
+     */
+    @JsonProperty("next_start_ms")
+    public long getNextStartMs() {
+        return lastStartMs > 0 ?
+                lastStartMs + TimeUnit.HOURS.toMillis(cycleHours) : 0;
+    }
+
+    /**
+     * @return True if the last scheduled repair started and has not
+     * completed.
+     */
+    @JsonIgnore
+    public boolean isRunning() {
+        return lastStartMs > lastCompletedMs;
+    }
+
+    @JsonIgnore
+    public boolean isValid() {
+        return cycleHours > 0 &&
+                (parallelism == null ||
+                        RepairContext.PARALLELISMS.contains(parallelism)) &&
+                (parallelSegments == null || parallelSegments > 0) &&
+                maxPendingCompactions >= 0 &&
+                maxLatencyMs >= 0;
+    }
+
+    /**
+     * Gets the schedule with a new configuration.
+     *
+     * @param config The new configuration.
+     * @return The configuration of config with the state of this schedule.
+     */
+    public RepairSchedule withConfig(final RepairSchedule config) {
+        return new RepairSchedule(config.enabled, config.cycleHours,
+                config.keySpaces, config.parallelism, config.parallelSegments,
+                config.partitionsPerSegment, config.maxPendingCompactions,
+                config.maxLatencyMs, lastStartMs, lastCompletedMs);
+    }
+
+    public RepairSchedule withStarted(final long startMs) {
+        return new RepairSchedule(enabled, cycleHours, keySpaces, parallelism,
+                parallelSegments, partitionsPerSegment, maxPendingCompactions,
+                maxLatencyMs, startMs, lastCompletedMs);
+    }
+
+    public RepairSchedule withCompleted(final long completedMs) {
+        return new RepairSchedule(enabled, cycleHours, keySpaces, parallelism,
+                parallelSegments, partitionsPerSegment, maxPendingCompactions,
+                maxLatencyMs, lastStartMs, completedMs);
+    }
+
+    /**
+     * Gets the request of a scheduled repair.
+     *
+     * @param nodes The number of nodes of the cluster.
+     * @return A request to repair all the nodes, each node spreading its
+     * segments over its share of the cycle.
+     */
+    public RepairRequest toRequest(final int nodes) {
+        final long durationPerNodeMs = (long) (PACED_SHARE *
+                TimeUnit.HOURS.toMillis(cycleHours) / Math.max(1, nodes));
+        return new RepairRequest(
+                Collections.singletonList(RepairRequest.ALL),
+                keySpaces,
+                Collections.emptyList(),
+                parallelism,
+                parallelSegments,
+                partitionsPerSegment == null ?
+                        DEFAULT_PARTITIONS_PER_SEGMENT :
+                        partitionsPerSegment,
+                durationPerNodeMs,
+                maxPendingCompactions,
+                maxLatencyMs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RepairSchedule)) return false;
+        RepairSchedule that = (RepairSchedule) o;
+        return enabled == that.enabled &&
+                cycleHours == that.cycleHours &&
+                maxPendingCompactions == that.maxPendingCompactions &&
+                maxLatencyMs == that.maxLatencyMs &&
+                lastStartMs == that.lastStartMs &&
+                lastCompletedMs == that.lastCompletedMs &&
+                Objects.equals(keySpaces, that.keySpaces) &&
+                Objects.equals(parallelism, that.parallelism) &&
+                Objects.equals(parallelSegments, that.parallelSegments) &&
+                Objects.equals(partitionsPerSegment,
+                        that.partitionsPerSegment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, cycleHours, keySpaces, parallelism,
+                parallelSegments, partitionsPerSegment, maxPendingCompactions,
+                maxLatencyMs, lastStartMs, lastCompletedMs);
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toJsonString(this);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.plan.repair;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+import org.apache.mesos.state.JsonSerializer;
+import org.apache.mesos.state.StateStore;
+import org.apache.mesos.state.StateStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RepairScheduler starts the repairs of a RepairSchedule. It checks the
+ * schedule periodically and starts a repair of all the nodes through the
+ * RepairManager when the cycle of the schedule has passed since the start
+ * of the previous scheduled repair, unless a repair is already in progress.
+ * The schedule is persisted in the StateStore with the time of the last
+ * scheduled repair, and the progress of the repair is kept in the repair
+ * tasks like that of any other repair, so that a restarted scheduler
+ * neither repeats nor skips a cycle.
+ */
+public class RepairScheduler implements Runnable {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RepairScheduler.class);
+    private static final JsonSerializer SERIALIZER = new JsonSerializer();
+
+    static final String SCHEDULE_KEY = "repair_schedule";
+
+    /**
+     * The interval between two checks of the schedule.
+     */
+    public static final long CHECK_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final RepairManager manager;
+    private final CassandraState cassandraState;
+    private final StateStore stateStore;
+    private RepairSchedule schedule = RepairSchedule.DISABLED;
+
+    /**
+     * Constructs a new RepairScheduler and starts checking its schedule.
+     *
+     * @param manager        The manager that runs the repairs.
+     * @param cassandraState The state of the nodes of the cluster.
+     * @param stateStore     The store of the schedule.
+     * @param executor       The executor on which the schedule is checked.
+     */
+    public RepairScheduler(final RepairManager manager,
+                           final CassandraState cassandraState,
+                           final StateStore stateStore,
+                           final ScheduledExecutorService executor) {
+        this.manager = manager;
+        this.cassandraState = cassandraState;
+        this.stateStore = stateStore;
+        try {
+            final RepairSchedule stored = SERIALIZER.deserialize(
+                    stateStore.fetchProperty(SCHEDULE_KEY),
+                    RepairSchedule.class);
+            if (stored != null) {
+                schedule = stored;
+            }
+            LOGGER.info("Loaded repair schedule: {}", schedule);
+        } catch (IOException e) {
+            LOGGER.error("Error loading repair schedule", e);
+        } catch (StateStoreException e) {
+            LOGGER.info("No repair schedule found.");
+        }
+        executor.scheduleWithFixedDelay(this,
+                CHECK_INTERVAL_MS,
+                CHECK_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void store(final RepairSchedule updated) throws IOException {
+        stateStore.storeProperty(SCHEDULE_KEY, SERIALIZER.serialize(updated));
+        schedule = updated;
+    }
+
+    /**
+     * @return The schedule with the time of the last scheduled repair.
+     */
+    public synchronized RepairSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Updates the configuration of the schedule. The time of the last
+     * scheduled repair is kept, so that the next repair is due one cycle of
+     * the new configuration after it.
+     *
+     * @param config The new configuration.
+     * @return The updated schedule.
+     * @throws IOException If the schedule could not be persisted.
+     */
+    public synchronized RepairSchedule update(final RepairSchedule config)
+            throws IOException {
+        final RepairSchedule updated = schedule.withConfig(config);
+        LOGGER.info("Updating repair schedule: {}", updated);
+        store(updated);
+        return updated;
+    }
+
+    synchronized void run(final long nowMs) throws IOException {
+        if (schedule.isRunning() && manager.isComplete()) {
+            LOGGER.info("Scheduled repair completed");
+            store(schedule.withCompleted(nowMs));
+        }
+        if (!schedule.isEnabled() ||
+                nowMs < schedule.getNextStartMs() ||
+                manager.isInProgress()) {
+            return;
+        }
+        final int nodes = cassandraState.getDaemons().size();
+        if (nodes == 0) {
+            return;
+        }
+        LOGGER.info("Starting scheduled repair of {} nodes: {}", nodes,
+                schedule);
+        // The start is persisted first so that a failure to persist it
+        // does not start a repair every check.
+        store(schedule.withStarted(nowMs));
+        manager.start(schedule.toRequest(nodes));
+    }
+
+    @Override
+    public void run() {
+        try {
+            run(System.currentTimeMillis());
+        } catch (Throwable t) {
+            LOGGER.error("Error checking the repair schedule", t);
+        }
+    }
+}
@@ -4,6 +4,7 @@ package com.mesosphere.dcos.cassandra.scheduler.plan.repair;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
 import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairContext;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairTask;
 import com.mesosphere.dcos.cassandra.common.offer.CassandraOfferRequirementProvider;
 import com.mesosphere.dcos.cassandra.common.persistence.PersistenceException;
@@ -19,6 +20,7 @@ public class RepairStep extends AbstractClusterTaskStep {
     private static final Logger LOGGER = LoggerFactory.getLogger(RepairStep.class);
 
     private final RepairContext context;
+    private Optional<RepairProgress> progress = Optional.empty();
 
     public RepairStep(
             String daemon,
@@ -37,6 +39,19 @@ public class RepairStep extends AbstractClusterTaskStep {
             setStatus(Status.COMPLETE);
             return Optional.empty();
         }
-        return Optional.of(cassandraState.getOrCreateRepair(daemonTask, context));
+        RepairTask task = cassandraState.getOrCreateRepair(daemonTask, context);
+        if (progress.isPresent() && !task.getRepairProgress().isPresent()) {
+            // The new task resumes from the segments the terminated one
+            // repaired.
+            task = task.withRepairProgress(progress.get());
+        }
+        return Optional.of(task);
+    }
+
+    @Override
+    protected void onTerminated(CassandraTask task) {
+        if (task instanceof RepairTask) {
+            progress = ((RepairTask) task).getRepairProgress();
+        }
     }
 }
\ No newline at end of file
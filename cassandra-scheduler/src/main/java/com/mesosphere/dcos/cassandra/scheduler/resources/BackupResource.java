@@ -1,10 +1,14 @@
 package com.mesosphere.dcos.cassandra.scheduler.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.BackupManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.CopyBackupManager;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -17,9 +21,15 @@ import javax.ws.rs.core.Response;
 public class BackupResource {
 
     private final ClusterTaskRunner<BackupRestoreRequest, BackupRestoreContext> runner;
+    private final ClusterTaskRunner<CopyBackupRequest, CopyBackupContext> copyRunner;
+    private final CassandraState state;
 
-    public BackupResource(final BackupManager manager) {
+    public BackupResource(final BackupManager manager,
+                          final CopyBackupManager copyManager,
+                          final CassandraState state) {
+        this.state = state;
         this.runner = new ClusterTaskRunner<>(manager, "Backup");
+        this.copyRunner = new ClusterTaskRunner<>(copyManager, "CopyBackup");
     }
 
     @PUT
@@ -35,4 +45,34 @@ public class BackupResource {
     public Response stop() {
         return runner.stop();
     }
+
+    @GET
+    @Timed
+    @Path("status")
+    public TransferStatus status() {
+        return TransferStatus.create(state.getBackupUploadTasks().values(),
+                state.getTaskStatuses());
+    }
+
+    @PUT
+    @Timed
+    @Path("copy/start")
+    public Response startCopy(CopyBackupRequest request) {
+        return copyRunner.start(request);
+    }
+
+    @PUT
+    @Timed
+    @Path("copy/stop")
+    public Response stopCopy() {
+        return copyRunner.stop();
+    }
+
+    @GET
+    @Timed
+    @Path("copy/status")
+    public TransferStatus copyStatus() {
+        return TransferStatus.create(state.getCopyBackupTasks().values(),
+                state.getTaskStatuses());
+    }
 }
@@ -1,12 +1,17 @@
 package com.mesosphere.dcos.cassandra.scheduler.resources;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
 import com.mesosphere.dcos.cassandra.common.tasks.ClusterTaskRequest;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class BackupRestoreRequest implements ClusterTaskRequest {
   @JsonProperty("backup_name")
   @NotEmpty
@@ -34,6 +39,30 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
   @JsonProperty("restore_type")
   private String restoreType;
 
+  @JsonProperty("max_bytes_per_second")
+  private Long maxBytesPerSecond;
+
+  @JsonProperty("max_concurrent_files")
+  private Integer maxConcurrentFiles;
+
+  @JsonProperty("key_spaces")
+  private List<String> keySpaces;
+
+  @JsonProperty("column_families")
+  private List<String> columnFamilies;
+
+  @JsonProperty("retain_backups")
+  private Integer retainBackups;
+
+  @JsonProperty("retain_days")
+  private Integer retainDays;
+
+  @JsonProperty("verify_sample_bytes")
+  private Integer verifySampleBytes;
+
+  @JsonProperty("source_nodes")
+  private Integer sourceNodes;
+
   public String getName() {
     return name;
   }
@@ -94,6 +123,76 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
 
   public void setRestoreType(String restoreType) { this.restoreType = restoreType; }
 
+  public long getMaxBytesPerSecond() {
+    return maxBytesPerSecond != null ? maxBytesPerSecond : BackupRestoreContext.UNLIMITED;
+  }
+
+  public void setMaxBytesPerSecond(Long maxBytesPerSecond) {
+    this.maxBytesPerSecond = maxBytesPerSecond;
+  }
+
+  public int getMaxConcurrentFiles() {
+    return maxConcurrentFiles != null ? maxConcurrentFiles : BackupRestoreContext.UNLIMITED;
+  }
+
+  public void setMaxConcurrentFiles(Integer maxConcurrentFiles) {
+    this.maxConcurrentFiles = maxConcurrentFiles;
+  }
+
+  public List<String> getKeySpaces() {
+    return keySpaces != null ? keySpaces : Collections.emptyList();
+  }
+
+  public void setKeySpaces(List<String> keySpaces) {
+    this.keySpaces = keySpaces;
+  }
+
+  public List<String> getColumnFamilies() {
+    return columnFamilies != null ? columnFamilies : Collections.emptyList();
+  }
+
+  public void setColumnFamilies(List<String> columnFamilies) {
+    this.columnFamilies = columnFamilies;
+  }
+
+  public int getRetainBackups() {
+    return retainBackups != null ? retainBackups : 0;
+  }
+
+  public void setRetainBackups(Integer retainBackups) {
+    this.retainBackups = retainBackups;
+  }
+
+  public int getRetainDays() {
+    return retainDays != null ? retainDays : 0;
+  }
+
+  public void setRetainDays(Integer retainDays) {
+    this.retainDays = retainDays;
+  }
+
+  public int getVerifySampleBytes() {
+    return verifySampleBytes != null ? verifySampleBytes : 0;
+  }
+
+  public void setVerifySampleBytes(Integer verifySampleBytes) {
+    this.verifySampleBytes = verifySampleBytes;
+  }
+
+  /**
+   * Gets the number of nodes of the cluster that took the backup.
+   *
+   * @return The number of nodes whose backups are spread across the nodes of the cluster by a
+   * "new" restore, or 0 if each node restores the backup of the node with the same id.
+   */
+  public int getSourceNodes() {
+    return sourceNodes != null ? sourceNodes : 0;
+  }
+
+  public void setSourceNodes(Integer sourceNodes) {
+    this.sourceNodes = sourceNodes;
+  }
+
   public boolean usesEmc() {
     if (usesEmc != null) {
       return usesEmc;
@@ -104,8 +203,11 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
 
   public boolean isValid() {
     return (StringUtils.isNotBlank(name) && externalLocation != null)
-            && (isValidS3Request() || isValidAzureRequest())
-            && isValidRestoreType();
+            && (isValidS3Request() || isValidAzureRequest() || isValidFileRequest())
+            && isValidRestoreType()
+            && isValidThrottle()
+            && isValidRetention()
+            && isValidSourceNodes();
   }
 
   private boolean isValidS3Request() {
@@ -124,10 +226,29 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
     return azureAccount != null && azureKey != null && externalLocation.startsWith("azure:");
   }
 
+  private boolean isValidFileRequest() {
+    return isFile(externalLocation);
+  }
+
   private boolean isValidRestoreType() {
     return restoreType == null || restoreType.isEmpty() ? true: restoreType.matches("existing|new");
   }
 
+  private boolean isValidThrottle() {
+    return getMaxBytesPerSecond() >= 0 && getMaxConcurrentFiles() >= 0;
+  }
+
+  private boolean isValidRetention() {
+    return getRetainBackups() >= 0 && getRetainDays() >= 0
+            && getVerifySampleBytes() >= 0;
+  }
+
+  private boolean isValidSourceNodes() {
+    // Only bulk loading streams each row to its replicas in the new topology.
+    return getSourceNodes() == 0
+            || (getSourceNodes() > 0 && "new".equals(getRestoreType()));
+  }
+
   @Override
   public String toString() {
     return "BackupRestoreRequest{" +
@@ -139,16 +260,36 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
             ", azureKey='" + azureKey + '\'' +
             ", usesEmc='" + usesEmc + '\'' +
             ", restoreType='" + restoreType + '\'' +
+            ", maxBytesPerSecond='" + maxBytesPerSecond + '\'' +
+            ", maxConcurrentFiles='" + maxConcurrentFiles + '\'' +
+            ", keySpaces=" + keySpaces +
+            ", columnFamilies=" + columnFamilies +
+            ", retainBackups='" + retainBackups + '\'' +
+            ", retainDays='" + retainDays + '\'' +
+            ", verifySampleBytes='" + verifySampleBytes + '\'' +
+            ", sourceNodes='" + sourceNodes + '\'' +
             '}';
   }
 
 
+  private List<String> getSourceNodeIds() {
+    final List<String> ids = new ArrayList<>(getSourceNodes());
+    for (int id = 0; id < getSourceNodes(); id++) {
+      ids.add(CassandraDaemonTask.NAME_PREFIX + id);
+    }
+    return ids;
+  }
+
   public BackupRestoreContext toContext() {
     String accountId;
     String secretKey;
     if (isAzure(getExternalLocation())) {
       accountId = getAzureAccount();
       secretKey = getAzureKey();
+    } else if (isFile(getExternalLocation())) {
+      // A file system location needs no credentials
+      accountId = "";
+      secretKey = "";
     } else {
       accountId = getS3AccessKey();
       secretKey = getS3SecretKey();
@@ -162,10 +303,22 @@ public class BackupRestoreRequest implements ClusterTaskRequest {
         accountId,
         secretKey,
         usesEmc(),
-        getRestoreType());
+        getRestoreType(),
+        getMaxBytesPerSecond(),
+        getMaxConcurrentFiles(),
+        getKeySpaces(),
+        getColumnFamilies(),
+        getRetainBackups(),
+        getRetainDays(),
+        getVerifySampleBytes(),
+        getSourceNodeIds());
   }
 
-  private static boolean isAzure(String externalLocation) {
+  static boolean isAzure(String externalLocation) {
     return StringUtils.isNotEmpty(externalLocation) && externalLocation.startsWith("azure:");
   }
+
+  static boolean isFile(String externalLocation) {
+    return StringUtils.isNotEmpty(externalLocation) && externalLocation.startsWith("file:");
+  }
 }
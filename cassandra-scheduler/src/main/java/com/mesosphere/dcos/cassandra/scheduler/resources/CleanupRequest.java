@@ -24,8 +24,14 @@ public class CleanupRequest implements ClusterTaskRequest {
             @JsonProperty("nodes") final List<String> nodes,
             @JsonProperty("key_spaces") final List<String> keySpaces,
             @JsonProperty("column_families") final List<String>
-                    columnFamilies) {
-        return new CleanupRequest(nodes, keySpaces, columnFamilies);
+                    columnFamilies,
+            @JsonProperty("jobs") final Integer jobs,
+            @JsonProperty("compaction_throughput_mb_per_sec") final Integer
+                    compactionThroughputMbPerSec,
+            @JsonProperty("parallel_key_spaces") final Integer
+                    parallelKeySpaces) {
+        return new CleanupRequest(nodes, keySpaces, columnFamilies, jobs,
+                compactionThroughputMbPerSec, parallelKeySpaces);
     }
 
     @JsonProperty("nodes")
@@ -34,17 +40,36 @@ public class CleanupRequest implements ClusterTaskRequest {
     private final List<String> keySpaces;
     @JsonProperty("column_families")
     private final List<String> columnFamiles;
+    @JsonProperty("jobs")
+    private final Integer jobs;
+    @JsonProperty("compaction_throughput_mb_per_sec")
+    private final Integer compactionThroughputMbPerSec;
+    @JsonProperty("parallel_key_spaces")
+    private final Integer parallelKeySpaces;
 
     public CleanupRequest(
             final List<String> nodes,
             final List<String> keySpaces,
             final List<String> columnFamiles) {
+        this(nodes, keySpaces, columnFamiles, null, null, null);
+    }
+
+    public CleanupRequest(
+            final List<String> nodes,
+            final List<String> keySpaces,
+            final List<String> columnFamiles,
+            final Integer jobs,
+            final Integer compactionThroughputMbPerSec,
+            final Integer parallelKeySpaces) {
 
         this.nodes = (nodes == null) ? Collections.emptyList() : nodes;
         this.keySpaces = (keySpaces == null) ? Collections.emptyList() :
                 keySpaces;
         this.columnFamiles = (columnFamiles == null) ? Collections.emptyList() :
                 columnFamiles;
+        this.jobs = jobs;
+        this.compactionThroughputMbPerSec = compactionThroughputMbPerSec;
+        this.parallelKeySpaces = parallelKeySpaces;
     }
 
 
@@ -60,8 +85,24 @@ public class CleanupRequest implements ClusterTaskRequest {
         return nodes;
     }
 
+    public Integer getJobs() {
+        return jobs;
+    }
+
+    public Integer getCompactionThroughputMbPerSec() {
+        return compactionThroughputMbPerSec;
+    }
+
+    public Integer getParallelKeySpaces() {
+        return parallelKeySpaces;
+    }
+
     public boolean isValid(){
-        return !this.nodes.isEmpty();
+        return !this.nodes.isEmpty() &&
+                (jobs == null || jobs >= 0) &&
+                (compactionThroughputMbPerSec == null ||
+                        compactionThroughputMbPerSec >= 0) &&
+                (parallelKeySpaces == null || parallelKeySpaces > 0);
     }
 
     @Override
@@ -72,12 +113,19 @@ public class CleanupRequest implements ClusterTaskRequest {
         return Objects.equals(getNodes(), that.getNodes()) &&
                 Objects.equals(getKeySpaces(), that.getKeySpaces()) &&
                 Objects.equals(getColumnFamiles(),
-                        that.getColumnFamiles());
+                        that.getColumnFamiles()) &&
+                Objects.equals(getJobs(), that.getJobs()) &&
+                Objects.equals(getCompactionThroughputMbPerSec(),
+                        that.getCompactionThroughputMbPerSec()) &&
+                Objects.equals(getParallelKeySpaces(),
+                        that.getParallelKeySpaces());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamiles());
+        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamiles(),
+                getJobs(), getCompactionThroughputMbPerSec(),
+                getParallelKeySpaces());
     }
 
     @Override
@@ -89,7 +137,10 @@ public class CleanupRequest implements ClusterTaskRequest {
         return CleanupContext.create(
                 new ArrayList<>(getNodes(cassandraState)),
                 getKeySpaces(),
-                getColumnFamiles());
+                getColumnFamiles(),
+                getJobs(),
+                getCompactionThroughputMbPerSec(),
+                getParallelKeySpaces());
     }
 
     private Set<String> getNodes(CassandraState cassandraState) {
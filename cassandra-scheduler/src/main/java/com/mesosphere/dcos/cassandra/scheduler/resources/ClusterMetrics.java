@@ -0,0 +1,361 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.metrics.LatencyHistogram;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * ClusterMetrics is the cluster wide view of the metrics of the nodes. The
+ * latency histograms of the nodes are merged into the latency percentiles of
+ * the cluster, the load of each node is listed, and the nodes whose load is
+ * far above that of the median node are reported as outliers.
+ */
+public class ClusterMetrics {
+
+    /**
+     * A node is an outlier for a metric when its value is at least this
+     * many times the median of the nodes.
+     */
+    static final long OUTLIER_FACTOR = 3;
+
+    /**
+     * The number of pending compactions above the median for which a node
+     * is an outlier.
+     */
+    static final long PENDING_COMPACTIONS_EXCESS = 20;
+
+    /**
+     * The number of dropped mutations above the median for which a node is
+     * an outlier.
+     */
+    static final long DROPPED_MUTATIONS_EXCESS = 100;
+
+    /**
+     * The 99th percentile latency above the median, in microseconds, for
+     * which a node is an outlier.
+     */
+    static final long P99_EXCESS_MICROS = 10000;
+
+    /**
+     * The cluster wide latency of a kind of request, in microseconds. The
+     * histograms of the latency timers of Cassandra count nanoseconds, their
+     * percentiles are converted to microseconds, the unit of max.
+     */
+    public static class Latency {
+        @JsonProperty("count")
+        private final long count;
+        @JsonProperty("p50")
+        private final long p50;
+        @JsonProperty("p99")
+        private final long p99;
+        @JsonProperty("p999")
+        private final long p999;
+        @JsonProperty("max")
+        private final double max;
+        @JsonProperty("nodes")
+        private final int nodes;
+
+        private Latency(final LatencyHistogram histogram,
+                        final double max,
+                        final int nodes) {
+            this.count = histogram.getCount();
+            this.p50 = micros(histogram, 0.5);
+            this.p99 = micros(histogram, 0.99);
+            this.p999 = micros(histogram, 0.999);
+            this.max = max;
+            this.nodes = nodes;
+        }
+
+        private static long micros(final LatencyHistogram histogram,
+                                   final double percentile) {
+            return TimeUnit.NANOSECONDS.toMicros(
+                    histogram.percentile(percentile));
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * @return The number of nodes whose histograms were merged.
+         */
+        public int getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * The load of a node.
+     */
+    public static class Node {
+        @JsonProperty("pending_compactions")
+        private final long pendingCompactions;
+        @JsonProperty("pending_flushes")
+        private final long pendingFlushes;
+        @JsonProperty("dropped_mutations")
+        private final long droppedMutations;
+        @JsonProperty("read_p99")
+        private final double readP99;
+        @JsonProperty("write_p99")
+        private final double writeP99;
+        @JsonProperty("timestamp_ms")
+        private final long timestampMs;
+
+        private Node(final NodeMetrics metrics) {
+            this.pendingCompactions = metrics.getPendingCompactions();
+            this.pendingFlushes = metrics.getPendingFlushes();
+            this.droppedMutations = droppedMutations(metrics);
+            this.readP99 = p99(metrics, "read");
+            this.writeP99 = p99(metrics, "write");
+            this.timestampMs = metrics.getTimestampMs();
+        }
+
+        public long getPendingCompactions() {
+            return pendingCompactions;
+        }
+
+        public long getPendingFlushes() {
+            return pendingFlushes;
+        }
+
+        public long getDroppedMutations() {
+            return droppedMutations;
+        }
+
+        public double getReadP99() {
+            return readP99;
+        }
+
+        public double getWriteP99() {
+            return writeP99;
+        }
+
+        public long getTimestampMs() {
+            return timestampMs;
+        }
+    }
+
+    /**
+     * A metric of a node that is far above that of the median node.
+     */
+    public static class Outlier {
+        @JsonProperty("node")
+        private final String node;
+        @JsonProperty("metric")
+        private final String metric;
+        @JsonProperty("value")
+        private final long value;
+        @JsonProperty("median")
+        private final long median;
+
+        private Outlier(final String node,
+                        final String metric,
+                        final long value,
+                        final long median) {
+            this.node = node;
+            this.metric = metric;
+            this.value = value;
+            this.median = median;
+        }
+
+        public String getNode() {
+            return node;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public long getMedian() {
+            return median;
+        }
+    }
+
+    private static long droppedMutations(final NodeMetrics metrics) {
+        return metrics.getDroppedMessages().getOrDefault("MUTATION", 0L);
+    }
+
+    private static double p99(final NodeMetrics metrics,
+                              final String operation) {
+        final NodeMetrics.Latency latency =
+                metrics.getLatencies().get(operation);
+        return latency != null ? latency.getP99() : 0;
+    }
+
+    private static long median(final Collection<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static void findOutliers(final Map<String, NodeMetrics> nodes,
+                                     final String metric,
+                                     final ToLongFunction<NodeMetrics> value,
+                                     final long excess,
+                                     final List<Outlier> outliers) {
+        // A median needs a few nodes to stand for the typical node.
+        if (nodes.size() < 3) {
+            return;
+        }
+        final Map<String, Long> values = new TreeMap<>();
+        nodes.forEach((name, metrics) ->
+                values.put(name, value.applyAsLong(metrics)));
+        final long median = median(values.values());
+        values.forEach((name, current) -> {
+            if (current - median >= excess &&
+                    current >= OUTLIER_FACTOR * median) {
+                outliers.add(new Outlier(name, metric, current, median));
+            }
+        });
+    }
+
+    /**
+     * Aggregates the metrics of the nodes of the cluster.
+     *
+     * @param timestampMs The time the metrics were requested.
+     * @param nodes       The metrics of the nodes that responded, by name.
+     * @param unreachable The names of the nodes that did not respond.
+     * @return The metrics of the cluster.
+     */
+    public static ClusterMetrics create(final long timestampMs,
+                                        final Map<String, NodeMetrics> nodes,
+                                        final Collection<String> unreachable) {
+        return new ClusterMetrics(timestampMs, nodes, unreachable);
+    }
+
+    @JsonProperty("timestamp_ms")
+    private final long timestampMs;
+    @JsonProperty("latencies")
+    private final Map<String, Latency> latencies = new TreeMap<>();
+    @JsonProperty("pending_compactions")
+    private final long pendingCompactions;
+    @JsonProperty("dropped_mutations")
+    private final long droppedMutations;
+    @JsonProperty("outliers")
+    private final List<Outlier> outliers = new ArrayList<>();
+    @JsonProperty("nodes")
+    private final Map<String, Node> nodes = new TreeMap<>();
+    @JsonProperty("unreachable")
+    private final List<String> unreachable;
+
+    private ClusterMetrics(final long timestampMs,
+                           final Map<String, NodeMetrics> nodes,
+                           final Collection<String> unreachable) {
+        this.timestampMs = timestampMs;
+        this.unreachable = new ArrayList<>(unreachable);
+        Collections.sort(this.unreachable);
+
+        final Map<String, LatencyHistogram> histograms = new TreeMap<>();
+        final Map<String, Double> maxima = new TreeMap<>();
+        final Map<String, Integer> merged = new TreeMap<>();
+        long compactions = 0;
+        long mutations = 0;
+        for (Map.Entry<String, NodeMetrics> entry : nodes.entrySet()) {
+            final NodeMetrics metrics = entry.getValue();
+            this.nodes.put(entry.getKey(), new Node(metrics));
+            compactions += metrics.getPendingCompactions();
+            mutations += droppedMutations(metrics);
+            metrics.getLatencies().forEach((operation, latency) -> {
+                if (histograms.computeIfAbsent(operation,
+                        key -> new LatencyHistogram())
+                        .add(latency.getBuckets())) {
+                    merged.merge(operation, 1, Integer::sum);
+                    maxima.merge(operation, latency.getMax(), Math::max);
+                }
+            });
+        }
+        this.pendingCompactions = compactions;
+        this.droppedMutations = mutations;
+        histograms.forEach((operation, histogram) -> {
+            if (merged.containsKey(operation)) {
+                latencies.put(operation, new Latency(histogram,
+                        maxima.get(operation), merged.get(operation)));
+            }
+        });
+
+        findOutliers(nodes, "pending_compactions",
+                NodeMetrics::getPendingCompactions,
+                PENDING_COMPACTIONS_EXCESS, outliers);
+        findOutliers(nodes, "dropped_mutations",
+                ClusterMetrics::droppedMutations,
+                DROPPED_MUTATIONS_EXCESS, outliers);
+        findOutliers(nodes, "read_p99",
+                metrics -> (long) p99(metrics, "read"),
+                P99_EXCESS_MICROS, outliers);
+        findOutliers(nodes, "write_p99",
+                metrics -> (long) p99(metrics, "write"),
+                P99_EXCESS_MICROS, outliers);
+    }
+
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    public Map<String, Latency> getLatencies() {
+        return latencies;
+    }
+
+    public long getPendingCompactions() {
+        return pendingCompactions;
+    }
+
+    public long getDroppedMutations() {
+        return droppedMutations;
+    }
+
+    public List<Outlier> getOutliers() {
+        return outliers;
+    }
+
+    public Map<String, Node> getNodes() {
+        return nodes;
+    }
+
+    public List<String> getUnreachable() {
+        return unreachable;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+import com.mesosphere.dcos.cassandra.scheduler.client.SchedulerClient;
+import org.glassfish.jersey.server.ManagedAsync;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * ClusterMetricsResource serves the metrics of the cluster. The metrics of
+ * all the nodes are requested from their executors in parallel, and the
+ * aggregate is cached for a few seconds, so that monitoring systems polling
+ * the scheduler do not multiply the requests to the nodes. Concurrent
+ * requests share the same fan out.
+ */
+@Path("/v1/cluster")
+@Produces(MediaType.APPLICATION_JSON)
+public class ClusterMetricsResource {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ClusterMetricsResource.class);
+
+    public static final long DEFAULT_TTL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final Supplier<Map<String, CompletionStage<NodeMetrics>>> nodes;
+    private final LongSupplier clock;
+    private final long ttlMs;
+    private CompletableFuture<ClusterMetrics> cached = null;
+    private long cachedAt = 0;
+
+    ClusterMetricsResource(
+            final Supplier<Map<String, CompletionStage<NodeMetrics>>> nodes,
+            final LongSupplier clock,
+            final long ttlMs) {
+        this.nodes = nodes;
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    public ClusterMetricsResource(final CassandraState state,
+                                  final SchedulerClient client) {
+        this(() -> {
+                    final Map<String, CompletionStage<NodeMetrics>> requests =
+                            new HashMap<>();
+                    for (CassandraDaemonTask task :
+                            state.getDaemons().values()) {
+                        requests.put(task.getName(), client.metrics(
+                                task.getHostname(),
+                                task.getExecutor().getApiPort()));
+                    }
+                    return requests;
+                },
+                System::currentTimeMillis,
+                DEFAULT_TTL_MS);
+    }
+
+    private CompletableFuture<ClusterMetrics> collect() {
+        final long timestampMs = clock.getAsLong();
+        final Map<String, CompletionStage<NodeMetrics>> requests =
+                nodes.get();
+        final Map<String, NodeMetrics> responses = new HashMap<>();
+        final List<String> unreachable = new ArrayList<>();
+        final List<CompletableFuture<Void>> all = new ArrayList<>();
+        requests.forEach((name, request) -> all.add(request
+                .handle((metrics, error) -> {
+                    synchronized (responses) {
+                        if (metrics != null) {
+                            responses.put(name, metrics);
+                        } else {
+                            LOGGER.warn("Failed to get the metrics of " +
+                                    "node {}: {}", name, error);
+                            unreachable.add(name);
+                        }
+                    }
+                    return (Void) null;
+                })
+                .toCompletableFuture()));
+        return CompletableFuture
+                .allOf(all.toArray(new CompletableFuture[all.size()]))
+                .thenApply(ignored -> {
+                    synchronized (responses) {
+                        return ClusterMetrics.create(timestampMs, responses,
+                                unreachable);
+                    }
+                });
+    }
+
+    /**
+     * Gets the metrics of the cluster, requesting those of the nodes if the
+     * cached metrics are older than the TTL.
+     *
+     * @return The metrics of the cluster.
+     */
+    synchronized CompletableFuture<ClusterMetrics> get() {
+        final long now = clock.getAsLong();
+        if (cached == null ||
+                cached.isCompletedExceptionally() ||
+                (cached.isDone() && now - cachedAt >= ttlMs)) {
+            cached = collect();
+            cachedAt = now;
+        }
+        return cached;
+    }
+
+    @GET
+    @Timed
+    @Path("/metrics")
+    @ManagedAsync
+    public void getMetrics(@Suspended final AsyncResponse response) {
+        get().whenComplete((metrics, error) -> {
+            if (metrics != null) {
+                response.resume(metrics);
+            } else {
+                LOGGER.error("Failed to get the metrics of the cluster",
+                        error);
+                response.resume(Response.serverError().build());
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairProgress;
+import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairTask;
+import org.apache.mesos.Protos;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ClusterRepairStatus is the cluster wide progress of a repair. The
+ * progress of each node is the one kept in the data of its repair task, so
+ * that the segments repaired by a task that was relaunched still count.
+ */
+public class ClusterRepairStatus {
+
+    /**
+     * The progress of the repair of a single node.
+     */
+    public static class Node {
+        @JsonProperty("name")
+        private final String name;
+        @JsonProperty("hostname")
+        private final String hostname;
+        @JsonProperty("state")
+        private final Protos.TaskState state;
+        @JsonProperty("message")
+        private final String message;
+        @JsonProperty("progress")
+        private final RepairProgress progress;
+
+        private Node(final RepairTask task,
+                     final Optional<Protos.TaskStatus> status) {
+            name = task.getName();
+            hostname = task.getHostname();
+            state = status.map(Protos.TaskStatus::getState)
+                    .orElse(task.getState());
+            message = status.map(Protos.TaskStatus::getMessage).orElse("");
+            progress = task.getRepairProgress().orElse(RepairProgress.NONE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHostname() {
+            return hostname;
+        }
+
+        public Protos.TaskState getState() {
+            return state;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public RepairProgress getProgress() {
+            return progress;
+        }
+    }
+
+    /**
+     * Creates the ClusterRepairStatus of a set of repair tasks.
+     *
+     * @param tasks    The repair tasks.
+     * @param statuses The last known status of the tasks of the scheduler.
+     * @return The progress of the tasks. A status only counts for a task if
+     * it has the id of the task.
+     */
+    public static ClusterRepairStatus create(
+            final Collection<RepairTask> tasks,
+            final Collection<Protos.TaskStatus> statuses) {
+        final Map<String, Protos.TaskStatus> byId = statuses.stream()
+                .collect(Collectors.toMap(
+                        status -> status.getTaskId().getValue(),
+                        Function.identity(),
+                        (first, second) -> second));
+        return new ClusterRepairStatus(tasks.stream()
+                .map(task -> new Node(task,
+                        Optional.ofNullable(byId.get(task.getId()))))
+                .sorted(Comparator.comparing(Node::getName))
+                .collect(Collectors.toList()));
+    }
+
+    @JsonProperty("segments")
+    private final long segments;
+    @JsonProperty("total_segments")
+    private final long totalSegments;
+    @JsonProperty("nodes")
+    private final List<Node> nodes;
+
+    private ClusterRepairStatus(final List<Node> nodes) {
+        this.nodes = nodes;
+        this.segments = nodes.stream()
+                .mapToLong(node -> node.getProgress().getSegments()).sum();
+        this.totalSegments = nodes.stream()
+                .mapToLong(node -> node.getProgress().getTotalSegments())
+                .sum();
+    }
+
+    public long getSegments() {
+        return segments;
+    }
+
+    public long getTotalSegments() {
+        return totalSegments;
+    }
+
+    /**
+     * @return The percentage of the segments of the nodes that started
+     * repairing that were repaired.
+     */
+    @JsonProperty("percent_complete")
+    public double getPercentComplete() {
+        return totalSegments > 0 ?
+                Math.min(100.0, 100.0 * segments / totalSegments) : 0;
+    }
+
+    /**
+     * Gets the progress of the nodes.
+     *
+     * @return The progress of each node ordered by name.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+}
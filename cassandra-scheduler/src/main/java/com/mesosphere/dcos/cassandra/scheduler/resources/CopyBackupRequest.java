@@ -0,0 +1,94 @@
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * CopyBackupRequest is the request to copy a backup from its external location to a second
+ * external location of the same kind. The backup is read with the credentials of the
+ * request, and written with the destination credentials, which default to the credentials of
+ * the request.
+ */
+public class CopyBackupRequest extends BackupRestoreRequest {
+
+  @JsonProperty("destination_location")
+  private String destinationLocation;
+
+  @JsonProperty("destination_s3_access_key")
+  private String destinationS3AccessKey;
+
+  @JsonProperty("destination_s3_secret_key")
+  private String destinationS3SecretKey;
+
+  public String getDestinationLocation() {
+    return destinationLocation;
+  }
+
+  public void setDestinationLocation(String destinationLocation) {
+    this.destinationLocation = destinationLocation;
+  }
+
+  public String getDestinationS3AccessKey() {
+    return destinationS3AccessKey;
+  }
+
+  public void setDestinationS3AccessKey(String destinationS3AccessKey) {
+    this.destinationS3AccessKey = destinationS3AccessKey;
+  }
+
+  public String getDestinationS3SecretKey() {
+    return destinationS3SecretKey;
+  }
+
+  public void setDestinationS3SecretKey(String destinationS3SecretKey) {
+    this.destinationS3SecretKey = destinationS3SecretKey;
+  }
+
+  @Override
+  public boolean isValid() {
+    return super.isValid()
+            && StringUtils.isNotBlank(destinationLocation)
+            && !destinationLocation.equals(getExternalLocation())
+            && isValidDestination();
+  }
+
+  private boolean isValidDestination() {
+    // Backups are copied by the storage service, so both locations must be of the same kind.
+    if (isFile(getExternalLocation())) {
+      return isFile(destinationLocation);
+    }
+    return !isAzure(getExternalLocation())
+            && (destinationLocation.startsWith("s3:")
+            || destinationLocation.startsWith("http:")
+            || destinationLocation.startsWith("https:"))
+            && (destinationS3AccessKey == null) == (destinationS3SecretKey == null);
+  }
+
+  @Override
+  public String toString() {
+    return "CopyBackupRequest{" +
+            "request=" + super.toString() +
+            ", destinationLocation='" + destinationLocation + '\'' +
+            ", destinationS3AccessKey='" + destinationS3AccessKey + '\'' +
+            ", destinationS3SecretKey='" + destinationS3SecretKey + '\'' +
+            '}';
+  }
+
+  public CopyBackupContext toCopyContext() {
+    final BackupRestoreContext source = toContext();
+    final BackupRestoreContext destination;
+    if (isFile(destinationLocation)) {
+      destination = source.withExternalLocation(destinationLocation, "", "", usesEmc());
+    } else if (destinationS3AccessKey != null) {
+      destination = source.withExternalLocation(destinationLocation,
+              destinationS3AccessKey, destinationS3SecretKey, usesEmc());
+    } else {
+      destination = source.withExternalLocation(destinationLocation,
+              source.getAccountId(), source.getSecretKey(), usesEmc());
+    }
+    return CopyBackupContext.create(source, destination);
+  }
+}
@@ -24,8 +24,19 @@ public class RepairRequest implements ClusterTaskRequest {
             @JsonProperty("nodes") final List<String> nodes,
             @JsonProperty("key_spaces") final List<String> keySpaces,
             @JsonProperty("column_families") final List<String>
-                    columnFamilies) {
-        return new RepairRequest(nodes, keySpaces, columnFamilies);
+                    columnFamilies,
+            @JsonProperty("parallelism") final String parallelism,
+            @JsonProperty("parallel_segments") final Integer parallelSegments,
+            @JsonProperty("partitions_per_segment") final Long
+                    partitionsPerSegment,
+            @JsonProperty("duration_per_node_ms") final Long
+                    durationPerNodeMs,
+            @JsonProperty("max_pending_compactions") final Long
+                    maxPendingCompactions,
+            @JsonProperty("max_latency_ms") final Long maxLatencyMs) {
+        return new RepairRequest(nodes, keySpaces, columnFamilies,
+                parallelism, parallelSegments, partitionsPerSegment,
+                durationPerNodeMs, maxPendingCompactions, maxLatencyMs);
     }
 
     @JsonProperty("nodes")
@@ -34,17 +45,49 @@ public class RepairRequest implements ClusterTaskRequest {
     private final List<String> keySpaces;
     @JsonProperty("column_families")
     private final List<String> columnFamiles;
+    @JsonProperty("parallelism")
+    private final String parallelism;
+    @JsonProperty("parallel_segments")
+    private final Integer parallelSegments;
+    @JsonProperty("partitions_per_segment")
+    private final Long partitionsPerSegment;
+    @JsonProperty("duration_per_node_ms")
+    private final Long durationPerNodeMs;
+    @JsonProperty("max_pending_compactions")
+    private final Long maxPendingCompactions;
+    @JsonProperty("max_latency_ms")
+    private final Long maxLatencyMs;
 
     public RepairRequest(
             final List<String> nodes,
             final List<String> keySpaces,
             final List<String> columnFamiles) {
+        this(nodes, keySpaces, columnFamiles, null, null, null, null, null,
+                null);
+    }
+
+    public RepairRequest(
+            final List<String> nodes,
+            final List<String> keySpaces,
+            final List<String> columnFamiles,
+            final String parallelism,
+            final Integer parallelSegments,
+            final Long partitionsPerSegment,
+            final Long durationPerNodeMs,
+            final Long maxPendingCompactions,
+            final Long maxLatencyMs) {
 
         this.nodes = (nodes == null) ? Collections.emptyList() : nodes;
         this.keySpaces = (keySpaces == null) ? Collections.emptyList() :
                 keySpaces;
         this.columnFamiles = (columnFamiles == null) ? Collections.emptyList() :
                 columnFamiles;
+        this.parallelism = parallelism;
+        this.parallelSegments = parallelSegments;
+        this.partitionsPerSegment = partitionsPerSegment;
+        this.durationPerNodeMs = durationPerNodeMs;
+        this.maxPendingCompactions = maxPendingCompactions;
+        this.maxLatencyMs = maxLatencyMs;
     }
 
 
@@ -60,8 +103,39 @@ public class RepairRequest implements ClusterTaskRequest {
         return nodes;
     }
 
+    public String getParallelism() {
+        return parallelism;
+    }
+
+    public Integer getParallelSegments() {
+        return parallelSegments;
+    }
+
+    public Long getPartitionsPerSegment() {
+        return partitionsPerSegment;
+    }
+
+    public Long getDurationPerNodeMs() {
+        return durationPerNodeMs;
+    }
+
+    public Long getMaxPendingCompactions() {
+        return maxPendingCompactions;
+    }
+
+    public Long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
     public boolean isValid() {
-        return !nodes.isEmpty();
+        return !nodes.isEmpty() &&
+                (parallelism == null ||
+                        RepairContext.PARALLELISMS.contains(parallelism)) &&
+                (parallelSegments == null || parallelSegments > 0) &&
+                (durationPerNodeMs == null || durationPerNodeMs >= 0) &&
+                (maxPendingCompactions == null ||
+                        maxPendingCompactions >= 0) &&
+                (maxLatencyMs == null || maxLatencyMs >= 0);
     }
 
     @Override
@@ -72,12 +146,25 @@ public class RepairRequest implements ClusterTaskRequest {
         return Objects.equals(getNodes(), that.getNodes()) &&
                 Objects.equals(getKeySpaces(), that.getKeySpaces()) &&
                 Objects.equals(getColumnFamiles(),
-                        that.getColumnFamiles());
+                        that.getColumnFamiles()) &&
+                Objects.equals(getParallelism(), that.getParallelism()) &&
+                Objects.equals(getParallelSegments(),
+                        that.getParallelSegments()) &&
+                Objects.equals(getPartitionsPerSegment(),
+                        that.getPartitionsPerSegment()) &&
+                Objects.equals(getDurationPerNodeMs(),
+                        that.getDurationPerNodeMs()) &&
+                Objects.equals(getMaxPendingCompactions(),
+                        that.getMaxPendingCompactions()) &&
+                Objects.equals(getMaxLatencyMs(), that.getMaxLatencyMs());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamiles());
+        return Objects.hash(getNodes(), getKeySpaces(), getColumnFamiles(),
+                getParallelism(), getParallelSegments(),
+                getPartitionsPerSegment(), getDurationPerNodeMs(),
+                getMaxPendingCompactions(), getMaxLatencyMs());
     }
 
     @Override
@@ -89,7 +176,13 @@ public class RepairRequest implements ClusterTaskRequest {
         return RepairContext.create(
                 new ArrayList<>(getNodes(cassandraState)),
                 getKeySpaces(),
-                getColumnFamiles());
+                getColumnFamiles(),
+                getParallelism(),
+                getParallelSegments(),
+                getPartitionsPerSegment(),
+                getDurationPerNodeMs(),
+                getMaxPendingCompactions(),
+                getMaxLatencyMs());
     }
 
     private Set<String> getNodes(CassandraState cassandraState) {
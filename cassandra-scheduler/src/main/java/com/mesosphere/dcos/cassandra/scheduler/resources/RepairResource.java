@@ -1,10 +1,14 @@
 package com.mesosphere.dcos.cassandra.scheduler.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
 import com.mesosphere.dcos.cassandra.common.tasks.repair.RepairContext;
 import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairSchedule;
+import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairScheduler;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -17,8 +21,14 @@ import javax.ws.rs.core.Response;
 public class RepairResource {
 
     private final ClusterTaskRunner<RepairRequest, RepairContext> runner;
+    private final RepairScheduler scheduler;
+    private final CassandraState state;
 
-    public RepairResource(final RepairManager manager) {
+    public RepairResource(final RepairManager manager,
+                          final RepairScheduler scheduler,
+                          final CassandraState state) {
+        this.state = state;
+        this.scheduler = scheduler;
         this.runner = new ClusterTaskRunner<>(manager, "Repair");
     }
 
@@ -35,4 +45,38 @@ public class RepairResource {
     public Response stop() {
         return runner.stop();
     }
+
+    @GET
+    @Timed
+    @Path("status")
+    public ClusterRepairStatus status() {
+        return ClusterRepairStatus.create(state.getRepairTasks().values(),
+                state.getTaskStatuses());
+    }
+
+    @GET
+    @Timed
+    @Path("schedule")
+    public RepairSchedule getSchedule() {
+        return scheduler.getSchedule();
+    }
+
+    @PUT
+    @Timed
+    @Path("schedule")
+    public Response updateSchedule(RepairSchedule schedule) {
+        if (schedule == null || !schedule.isValid()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ErrorResponse.fromString(
+                            "Invalid repair schedule: " + schedule))
+                    .build();
+        }
+        try {
+            return Response.ok(scheduler.update(schedule)).build();
+        } catch (Throwable t) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ErrorResponse.fromThrowable(t))
+                    .build();
+        }
+    }
 }
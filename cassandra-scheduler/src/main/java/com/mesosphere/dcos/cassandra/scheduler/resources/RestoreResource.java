@@ -1,15 +1,21 @@
 package com.mesosphere.dcos.cassandra.scheduler.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
 import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.RestoreManager;
+import org.apache.mesos.Protos;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Path("/v1/restore")
 @Produces(MediaType.APPLICATION_JSON)
@@ -17,8 +23,10 @@ import javax.ws.rs.core.Response;
 public class RestoreResource {
 
     private final ClusterTaskRunner<BackupRestoreRequest, BackupRestoreContext> runner;
+    private final CassandraState state;
 
-    public RestoreResource(final RestoreManager manager) {
+    public RestoreResource(final RestoreManager manager, final CassandraState state) {
+        this.state = state;
         this.runner = new ClusterTaskRunner<>(manager, "Restore");
     }
 
@@ -35,4 +43,17 @@ public class RestoreResource {
     public Response stop() {
         return runner.stop();
     }
+
+    @GET
+    @Timed
+    @Path("status")
+    public Map<String, TransferStatus> status() {
+        final Set<Protos.TaskStatus> statuses = state.getTaskStatuses();
+        final Map<String, TransferStatus> status = new LinkedHashMap<>();
+        status.put("download", TransferStatus.create(
+                state.getDownloadSnapshotTasks().values(), statuses));
+        status.put("restore", TransferStatus.create(
+                state.getRestoreSnapshotTasks().values(), statuses));
+        return status;
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Mesosphere
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraData;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraTask;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.TransferProgress;
+import org.apache.mesos.Protos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * TransferStatus is the cluster wide progress of the tasks of a backup or
+ * restore phase. It combines the progress each node sent with its last
+ * status update, and lists the nodes so that slow nodes can be spotted.
+ */
+public class TransferStatus {
+
+    /**
+     * The progress of the task of a single node.
+     */
+    public static class Node {
+        @JsonProperty("name")
+        private final String name;
+        @JsonProperty("hostname")
+        private final String hostname;
+        @JsonProperty("state")
+        private final Protos.TaskState state;
+        @JsonProperty("message")
+        private final String message;
+        @JsonProperty("progress")
+        private final TransferProgress progress;
+
+        private Node(final CassandraTask task,
+                     final Optional<Protos.TaskStatus> status) {
+            name = task.getName();
+            hostname = task.getHostname();
+            state = status.map(Protos.TaskStatus::getState)
+                    .orElse(task.getState());
+            message = status.map(Protos.TaskStatus::getMessage).orElse("");
+            progress = status.filter(Protos.TaskStatus::hasData)
+                    .flatMap(value -> CassandraData.parse(value.getData())
+                            .getProgress())
+                    .orElse(TransferProgress.NONE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHostname() {
+            return hostname;
+        }
+
+        public Protos.TaskState getState() {
+            return state;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public TransferProgress getProgress() {
+            return progress;
+        }
+    }
+
+    /**
+     * Creates the TransferStatus of a set of tasks.
+     *
+     * @param tasks    The tasks of the phase.
+     * @param statuses The last known status of the tasks of the scheduler.
+     * @return The progress of the tasks. A status only counts for a task if
+     * it has the id of the task, so that the status of a previous run of a
+     * task is ignored.
+     */
+    public static TransferStatus create(
+            final Collection<? extends CassandraTask> tasks,
+            final Collection<Protos.TaskStatus> statuses) {
+        final Map<String, Protos.TaskStatus> byId = statuses.stream()
+                .collect(Collectors.toMap(
+                        status -> status.getTaskId().getValue(),
+                        Function.identity(),
+                        (first, second) -> second));
+        final List<Node> nodes = tasks.stream()
+                .map(task -> new Node(task,
+                        Optional.ofNullable(byId.get(task.getId()))))
+                .sorted(Comparator.comparing(Node::getName))
+                .collect(Collectors.toList());
+        return new TransferStatus(nodes);
+    }
+
+    @JsonProperty("progress")
+    private final TransferProgress progress;
+    @JsonProperty("nodes")
+    private final List<Node> nodes;
+
+    private TransferStatus(final List<Node> nodes) {
+        this.nodes = nodes;
+        final List<TransferProgress> progress = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            final TransferProgress current = node.getProgress();
+            // Only running nodes are still transferring at their last rate.
+            progress.add(node.getState() == Protos.TaskState.TASK_RUNNING ?
+                    current :
+                    TransferProgress.create(current.getFiles(),
+                            current.getTotalFiles(),
+                            current.getBytes(),
+                            current.getTotalBytes(),
+                            0));
+        }
+        this.progress = TransferProgress.sum(progress);
+    }
+
+    /**
+     * Gets the progress of the cluster.
+     *
+     * @return The combined progress of all nodes. Its rate is the sum of the
+     * rates of the running nodes, so its ETA assumes that the remaining
+     * bytes are transferred at the rate of the nodes currently running.
+     */
+    public TransferProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets the progress of the nodes.
+     *
+     * @return The progress of each node ordered by name.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+}
@@ -9,6 +9,8 @@ import com.mesosphere.dcos.cassandra.common.tasks.*;
 import com.mesosphere.dcos.cassandra.scheduler.client.SchedulerClient;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.BackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.RestoreManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.VerifyBackupManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.CopyBackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.cleanup.CleanupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.upgradesstable.UpgradeSSTableManager;
@@ -59,6 +61,8 @@ public class CassandraSchedulerTest {
     private SchedulerClient client;
     private BackupManager backup;
     private RestoreManager restore;
+    private VerifyBackupManager verify;
+    private CopyBackupManager copy;
     private CleanupManager cleanup;
     private RepairManager repair;
     private UpgradeSSTableManager upgrade;
@@ -90,6 +94,8 @@ public class CassandraSchedulerTest {
         Mockito.when(mockStage.toCompletableFuture()).thenReturn(mockFuture);
         backup = Mockito.mock(BackupManager.class);
         restore = Mockito.mock(RestoreManager.class);
+        verify = Mockito.mock(VerifyBackupManager.class);
+        copy = Mockito.mock(CopyBackupManager.class);
         cleanup = Mockito.mock(CleanupManager.class);
         repair = Mockito.mock(RepairManager.class);
         upgrade = Mockito.mock(UpgradeSSTableManager.class);
@@ -145,6 +151,8 @@ public class CassandraSchedulerTest {
                 client,
                 backup,
                 restore,
+                verify,
+                copy,
                 cleanup,
                 repair,
                 upgrade,
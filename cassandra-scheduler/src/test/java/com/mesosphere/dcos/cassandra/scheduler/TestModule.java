@@ -14,6 +14,8 @@ import com.mesosphere.dcos.cassandra.common.offer.ClusterTaskOfferRequirementPro
 import com.mesosphere.dcos.cassandra.common.offer.PersistentOfferRequirementProvider;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.BackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.backup.RestoreManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.VerifyBackupManager;
+import com.mesosphere.dcos.cassandra.scheduler.plan.backup.CopyBackupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.cleanup.CleanupManager;
 import com.mesosphere.dcos.cassandra.scheduler.plan.repair.RepairManager;
 import com.mesosphere.dcos.cassandra.scheduler.seeds.SeedsManager;
@@ -94,6 +96,8 @@ public class TestModule extends AbstractModule {
         bind(ClusterTaskOfferRequirementProvider.class);
         bind(Reconciler.class).to(DefaultReconciler.class).asEagerSingleton();
         bind(RestoreManager.class).asEagerSingleton();
+        bind(VerifyBackupManager.class).asEagerSingleton();
+        bind(CopyBackupManager.class).asEagerSingleton();
         bind(CleanupManager.class).asEagerSingleton();
         bind(RepairManager.class).asEagerSingleton();
         bind(SeedsManager.class).asEagerSingleton();
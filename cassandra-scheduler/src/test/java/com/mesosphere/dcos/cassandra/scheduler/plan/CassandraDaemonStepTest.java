@@ -7,6 +7,7 @@ import com.mesosphere.dcos.cassandra.common.config.*;
 import com.mesosphere.dcos.cassandra.common.offer.PersistentOfferRequirementProvider;
 import com.mesosphere.dcos.cassandra.common.tasks.*;
 import com.mesosphere.dcos.cassandra.scheduler.TestUtils;
+import com.mesosphere.dcos.cassandra.scheduler.client.SchedulerClient;
 import io.dropwizard.configuration.ConfigurationFactory;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
 import io.dropwizard.configuration.FileConfigurationSourceProvider;
@@ -33,6 +34,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.powermock.reflect.Whitebox;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
@@ -40,6 +42,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.*;
 
 public class CassandraDaemonStepTest {
@@ -355,6 +358,133 @@ public class CassandraDaemonStepTest {
         Assert.assertEquals(mockOfferReq, step.start().get());
     }
 
+    private static ConfigDiff hotApplicableDiff() {
+        return ConfigDiff.create(CassandraConfig.DEFAULT,
+                CassandraConfig.DEFAULT.mutable()
+                        .setApplication(CassandraConfig.DEFAULT.getApplication()
+                                .toBuilder()
+                                .setCompactionThroughputMbPerSec(64)
+                                .build())
+                        .build(),
+                false);
+    }
+
+    /**
+     * Mocks the state of a running node whose task needs a config update.
+     */
+    private static CassandraState runningNodeState(
+            final CassandraDaemonTask daemon,
+            final ConfigDiff diff) throws Exception {
+        final CassandraState state = mock(CassandraState.class);
+        final StateStore store = mock(StateStore.class);
+        final CassandraContainer container = mock(CassandraContainer.class);
+        final CassandraTaskExecutor executor = mock(CassandraTaskExecutor.class);
+        when(state.getStateStore()).thenReturn(store);
+        when(state.getOrCreateContainer("node-0")).thenReturn(container);
+        when(state.needsConfigUpdate(daemon)).thenReturn(true);
+        when(state.getConfigDiff(daemon)).thenReturn(diff);
+        when(container.getDaemonTask()).thenReturn(daemon);
+        when(container.getAgentId()).thenReturn("agent-0");
+        when(daemon.getName()).thenReturn("node-0");
+        when(daemon.getHostname()).thenReturn("10.0.0.1");
+        when(daemon.getExecutor()).thenReturn(executor);
+        when(executor.getApiPort()).thenReturn(9001);
+        when(store.fetchStatus("node-0")).thenReturn(Optional.of(
+                TestUtils.generateStatus(
+                        Protos.TaskID.newBuilder().setValue("node-0__id").build(),
+                        Protos.TaskState.TASK_RUNNING, CassandraMode.NORMAL)));
+        return state;
+    }
+
+    @Test
+    public void testAppliesHotApplicableConfigWithoutRestart() throws Exception {
+        final CassandraDaemonTask daemon = mock(CassandraDaemonTask.class);
+        final ConfigDiff diff = hotApplicableDiff();
+        final CassandraState state = runningNodeState(daemon, diff);
+        final SchedulerClient client = mock(SchedulerClient.class);
+        final CompletableFuture<Boolean> applied = new CompletableFuture<>();
+        when(client.applyConfiguration("10.0.0.1", 9001, diff.getHotApplicable()))
+                .thenReturn(applied);
+        final CassandraDaemonStep step = CassandraDaemonStep.create(
+                "node-0", persistentOfferRequirementProvider, state, client);
+
+        // The step stays pending while the executor applies the config.
+        Assert.assertFalse(step.start().isPresent());
+        Assert.assertFalse(step.start().isPresent());
+        Assert.assertEquals(Status.PENDING, step.getStatus());
+        verify(client, times(1)).applyConfiguration(
+                "10.0.0.1", 9001, diff.getHotApplicable());
+        verify(state, never()).applyConfig(any());
+
+        // The task is relabeled with the target config once it is applied.
+        applied.complete(true);
+        verify(state).applyConfig(daemon);
+        when(state.needsConfigUpdate(daemon)).thenReturn(false);
+        Assert.assertFalse(step.start().isPresent());
+        Assert.assertEquals(Status.COMPLETE, step.getStatus());
+        verify(persistentOfferRequirementProvider, never())
+                .getReplacementOfferRequirement(any());
+    }
+
+    @Test
+    public void testRelabelsTaskWhenNoSettingChanges() throws Exception {
+        final CassandraDaemonTask daemon = mock(CassandraDaemonTask.class);
+        final CassandraState state = runningNodeState(daemon,
+                ConfigDiff.create(CassandraConfig.DEFAULT,
+                        CassandraConfig.DEFAULT, false));
+        final SchedulerClient client = mock(SchedulerClient.class);
+        final CassandraDaemonStep step = CassandraDaemonStep.create(
+                "node-0", persistentOfferRequirementProvider, state, client);
+
+        Assert.assertFalse(step.start().isPresent());
+        verify(state).applyConfig(daemon);
+        verify(client, never()).applyConfiguration(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testRestartsForRestartRequiredConfig() throws Exception {
+        final CassandraDaemonTask daemon = mock(CassandraDaemonTask.class);
+        final CassandraState state = runningNodeState(daemon,
+                ConfigDiff.create(CassandraConfig.DEFAULT,
+                        CassandraConfig.DEFAULT.mutable()
+                                .setCpus(CassandraConfig.DEFAULT.getCpus() + 1)
+                                .build(),
+                        false));
+        final SchedulerClient client = mock(SchedulerClient.class);
+        final OfferRequirement mockOfferReq = mock(OfferRequirement.class);
+        when(persistentOfferRequirementProvider.getReplacementOfferRequirement(any()))
+                .thenReturn(Optional.of(mockOfferReq));
+        final CassandraDaemonStep step = CassandraDaemonStep.create(
+                "node-0", persistentOfferRequirementProvider, state, client);
+
+        Assert.assertEquals(mockOfferReq, step.start().get());
+        verify(state).reconfigureDaemon(daemon);
+        verify(client, never()).applyConfiguration(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testRestartsWhenApplyFails() throws Exception {
+        final CassandraDaemonTask daemon = mock(CassandraDaemonTask.class);
+        final ConfigDiff diff = hotApplicableDiff();
+        final CassandraState state = runningNodeState(daemon, diff);
+        final SchedulerClient client = mock(SchedulerClient.class);
+        final CompletableFuture<Boolean> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("PUT failed"));
+        when(client.applyConfiguration("10.0.0.1", 9001, diff.getHotApplicable()))
+                .thenReturn(failed);
+        final OfferRequirement mockOfferReq = mock(OfferRequirement.class);
+        when(persistentOfferRequirementProvider.getReplacementOfferRequirement(any()))
+                .thenReturn(Optional.of(mockOfferReq));
+        final CassandraDaemonStep step = CassandraDaemonStep.create(
+                "node-0", persistentOfferRequirementProvider, state, client);
+
+        Assert.assertFalse(step.start().isPresent());
+        // The failed apply falls back to reconfiguring the task.
+        Assert.assertEquals(mockOfferReq, step.start().get());
+        verify(state, never()).applyConfig(any());
+        verify(state).reconfigureDaemon(daemon);
+    }
+
     @Test
     public void testUpdateDataPresent() throws Exception {
         final String EXPECTED_NAME = "node-0";
@@ -70,6 +70,17 @@ public class BackupManagerTest {
         assertEquals(3, manager.getPhases().size());
     }
 
+    @Test
+    public void testInitialWithRetention() throws IOException {
+        final BackupRestoreContext context = BackupRestoreContext.create("", "", "", "", "", "", false, "")
+                .toBuilder().setRetainBackups(7).build();
+        when(mockState.fetchProperty(BackupManager.BACKUP_KEY)).thenReturn(
+                SerializationUtils.toJsonString(context).getBytes(StandardCharsets.UTF_8));
+        BackupManager manager = new BackupManager(mockCassandraState, mockProvider, mockState);
+        assertEquals(4, manager.getPhases().size());
+        assertEquals("Prune", manager.getPhases().get(3).getName());
+    }
+
     @Test
     public void testStartCompleteStop() {
         when(mockState.fetchProperty(BackupManager.BACKUP_KEY)).thenThrow(
@@ -0,0 +1,128 @@
+package com.mesosphere.dcos.cassandra.scheduler.plan.backup;
+
+import com.mesosphere.dcos.cassandra.common.offer.ClusterTaskOfferRequirementProvider;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.BackupRestoreContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupContext;
+import com.mesosphere.dcos.cassandra.common.tasks.backup.CopyBackupTask;
+import com.mesosphere.dcos.cassandra.scheduler.resources.CopyBackupRequest;
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.mesos.config.SerializationUtils;
+import org.apache.mesos.scheduler.plan.Phase;
+import org.apache.mesos.scheduler.plan.Step;
+import org.apache.mesos.state.StateStore;
+import org.apache.mesos.state.StateStoreException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CopyBackupManagerTest {
+    private static final String COPY_NODE_0 = "copybackup-node-0";
+    private static final String NODE_0 = "node-0";
+    private static final String NODE_1 = "node-1";
+
+    @Mock private ClusterTaskOfferRequirementProvider mockProvider;
+    @Mock private CassandraState mockCassandraState;
+    @Mock private StateStore mockState;
+
+    @Before
+    public void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testInitialNoState() {
+        when(mockState.fetchProperty(CopyBackupManager.COPY_BACKUP_KEY)).thenThrow(
+                new StateStoreException("no state found"));
+        CopyBackupManager manager = new CopyBackupManager(mockCassandraState, mockProvider, mockState);
+        assertFalse(manager.isComplete());
+        assertFalse(manager.isInProgress());
+        assertTrue(manager.getPhases().isEmpty());
+    }
+
+    @Test
+    public void testInitialWithState() throws IOException {
+        final BackupRestoreContext source =  BackupRestoreContext.create("", "", "", "", "", "", false, "");
+        final CopyBackupContext context = CopyBackupContext.create(source,
+                source.withExternalLocation("s3://destination", "", "", false));
+        when(mockState.fetchProperty(CopyBackupManager.COPY_BACKUP_KEY)).thenReturn(
+                SerializationUtils.toJsonString(context).getBytes(StandardCharsets.UTF_8));
+        CopyBackupManager manager = new CopyBackupManager(mockCassandraState, mockProvider, mockState);
+        assertTrue(manager.isComplete());
+        assertFalse(manager.isInProgress());
+        assertEquals(1, manager.getPhases().size());
+    }
+
+    @Test
+    public void testStartCompleteStart() throws Exception {
+        when(mockState.fetchProperty(CopyBackupManager.COPY_BACKUP_KEY)).thenThrow(
+                new StateStoreException("no state found"));
+        CopyBackupManager manager = new CopyBackupManager(mockCassandraState, mockProvider, mockState);
+
+        final CassandraDaemonTask daemonTask = Mockito.mock(CassandraDaemonTask.class);
+        Mockito.when(daemonTask.getState()).thenReturn(Protos.TaskState.TASK_RUNNING);
+        final HashMap<String, CassandraDaemonTask> map = new HashMap<>();
+        map.put(NODE_0, daemonTask);
+        map.put(NODE_1, Mockito.mock(CassandraDaemonTask.class));
+        when(mockCassandraState.getDaemons()).thenReturn(map);
+        when(mockCassandraState.get(COPY_NODE_0)).thenReturn(Optional.of(daemonTask));
+
+        manager.start(emptyRequest());
+
+        assertFalse(manager.isComplete());
+        assertTrue(manager.isInProgress());
+        assertEquals(1, manager.getPhases().size());
+        // The backups of all nodes are copied by the first node.
+        assertEquals(1, manager.getPhases().get(0).getChildren().size());
+        assertEquals(COPY_NODE_0, manager.getPhases().get(0).getChildren().get(0).getName());
+
+        Mockito.when(daemonTask.getState()).thenReturn(Protos.TaskState.TASK_FINISHED);
+        // notify steps to check for TASK_FINISHED:
+        for (Phase phase : manager.getPhases()) {
+            for (Step step : phase.getChildren()) {
+                step.update(TaskStatus.getDefaultInstance());
+            }
+        }
+
+        assertTrue(manager.isComplete());
+        assertFalse(manager.isInProgress());
+
+        final HashMap<String, CopyBackupTask> previousTasks = new HashMap<>();
+        previousTasks.put("hey", CopyBackupTask.parse(TaskInfo.getDefaultInstance()));
+        when(mockCassandraState.getCopyBackupTasks()).thenReturn(previousTasks);
+
+        manager.start(emptyRequest());
+
+        verify(mockCassandraState).remove(Collections.singleton("hey"));
+        assertFalse(manager.isComplete());
+        assertTrue(manager.isInProgress());
+        assertEquals(1, manager.getPhases().size());
+    }
+
+    private CopyBackupRequest emptyRequest() {
+        CopyBackupRequest request = new CopyBackupRequest();
+        request.setAzureAccount("");
+        request.setAzureKey("");
+        request.setExternalLocation("");
+        request.setName("");
+        request.setS3AccessKey("");
+        request.setS3SecretKey("");
+        request.setDestinationLocation("");
+        return request;
+    }
+}
@@ -26,10 +26,13 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.verify;
@@ -196,6 +199,46 @@ public class RestoreManagerTest {
         assertTrue(manager.getPhases().isEmpty());
     }
 
+    @Test
+    public void testAssignSourceNodes() {
+        final List<String> sources = Arrays.asList("node-0", "node-1", "node-2", "node-3", "node-4");
+        final Map<String, List<String>> assignments =
+                RestoreManager.assignSourceNodes(sources, Arrays.asList("node-0", "node-1"));
+        assertEquals(Arrays.asList("node-0", "node-2", "node-4"), assignments.get("node-0"));
+        assertEquals(Arrays.asList("node-1", "node-3"), assignments.get("node-1"));
+
+        // Nodes beyond the size of the backed up cluster restore nothing.
+        assertEquals(Arrays.asList("node-0", "node-1"), RestoreManager.assignSourceNodes(
+                sources.subList(0, 2), Arrays.asList("node-0", "node-1", "node-2"))
+                .keySet().stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testStartWithSourceNodes() {
+        when(mockState.fetchProperty(RestoreManager.RESTORE_KEY)).thenThrow(
+                new StateStoreException("no state found"));
+        RestoreManager manager = new RestoreManager(mockCassandraState, mockProvider, mockState);
+
+        final CassandraDaemonTask daemonTask = Mockito.mock(CassandraDaemonTask.class);
+        Mockito.when(daemonTask.getState()).thenReturn(Protos.TaskState.TASK_RUNNING);
+        final HashMap<String, CassandraDaemonTask> map = new HashMap<>();
+        map.put(NODE_0, daemonTask);
+        map.put("node-1", daemonTask);
+        map.put("node-2", daemonTask);
+        when(mockCassandraState.getDaemons()).thenReturn(map);
+
+        final BackupRestoreRequest request = emptyRequest();
+        request.setRestoreType("new");
+        request.setSourceNodes(2);
+        manager.start(request);
+
+        assertEquals(3, manager.getPhases().size());
+        // Only the nodes that restore a source node restore its schema.
+        assertEquals(2, manager.getPhases().get(0).getChildren().size());
+        assertEquals(2, manager.getPhases().get(1).getChildren().size());
+        assertEquals(2, manager.getPhases().get(2).getChildren().size());
+    }
+
     private BackupRestoreRequest emptyRequest() {
         BackupRestoreRequest request = new BackupRestoreRequest();
         request.setAzureAccount("");
@@ -0,0 +1,137 @@
+package com.mesosphere.dcos.cassandra.scheduler.plan.repair;
+
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraDaemonTask;
+import com.mesosphere.dcos.cassandra.common.tasks.CassandraState;
+import com.mesosphere.dcos.cassandra.scheduler.resources.RepairRequest;
+import org.apache.mesos.config.SerializationUtils;
+import org.apache.mesos.state.StateStore;
+import org.apache.mesos.state.StateStoreException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class RepairSchedulerTest {
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    @Mock private RepairManager manager;
+    @Mock private CassandraState cassandraState;
+    @Mock private StateStore stateStore;
+    @Mock private ScheduledExecutorService executor;
+
+    private static RepairSchedule schedule(final boolean enabled,
+                                           final long lastStartMs,
+                                           final long lastCompletedMs) {
+        return RepairSchedule.create(enabled, 24L, Arrays.asList("ks"),
+                null, 2, null, null, 50L, lastStartMs, lastCompletedMs);
+    }
+
+    @Before
+    public void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        final Map<String, CassandraDaemonTask> daemons = new HashMap<>();
+        daemons.put("node-0", null);
+        daemons.put("node-1", null);
+        daemons.put("node-2", null);
+        Mockito.when(cassandraState.getDaemons()).thenReturn(daemons);
+    }
+
+    private RepairScheduler create(final RepairSchedule stored)
+            throws Exception {
+        if (stored == null) {
+            Mockito.when(stateStore.fetchProperty(
+                    RepairScheduler.SCHEDULE_KEY)).thenThrow(
+                    new StateStoreException("no state found"));
+        } else {
+            Mockito.when(stateStore.fetchProperty(
+                    RepairScheduler.SCHEDULE_KEY)).thenReturn(
+                    SerializationUtils.toJsonString(stored)
+                            .getBytes(StandardCharsets.UTF_8));
+        }
+        return new RepairScheduler(manager, cassandraState, stateStore,
+                executor);
+    }
+
+    @Test
+    public void testDisabledWithoutSchedule() throws Exception {
+        final RepairScheduler scheduler = create(null);
+        Assert.assertEquals(RepairSchedule.DISABLED, scheduler.getSchedule());
+        scheduler.run(HOUR_MS);
+        Mockito.verify(manager, Mockito.never()).start(Mockito.any());
+    }
+
+    @Test
+    public void testStartsRepairPacedOverTheCycle() throws Exception {
+        final RepairScheduler scheduler = create(schedule(true, 0, 0));
+        scheduler.run(HOUR_MS);
+        final ArgumentCaptor<RepairRequest> request =
+                ArgumentCaptor.forClass(RepairRequest.class);
+        Mockito.verify(manager).start(request.capture());
+        Assert.assertEquals(Arrays.asList(RepairRequest.ALL),
+                request.getValue().getNodes());
+        Assert.assertEquals(Arrays.asList("ks"),
+                request.getValue().getKeySpaces());
+        // Three nodes share three quarters of a day.
+        Assert.assertEquals(6 * HOUR_MS,
+                (long) request.getValue().getDurationPerNodeMs());
+        Assert.assertEquals(50L, (long) request.getValue().getMaxLatencyMs());
+        // Scheduled repairs are segmented, so that they can be paced.
+        Assert.assertEquals(RepairSchedule.DEFAULT_PARTITIONS_PER_SEGMENT,
+                (long) request.getValue().getPartitionsPerSegment());
+        Assert.assertEquals(HOUR_MS, scheduler.getSchedule().getLastStartMs());
+        Assert.assertEquals(25 * HOUR_MS,
+                scheduler.getSchedule().getNextStartMs());
+        Mockito.verify(stateStore).storeProperty(
+                Mockito.eq(RepairScheduler.SCHEDULE_KEY), Mockito.any());
+    }
+
+    @Test
+    public void testRecordsCompletionAndWaitsForTheCycle() throws Exception {
+        final RepairScheduler scheduler = create(schedule(true, HOUR_MS, 0));
+        Mockito.when(manager.isComplete()).thenReturn(true);
+        scheduler.run(10 * HOUR_MS);
+        Assert.assertEquals(10 * HOUR_MS,
+                scheduler.getSchedule().getLastCompletedMs());
+        Mockito.verify(manager, Mockito.never()).start(Mockito.any());
+
+        scheduler.run(25 * HOUR_MS);
+        Mockito.verify(manager).start(Mockito.any());
+        Assert.assertTrue(scheduler.getSchedule().isRunning());
+    }
+
+    @Test
+    public void testDoesNotStartWhileARepairIsInProgress() throws Exception {
+        final RepairScheduler scheduler = create(schedule(true, 0, 0));
+        Mockito.when(manager.isInProgress()).thenReturn(true);
+        scheduler.run(HOUR_MS);
+        Mockito.verify(manager, Mockito.never()).start(Mockito.any());
+        Assert.assertEquals(0, scheduler.getSchedule().getLastStartMs());
+    }
+
+    @Test
+    public void testUpdateKeepsTheLastStart() throws Exception {
+        final RepairScheduler scheduler = create(schedule(false, HOUR_MS, 0));
+        final RepairSchedule updated = scheduler.update(
+                RepairSchedule.create(true, 48L, null, "parallel", null, null,
+                        null, null, 0, 0));
+        Assert.assertTrue(updated.isEnabled());
+        Assert.assertEquals(HOUR_MS, updated.getLastStartMs());
+        Assert.assertEquals(49 * HOUR_MS, updated.getNextStartMs());
+        Assert.assertEquals(RepairSchedule.DEFAULT_MAX_PENDING_COMPACTIONS,
+                updated.getMaxPendingCompactions());
+        Assert.assertFalse(RepairSchedule.create(true, 0L, null, null, null,
+                null, null, null, 0, 0).isValid());
+        Assert.assertFalse(RepairSchedule.create(true, null, null, "fast",
+                null, null, null, null, 0, 0).isValid());
+    }
+}
@@ -38,6 +38,103 @@ class BackupRestoreRequestSpec extends Specification {
     "name" | "azure:"         | ""           | ""       || true
   }
 
+  def "valid file backup request check"() {
+
+    given:
+    def request = new BackupRestoreRequest(name: name, externalLocation: externalLocation)
+
+    expect:
+    request.isValid() == valid
+
+    where:
+    name   | externalLocation      || valid
+    ""     | "file:///mnt/backup"  || false
+    null   | "file:///mnt/backup"  || false
+    "name" | "/mnt/backup"         || false
+    "name" | "file:///mnt/backup"  || true
+  }
+
+  def "file backup request has no credentials"() {
+
+    when:
+    def context = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup").toContext()
+
+    then:
+    context.accountId == ""
+    context.secretKey == ""
+  }
+
+  def "backup request selects key spaces and column families"() {
+
+    when:
+    def context = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup",
+            keySpaces: ["ks"], columnFamilies: ["cf"]).toContext()
+
+    then:
+    context.keySpaces == ["ks"]
+    context.columnFamilies == ["cf"]
+
+    when:
+    context = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup").toContext()
+
+    then:
+    context.keySpaces.isEmpty()
+    context.columnFamilies.isEmpty()
+  }
+
+  def "backup request sets the retention policy"() {
+
+    when:
+    def request = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup",
+            retainBackups: 7, retainDays: 30)
+    def context = request.toContext()
+
+    then:
+    request.isValid()
+    context.retainBackups == 7
+    context.retainDays == 30
+    context.hasRetentionPolicy()
+
+    when:
+    context = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup").toContext()
+
+    then:
+    !context.hasRetentionPolicy()
+
+    when:
+    request = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup", retainDays: -1)
+
+    then:
+    !request.isValid()
+  }
+
+  def "restore request spreads source nodes"() {
+
+    when:
+    def request = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup",
+            restoreType: "new", sourceNodes: 3)
+    def context = request.toContext()
+
+    then:
+    request.isValid()
+    context.sourceNodes == ["node-0", "node-1", "node-2"]
+    context.hasSourceNodes()
+
+    when:
+    context = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup").toContext()
+
+    then:
+    context.sourceNodes.isEmpty()
+    context.forNode("node-1").restoredNodes == ["node-1"]
+
+    when:
+    request = new BackupRestoreRequest(name: "name", externalLocation: "file:///mnt/backup",
+            restoreType: "existing", sourceNodes: 3)
+
+    then:
+    !request.isValid()
+  }
+
   def "invalid combinations of requests"() {
 
     when:
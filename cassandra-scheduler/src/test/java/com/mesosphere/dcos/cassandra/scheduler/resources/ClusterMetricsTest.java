@@ -0,0 +1,180 @@
+package com.mesosphere.dcos.cassandra.scheduler.resources;
+
+import com.google.common.collect.ImmutableMap;
+import com.mesosphere.dcos.cassandra.common.metrics.LatencyHistogram;
+import com.mesosphere.dcos.cassandra.common.metrics.NodeMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ClusterMetricsTest {
+
+    private static final long[] OFFSETS =
+            LatencyHistogram.offsets(LatencyHistogram.BUCKETS);
+
+    /**
+     * Gets the bucket of the Cassandra histogram that counts a latency.
+     *
+     * @param nanos The latency as recorded by the timer, in nanoseconds.
+     */
+    private static int bucket(final long nanos) {
+        final int index = Arrays.binarySearch(OFFSETS, nanos);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long[] buckets(final long nanos, final long count) {
+        final long[] buckets = new long[LatencyHistogram.BUCKETS + 1];
+        buckets[bucket(nanos)] = count;
+        return buckets;
+    }
+
+    private static NodeMetrics node(final long[] readBuckets,
+                                    final double readP99,
+                                    final long pendingCompactions,
+                                    final long droppedMutations) {
+        return NodeMetrics.create(1000,
+                ImmutableMap.of("read", NodeMetrics.Latency.create(
+                        100, 0, 0, 1.0, 0, 0, 0, readP99, 0, readP99,
+                        readBuckets)),
+                pendingCompactions,
+                0,
+                null,
+                ImmutableMap.of("MUTATION", droppedMutations),
+                null);
+    }
+
+    @Test
+    public void testOffsetsMatchCassandra() {
+        Assert.assertEquals(1, OFFSETS[0]);
+        Assert.assertEquals(2, OFFSETS[1]);
+        Assert.assertEquals(3, OFFSETS[2]);
+        Assert.assertEquals(4, OFFSETS[3]);
+        Assert.assertEquals(5, OFFSETS[4]);
+        Assert.assertEquals(6, OFFSETS[5]);
+        Assert.assertEquals(7, OFFSETS[6]);
+        Assert.assertEquals(8, OFFSETS[7]);
+        Assert.assertEquals(10, OFFSETS[8]);
+        Assert.assertEquals(12, OFFSETS[9]);
+        Assert.assertEquals(25109160L, OFFSETS[89]);
+        Assert.assertEquals(18165375903306L, OFFSETS[OFFSETS.length - 1]);
+    }
+
+    @Test
+    public void testMergesHistogramsRatherThanAveragingPercentiles() {
+        // Nine fast nodes and one slow node: the cluster percentiles are
+        // those of all the requests, not averages of the node percentiles.
+        final Map<String, NodeMetrics> nodes = new HashMap<>();
+        // Fast requests take 1 ms and slow requests 100 ms, the timers
+        // record them in nanoseconds, JMX reports max in microseconds.
+        for (int i = 0; i < 9; i++) {
+            nodes.put("node-" + i, node(buckets(1000000, 1000), 1000, 0, 0));
+        }
+        final long[] slow = buckets(1000000, 900);
+        slow[bucket(100000000)] = 100;
+        nodes.put("node-9", node(slow, 100000, 0, 0));
+
+        final ClusterMetrics metrics = ClusterMetrics.create(1000, nodes,
+                Collections.emptyList());
+        final ClusterMetrics.Latency read = metrics.getLatencies().get("read");
+        Assert.assertEquals(10000, read.getCount());
+        Assert.assertEquals(10, read.getNodes());
+        // The percentiles are the upper bounds of the buckets, in
+        // microseconds.
+        Assert.assertEquals(1131, read.getP50());
+        // 100 of 10000 requests are slow, so p99 is still fast but p999 is
+        // slow.
+        Assert.assertEquals(1131, read.getP99());
+        Assert.assertEquals(107964, read.getP999());
+        Assert.assertEquals(100000, read.getMax(), 0.0);
+    }
+
+    @Test
+    public void testSkipsNodesWithoutBuckets() {
+        final ClusterMetrics metrics = ClusterMetrics.create(1000,
+                ImmutableMap.of(
+                        "node-0", node(buckets(OFFSETS[10], 10), 0, 0, 0),
+                        "node-1", node(null, 0, 0, 0)),
+                Collections.emptyList());
+        Assert.assertEquals(1, metrics.getLatencies().get("read").getNodes());
+        Assert.assertEquals(10,
+                metrics.getLatencies().get("read").getCount());
+        Assert.assertEquals(2, metrics.getNodes().size());
+    }
+
+    @Test
+    public void testFindsOutliers() {
+        final Map<String, NodeMetrics> nodes = new HashMap<>();
+        nodes.put("node-0", node(null, 1000, 2, 0));
+        nodes.put("node-1", node(null, 1100, 3, 10));
+        nodes.put("node-2", node(null, 900, 4, 0));
+        nodes.put("node-3", node(null, 50000, 80, 5000));
+        final ClusterMetrics metrics = ClusterMetrics.create(1000, nodes,
+                Collections.singletonList("node-4"));
+        Assert.assertEquals(89, metrics.getPendingCompactions());
+        Assert.assertEquals(5010, metrics.getDroppedMutations());
+        Assert.assertEquals(Collections.singletonList("node-4"),
+                metrics.getUnreachable());
+        Assert.assertEquals(3, metrics.getOutliers().size());
+        for (ClusterMetrics.Outlier outlier : metrics.getOutliers()) {
+            Assert.assertEquals("node-3", outlier.getNode());
+        }
+        Assert.assertEquals("pending_compactions",
+                metrics.getOutliers().get(0).getMetric());
+        Assert.assertEquals(4, metrics.getOutliers().get(0).getMedian());
+    }
+
+    @Test
+    public void testNoOutliersInSmallClusters() {
+        final ClusterMetrics metrics = ClusterMetrics.create(1000,
+                ImmutableMap.of(
+                        "node-0", node(null, 0, 0, 0),
+                        "node-1", node(null, 0, 1000, 1000)),
+                Collections.emptyList());
+        Assert.assertTrue(metrics.getOutliers().isEmpty());
+    }
+
+    @Test
+    public void testCachesAndSharesFanOut() {
+        final AtomicInteger fanOuts = new AtomicInteger();
+        final AtomicLong now = new AtomicLong(0);
+        final CompletableFuture<NodeMetrics> pending =
+                new CompletableFuture<>();
+        final ClusterMetricsResource resource = new ClusterMetricsResource(
+                () -> {
+                    fanOuts.incrementAndGet();
+                    final Map<String, CompletionStage<NodeMetrics>> nodes =
+                            new HashMap<>();
+                    nodes.put("node-0", pending);
+                    final CompletableFuture<NodeMetrics> failed =
+                            new CompletableFuture<>();
+                    failed.completeExceptionally(new Exception("refused"));
+                    nodes.put("node-1", failed);
+                    return nodes;
+                },
+                now::get,
+                5000);
+        final CompletableFuture<ClusterMetrics> first = resource.get();
+        Assert.assertSame(first, resource.get());
+        Assert.assertFalse(first.isDone());
+        pending.complete(node(buckets(OFFSETS[10], 10), 0, 0, 0));
+        final ClusterMetrics metrics = first.join();
+        Assert.assertEquals(1, metrics.getNodes().size());
+        Assert.assertEquals(Collections.singletonList("node-1"),
+                metrics.getUnreachable());
+
+        now.set(4999);
+        Assert.assertSame(first, resource.get());
+        Assert.assertEquals(1, fanOuts.get());
+        now.set(5000);
+        Assert.assertNotSame(first, resource.get());
+        Assert.assertEquals(2, fanOuts.get());
+    }
+}
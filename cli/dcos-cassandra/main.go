@@ -168,9 +168,14 @@ type BackupRestoreHandler struct {
 	s3SecretKey string
 	azureAccount string
 	azureKey string
+	restoreType string
+	sourceNodes int
+	destinationLocation string
+	destinationS3AccessKey string
+	destinationS3SecretKey string
 }
 func (cmd *BackupRestoreHandler) getArgs() map[string]interface{} {
-	return map[string]interface{} {
+	args := map[string]interface{} {
 		"backup_name": cmd.backupName,
 		"external_location": cmd.externalLocation,
 		"s3_access_key": cmd.s3AccessKey,
@@ -178,6 +183,20 @@ func (cmd *BackupRestoreHandler) getArgs() map[string]interface{} {
 		"azure_account": cmd.azureAccount,
 		"azure_key": cmd.azureKey,
 	}
+	if len(cmd.restoreType) != 0 {
+		args["restore_type"] = cmd.restoreType
+	}
+	if cmd.sourceNodes > 0 {
+		args["source_nodes"] = cmd.sourceNodes
+	}
+	if len(cmd.destinationLocation) != 0 {
+		args["destination_location"] = cmd.destinationLocation
+	}
+	if len(cmd.destinationS3AccessKey) != 0 {
+		args["destination_s3_access_key"] = cmd.destinationS3AccessKey
+		args["destination_s3_secret_key"] = cmd.destinationS3SecretKey
+	}
+	return args
 }
 func (cmd *BackupRestoreHandler) runBackup(c *kingpin.ParseContext) error {
 	payload, err := json.Marshal(cmd.getArgs())
@@ -191,6 +210,34 @@ func (cmd *BackupRestoreHandler) runBackupStop(c *kingpin.ParseContext) error {
 	cli.HTTPPut("v1/backup/stop")
 	return nil
 }
+func (cmd *BackupRestoreHandler) runBackupProgress(c *kingpin.ParseContext) error {
+	cli.PrintJSON(cli.HTTPGet("v1/backup/status"))
+	return nil
+}
+func (cmd *BackupRestoreHandler) runVerify(c *kingpin.ParseContext) error {
+	payload, err := json.Marshal(cmd.getArgs())
+	if err != nil {
+		return err
+	}
+	cli.HTTPPutJSON("v1/verify/start", string(payload))
+	return nil
+}
+func (cmd *BackupRestoreHandler) runCopy(c *kingpin.ParseContext) error {
+	payload, err := json.Marshal(cmd.getArgs())
+	if err != nil {
+		return err
+	}
+	cli.HTTPPutJSON("v1/backup/copy/start", string(payload))
+	return nil
+}
+func (cmd *BackupRestoreHandler) runCopyStop(c *kingpin.ParseContext) error {
+	cli.HTTPPut("v1/backup/copy/stop")
+	return nil
+}
+func (cmd *BackupRestoreHandler) runCopyProgress(c *kingpin.ParseContext) error {
+	cli.PrintJSON(cli.HTTPGet("v1/backup/copy/status"))
+	return nil
+}
 func (cmd *BackupRestoreHandler) runRestore(c *kingpin.ParseContext) error {
 	payload, err := json.Marshal(cmd.getArgs())
 	if err != nil {
@@ -203,6 +250,10 @@ func (cmd *BackupRestoreHandler) runRestoreStop(c *kingpin.ParseContext) error {
 	cli.HTTPPut("v1/restore/stop")
 	return nil
 }
+func (cmd *BackupRestoreHandler) runRestoreProgress(c *kingpin.ParseContext) error {
+	cli.PrintJSON(cli.HTTPGet("v1/restore/status"))
+	return nil
+}
 func handleBackupRestoreSections(app *kingpin.Application, serviceName string) {
 	cmd := &BackupRestoreHandler{}
 	planCmd := &cli.PlanHandler{}
@@ -224,6 +275,32 @@ func handleBackupRestoreSections(app *kingpin.Application, serviceName string) {
 	backup.Command(
 		"status",
 		"Displays the status of the backup").Action(planCmd.RunShow)
+	backup.Command(
+		"progress",
+		"Displays the transfer progress of each node of the backup").Action(cmd.runBackupProgress)
+	backupVerify := backup.Command(
+		"verify",
+		"Verifies the stored files of a backup without downloading them").Action(cmd.runVerify)
+	backupVerify.Flag("backup_name", "Name of the snapshot to verify").StringVar(&cmd.backupName)
+	backupVerify.Flag("external_location", "External location where the snapshot is stored").StringVar(&cmd.externalLocation)
+	backupVerify.Flag("s3_access_key", "S3 access key").StringVar(&cmd.s3AccessKey)
+	backupVerify.Flag("s3_secret_key", "S3 secret key").StringVar(&cmd.s3SecretKey)
+	backupCopy := backup.Command(
+		"copy",
+		"Copies a backup to a second external location without transferring its files through the cluster").Action(cmd.runCopy)
+	backupCopy.Flag("backup_name", "Name of the snapshot to copy").StringVar(&cmd.backupName)
+	backupCopy.Flag("external_location", "External location where the snapshot is stored").StringVar(&cmd.externalLocation)
+	backupCopy.Flag("s3_access_key", "S3 access key").StringVar(&cmd.s3AccessKey)
+	backupCopy.Flag("s3_secret_key", "S3 secret key").StringVar(&cmd.s3SecretKey)
+	backupCopy.Flag("destination_location", "External location the snapshot is copied to").StringVar(&cmd.destinationLocation)
+	backupCopy.Flag("destination_s3_access_key", "S3 access key of the destination, defaults to s3_access_key").StringVar(&cmd.destinationS3AccessKey)
+	backupCopy.Flag("destination_s3_secret_key", "S3 secret key of the destination, defaults to s3_secret_key").StringVar(&cmd.destinationS3SecretKey)
+	backup.Command(
+		"copy-stop",
+		"Stops a currently running copy of a backup").Action(cmd.runCopyStop)
+	backup.Command(
+		"copy-progress",
+		"Displays the progress of the copy of a backup").Action(cmd.runCopyProgress)
 
 	restore := app.Command("restore", fmt.Sprintf("Restore %s cluster from backup", serviceName))
 	restoreStart := restore.Command(
@@ -235,6 +312,8 @@ func handleBackupRestoreSections(app *kingpin.Application, serviceName string) {
 	restoreStart.Flag("s3_secret_key", "S3 secret key").StringVar(&cmd.s3SecretKey)
 	restoreStart.Flag("azure_account", "Azure storage account").StringVar(&cmd.azureAccount)
 	restoreStart.Flag("azure_key", "Azure secret key").StringVar(&cmd.azureKey)
+	restoreStart.Flag("restore_type", "Restore to a 'new' or an 'existing' cluster").StringVar(&cmd.restoreType)
+	restoreStart.Flag("source_nodes", "Number of nodes of the backed up cluster, spreads their backups across the nodes of a 'new' cluster of a different size").IntVar(&cmd.sourceNodes)
 	restore.Command(
 		"stop",
 		"Stops a currently running restore").Action(cmd.runRestoreStop)
@@ -242,6 +321,9 @@ func handleBackupRestoreSections(app *kingpin.Application, serviceName string) {
 	restore.Command(
 		"status",
 		"Displays the status of the restore").Action(planCmd.RunShow)
+	restore.Command(
+		"progress",
+		"Displays the transfer progress of each node of the restore").Action(cmd.runRestoreProgress)
 }
 
 // Reuse same struct for both 'cleanup start' and 'repair start' (same args)
@@ -249,6 +331,15 @@ type CleanupRepairHandler struct {
 	nodes string
 	keySpaces string
 	columnFamilies string
+	parallelism string
+	parallelSegments int
+	partitionsPerSegment string
+	durationPerNodeMs int64
+	maxPendingCompactions int64
+	maxLatencyMs int64
+	jobs int
+	parallelKeySpaces int
+	compactionThroughput string
 }
 func (cmd *CleanupRepairHandler) getArgs() map[string]interface{} {
 	nodesList := []string{}
@@ -272,7 +363,21 @@ func (cmd *CleanupRepairHandler) getArgs() map[string]interface{} {
 	return dict
 }
 func (cmd *CleanupRepairHandler) runCleanup(c *kingpin.ParseContext) error {
-	payload, err := json.Marshal(cmd.getArgs())
+	args := cmd.getArgs()
+	if cmd.jobs > 0 {
+		args["jobs"] = cmd.jobs
+	}
+	if cmd.parallelKeySpaces > 0 {
+		args["parallel_key_spaces"] = cmd.parallelKeySpaces
+	}
+	if len(cmd.compactionThroughput) != 0 {
+		throughput, err := strconv.Atoi(cmd.compactionThroughput)
+		if err != nil {
+			return err
+		}
+		args["compaction_throughput_mb_per_sec"] = throughput
+	}
+	payload, err := json.Marshal(args)
 	if err != nil {
 		return err
 	}
@@ -284,7 +389,30 @@ func (cmd *CleanupRepairHandler) runCleanupStop(c *kingpin.ParseContext) error {
 	return nil
 }
 func (cmd *CleanupRepairHandler) runRepair(c *kingpin.ParseContext) error {
-	payload, err := json.Marshal(cmd.getArgs())
+	args := cmd.getArgs()
+	if len(cmd.parallelism) != 0 {
+		args["parallelism"] = cmd.parallelism
+	}
+	if cmd.parallelSegments > 0 {
+		args["parallel_segments"] = cmd.parallelSegments
+	}
+	if len(cmd.partitionsPerSegment) != 0 {
+		partitions, err := strconv.ParseInt(cmd.partitionsPerSegment, 10, 64)
+		if err != nil {
+			return err
+		}
+		args["partitions_per_segment"] = partitions
+	}
+	if cmd.durationPerNodeMs > 0 {
+		args["duration_per_node_ms"] = cmd.durationPerNodeMs
+	}
+	if cmd.maxPendingCompactions > 0 {
+		args["max_pending_compactions"] = cmd.maxPendingCompactions
+	}
+	if cmd.maxLatencyMs > 0 {
+		args["max_latency_ms"] = cmd.maxLatencyMs
+	}
+	payload, err := json.Marshal(args)
 	if err != nil {
 		return err
 	}
@@ -295,6 +423,77 @@ func (cmd *CleanupRepairHandler) runRepairStop(c *kingpin.ParseContext) error {
 	cli.HTTPPut("v1/repair/stop")
 	return nil
 }
+func (cmd *CleanupRepairHandler) runRepairProgress(c *kingpin.ParseContext) error {
+	cli.PrintJSON(cli.HTTPGet("v1/repair/status"))
+	return nil
+}
+
+type RepairScheduleHandler struct {
+	cycleHours int64
+	keySpaces string
+	parallelism string
+	parallelSegments int
+	partitionsPerSegment string
+	maxPendingCompactions string
+	maxLatencyMs int64
+}
+func (cmd *RepairScheduleHandler) runShow(c *kingpin.ParseContext) error {
+	cli.PrintJSON(cli.HTTPGet("v1/repair/schedule"))
+	return nil
+}
+func (cmd *RepairScheduleHandler) runEnable(c *kingpin.ParseContext) error {
+	args := map[string]interface{} {"enabled": true}
+	if cmd.cycleHours > 0 {
+		args["cycle_hours"] = cmd.cycleHours
+	}
+	if len(cmd.keySpaces) != 0 {
+		args["key_spaces"] = strings.Split(cmd.keySpaces, ",")
+	}
+	if len(cmd.parallelism) != 0 {
+		args["parallelism"] = cmd.parallelism
+	}
+	if cmd.parallelSegments > 0 {
+		args["parallel_segments"] = cmd.parallelSegments
+	}
+	if len(cmd.partitionsPerSegment) != 0 {
+		partitions, err := strconv.ParseInt(cmd.partitionsPerSegment, 10, 64)
+		if err != nil {
+			return err
+		}
+		args["partitions_per_segment"] = partitions
+	}
+	if len(cmd.maxPendingCompactions) != 0 {
+		compactions, err := strconv.ParseInt(cmd.maxPendingCompactions, 10, 64)
+		if err != nil {
+			return err
+		}
+		args["max_pending_compactions"] = compactions
+	}
+	if cmd.maxLatencyMs > 0 {
+		args["max_latency_ms"] = cmd.maxLatencyMs
+	}
+	payload, err := json.Marshal(args)
+	if err != nil {
+		return err
+	}
+	cli.PrintJSON(cli.HTTPPutJSON("v1/repair/schedule", string(payload)))
+	return nil
+}
+func (cmd *RepairScheduleHandler) runDisable(c *kingpin.ParseContext) error {
+	// Keep the configuration of the schedule so that it can be enabled again.
+	var schedule map[string]interface{}
+	err := json.Unmarshal(cli.GetResponseBytes(cli.HTTPGet("v1/repair/schedule")), &schedule)
+	if err != nil {
+		return err
+	}
+	schedule["enabled"] = false
+	payload, err := json.Marshal(schedule)
+	if err != nil {
+		return err
+	}
+	cli.PrintJSON(cli.HTTPPutJSON("v1/repair/schedule", string(payload)))
+	return nil
+}
 func handleCleanupRepairSections(app *kingpin.Application) {
 	cmd := &CleanupRepairHandler{}
 
@@ -305,6 +504,9 @@ func handleCleanupRepairSections(app *kingpin.Application) {
 	cleanupStart.Flag("nodes", "A list of the nodes to cleanup or * for all.").Default("*").StringVar(&cmd.nodes)
 	cleanupStart.Flag("key_spaces", "The key spaces to cleanup or empty for all.").StringVar(&cmd.keySpaces)
 	cleanupStart.Flag("column_families", "The column families to cleanup.").StringVar(&cmd.columnFamilies)
+	cleanupStart.Flag("jobs", "The number of SSTables of a key space cleaned at a time (default all compaction threads).").IntVar(&cmd.jobs)
+	cleanupStart.Flag("parallel_key_spaces", "The number of key spaces each node cleans at a time, as free disk space allows (default 1).").IntVar(&cmd.parallelKeySpaces)
+	cleanupStart.Flag("compaction_throughput_mb_per_sec", "The compaction throughput of each node while it cleans, 0 for unthrottled (default unchanged).").StringVar(&cmd.compactionThroughput)
 	cleanup.Command(
 		"stop",
 		"Stops a currently running cleanup").Action(cmd.runCleanupStop)
@@ -316,9 +518,37 @@ func handleCleanupRepairSections(app *kingpin.Application) {
 	repairStart.Flag("nodes", "A list of the nodes to repair or * for all.").Default("*").StringVar(&cmd.nodes)
 	repairStart.Flag("key_spaces", "The key spaces to repair or empty for all.").StringVar(&cmd.keySpaces)
 	repairStart.Flag("column_families", "The column families to repair.").StringVar(&cmd.columnFamilies)
+	repairStart.Flag("parallelism", "How the replicas of a segment are repaired: sequential (default), dc_parallel or parallel.").EnumVar(&cmd.parallelism, "sequential", "dc_parallel", "parallel")
+	repairStart.Flag("parallel_segments", "The number of segments each node repairs at a time (default 1).").IntVar(&cmd.parallelSegments)
+	repairStart.Flag("partitions_per_segment", "The estimated number of partitions of a segment (default 100000), 0 to repair whole primary ranges incrementally.").StringVar(&cmd.partitionsPerSegment)
+	repairStart.Flag("duration_per_node_ms", "The time over which each node spreads its segments, 0 (default) to repair as fast as possible.").Int64Var(&cmd.durationPerNodeMs)
+	repairStart.Flag("max_pending_compactions", "The pending compactions above which a node pauses its repair, 0 (default) for no limit.").Int64Var(&cmd.maxPendingCompactions)
+	repairStart.Flag("max_latency_ms", "The p99 client read or write latency above which a node pauses its repair, 0 (default) for no limit.").Int64Var(&cmd.maxLatencyMs)
 	repair.Command(
 		"stop",
 		"Stops a currently running repair").Action(cmd.runRepairStop)
+	repair.Command(
+		"progress",
+		"Displays the segments repaired by each node").Action(cmd.runRepairProgress)
+
+	scheduleCmd := &RepairScheduleHandler{}
+	schedule := repair.Command("schedule", "Manage the continuous repair of the cluster")
+	schedule.Command(
+		"show",
+		"Displays the repair schedule and the times of the last scheduled repair").Action(scheduleCmd.runShow)
+	scheduleEnable := schedule.Command(
+		"enable",
+		"Repairs all the nodes every cycle, replacing the configuration of the schedule").Action(scheduleCmd.runEnable)
+	scheduleEnable.Flag("cycle_hours", "The hours between the starts of two repairs, less than gc_grace_seconds (default 216).").Int64Var(&scheduleCmd.cycleHours)
+	scheduleEnable.Flag("key_spaces", "A comma separated list of the key spaces to repair or empty for all.").StringVar(&scheduleCmd.keySpaces)
+	scheduleEnable.Flag("parallelism", "How the replicas of a segment are repaired: sequential (default), dc_parallel or parallel.").EnumVar(&scheduleCmd.parallelism, "sequential", "dc_parallel", "parallel")
+	scheduleEnable.Flag("parallel_segments", "The number of segments each node repairs at a time (default 1).").IntVar(&scheduleCmd.parallelSegments)
+	scheduleEnable.Flag("partitions_per_segment", "The estimated number of partitions of a segment (default 100000).").StringVar(&scheduleCmd.partitionsPerSegment)
+	scheduleEnable.Flag("max_pending_compactions", "The pending compactions above which a node pauses its repair (default 100), 0 for no limit.").StringVar(&scheduleCmd.maxPendingCompactions)
+	scheduleEnable.Flag("max_latency_ms", "The p99 client read or write latency above which a node pauses its repair, 0 (default) for no limit.").Int64Var(&scheduleCmd.maxLatencyMs)
+	schedule.Command(
+		"disable",
+		"Stops starting scheduled repairs, a repair in progress continues").Action(scheduleCmd.runDisable)
 }
 func sliceContains(stringSlice []string, searchString string) bool {
 	for _, value := range stringSlice {